@@ -0,0 +1,62 @@
+package com.kusand.graphview;
+
+/**
+ * A marker, x range or horizontal band that is drawn over the series, e.g. an alarm, an event or a threshold.
+ * Add it to the {@link AnnotationLayer} of a graph. Bands are scaled to the primary y axis.
+ */
+public class Annotation {
+    public enum Type {
+        /**
+         * vertical line at one x value
+         */
+        MARKER,
+        /**
+         * shaded x range over the whole height of the graph
+         */
+        X_RANGE,
+        /**
+         * shaded y range over the whole width of the graph
+         */
+        BAND
+    }
+
+    public final Type type;
+    public final double from;
+    public final double to;
+    public final int color;
+    public final String label;
+    /**
+     * user data, e.g. the id of the event
+     */
+    public final Object tag;
+
+    /**
+     * @param from start of the range, x for markers and x ranges, y for bands
+     * @param to end of the range, the same as from for markers
+     * @param color ARGB, ranges and bands should be translucent
+     * @param label text at the top of markers and ranges or at the left of bands, may be null
+     */
+    public Annotation(Type type, double from, double to, int color, String label, Object tag) {
+        if (to < from) {
+            throw new IllegalArgumentException("the range must not end before it starts");
+        }
+        this.type = type;
+        this.from = from;
+        this.to = to;
+        this.color = color;
+        this.label = label;
+        this.tag = tag;
+    }
+
+    public static Annotation marker(double x, int color, String label) {
+        return new Annotation(Type.MARKER, x, x, color, label, null);
+    }
+
+    public static Annotation xRange(double fromX, double toX, int color, String label) {
+        return new Annotation(Type.X_RANGE, fromX, toX, color, label, null);
+    }
+
+    public static Annotation band(double fromY, double toY, int color, String label) {
+        return new Annotation(Type.BAND, fromY, toY, color, label, null);
+    }
+}
@@ -0,0 +1,155 @@
+package com.kusand.graphview;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The annotations of a graph, see {@link GraphView#getAnnotationLayer()}. They are drawn over the series.
+ *
+ * Markers and x ranges are kept in an interval tree on x, so a frame only visits the visible annotations,
+ * even with thousands of them. The visible annotations are looked up again only after the x range
+ * or the annotations changed. With {@link GraphView.DrawingCacheMode#PICTURE} the layer is recorded
+ * separately from the series and only recorded again after the viewport or the annotations changed.
+ */
+public class AnnotationLayer {
+    /**
+     * called when an annotation is tapped
+     */
+    public interface OnAnnotationClickListener {
+        void onAnnotationClick(Annotation annotation);
+    }
+
+    private static final IntervalTree.Bounds<Annotation> X_BOUNDS = new IntervalTree.Bounds<Annotation>() {
+        @Override
+        public double start(Annotation item) {
+            return item.from;
+        }
+
+        @Override
+        public double end(Annotation item) {
+            return item.to;
+        }
+    };
+
+    private final GraphView graphView;
+    private final IntervalTree<Annotation> xTree = new IntervalTree<Annotation>(X_BOUNDS);
+    private final List<Annotation> bands = new ArrayList<Annotation>();
+    private OnAnnotationClickListener onAnnotationClickListener;
+    private int version;
+
+    // cached lookup of the visible markers and ranges
+    private final List<Annotation> visible = new ArrayList<Annotation>();
+    private int visibleVersion = -1;
+    private double visibleMinX;
+    private double visibleMaxX;
+
+    AnnotationLayer(GraphView graphView) {
+        this.graphView = graphView;
+    }
+
+    public void add(Annotation annotation) {
+        if (annotation.type == Annotation.Type.BAND) {
+            bands.add(annotation);
+        } else {
+            xTree.add(annotation);
+        }
+        onChanged();
+    }
+
+    /**
+     * @return true if the annotation was in the layer
+     */
+    public boolean remove(Annotation annotation) {
+        boolean removed = annotation.type == Annotation.Type.BAND ? bands.remove(annotation) : xTree.remove(annotation);
+        if (removed) {
+            onChanged();
+        }
+        return removed;
+    }
+
+    public void clear() {
+        bands.clear();
+        xTree.clear();
+        onChanged();
+    }
+
+    /**
+     * @return number of annotations
+     */
+    public int size() {
+        return bands.size() + xTree.size();
+    }
+
+    public OnAnnotationClickListener getOnAnnotationClickListener() {
+        return onAnnotationClickListener;
+    }
+
+    public void setOnAnnotationClickListener(OnAnnotationClickListener onAnnotationClickListener) {
+        this.onAnnotationClickListener = onAnnotationClickListener;
+    }
+
+    private void onChanged() {
+        version++;
+        if (graphView != null) {
+            graphView.invalidate();
+        }
+    }
+
+    /**
+     * @return incremented on every change
+     */
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return markers and x ranges that intersect the x range, sorted by their start. don't modify the list.
+     */
+    List<Annotation> getVisible(double minX, double maxX) {
+        if (visibleVersion != version || visibleMinX != minX || visibleMaxX != maxX) {
+            visible.clear();
+            xTree.query(minX, maxX, visible);
+            visibleVersion = version;
+            visibleMinX = minX;
+            visibleMaxX = maxX;
+        }
+        return visible;
+    }
+
+    /**
+     * @return all bands. don't modify the list.
+     */
+    List<Annotation> getBands() {
+        return bands;
+    }
+
+    /**
+     * finds the topmost annotation in a rectangle, e.g. the touch area of a tap.
+     * markers are on top of x ranges, x ranges are on top of bands.
+     * @return the annotation, null if there is none
+     */
+    public Annotation find(double minX, double maxX, double minY, double maxY) {
+        List<Annotation> hits = new ArrayList<Annotation>();
+        xTree.query(minX, maxX, hits);
+        Annotation range = null;
+        for (int i = hits.size() - 1; i >= 0; i--) {
+            Annotation annotation = hits.get(i);
+            if (annotation.type == Annotation.Type.MARKER) {
+                return annotation;
+            }
+            if (range == null) {
+                range = annotation;
+            }
+        }
+        if (range != null) {
+            return range;
+        }
+        for (int i = bands.size() - 1; i >= 0; i--) {
+            Annotation band = bands.get(i);
+            if (band.from <= maxY && band.to >= minY) {
+                return band;
+            }
+        }
+        return null;
+    }
+}
@@ -1,39 +1,461 @@
 package com.kusand.graphview;
 
+import java.util.Arrays;
+
 import android.content.Context;
+import android.content.res.TypedArray;
 import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.util.AttributeSet;
 
+import com.kusand.graphview.metrics.RenderMetrics.Counter;
+
 /**
  * Draws a Bar Chart
+ * The bars are positioned at their x value. Bars that are narrower than one pixel are merged into one bar per pixel
+ * column showing the highest value. All bars of a series are drawn with one batched draw call.
+ * Stacked bars are stacked by x value, positive values upwards and negative values downwards.
+ * Only the series of the primary axis are grouped and stacked, series of a secondary {@link YAxis} are drawn
+ * overlapping at their own scale.
  * @author Muhammad Shahab Hameed
  */
 public class BarGraphView extends GraphView {
+    /**
+     * how multiple series are drawn
+     */
+    public enum BarMode {
+        /**
+         * the bars of all series are drawn at the same position, the last series on top
+         */
+        OVERLAP,
+        /**
+         * the bars of the series are drawn side by side
+         */
+        GROUPED,
+        /**
+         * the bars of the series with the same x value are stacked on each other
+         */
+        STACKED
+    }
+
+    /**
+     * bars narrower than this are merged into one bar per pixel column
+     */
+    private static final float MIN_BAR_WIDTH = 1;
+
+    private final Paint barPaint = new Paint();
+    private BarMode barMode = BarMode.OVERLAP;
+    private float barWidthRatio = 0.8f;
+
+    // reused between frames
+    private float[] barLines = new float[64];
+    private double[] barBase = new double[16];
+    private double[] barTop = new double[16];
+    private float[] projectedX = new float[16];
+    private float[] projectedY = new float[16];
+    // base and top of the bars of the drawn series in data space
+    private double[] valueBase = new double[16];
+    private double[] valueTop = new double[16];
+    // stacks of the series stacked so far in this frame by x value, positive and negative values separately
+    private double[] stackX = new double[16];
+    private double[] stackPositive = new double[16];
+    private double[] stackNegative = new double[16];
+    private int stackCount;
+    private double[] nextStackX = new double[16];
+    private double[] nextStackPositive = new double[16];
+    private double[] nextStackNegative = new double[16];
+    // merged sub-pixel bars per pixel column
+    private double[] columnUpBase = new double[0];
+    private double[] columnUpTop = new double[0];
+    private double[] columnDownBase = new double[0];
+    private double[] columnDownTop = new double[0];
 
     public BarGraphView(Context context) {
         super(context);
+        initBarPaint();
     }
 
     public BarGraphView(Context context, AttributeSet attrs) {
         super(context, attrs);
+        initBarPaint();
+        pullBarAttributes(context, attrs);
     }
 
     public BarGraphView(Context context, AttributeSet attrs, int defStyle) {
         super(context, attrs, defStyle);
+        initBarPaint();
+        pullBarAttributes(context, attrs);
+    }
+
+    private void initBarPaint() {
+        barPaint.setStrokeCap(Paint.Cap.BUTT);
+        barPaint.setStyle(Paint.Style.STROKE);
+    }
+
+    private void pullBarAttributes(Context ctx, AttributeSet attrs) {
+        TypedArray a = ctx.obtainStyledAttributes(attrs, R.styleable.BarGraphView, 0, 0);
+        try {
+            barMode = BarMode.values()[a.getInt(R.styleable.BarGraphView_barMode, barMode.ordinal())];
+            barWidthRatio = a.getFloat(R.styleable.BarGraphView_barWidthRatio, barWidthRatio);
+        }
+        finally {
+            a.recycle();
+        }
     }
 
     @Override
 	public void drawSeries(Canvas canvas, GraphViewData[] values, float graphwidth, float graphheight,
 			float border, double minX, double minY, double diffX, double diffY,
 			float horstart) {
-		float colwidth = (graphwidth - (2 * border)) / values.length;
+		// hidden series and series of a secondary axis don't take a slot in the groups or the stack
+		int seriesIndex = getPrimaryIndex(getDrawingSeriesIndex());
+		BarMode mode = seriesIndex < 0 ? BarMode.OVERLAP : barMode;
+		// the bars start at the bottom edge, minY is not drawable if it is outside of the domain of a log axis
+		double bottom = getBottomValueY();
+		int columns = (int) graphwidth + 1;
+		if (columnUpTop.length < columns) {
+			columnUpBase = new double[columns];
+			columnUpTop = new double[columns];
+			columnDownBase = new double[columns];
+			columnDownTop = new double[columns];
+		} else {
+			countMetric(Counter.ALLOCATIONS_AVOIDED, 1);
+		}
+		if (mode == BarMode.STACKED && seriesIndex == 0) {
+			stackCount = 0;
+		}
+		if (values.length == 0) {
+			return;
+		}
+		ensureProjection(values.length);
+		projectValues(values, projectedX, projectedY);
+		ensureValueBars(values.length);
+		if (mode == BarMode.STACKED) {
+			stack(values);
+		} else {
+			for (int i = 0; i < values.length; i++) {
+				valueBase[i] = bottom;
+				valueTop[i] = values[i].valueY;
+			}
+		}
+
+		// the smallest distance between two bars is the slot of one bar
+		float slot = graphwidth;
+		for (int i = 1; i < values.length; i++) {
+			float distance = projectedX[i] - projectedX[i-1];
+			if (distance > 0 && distance < slot) {
+				slot = distance;
+			}
+		}
+		int groups = mode == BarMode.GROUPED ? getPrimaryCount() : 1;
+		float barWidth = slot * barWidthRatio / groups;
+
+		int count;
+		if (barWidth < MIN_BAR_WIDTH) {
+			count = mergeBars(values, columns, bottom, horstart);
+			barWidth = MIN_BAR_WIDTH;
+		} else {
+			float offset = mode == BarMode.GROUPED ? (seriesIndex - (groups - 1) / 2f) * barWidth : 0;
+			count = positionBars(values, barWidth, offset, graphwidth, bottom, horstart);
+		}
+
+		// all bars of the series in one call, clipped to the graph
+		barPaint.setColor(paint.getColor());
+		barPaint.setStrokeWidth(barWidth);
+		canvas.save();
+		canvas.clipRect(horstart, border, horstart + graphwidth, graphheight + border);
+		canvas.drawLines(barLines, 0, count, barPaint);
+		canvas.restore();
+		countMetric(Counter.DRAW_CALLS, 1);
+	}
+
+	/**
+	 * @return position of the series among the visible series of the primary axis, -1 if it is on a secondary axis
+	 */
+	private int getPrimaryIndex(int index) {
+		if (getYAxis(index) != null) {
+			return -1;
+		}
+		int primaryIndex = 0;
+		for (int i = 0; i < index; i++) {
+			if (isPrimary(i)) {
+				primaryIndex++;
+			}
+		}
+		return primaryIndex;
+	}
+
+	/**
+	 * @return number of visible series of the primary axis, they are grouped and stacked
+	 */
+	private int getPrimaryCount() {
+		int count = 0;
+		for (int i = 0; i < getSeriesCount(); i++) {
+			if (isPrimary(i)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private boolean isPrimary(int index) {
+		return isSeriesVisible(index) && getYAxis(index) == null;
+	}
+
+	/**
+	 * computes one vertical line per visible bar
+	 * @return number of floats in {@link #barLines}
+	 */
+	private int positionBars(GraphViewData[] values, float barWidth, float offset, float graphwidth, double bottom,
+			float horstart) {
+		float halfWidth = barWidth / 2;
+		int bars = 0;
+		for (int i = 0; i < values.length; i++) {
+			float x = projectedX[i] - horstart;
+			// gaps are NaN and fail this test too
+			if (!(x + offset + halfWidth >= 0 && x + offset - halfWidth <= graphwidth) || Double.isNaN(valueTop[i])) {
+				continue;
+			}
+			addBar(bars++, x + offset + horstart, valueBase[i], valueTop[i], bottom);
+		}
+		return projectBars(bars);
+	}
 
-		// draw data
+	/**
+	 * merges sub-pixel bars into one bar per pixel column, the bar that reaches highest. stacks of negative values
+	 * also keep the bar that reaches lowest.
+	 * @return number of floats in {@link #barLines}
+	 */
+	private int mergeBars(GraphViewData[] values, int columns, double bottom, float horstart) {
+		Arrays.fill(columnUpTop, 0, columns, Double.NaN);
+		Arrays.fill(columnDownTop, 0, columns, Double.NaN);
 		for (int i = 0; i < values.length; i++) {
-			float valY = (float) (values[i].valueY - minY);
-			float ratY = (float) (valY / diffY);
-			float y = graphheight * ratY;
-			canvas.drawRect((i * colwidth) + horstart, (border - y) + graphheight, ((i * colwidth) + horstart) + (colwidth - 1), graphheight + border - 1, paint);
+			float x = projectedX[i] - horstart;
+			double top = valueTop[i];
+			if (!(x >= 0 && x < columns) || Double.isNaN(top)) {
+				continue;
+			}
+			int column = (int) x;
+			if (top >= valueBase[i]) {
+				if (Double.isNaN(columnUpTop[column]) || top > columnUpTop[column]) {
+					columnUpBase[column] = valueBase[i];
+					columnUpTop[column] = top;
+				}
+			} else if (Double.isNaN(columnDownTop[column]) || top < columnDownTop[column]) {
+				columnDownBase[column] = valueBase[i];
+				columnDownTop[column] = top;
+			}
 		}
+
+		int bars = 0;
+		for (int column = 0; column < columns; column++) {
+			if (!Double.isNaN(columnUpTop[column])) {
+				addBar(bars++, horstart + column + 0.5f, columnUpBase[column], columnUpTop[column], bottom);
+			}
+			if (!Double.isNaN(columnDownTop[column])) {
+				addBar(bars++, horstart + column + 0.5f, columnDownBase[column], columnDownTop[column], bottom);
+			}
+		}
+		return projectBars(bars);
+	}
+
+	/**
+	 * stacks the values of a series on the series that were stacked before it in this frame, by x value.
+	 * positive values are stacked upwards from 0 and negative values downwards, so every bar spans its value.
+	 * the base and top of every value are stored in {@link #valueBase} and {@link #valueTop}, NaN for gaps.
+	 * @param values sorted by x
+	 */
+	private void stack(GraphViewData[] values) {
+		ensureStack(stackCount + values.length);
+		int i = 0;
+		int k = 0;
+		for (int j = 0; j < values.length; j++) {
+			double x = values[j].valueX;
+			while (i < stackCount && stackX[i] < x) {
+				copyStack(i++, k++);
+			}
+			// equal x values of this series are stacked on each other
+			if (k == 0 || nextStackX[k - 1] != x) {
+				if (i < stackCount && stackX[i] == x) {
+					copyStack(i++, k++);
+				} else {
+					nextStackX[k] = x;
+					nextStackPositive[k] = 0;
+					nextStackNegative[k] = 0;
+					k++;
+				}
+			}
+			double value = values[j].valueY;
+			if (Double.isNaN(value)) {
+				valueBase[j] = Double.NaN;
+				valueTop[j] = Double.NaN;
+			} else if (value >= 0) {
+				valueBase[j] = nextStackPositive[k - 1];
+				valueTop[j] = valueBase[j] + value;
+				nextStackPositive[k - 1] = valueTop[j];
+			} else {
+				valueBase[j] = nextStackNegative[k - 1];
+				valueTop[j] = valueBase[j] + value;
+				nextStackNegative[k - 1] = valueTop[j];
+			}
+		}
+		while (i < stackCount) {
+			copyStack(i++, k++);
+		}
+		stackCount = k;
+		double[] swap = stackX;
+		stackX = nextStackX;
+		nextStackX = swap;
+		swap = stackPositive;
+		stackPositive = nextStackPositive;
+		nextStackPositive = swap;
+		swap = stackNegative;
+		stackNegative = nextStackNegative;
+		nextStackNegative = swap;
+	}
+
+	private void copyStack(int from, int to) {
+		nextStackX[to] = stackX[from];
+		nextStackPositive[to] = stackPositive[from];
+		nextStackNegative[to] = stackNegative[from];
+	}
+
+	/**
+	 * stores the x position and the base and top values of a bar, clamped to the bottom edge. the values stay in
+	 * data space and are projected afterwards, so that stacked bars are also correct on a non-linear axis.
+	 */
+	private void addBar(int bar, float x, double base, double top, double bottom) {
+		ensureBarLines(bar + 1);
+		barLines[bar * 4] = x;
+		barLines[bar * 4 + 2] = x;
+		barBase[bar] = Math.max(bottom, base);
+		barTop[bar] = Math.max(bottom, top);
+	}
+
+	/**
+	 * projects the base and top values of the bars to view coordinates
+	 * @return number of floats in {@link #barLines}
+	 */
+	private int projectBars(int bars) {
+		ensureProjection(bars);
+		projectY(barBase, bars, projectedX);
+		projectY(barTop, bars, projectedY);
+		for (int bar = 0; bar < bars; bar++) {
+			// one pixel above the bottom edge
+			barLines[bar * 4 + 1] = projectedX[bar] - 1;
+			barLines[bar * 4 + 3] = projectedY[bar] - 1;
+		}
+		return bars * 4;
+	}
+
+	private void ensureProjection(int count) {
+		if (projectedX.length < count) {
+			projectedX = new float[Math.max(count, projectedX.length * 2)];
+			projectedY = new float[projectedX.length];
+		}
+	}
+
+	private void ensureValueBars(int count) {
+		if (valueBase.length < count) {
+			valueBase = new double[Math.max(count, valueBase.length * 2)];
+			valueTop = new double[valueBase.length];
+		}
+	}
+
+	private void ensureStack(int count) {
+		if (nextStackX.length < count) {
+			int capacity = Math.max(count, nextStackX.length * 2);
+			stackX = Arrays.copyOf(stackX, capacity);
+			stackPositive = Arrays.copyOf(stackPositive, capacity);
+			stackNegative = Arrays.copyOf(stackNegative, capacity);
+			nextStackX = new double[capacity];
+			nextStackPositive = new double[capacity];
+			nextStackNegative = new double[capacity];
+		}
+	}
+
+	private void ensureBarLines(int bars) {
+		if (barLines.length < bars * 4) {
+			barLines = new float[Math.max(bars * 4, barLines.length * 2)];
+			barBase = Arrays.copyOf(barBase, barLines.length / 4);
+			barTop = Arrays.copyOf(barTop, barLines.length / 4);
+		}
+	}
+
+	/**
+	 * stacked bars reach the sums of the positive and of the negative values at the same x value,
+	 * they are stacked with the same rule as they are drawn
+	 */
+	@Override
+	protected void extendAutoScaleBounds(double[] extrema) {
+		if (barMode != BarMode.STACKED || getPrimaryCount() < 2) {
+			return;
+		}
+		stackCount = 0;
+		for (int i = 0; i < getSeriesCount(); i++) {
+			if (isPrimary(i)) {
+				GraphViewData[] values = _values(i);
+				ensureValueBars(values.length);
+				stack(values);
+			}
+		}
+		for (int i = 0; i < stackCount; i++) {
+			if (stackNegative[i] < extrema[0]) {
+				extrema[0] = stackNegative[i];
+			}
+			if (stackPositive[i] > extrema[1]) {
+				extrema[1] = stackPositive[i];
+			}
+		}
+	}
+
+	/**
+	 * the bars are centered at their x value, so half a group of bars fits before the first and after the last value
+	 */
+	@Override
+	protected double getDataPaddingX(boolean start) {
+		double edge = start ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+		double distance = 0;
+		for (int i = 0; i < getSeriesCount(); i++) {
+			BaseSeries series = getSeries(i);
+			if (!isSeriesVisible(i) || series.size() < 2) {
+				continue;
+			}
+			int last = series.size() - 1;
+			double x = start ? series.getX(0) : series.getX(last);
+			// distance to the neighbour, the slot of a bar is not wider
+			double neighbour = start ? series.getX(1) - x : x - series.getX(last - 1);
+			if (x == edge) {
+				distance = Math.max(distance, neighbour);
+			} else if (start ? x < edge : x > edge) {
+				edge = x;
+				distance = neighbour;
+			}
+		}
+		return distance * barWidthRatio / 2;
+	}
+
+	public BarMode getBarMode() {
+		return barMode;
+	}
+
+	/**
+	 * @param barMode how multiple series are drawn
+	 */
+	public void setBarMode(BarMode barMode) {
+		this.barMode = barMode;
+		redrawAll();
+	}
+
+	public float getBarWidthRatio() {
+		return barWidthRatio;
+	}
+
+	/**
+	 * @param barWidthRatio width of a bar (or of a group of bars) relative to the distance between two x values
+	 */
+	public void setBarWidthRatio(float barWidthRatio) {
+		this.barWidthRatio = barWidthRatio;
+		invalidate();
 	}
 }
@@ -0,0 +1,367 @@
+package com.kusand.graphview;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import android.annotation.TargetApi;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.GraphViewSeries.GraphViewStyle;
+
+/**
+ * The read side of a series: the values, their indexes and the graphviews that draw them.
+ * A series that can be changed with appendData, mergeData and resetData is a {@link GraphViewSeries}.
+ * Series with their own storage or their own way to change the data, e.g. the columns of a
+ * {@link GraphViewSeriesGroup} or a {@link PagedSeries}, extend this class directly.
+ */
+public abstract class BaseSeries {
+	final String description;
+	final GraphViewStyle style;
+	// only the first valueCount entries are used, appended values go to the free tail
+	GraphViewData[] values;
+	private int valueCount;
+	private final List<GraphView> graphViews = new ArrayList<GraphView>();
+	final ExtremaIndex extremaIndex;
+	final PrefixSums prefixSums = new PrefixSums();
+	final List<RollingAggregateSeries> derivedSeries = new ArrayList<RollingAggregateSeries>();
+
+	/**
+	 * @param extremaIndex index of the y range, subclasses can index other values than y
+	 */
+	BaseSeries(String description, GraphViewStyle style, GraphViewData[] values, ExtremaIndex extremaIndex) {
+		this.description = description;
+		if (style == null) {
+			style = new GraphViewStyle();
+		}
+		this.style = style;
+		setValues(values);
+		this.extremaIndex = extremaIndex;
+	}
+
+	/**
+	 * this graphview will be redrawn if data changes
+	 * @param graphView
+	 */
+	public void addGraphView(GraphView graphView) {
+		if (!graphViews.contains(graphView)) {
+			this.graphViews.add(graphView);
+		}
+	}
+
+	/**
+	 * this graphview will not be redrawn anymore. the data and the indexes of the series are kept,
+	 * so the series can be added to another graphview without recomputing them.
+	 * @param graphView
+	 */
+	public void removeGraphView(GraphView graphView) {
+		graphViews.remove(graphView);
+	}
+
+	/**
+	 * the derived series is updated when data is appended or reset
+	 */
+	void addDerivedSeries(RollingAggregateSeries series) {
+		derivedSeries.add(series);
+	}
+
+	void removeDerivedSeries(RollingAggregateSeries series) {
+		derivedSeries.remove(series);
+	}
+
+	/**
+	 * the graphviews of this series have to be redrawn
+	 */
+	void notifyDataChanged() {
+		for (GraphView g : graphViews) {
+			g.onDataChanged(this);
+		}
+	}
+
+	/**
+	 * updates the derived series and the graphviews after one value was appended at the end
+	 */
+	void onAppended(boolean scrollToEnd) {
+		if (!derivedSeries.isEmpty()) {
+			GraphViewData value = get(size() - 1);
+			for (int i = 0; i < derivedSeries.size(); i++) {
+				derivedSeries.get(i).onSourceAppended(value);
+			}
+		}
+		onMerged(scrollToEnd);
+	}
+
+	/**
+	 * replaces one value in place, without copying the data. the x value must keep the order of the values.
+	 */
+	void replaceValue(int index, GraphViewData value) {
+		values[index] = value;
+		extremaIndex.invalidateFrom(index);
+		prefixSums.invalidateFrom(index);
+		boolean last = index == size() - 1;
+		for (int i = 0; i < derivedSeries.size(); i++) {
+			if (last) {
+				// only the last aggregate changes
+				derivedSeries.get(i).onSourceReplacedLast(value);
+			} else {
+				derivedSeries.get(i).onSourceReset();
+			}
+		}
+		notifyDataChanged();
+	}
+
+	/**
+	 * redraws the graphviews after values were added
+	 */
+	void onMerged(boolean scrollToEnd) {
+		for (GraphView g : graphViews) {
+			if (scrollToEnd) {
+				g.scrollToEnd();
+			} else {
+				g.onDataChanged(this);
+			}
+		}
+	}
+
+	/**
+	 * updates the derived series and redraws the graphviews after the data was replaced
+	 */
+	void onReset() {
+		extremaIndex.clear();
+		prefixSums.clear();
+		for (int i = 0; i < derivedSeries.size(); i++) {
+			derivedSeries.get(i).onSourceReset();
+		}
+		for (GraphView g : graphViews) {
+			g.redrawAll();
+		}
+	}
+
+	/**
+	 * @return number of values
+	 */
+	int size() {
+		return valueCount;
+	}
+
+	/**
+	 * @return smallest x value of the series, the start of the data for the viewport
+	 */
+	double getFirstX() {
+		return getX(0);
+	}
+
+	/**
+	 * @return largest x value of the series, the end of the data for the viewport
+	 */
+	double getLastX() {
+		return getX(size() - 1);
+	}
+
+	/**
+	 * called before the series is drawn. series that load their data lazily replace their values here.
+	 * @param minX start of the drawn x range
+	 * @param maxX end of the drawn x range
+	 * @param pixels width of the graph in pixels
+	 * @return true if the values changed
+	 */
+	boolean onViewport(double minX, double maxX, float pixels) {
+		return false;
+	}
+
+	/**
+	 * replaces the values without notifying the graphviews, e.g. while they draw
+	 */
+	void swapValues(GraphViewData[] values) {
+		setValues(values);
+		extremaIndex.clear();
+		prefixSums.clear();
+	}
+
+	/**
+	 * sets the values, all entries of the array are used. the indexes are not touched.
+	 */
+	void setValues(GraphViewData[] values) {
+		this.values = values;
+		valueCount = values.length;
+	}
+
+	/**
+	 * appends one value at the end, without updating the indexes or notifying. the array grows geometrically,
+	 * so appending is amortized O(1) instead of a copy of all values.
+	 */
+	@TargetApi(9)
+	void appendValue(GraphViewData value) {
+		if (valueCount == values.length) {
+			values = Arrays.copyOf(values, Math.max(16, values.length + (values.length >> 1)));
+		}
+		values[valueCount++] = value;
+	}
+
+	/**
+	 * @return x value at this index
+	 */
+	double getX(int index) {
+		return values[index].valueX;
+	}
+
+	/**
+	 * @return y value at this index
+	 */
+	double getY(int index) {
+		return values[index].valueY;
+	}
+
+	/**
+	 * @return value at this index
+	 */
+	GraphViewData get(int index) {
+		return values[index];
+	}
+
+	/**
+	 * binary search on x. gaps (NaN values) are skipped.
+	 * @return index of the value with the nearest x, or -1 if the series has no values
+	 */
+	int nearestIndex(double x) {
+		int size = size();
+		if (size == 0) {
+			return -1;
+		}
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (getX(mid) < x) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		int before = low - 1;
+		while (before >= 0 && Double.isNaN(getY(before))) {
+			before--;
+		}
+		int after = low;
+		while (after < size && Double.isNaN(getY(after))) {
+			after++;
+		}
+		if (after == size || (before >= 0 && x - getX(before) <= getX(after) - x)) {
+			return before;
+		}
+		return after;
+	}
+
+	/**
+	 * @param from first index (inclusive)
+	 * @param to last index (exclusive)
+	 * @return the values in this range. this is the stored array if the range covers all values, so don't modify it.
+	 */
+	GraphViewData[] slice(int from, int to) {
+		if (from == 0 && to == values.length) {
+			return values;
+		}
+		GraphViewData[] slice = new GraphViewData[to - from];
+		System.arraycopy(values, from, slice, 0, slice.length);
+		return slice;
+	}
+
+	/**
+	 * the values of a range that are drawn. series that store their values compactly (not as {@link GraphViewData})
+	 * decimate large ranges here, so only a few values per bucket are materialized.
+	 * @param from first index (inclusive)
+	 * @param to last index (exclusive)
+	 * @param buckets number of buckets, the width of the graph in pixels
+	 */
+	GraphViewData[] drawSlice(int from, int to, int buckets) {
+		return slice(from, to);
+	}
+
+	/**
+	 * projects the x values of a slice of this series with a linear transform:
+	 * out[i] = origin + (x[i] - min) * scale. series with a compact x storage project from it directly.
+	 * @param slice values returned by {@link #drawSlice(int, int, int)}
+	 * @return false if the values have to be projected by the graph
+	 */
+	boolean projectSliceX(GraphViewData[] slice, double min, double scale, float origin, float[] out) {
+		return false;
+	}
+
+	/**
+	 * @param minX start of the viewport
+	 * @return index of the first value to draw. this is the last value before the viewport, for nice scrolling.
+	 */
+	int sliceStart(double minX) {
+		return Math.max(0, indexOf(minX, false) - 1);
+	}
+
+	/**
+	 * @param maxX end of the viewport
+	 * @return index after the last value to draw. this includes the first value after the viewport, for nice scrolling.
+	 */
+	int sliceEnd(double maxX) {
+		return Math.min(size(), indexOf(maxX, true) + 1);
+	}
+
+	/**
+	 * count, mean, standard deviation, min and max of the values with an x in the range, e.g. of the viewport.
+	 * answered in O(log n) from prefix sums and the extrema index, which are extended incrementally when values
+	 * are appended and only computed again from the first changed value otherwise.
+	 * @param minX start of the range (inclusive)
+	 * @param maxX end of the range (inclusive)
+	 */
+	public SeriesStats getStats(double minX, double maxX) {
+		int from = indexOf(minX, false);
+		int to = indexOf(maxX, true);
+		if (from >= to) {
+			return new SeriesStats(0, 0, Double.NaN, Double.NaN, Double.NaN);
+		}
+		prefixSums.update(this);
+		int count = prefixSums.count(from, to);
+		if (count == 0) {
+			// only gaps
+			return new SeriesStats(0, 0, Double.NaN, Double.NaN, Double.NaN);
+		}
+		return new SeriesStats(count, prefixSums.sum(from, to), Math.sqrt(prefixSums.variance(from, to)),
+				getMinY(from, to), getMaxY(from, to));
+	}
+
+	/**
+	 * binary search on x, values must be sorted by x
+	 * @param strict false for the first value with an x >= valueX, true for the first value with an x > valueX
+	 */
+	int indexOf(double valueX, boolean strict) {
+		int low = 0;
+		int high = size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			double x = getX(mid);
+			if (strict ? x <= valueX : x < valueX) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @param from first index (inclusive)
+	 * @param to last index (exclusive)
+	 * @return minimal Y value in the range, {@link Double#POSITIVE_INFINITY} if the range is empty
+	 */
+	double getMinY(int from, int to) {
+		extremaIndex.update(this);
+		return extremaIndex.min(this, from, to);
+	}
+
+	/**
+	 * @param from first index (inclusive)
+	 * @param to last index (exclusive)
+	 * @return maximal Y value in the range, {@link Double#NEGATIVE_INFINITY} if the range is empty
+	 */
+	double getMaxY(int from, int to) {
+		extremaIndex.update(this);
+		return extremaIndex.max(this, from, to);
+	}
+}
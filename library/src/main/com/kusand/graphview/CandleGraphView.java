@@ -0,0 +1,286 @@
+package com.kusand.graphview;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+
+import com.kusand.graphview.CandleSeries.CandleData;
+import com.kusand.graphview.metrics.RenderMetrics.Counter;
+
+/**
+ * Draws OHLC bars as candlesticks. Use it with a {@link CandleSeries}, other series are drawn as flat candles at their
+ * y value. Rising bars are drawn with the up color, falling bars with the down color.
+ * All wicks and all bodies of one color are batched, so a series takes at most four draw calls.
+ * When the candles get narrower than a few pixels the cached bars of a higher timeframe of the series are drawn.
+ */
+public class CandleGraphView extends GraphView {
+    /**
+     * candles narrower than this are merged to a higher timeframe
+     */
+    private static final float MIN_CANDLE_WIDTH = 3;
+    private static final float WICK_WIDTH = 1;
+
+    private final Paint wickPaint = new Paint();
+    private final Paint bodyPaint = new Paint();
+    private int upColor = 0xff26a69a;
+    private int downColor = 0xffef5350;
+    private float bodyWidthRatio = 0.7f;
+
+    // reused between frames
+    private double[] centers = new double[0];
+    private double[] opens = new double[0];
+    private double[] highs = new double[0];
+    private double[] lows = new double[0];
+    private double[] closes = new double[0];
+    private float[] projectedX = new float[0];
+    private float[] projectedOpen = new float[0];
+    private float[] projectedHigh = new float[0];
+    private float[] projectedLow = new float[0];
+    private float[] projectedClose = new float[0];
+    private float[] upWicks = new float[0];
+    private float[] upBodies = new float[0];
+    private float[] downWicks = new float[0];
+    private float[] downBodies = new float[0];
+
+    public CandleGraphView(Context context) {
+        super(context);
+        initCandlePaints();
+    }
+
+    public CandleGraphView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        initCandlePaints();
+        pullCandleAttributes(context, attrs);
+    }
+
+    public CandleGraphView(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        initCandlePaints();
+        pullCandleAttributes(context, attrs);
+    }
+
+    private void initCandlePaints() {
+        wickPaint.setStrokeCap(Paint.Cap.BUTT);
+        wickPaint.setStyle(Paint.Style.STROKE);
+        wickPaint.setStrokeWidth(WICK_WIDTH);
+        bodyPaint.setStrokeCap(Paint.Cap.BUTT);
+        bodyPaint.setStyle(Paint.Style.STROKE);
+    }
+
+    private void pullCandleAttributes(Context ctx, AttributeSet attrs) {
+        TypedArray a = ctx.obtainStyledAttributes(attrs, R.styleable.CandleGraphView, 0, 0);
+        try {
+            upColor = a.getColor(R.styleable.CandleGraphView_candleUpColor, upColor);
+            downColor = a.getColor(R.styleable.CandleGraphView_candleDownColor, downColor);
+            bodyWidthRatio = a.getFloat(R.styleable.CandleGraphView_candleBodyWidthRatio, bodyWidthRatio);
+        }
+        finally {
+            a.recycle();
+        }
+    }
+
+    /**
+     * the bars of a {@link CandleSeries} are taken from the level of detail of the series, not from values
+     */
+    @Override
+    public void drawSeries(Canvas canvas, GraphViewData[] values, float graphwidth, float graphheight, float border, double minX, double minY, double diffX, double diffY, float horstart) {
+        double pixelsPerX = graphwidth / diffX;
+        GraphViewData[] bars = values;
+        int from = 0;
+        int to = values.length;
+        double timeframe;
+        BaseSeries series = getSeries(getDrawingSeriesIndex());
+        if (series instanceof CandleSeries) {
+            CandleSeries candles = (CandleSeries) series;
+            int level = candles.levelFor(MIN_CANDLE_WIDTH / pixelsPerX);
+            timeframe = candles.getLevelTimeframe(level);
+            bars = candles.getLevelBars(level);
+            int size = candles.getLevelSize(level);
+            // the bar before the viewport reaches into it
+            from = lowerBound(bars, size, minX - timeframe);
+            to = lowerBound(bars, size, minX + diffX);
+        } else {
+            timeframe = smallestDistance(values);
+        }
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        ensureCapacity(count);
+
+        for (int i = 0; i < count; i++) {
+            GraphViewData bar = bars[from + i];
+            centers[i] = bar.valueX + timeframe / 2;
+            if (bar instanceof CandleData) {
+                CandleData candle = (CandleData) bar;
+                opens[i] = candle.open;
+                highs[i] = candle.high;
+                lows[i] = candle.low;
+            } else {
+                opens[i] = bar.valueY;
+                highs[i] = bar.valueY;
+                lows[i] = bar.valueY;
+            }
+            closes[i] = bar.valueY;
+        }
+        projectX(centers, count, projectedX);
+        projectY(opens, count, projectedOpen);
+        projectY(highs, count, projectedHigh);
+        projectY(lows, count, projectedLow);
+        projectY(closes, count, projectedClose);
+
+        int up = 0;
+        int down = 0;
+        for (int i = 0; i < count; i++) {
+            float x = projectedX[i];
+            float open = projectedOpen[i];
+            float close = projectedClose[i];
+            float high = projectedHigh[i];
+            float low = projectedLow[i];
+            // gaps and values outside of the axis transforms are NaN
+            if (Float.isNaN(x) || Float.isNaN(open) || Float.isNaN(close) || Float.isNaN(high) || Float.isNaN(low)) {
+                continue;
+            }
+            if (Math.abs(open - close) < 1) {
+                // at least one pixel for a doji
+                close = open - 1;
+            }
+            // y grows downwards, a rising bar closes above its open
+            float[] wicks;
+            float[] bodies;
+            int index;
+            if (closes[i] >= opens[i]) {
+                wicks = upWicks;
+                bodies = upBodies;
+                index = up;
+                up += 4;
+            } else {
+                wicks = downWicks;
+                bodies = downBodies;
+                index = down;
+                down += 4;
+            }
+            wicks[index] = x;
+            wicks[index + 1] = high;
+            wicks[index + 2] = x;
+            wicks[index + 3] = low;
+            bodies[index] = x;
+            bodies[index + 1] = open;
+            bodies[index + 2] = x;
+            bodies[index + 3] = close;
+        }
+
+        float bodyWidth = Math.max(1, (float) (timeframe * pixelsPerX * bodyWidthRatio));
+        bodyPaint.setStrokeWidth(bodyWidth);
+        canvas.save();
+        canvas.clipRect(horstart, border, horstart + graphwidth, graphheight + border);
+        int drawCalls = 0;
+        if (up > 0) {
+            wickPaint.setColor(upColor);
+            bodyPaint.setColor(upColor);
+            canvas.drawLines(upWicks, 0, up, wickPaint);
+            canvas.drawLines(upBodies, 0, up, bodyPaint);
+            drawCalls += 2;
+        }
+        if (down > 0) {
+            wickPaint.setColor(downColor);
+            bodyPaint.setColor(downColor);
+            canvas.drawLines(downWicks, 0, down, wickPaint);
+            canvas.drawLines(downBodies, 0, down, bodyPaint);
+            drawCalls += 2;
+        }
+        canvas.restore();
+        countMetric(Counter.DRAW_CALLS, drawCalls);
+    }
+
+    /**
+     * @return index of the first bar with x >= the given x, size if there is none
+     */
+    private static int lowerBound(GraphViewData[] bars, int size, double x) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bars[mid].valueX < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * the timeframe of a series without one is the smallest distance between two values
+     */
+    private static double smallestDistance(GraphViewData[] values) {
+        double smallest = Double.POSITIVE_INFINITY;
+        for (int i = 1; i < values.length; i++) {
+            double distance = values[i].valueX - values[i-1].valueX;
+            if (distance > 0 && distance < smallest) {
+                smallest = distance;
+            }
+        }
+        return smallest == Double.POSITIVE_INFINITY ? 1 : smallest;
+    }
+
+    private void ensureCapacity(int count) {
+        if (centers.length >= count) {
+            countMetric(Counter.ALLOCATIONS_AVOIDED, 1);
+            return;
+        }
+        int capacity = Math.max(count, centers.length * 2);
+        centers = new double[capacity];
+        opens = new double[capacity];
+        highs = new double[capacity];
+        lows = new double[capacity];
+        closes = new double[capacity];
+        projectedX = new float[capacity];
+        projectedOpen = new float[capacity];
+        projectedHigh = new float[capacity];
+        projectedLow = new float[capacity];
+        projectedClose = new float[capacity];
+        upWicks = new float[capacity * 4];
+        upBodies = new float[capacity * 4];
+        downWicks = new float[capacity * 4];
+        downBodies = new float[capacity * 4];
+    }
+
+    public int getUpColor() {
+        return upColor;
+    }
+
+    /**
+     * @param upColor color of the bars that close above their open
+     */
+    public void setUpColor(int upColor) {
+        this.upColor = upColor;
+        invalidate();
+    }
+
+    public int getDownColor() {
+        return downColor;
+    }
+
+    /**
+     * @param downColor color of the bars that close below their open
+     */
+    public void setDownColor(int downColor) {
+        this.downColor = downColor;
+        invalidate();
+    }
+
+    public float getBodyWidthRatio() {
+        return bodyWidthRatio;
+    }
+
+    /**
+     * @param bodyWidthRatio width of a body relative to the width of its timeframe
+     */
+    public void setBodyWidthRatio(float bodyWidthRatio) {
+        this.bodyWidthRatio = bodyWidthRatio;
+        invalidate();
+    }
+}
@@ -0,0 +1,268 @@
+package com.kusand.graphview;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import android.annotation.TargetApi;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.GraphViewSeries.GraphViewStyle;
+
+/**
+ * Series of OHLC bars (candles) with a fixed timeframe, built from ticks with {@link #addTick(double, double, boolean)}.
+ * A tick of the current bar replaces this bar in its slot, the data is only copied when a new bar starts.
+ * The bars are indexed by their low and high value, so the autoscale covers the wicks.
+ *
+ * For zoomed out graphs the bars are merged to higher timeframes (2, 4, 8... times the timeframe). These levels are
+ * cached and only aggregated again from the first changed bar on.
+ *
+ * The bars are only changed by ticks or replaced with {@link #resetData(CandleData[])}.
+ */
+public class CandleSeries extends BaseSeries {
+	/**
+	 * one bar. the x value is the start of its timeframe, the y value is the close.
+	 */
+	static public class CandleData extends GraphViewData {
+		public final double open;
+		public final double high;
+		public final double low;
+		public final double close;
+
+		public CandleData(double valueX, double open, double high, double low, double close) {
+			super(valueX, close);
+			this.open = open;
+			this.high = high;
+			this.low = low;
+			this.close = close;
+		}
+	}
+
+	/**
+	 * indexes the low and the high of the bars
+	 */
+	private static final class CandleExtremaIndex extends ExtremaIndex {
+		@Override
+		double low(BaseSeries series, int index) {
+			GraphViewData value = series.get(index);
+			return value instanceof CandleData ? ((CandleData) value).low : value.valueY;
+		}
+
+		@Override
+		double high(BaseSeries series, int index) {
+			GraphViewData value = series.get(index);
+			return value instanceof CandleData ? ((CandleData) value).high : value.valueY;
+		}
+	}
+
+	/**
+	 * the bars merged to a higher timeframe
+	 */
+	private static final class Level {
+		final double timeframe;
+		GraphViewData[] bars = new GraphViewData[16];
+		int count;
+
+		Level(double timeframe) {
+			this.timeframe = timeframe;
+		}
+	}
+
+	private static final int MAX_LEVELS = 24;
+
+	private final double timeframe;
+	private final List<Level> levels = new ArrayList<Level>();
+
+	/**
+	 * @param timeframe x range of one bar, e.g. 60000 for one minute bars with x values in milliseconds
+	 */
+	public CandleSeries(String description, GraphViewStyle style, double timeframe) {
+		this(description, style, timeframe, new CandleData[0]);
+	}
+
+	/**
+	 * @param timeframe x range of one bar
+	 * @param bars bars sorted by x, the x value of a bar is the start of its timeframe
+	 */
+	@TargetApi(9)
+	public CandleSeries(String description, GraphViewStyle style, double timeframe, CandleData[] bars) {
+		super(description, style, Arrays.copyOf(bars, bars.length, GraphViewData[].class), new CandleExtremaIndex());
+		if (timeframe <= 0) {
+			throw new IllegalArgumentException("timeframe must be > 0");
+		}
+		this.timeframe = timeframe;
+	}
+
+	/**
+	 * adds a tick to its bar. the first tick of a timeframe starts a new bar. a tick of the current bar updates it
+	 * in place. a late tick of an older bar only extends its high and low, its open and close stay.
+	 * @param time x value of the tick
+	 * @param price
+	 * @param scrollToEnd true => graphview will scroll to the end (maxX) when a new bar starts
+	 */
+	public void addTick(double time, double price, boolean scrollToEnd) {
+		double start = Math.floor(time / timeframe) * timeframe;
+		int last = size() - 1;
+		if (last < 0 || start > values[last].valueX) {
+			appendBar(new CandleData(start, price, price, price, price), scrollToEnd);
+			return;
+		}
+		int index = indexOf(values, size(), start);
+		if (index < 0 || values[index].valueX != start) {
+			// late tick without a bar
+			insertBar(index, new CandleData(start, price, price, price, price));
+			return;
+		}
+		CandleData bar = toCandle(values[index]);
+		double close = index == last ? price : bar.close;
+		invalidateLevels(start);
+		replaceValue(index, new CandleData(start, bar.open, Math.max(bar.high, price), Math.min(bar.low, price), close));
+	}
+
+	private static CandleData toCandle(GraphViewData value) {
+		if (value instanceof CandleData) {
+			return (CandleData) value;
+		}
+		return new CandleData(value.valueX, value.valueY, value.valueY, value.valueY, value.valueY);
+	}
+
+	/**
+	 * @return index of the first value with x >= the given x, -1 if there is none
+	 */
+	private static int indexOf(GraphViewData[] values, int count, double x) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (values[mid].valueX < x) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low < count ? low : -1;
+	}
+
+	private void appendBar(CandleData bar, boolean scrollToEnd) {
+		appendValue(bar);
+		invalidateLevels(bar.valueX);
+		onAppended(scrollToEnd);
+	}
+
+	/**
+	 * inserts a late bar before the bar at this index
+	 */
+	private void insertBar(int index, CandleData bar) {
+		int size = size();
+		GraphViewData[] newValues = new GraphViewData[size + 1];
+		System.arraycopy(values, 0, newValues, 0, index);
+		newValues[index] = bar;
+		System.arraycopy(values, index, newValues, index + 1, size - index);
+		setValues(newValues);
+		invalidateLevels(bar.valueX);
+		extremaIndex.invalidateFrom(index);
+		prefixSums.invalidateFrom(index);
+		// the windows of the derived series changed in the middle
+		for (int i = 0; i < derivedSeries.size(); i++) {
+			derivedSeries.get(i).onSourceReset();
+		}
+		onMerged(false);
+	}
+
+	/**
+	 * clears the current bars and sets the new
+	 * @param bars bars sorted by x, the x value of a bar is the start of its timeframe
+	 */
+	@TargetApi(9)
+	public void resetData(CandleData[] bars) {
+		setValues(Arrays.copyOf(bars, bars.length, GraphViewData[].class));
+		onReset();
+	}
+
+	public double getTimeframe() {
+		return timeframe;
+	}
+
+	@Override
+	void onReset() {
+		levels.clear();
+		super.onReset();
+	}
+
+	/**
+	 * drops the aggregated bars from the bar that contains this x value on
+	 */
+	private void invalidateLevels(double x) {
+		for (int i = 0; i < levels.size(); i++) {
+			Level level = levels.get(i);
+			while (level.count > 0 && level.bars[level.count - 1].valueX + level.timeframe > x) {
+				level.count--;
+			}
+		}
+	}
+
+	/**
+	 * @param minTimeframe the smallest timeframe that should be drawn
+	 * @return 0 for the bars of this series, higher levels merge 2^level bars
+	 */
+	int levelFor(double minTimeframe) {
+		int level = 0;
+		double levelTimeframe = timeframe;
+		while (levelTimeframe < minTimeframe && level < MAX_LEVELS) {
+			levelTimeframe *= 2;
+			level++;
+		}
+		return level;
+	}
+
+	double getLevelTimeframe(int level) {
+		return timeframe * (1L << level);
+	}
+
+	/**
+	 * @return the bars of this level, sorted by x. only the first {@link #getLevelSize(int)} are valid.
+	 */
+	GraphViewData[] getLevelBars(int level) {
+		return level == 0 ? values : updateLevel(level).bars;
+	}
+
+	int getLevelSize(int level) {
+		return level == 0 ? size() : updateLevel(level).count;
+	}
+
+	/**
+	 * aggregates the bars after the last valid bar of the level
+	 */
+	@TargetApi(9)
+	private Level updateLevel(int index) {
+		while (levels.size() < index) {
+			levels.add(new Level(getLevelTimeframe(levels.size() + 1)));
+		}
+		Level level = levels.get(index - 1);
+		double levelTimeframe = level.timeframe;
+		int from = 0;
+		if (level.count > 0) {
+			from = indexOf(values, size(), level.bars[level.count - 1].valueX + levelTimeframe);
+			if (from < 0) {
+				// up to date
+				return level;
+			}
+		}
+		for (int i = from; i < size(); i++) {
+			CandleData bar = toCandle(values[i]);
+			double start = Math.floor(bar.valueX / levelTimeframe) * levelTimeframe;
+			int last = level.count - 1;
+			if (last >= 0 && level.bars[last].valueX == start) {
+				CandleData merged = (CandleData) level.bars[last];
+				level.bars[last] = new CandleData(start, merged.open, Math.max(merged.high, bar.high),
+						Math.min(merged.low, bar.low), bar.close);
+			} else {
+				if (level.count == level.bars.length) {
+					level.bars = Arrays.copyOf(level.bars, level.count * 2);
+				}
+				level.bars[level.count++] = new CandleData(start, bar.open, bar.high, bar.low, bar.close);
+			}
+		}
+		return level;
+	}
+}
@@ -0,0 +1,82 @@
+package com.kusand.graphview;
+
+/**
+ * Maps intensities to colors with a lookup table of 256 colors, interpolated between color stops.
+ * The color of a value is one multiplication and one array access. NaN is transparent.
+ */
+public class ColorMap {
+    private static final int LEVELS = 256;
+
+    private final int[] lut = new int[LEVELS];
+    private final double min;
+    private final double max;
+    private final double scale;
+
+    /**
+     * @param stops colors (ARGB) from min to max, at least two
+     * @param min intensity of the first color
+     * @param max intensity of the last color
+     */
+    public ColorMap(int[] stops, double min, double max) {
+        if (stops.length < 2) {
+            throw new IllegalArgumentException("a color map needs at least two colors");
+        }
+        this.min = min;
+        this.max = max;
+        this.scale = max > min ? (LEVELS - 1) / (max - min) : 0;
+        for (int i = 0; i < LEVELS; i++) {
+            double position = (double) i / (LEVELS - 1) * (stops.length - 1);
+            int stop = Math.min(stops.length - 2, (int) position);
+            lut[i] = interpolate(stops[stop], stops[stop + 1], position - stop);
+        }
+    }
+
+    /**
+     * black to white
+     */
+    public static ColorMap grayscale(double min, double max) {
+        return new ColorMap(new int[] {0xff000000, 0xffffffff}, min, max);
+    }
+
+    /**
+     * black, red, yellow, white
+     */
+    public static ColorMap heat(double min, double max) {
+        return new ColorMap(new int[] {0xff000000, 0xffcc0000, 0xffffdd00, 0xffffffff}, min, max);
+    }
+
+    private static int interpolate(int from, int to, double fraction) {
+        int color = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int a = (from >>> shift) & 0xff;
+            int b = (to >>> shift) & 0xff;
+            color |= ((int) Math.round(a + (b - a) * fraction) & 0xff) << shift;
+        }
+        return color;
+    }
+
+    /**
+     * @return color of the value, values outside of the range get the first or last color, NaN is transparent
+     */
+    public int getColor(double value) {
+        if (value != value) {
+            // NaN
+            return 0;
+        }
+        int index = (int) ((value - min) * scale);
+        if (index < 0) {
+            index = 0;
+        } else if (index >= LEVELS) {
+            index = LEVELS - 1;
+        }
+        return lut[index];
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+}
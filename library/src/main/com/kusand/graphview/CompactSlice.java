@@ -0,0 +1,59 @@
+package com.kusand.graphview;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+
+/**
+ * The drawn values of a series that stores its values compactly, e.g. in primitive arrays.
+ * Large ranges are decimated to the minimum and maximum per bucket on the compact storage,
+ * so at most 3 * buckets + 2 values are materialized, independent of the number of values.
+ * The values are kept until the range or the data changes.
+ */
+final class CompactSlice {
+    private GraphViewData[] values = new GraphViewData[0];
+    private int[] indexes = new int[0];
+    private int from = -1;
+    private int to;
+    private int buckets;
+    private int version;
+
+    /**
+     * @param version changes whenever the data of the series changes
+     * @return the values to draw, see {@link BaseSeries#drawSlice(int, int, int)}
+     */
+    GraphViewData[] get(BaseSeries series, int version, int from, int to, int buckets) {
+        if (this.from == from && this.to == to && this.buckets == buckets && this.version == version) {
+            return values;
+        }
+        int capacity = Math.min(to - from, 3 * buckets + 2);
+        if (indexes.length < capacity) {
+            indexes = new int[capacity];
+        }
+        int count = Decimator.minMaxIndexes(series, from, to, buckets, indexes);
+        if (values.length != count) {
+            values = new GraphViewData[count];
+        }
+        for (int i = 0; i < count; i++) {
+            values[i] = series.get(indexes[i]);
+        }
+        this.from = from;
+        this.to = to;
+        this.buckets = buckets;
+        this.version = version;
+        return values;
+    }
+
+    /**
+     * @return index in the series of the i-th value of the slice, if the slice is the one of {@link #get}
+     */
+    int indexOf(GraphViewData[] slice, int i) {
+        return slice == values ? indexes[i] : -1;
+    }
+
+    /**
+     * forgets the values, e.g. when the data was replaced
+     */
+    void clear() {
+        values = new GraphViewData[0];
+        from = -1;
+    }
+}
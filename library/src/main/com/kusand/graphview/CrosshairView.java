@@ -0,0 +1,159 @@
+package com.kusand.graphview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Paint.Align;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+
+/**
+ * Crosshair overlay for a graph. It shows the nearest value of every series at a view coordinate.
+ * Place it with the same size on top of the graph, e.g. in a FrameLayout, and call {@link #setGraphView(GraphView)}.
+ * Moving the crosshair only redraws this overlay, not the series of the graph.
+ *
+ * If the graph is not scrollable, touches on the overlay move the crosshair. Otherwise they are passed to the graph
+ * and the crosshair can be moved with {@link #showAt(float, float)}.
+ */
+public class CrosshairView extends View {
+    private static final float POINT_RADIUS = 4;
+
+    private GraphView graphView;
+    private boolean showing;
+    private float crosshairX;
+    private float crosshairY;
+    private final Paint linePaint = new Paint();
+    private final Paint pointPaint = new Paint();
+    private final Paint textPaint = new Paint();
+
+    public CrosshairView(Context context) {
+        super(context);
+        initPaints();
+    }
+
+    public CrosshairView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        initPaints();
+    }
+
+    public CrosshairView(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        initPaints();
+    }
+
+    private void initPaints() {
+        linePaint.setARGB(160, 128, 128, 128);
+        linePaint.setStrokeWidth(0);
+        pointPaint.setAntiAlias(true);
+        pointPaint.setStyle(Paint.Style.FILL);
+        textPaint.setAntiAlias(true);
+        textPaint.setARGB(255, 255, 255, 255);
+        textPaint.setTextAlign(Align.LEFT);
+    }
+
+    public GraphView getGraphView() {
+        return graphView;
+    }
+
+    /**
+     * @param graphView the graph below this overlay, null to detach
+     */
+    public void setGraphView(GraphView graphView) {
+        if (this.graphView != null) {
+            this.graphView.setCrosshairView(null);
+        }
+        this.graphView = graphView;
+        if (graphView != null) {
+            graphView.setCrosshairView(this);
+        }
+        invalidate();
+    }
+
+    public boolean isShowing() {
+        return showing;
+    }
+
+    /**
+     * shows the crosshair at a view coordinate of the graph
+     */
+    public void showAt(float x, float y) {
+        showing = true;
+        crosshairX = x;
+        crosshairY = y;
+        invalidate();
+    }
+
+    public void hide() {
+        if (showing) {
+            showing = false;
+            invalidate();
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (graphView == null || graphView.isScrollable()) {
+            return false;
+        }
+        switch (event.getAction() & MotionEvent.ACTION_MASK) {
+            case MotionEvent.ACTION_DOWN:
+            case MotionEvent.ACTION_MOVE:
+                showAt(event.getX(), event.getY());
+                return true;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                hide();
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (!showing || graphView == null) {
+            return;
+        }
+        RectF content = graphView.getGraphContentRect();
+        if (content.width() <= 0 || content.height() <= 0) {
+            return;
+        }
+        float x = Math.max(content.left, Math.min(content.right, crosshairX));
+        float y = Math.max(content.top, Math.min(content.bottom, crosshairY));
+        canvas.drawLine(x, content.top, x, content.bottom, linePaint);
+        canvas.drawLine(content.left, y, content.right, y, linePaint);
+
+        float lineHeight = textPaint.getTextSize() + 2;
+        float textX = x + POINT_RADIUS * 2;
+        if (textX > content.centerX()) {
+            // keep the text inside of the graph
+            textX = content.left + POINT_RADIUS * 2;
+        }
+        float textY = content.top + lineHeight;
+        canvas.drawText(graphView.formatLabel(graphView.toValueX(x), true), textX, textY, textPaint);
+
+        int seriesCount = graphView.getSeriesCount();
+        for (int i = 0; i < seriesCount; i++) {
+            GraphViewData value = graphView.findNearestValue(i, x, y);
+            if (value == null) {
+                continue;
+            }
+            BaseSeries series = graphView.getSeries(i);
+            pointPaint.setColor(series.style.color);
+            float pointX = graphView.toViewX(value.valueX);
+            float pointY = graphView.toViewY(value.valueY, graphView.getYAxis(series));
+            if (content.contains(pointX, pointY)) {
+                canvas.drawCircle(pointX, pointY, POINT_RADIUS, pointPaint);
+            }
+            textY += lineHeight;
+            String label = graphView.formatLabel(value.valueY, false);
+            if (series.description != null) {
+                label = series.description + ": " + label;
+            }
+            canvas.drawText(label, textX, textY, pointPaint);
+        }
+    }
+}
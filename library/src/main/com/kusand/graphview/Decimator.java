@@ -0,0 +1,122 @@
+package com.kusand.graphview;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+
+/**
+ * Reduces the number of data points that are passed to the renderer.
+ * The values are split into buckets of equal count and only the minimum and the maximum
+ * of every bucket are kept, so that peaks stay visible. If a bucket contains a gap (NaN value),
+ * the first gap is kept too, so the line is still split.
+ */
+final class Decimator {
+    private Decimator() {
+    }
+
+    /**
+     * @param values values sorted by x
+     * @param buckets number of buckets, normally the width of the graph in pixels divided by the bucket width
+     * @return the decimated values (in x order), or the given array if it is small enough
+     */
+    static GraphViewData[] minMax(GraphViewData[] values, int buckets) {
+        if (buckets < 1 || values.length <= 2 * buckets + 2) {
+            return values;
+        }
+        int[] indexes = new int[3 * buckets + 2];
+        int count = minMaxIndexes(values, null, 0, values.length, buckets, indexes);
+        GraphViewData[] result = new GraphViewData[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = values[indexes[i]];
+        }
+        return result;
+    }
+
+    /**
+     * the same decimation as {@link #minMax(GraphViewData[], int)}, on the y values of a series range.
+     * only the indexes are computed, so series with a compact storage materialize only the kept values.
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param out the kept indexes in x order, at least 3 * buckets + 2 long
+     * @return number of kept indexes, all indexes of the range if it is small enough
+     */
+    static int minMaxIndexes(BaseSeries series, int from, int to, int buckets, int[] out) {
+        return minMaxIndexes(null, series, from, to, buckets, out);
+    }
+
+    /**
+     * always keeps the first and the last value, they are outside of the viewport for nice scrolling.
+     * min, max and one gap per bucket.
+     * @param values the y values are read from this array, or from the series if it is null
+     */
+    private static int minMaxIndexes(GraphViewData[] values, BaseSeries series, int from, int to, int buckets, int[] out) {
+        int count = 0;
+        if (buckets < 1 || to - from <= 2 * buckets + 2) {
+            for (int i = from; i < to; i++) {
+                out[count++] = i;
+            }
+            return count;
+        }
+        out[count++] = from;
+        int last = to - 1;
+        double bucketSize = (double) (last - from - 1) / buckets;
+        for (int b = 0; b < buckets; b++) {
+            int bucketFrom = from + 1 + (int) (b * bucketSize);
+            int bucketTo = b == buckets - 1 ? last : from + 1 + (int) ((b + 1) * bucketSize);
+            if (bucketFrom >= bucketTo) {
+                continue;
+            }
+            int minIdx = -1;
+            int maxIdx = -1;
+            int gapIdx = -1;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = bucketFrom; i < bucketTo; i++) {
+                double y = values != null ? values[i].valueY : series.getY(i);
+                if (y < min) {
+                    min = y;
+                    minIdx = i;
+                }
+                if (y > max) {
+                    max = y;
+                    maxIdx = i;
+                }
+                if (gapIdx < 0 && Double.isNaN(y)) {
+                    gapIdx = i;
+                }
+            }
+            count = addInOrder(out, count, minIdx, maxIdx, gapIdx);
+        }
+        out[count++] = last;
+        return count;
+    }
+
+    /**
+     * adds these indexes in order, without duplicates. -1 is no index.
+     */
+    private static int addInOrder(int[] out, int count, int a, int b, int c) {
+        if (a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        if (b > c) {
+            int t = b;
+            b = c;
+            c = t;
+        }
+        if (a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        if (a >= 0) {
+            out[count++] = a;
+        }
+        if (b >= 0 && b != a) {
+            out[count++] = b;
+        }
+        if (c >= 0 && c != b) {
+            out[count++] = c;
+        }
+        return count;
+    }
+}
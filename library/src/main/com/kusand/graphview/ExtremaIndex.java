@@ -0,0 +1,187 @@
+package com.kusand.graphview;
+
+import java.util.Arrays;
+
+/**
+ * Minimum and maximum Y value per block of 64 data points, with a segment tree over the blocks.
+ * A range query only scans the partial blocks at both ends and queries the tree in between, in O(log n).
+ * Appended values are indexed incrementally. Gaps (NaN values) are skipped.
+ * Subclasses can index another low and high value than Y, e.g. the wicks of a candle.
+ */
+class ExtremaIndex {
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private double[] blockMin = new double[4];
+    private double[] blockMax = new double[4];
+    // segment tree over the blocks, the leaf of block b is at treeLeaves + b
+    private int treeLeaves = 4;
+    private double[] treeMin = new double[8];
+    private double[] treeMax = new double[8];
+    private int size;
+
+    /**
+     * @return the value at this index that is indexed for the minimum
+     */
+    double low(BaseSeries series, int index) {
+        return series.getY(index);
+    }
+
+    /**
+     * @return the value at this index that is indexed for the maximum
+     */
+    double high(BaseSeries series, int index) {
+        return series.getY(index);
+    }
+
+    /**
+     * @return number of values that are indexed
+     */
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * a value at this index changed or was inserted. the blocks before stay valid,
+     * the rest is indexed again with the next {@link #update(BaseSeries)}.
+     */
+    void invalidateFrom(int index) {
+        if (index < size) {
+            size = (index >> BLOCK_SHIFT) << BLOCK_SHIFT;
+        }
+    }
+
+    /**
+     * indexes all values that were appended since the last call
+     */
+    void update(BaseSeries series) {
+        int count = series.size();
+        if (count < size) {
+            // the data was replaced by a smaller array
+            size = 0;
+        }
+        int blocks = (count + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        if (blocks > blockMin.length) {
+            int capacity = Math.max(blocks, blockMin.length * 2);
+            double[] newMin = new double[capacity];
+            double[] newMax = new double[capacity];
+            System.arraycopy(blockMin, 0, newMin, 0, blockMin.length);
+            System.arraycopy(blockMax, 0, newMax, 0, blockMax.length);
+            blockMin = newMin;
+            blockMax = newMax;
+        }
+        int firstBlock = size >> BLOCK_SHIFT;
+        for (int i = size; i < count; i++) {
+            int block = i >> BLOCK_SHIFT;
+            double low = low(series, i);
+            double high = high(series, i);
+            if ((i & (BLOCK_SIZE - 1)) == 0) {
+                blockMin[block] = Double.POSITIVE_INFINITY;
+                blockMax[block] = Double.NEGATIVE_INFINITY;
+            }
+            // a gap (NaN) fails both comparisons and is skipped
+            if (low < blockMin[block]) blockMin[block] = low;
+            if (high > blockMax[block]) blockMax[block] = high;
+        }
+        size = count;
+        if (blocks > treeLeaves) {
+            buildTree(blocks);
+        } else {
+            for (int block = firstBlock; block < blocks; block++) {
+                updateTree(block);
+            }
+        }
+    }
+
+    private void buildTree(int blocks) {
+        while (treeLeaves < blocks) {
+            treeLeaves <<= 1;
+        }
+        treeMin = new double[treeLeaves * 2];
+        treeMax = new double[treeLeaves * 2];
+        Arrays.fill(treeMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(treeMax, Double.NEGATIVE_INFINITY);
+        System.arraycopy(blockMin, 0, treeMin, treeLeaves, blocks);
+        System.arraycopy(blockMax, 0, treeMax, treeLeaves, blocks);
+        for (int node = treeLeaves - 1; node > 0; node--) {
+            treeMin[node] = Math.min(treeMin[node * 2], treeMin[node * 2 + 1]);
+            treeMax[node] = Math.max(treeMax[node * 2], treeMax[node * 2 + 1]);
+        }
+    }
+
+    private void updateTree(int block) {
+        int node = treeLeaves + block;
+        treeMin[node] = blockMin[block];
+        treeMax[node] = blockMax[block];
+        for (node >>= 1; node > 0; node >>= 1) {
+            treeMin[node] = Math.min(treeMin[node * 2], treeMin[node * 2 + 1]);
+            treeMax[node] = Math.max(treeMax[node * 2], treeMax[node * 2 + 1]);
+        }
+    }
+
+    /**
+     * @return first block that starts at or after the index
+     */
+    private static int blockAfter(int index) {
+        return (index + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+    }
+
+    /**
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @return the minimal Y value in the range, or {@link Double#POSITIVE_INFINITY} if the range is empty
+     */
+    double min(BaseSeries series, int from, int to) {
+        // whole blocks from the tree, the partial blocks at both ends value by value
+        int firstBlock = blockAfter(from);
+        int endBlock = to >> BLOCK_SHIFT;
+        if (firstBlock >= endBlock) {
+            return scanMin(series, from, to, Double.POSITIVE_INFINITY);
+        }
+        double smallest = scanMin(series, from, firstBlock << BLOCK_SHIFT, Double.POSITIVE_INFINITY);
+        for (int l = firstBlock + treeLeaves, r = endBlock + treeLeaves; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) smallest = Math.min(smallest, treeMin[l++]);
+            if ((r & 1) == 1) smallest = Math.min(smallest, treeMin[--r]);
+        }
+        return scanMin(series, endBlock << BLOCK_SHIFT, to, smallest);
+    }
+
+    private double scanMin(BaseSeries series, int from, int to, double smallest) {
+        for (int i = from; i < to; i++) {
+            double low = low(series, i);
+            if (low < smallest) smallest = low;
+        }
+        return smallest;
+    }
+
+    /**
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @return the maximal Y value in the range, or {@link Double#NEGATIVE_INFINITY} if the range is empty
+     */
+    double max(BaseSeries series, int from, int to) {
+        int firstBlock = blockAfter(from);
+        int endBlock = to >> BLOCK_SHIFT;
+        if (firstBlock >= endBlock) {
+            return scanMax(series, from, to, Double.NEGATIVE_INFINITY);
+        }
+        double largest = scanMax(series, from, firstBlock << BLOCK_SHIFT, Double.NEGATIVE_INFINITY);
+        for (int l = firstBlock + treeLeaves, r = endBlock + treeLeaves; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) largest = Math.max(largest, treeMax[l++]);
+            if ((r & 1) == 1) largest = Math.max(largest, treeMax[--r]);
+        }
+        return scanMax(series, endBlock << BLOCK_SHIFT, to, largest);
+    }
+
+    private double scanMax(BaseSeries series, int from, int to, double largest) {
+        for (int i = from; i < to; i++) {
+            double high = high(series, i);
+            if (high > largest) largest = high;
+        }
+        return largest;
+    }
+}
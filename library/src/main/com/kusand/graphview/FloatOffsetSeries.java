@@ -0,0 +1,307 @@
+package com.kusand.graphview;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.GraphViewSeries.GraphViewStyle;
+
+/**
+ * Series for large x values, e.g. epoch milliseconds, that stores x as float offsets from a double base.
+ * A value takes 12 bytes instead of a {@link GraphViewData} object and its reference.
+ *
+ * The values are stored in chunks. Every chunk has the x value of its first value as base; a value starts a new chunk
+ * if its offset from the base can not be stored as float within the x precision of the series. With a precision of 0,
+ * e.g. integral milliseconds, x is stored losslessly for offsets up to 2^24 (about 4.6 hours).
+ *
+ * On a linear x axis, the x values are projected from the float offsets directly, with one double base per chunk.
+ * Only the drawn values are materialized as {@link GraphViewData}, at most a few per pixel, see {@link CompactSlice}.
+ *
+ * Values can only be appended in order or replaced with {@link #resetData(GraphViewData[])}.
+ */
+public class FloatOffsetSeries extends BaseSeries {
+	private static final int CHUNK_SIZE = 4096;
+
+	/**
+	 * values with x = base + offset
+	 */
+	private static final class Chunk {
+		final double base;
+		final int start;
+		final float[] offsets = new float[CHUNK_SIZE];
+		final double[] y = new double[CHUNK_SIZE];
+		int size;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+
+		Chunk(double base, int start) {
+			this.base = base;
+			this.start = start;
+		}
+
+		double getX(int index) {
+			return base + offsets[index];
+		}
+	}
+
+	private final double xPrecision;
+	private final List<Chunk> chunks = new ArrayList<Chunk>();
+	private int size;
+	private int version;
+
+	// the materialized values that are drawn
+	private final CompactSlice drawn = new CompactSlice();
+
+	/**
+	 * @param xPrecision maximal error of a stored x value, 0 for lossless storage
+	 */
+	public FloatOffsetSeries(String description, GraphViewStyle style, double xPrecision) {
+		super(description, style, new GraphViewData[0], new ExtremaIndex());
+		this.xPrecision = xPrecision;
+	}
+
+	/**
+	 * appends one value, amortized O(1)
+	 * @param valueX must not be smaller than the last x value
+	 * @param scrollToEnd true => graphview will scroll to the end (maxX)
+	 */
+	public void appendData(double valueX, double valueY, boolean scrollToEnd) {
+		store(valueX, valueY);
+		onAppended(scrollToEnd);
+	}
+
+	/**
+	 * appends one value, amortized O(1)
+	 * @param value x must not be smaller than the last x value
+	 * @param scrollToEnd true => graphview will scroll to the end (maxX)
+	 */
+	public void appendData(GraphViewData value, boolean scrollToEnd) {
+		store(value.valueX, value.valueY);
+		onAppended(scrollToEnd);
+	}
+
+	/**
+	 * clears the current data and sets the new
+	 * @param values sorted by x
+	 */
+	public void resetData(GraphViewData[] values) {
+		chunks.clear();
+		size = 0;
+		for (int i = 0; i < values.length; i++) {
+			store(values[i].valueX, values[i].valueY);
+		}
+		version++;
+		onReset();
+	}
+
+	private void store(double valueX, double valueY) {
+		Chunk chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+		if (chunk == null || chunk.size == CHUNK_SIZE || !fits(chunk.base, valueX)) {
+			chunk = new Chunk(valueX, size);
+			chunks.add(chunk);
+		}
+		chunk.offsets[chunk.size] = (float) (valueX - chunk.base);
+		chunk.y[chunk.size] = valueY;
+		chunk.size++;
+		if (valueY < chunk.minY) {
+			chunk.minY = valueY;
+		}
+		if (valueY > chunk.maxY) {
+			chunk.maxY = valueY;
+		}
+		size++;
+		version++;
+	}
+
+	/**
+	 * @return true if the offset of x from the base is a float within the precision
+	 */
+	private boolean fits(double base, double valueX) {
+		double offset = valueX - base;
+		return Math.abs(base + (float) offset - valueX) <= xPrecision;
+	}
+
+	/**
+	 * @return number of chunks, every chunk has its own base
+	 */
+	int getChunkCount() {
+		return chunks.size();
+	}
+
+	/**
+	 * @return the chunk of the value at this index
+	 */
+	private int chunkIndex(int index) {
+		int low = 0;
+		int high = chunks.size() - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (chunks.get(mid).start <= index) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @param strict false for the first value >= x, true for the first value > x
+	 * @return index of the value
+	 */
+	private int search(double valueX, boolean strict) {
+		// the chunk, then the value in the chunk
+		int low = 0;
+		int high = chunks.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			Chunk chunk = chunks.get(mid);
+			double last = chunk.getX(chunk.size - 1);
+			if (strict ? last <= valueX : last < valueX) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		if (low == chunks.size()) {
+			return size;
+		}
+		Chunk chunk = chunks.get(low);
+		int from = 0;
+		int to = chunk.size;
+		while (from < to) {
+			int mid = (from + to) >>> 1;
+			double x = chunk.getX(mid);
+			if (strict ? x <= valueX : x < valueX) {
+				from = mid + 1;
+			} else {
+				to = mid;
+			}
+		}
+		return chunk.start + from;
+	}
+
+	@Override
+	int size() {
+		return size;
+	}
+
+	@Override
+	double getX(int index) {
+		Chunk chunk = chunks.get(chunkIndex(index));
+		return chunk.getX(index - chunk.start);
+	}
+
+	@Override
+	double getY(int index) {
+		Chunk chunk = chunks.get(chunkIndex(index));
+		return chunk.y[index - chunk.start];
+	}
+
+	@Override
+	GraphViewData get(int index) {
+		Chunk chunk = chunks.get(chunkIndex(index));
+		int i = index - chunk.start;
+		return new GraphViewData(chunk.getX(i), chunk.y[i]);
+	}
+
+	/**
+	 * materializes every value of the range, e.g. for a derived series. the drawn values are bounded by
+	 * {@link #drawSlice(int, int, int)}.
+	 */
+	@Override
+	GraphViewData[] slice(int from, int to) {
+		GraphViewData[] slice = new GraphViewData[to - from];
+		int c = chunkIndex(from);
+		int k = 0;
+		for (int index = from; index < to; c++) {
+			Chunk chunk = chunks.get(c);
+			int end = Math.min(to, chunk.start + chunk.size);
+			for (; index < end; index++) {
+				int i = index - chunk.start;
+				slice[k++] = new GraphViewData(chunk.getX(i), chunk.y[i]);
+			}
+		}
+		return slice;
+	}
+
+	@Override
+	GraphViewData[] drawSlice(int from, int to, int buckets) {
+		return drawn.get(this, version, from, to, buckets);
+	}
+
+	@Override
+	boolean projectSliceX(GraphViewData[] slice, double min, double scale, float origin, float[] out) {
+		if (slice.length == 0 || drawn.indexOf(slice, 0) < 0) {
+			// not the drawn values of this series
+			return false;
+		}
+		// the indexes of the drawn values are ascending, so the chunks are walked once
+		int c = chunkIndex(drawn.indexOf(slice, 0));
+		Chunk chunk = chunks.get(c);
+		// the large base is subtracted once per chunk, the offsets are small
+		double chunkOrigin = origin + (chunk.base - min) * scale;
+		for (int k = 0; k < slice.length; k++) {
+			int index = drawn.indexOf(slice, k);
+			while (index >= chunk.start + chunk.size) {
+				chunk = chunks.get(++c);
+				chunkOrigin = origin + (chunk.base - min) * scale;
+			}
+			out[k] = (float) (chunkOrigin + chunk.offsets[index - chunk.start] * scale);
+		}
+		return true;
+	}
+
+	@Override
+	int sliceStart(double minX) {
+		return Math.max(0, search(minX, false) - 1);
+	}
+
+	@Override
+	int sliceEnd(double maxX) {
+		return Math.min(size, search(maxX, true) + 1);
+	}
+
+	@Override
+	double getMinY(int from, int to) {
+		double min = Double.POSITIVE_INFINITY;
+		for (int index = from, c = chunkIndex(from); index < to; c++) {
+			Chunk chunk = chunks.get(c);
+			int end = Math.min(to, chunk.start + chunk.size);
+			if (index == chunk.start && end == chunk.start + chunk.size) {
+				// the whole chunk
+				min = Math.min(min, chunk.minY);
+				index = end;
+				continue;
+			}
+			for (; index < end; index++) {
+				double value = chunk.y[index - chunk.start];
+				if (value < min) {
+					min = value;
+				}
+			}
+		}
+		return min;
+	}
+
+	@Override
+	double getMaxY(int from, int to) {
+		double max = Double.NEGATIVE_INFINITY;
+		for (int index = from, c = chunkIndex(from); index < to; c++) {
+			Chunk chunk = chunks.get(c);
+			int end = Math.min(to, chunk.start + chunk.size);
+			if (index == chunk.start && end == chunk.start + chunk.size) {
+				max = Math.max(max, chunk.maxY);
+				index = end;
+				continue;
+			}
+			for (; index < end; index++) {
+				double value = chunk.y[index - chunk.start];
+				if (value > max) {
+					max = value;
+				}
+			}
+		}
+		return max;
+	}
+}
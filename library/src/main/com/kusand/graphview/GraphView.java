@@ -2,6 +2,8 @@ package com.kusand.graphview;
 
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import android.content.Context;
@@ -11,15 +13,27 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Paint.Align;
+import android.graphics.Picture;
 import android.graphics.RectF;
+import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.TypedValue;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
+import android.view.ViewConfiguration;
 
-import com.kusand.graphview.compatible.ScaleGestureDetector;
+import com.kusand.graphview.axis.AxisTransform;
+import com.kusand.graphview.gestures.ScaleGestureHandler;
+import com.kusand.graphview.gestures.ScaleGestures;
 import com.kusand.graphview.labels.DefaultLabelGenerator;
 import com.kusand.graphview.labels.LabelGenerator;
+import com.kusand.graphview.metrics.RenderMetrics;
+import com.kusand.graphview.metrics.RenderMetrics.Counter;
+import com.kusand.graphview.metrics.RenderMetrics.Stage;
 
 /**
  * GraphView is a Android View for creating zoomable and scrollable graphs.
@@ -57,12 +71,96 @@ public abstract class GraphView extends View {
     private int horizontalLabelColor = Color.WHITE;
     private int titleColor = Color.WHITE;
 
+    // Gestures and render quality
+    /**
+     * width of one decimation bucket in pixels for {@link RenderQuality#FAST}
+     */
+    private static final float FAST_LOD_BUCKET_WIDTH = 4;
+    private static final long DEFAULT_FRAME_BUDGET = 16;
+    final ViewportAnimator animator = new ViewportAnimator();
+    private VelocityTracker velocityTracker;
+    private boolean touching;
+    private boolean scaledDuringTouch;
+    private boolean flingEnabled = true;
+    private long frameBudget = DEFAULT_FRAME_BUDGET;
+    private RenderQuality renderQuality = RenderQuality.FULL;
+
+    // Vertical viewport and cached autoscale bounds
+    private double viewportStartY;
+    private double viewportSizeY;
+    private double autoScaleYPadding;
+    private boolean autoScaleBoundsValid;
+    private double autoScaleMinY;
+    private double autoScaleMaxY;
+
+    // Axis transforms and the projection constants of the current frame
+    private AxisTransform horizontalTransform = AxisTransform.LINEAR;
+    private AxisTransform verticalTransform = AxisTransform.LINEAR;
+    private double projectionMinX;
+    private double projectionScaleX;
+    private double projectionMinY;
+    private double projectionScaleY;
+    private AxisTransform projectionTransformY = AxisTransform.LINEAR;
+    private double[] projectionX = new double[0];
+    private double[] projectionY = new double[0];
+
+    // Secondary y axes, the axis of every series (null for the primary axis)
+    private final List<YAxis> yAxes = new ArrayList<YAxis>();
+    private final List<YAxis> seriesAxes = new ArrayList<YAxis>();
+    // visibility of every series in this graph, a series can be hidden in one graph and drawn in another
+    private final List<Boolean> seriesVisible = new ArrayList<Boolean>();
+    private final double[] primaryExtrema = new double[2];
+    private int yAxisLabelsVersion;
+
+    // Instrumentation, null if not used
+    private RenderMetrics renderMetrics;
+
+    // One paint per role. They are configured once, so drawing does not change paint state.
+    // The series are drawn with paint, which is set up per series.
+    private final Paint gridPaint = new Paint();
+    private final Paint horizontalLabelLeftPaint = new Paint();
+    private final Paint horizontalLabelCenterPaint = new Paint();
+    private final Paint horizontalLabelRightPaint = new Paint();
+    private final Paint titlePaint = new Paint();
+    private final Paint legendPaint = new Paint();
+    private final Paint legendTextPaint = new Paint();
+    private final Paint placeholderPaint = new Paint();
+    private final Paint annotationPaint = new Paint();
+    private final Paint annotationTextPaint = new Paint();
+    private final Legend legend = new Legend();
+    private boolean legendTogglesVisibility;
+    private boolean legendDragging;
+
+    // Recorded static layer for DrawingCacheMode.PICTURE
+    private DrawingCacheMode drawingCacheMode = DrawingCacheMode.NONE;
+    private Picture staticLayer;
+    private boolean staticLayerDirty;
+    private String[] recordedHorlabels;
+    private String[] recordedVerlabels;
+    private int recordedYAxisLabelsVersion;
+    private float recordedWidth;
+    private float recordedHeight;
+    private RenderQuality recordedQuality;
+
+    // annotations over the series, recorded separately for DrawingCacheMode.PICTURE
+    private final AnnotationLayer annotationLayer = new AnnotationLayer(this);
+    private Picture annotationPicture;
+    private int recordedAnnotationVersion;
+    private final double[] recordedAnnotationBounds = new double[4];
+    private AxisTransform recordedAnnotationTransformX;
+    private AxisTransform recordedAnnotationTransformY;
+    private float recordedAnnotationWidth;
+    private float recordedAnnotationHeight;
+    private boolean tapping;
+    private float tapX;
+    private float tapY;
 
     protected GraphView(Context context) {
         super(context);
 
         paint = new Paint();
         labelPaint = new Paint();
+        initRolePaints();
     }
 
     protected GraphView(Context context, AttributeSet attrs) {
@@ -71,6 +169,7 @@ public abstract class GraphView extends View {
 
         paint = new Paint();
         labelPaint = new Paint();
+        initRolePaints();
     }
 
     protected GraphView(Context context, AttributeSet attrs, int defStyle) {
@@ -79,6 +178,7 @@ public abstract class GraphView extends View {
 
         paint = new Paint();
         labelPaint = new Paint();
+        initRolePaints();
     }
 
     protected void pullAttributes(Context ctx, AttributeSet attrs) {
@@ -111,22 +211,290 @@ public abstract class GraphView extends View {
             if(a.hasValue(R.styleable.GraphView_titleColor)) {
                 titleColor = a.getColor(R.styleable.GraphView_titleColor, Color.WHITE);
             }
+            if(a.hasValue(R.styleable.GraphView_autoScaleYPadding)) {
+                autoScaleYPadding = a.getFloat(R.styleable.GraphView_autoScaleYPadding, 0);
+            }
+            if(a.hasValue(R.styleable.GraphView_frameBudget)) {
+                frameBudget = a.getInt(R.styleable.GraphView_frameBudget, (int) DEFAULT_FRAME_BUDGET);
+            }
+            drawingCacheMode = DrawingCacheMode.values()[a.getInt(R.styleable.GraphView_drawingCacheMode, drawingCacheMode.ordinal())];
         }
         finally {
             a.recycle();
         }
     }
 
+    private void initRolePaints() {
+        gridPaint.setAntiAlias(true);
+        gridPaint.setStrokeWidth(0);
+        gridPaint.setColor(Color.DKGRAY);
+        initTextPaint(horizontalLabelLeftPaint, horizontalLabelColor, Align.LEFT);
+        initTextPaint(horizontalLabelCenterPaint, horizontalLabelColor, Align.CENTER);
+        initTextPaint(horizontalLabelRightPaint, horizontalLabelColor, Align.RIGHT);
+        initTextPaint(titlePaint, titleColor, Align.CENTER);
+        initTextPaint(legendTextPaint, Color.WHITE, Align.LEFT);
+        legendPaint.setAntiAlias(true);
+        legendPaint.setARGB(180, 100, 100, 100);
+        placeholderPaint.setARGB(32, 255, 255, 255);
+        annotationPaint.setAntiAlias(true);
+        annotationPaint.setStrokeWidth(2);
+        initTextPaint(annotationTextPaint, Color.WHITE, Align.LEFT);
+        labelPaint.setTextAlign(Align.LEFT);
+        labelPaint.setColor(verticalLabelColor);
+        setLabelPaintSize(verticalLabelTextSize);
+    }
+
+    private static void initTextPaint(Paint textPaint, int color, Align align) {
+        textPaint.setAntiAlias(true);
+        textPaint.setColor(color);
+        textPaint.setTextAlign(align);
+    }
+
     private float lastTouchEventX;
+    private float lastTouchEventY;
     private float graphwidth;
+    private float graphheight;
 
     /**
      * @param canvas
      */
     @Override
     protected void onDraw(Canvas canvas) {
-        drawLabels(canvas);
+        long frameStart = System.nanoTime();
+        long metricsStart = beginStage();
+        boolean animating = computeAnimationFrame();
+        // may flush the vertical labels, so this has to be done before they are drawn
+        updateAutoScaleBounds();
+
         drawAxes(canvas);
+
+        updateRenderQuality(System.nanoTime() - frameStart, animating);
+        if (animating) {
+            invalidateOnAnimation();
+        }
+        if (metricsStart != 0) {
+            renderMetrics.endFrame(metricsStart);
+        }
+        if (crosshairView != null && crosshairView.isShowing()) {
+            // the values under the crosshair may have moved
+            crosshairView.invalidate();
+        }
+    }
+
+    /**
+     * @return start time for {@link #endStage(Stage, long)}, 0 if there are no enabled metrics
+     */
+    protected long beginStage() {
+        return renderMetrics != null ? renderMetrics.begin() : 0;
+    }
+
+    protected void endStage(Stage stage, long start) {
+        if (start != 0) {
+            renderMetrics.end(stage, start);
+        }
+    }
+
+    /**
+     * adds to a counter of the render metrics, if enabled
+     */
+    protected void countMetric(Counter counter, int amount) {
+        if (renderMetrics != null) {
+            renderMetrics.count(counter, amount);
+        }
+    }
+
+    /**
+     * applies the current frame of a running fling or zoom animation to the viewport
+     * @return true if the animation needs another frame
+     */
+    private boolean computeAnimationFrame() {
+        if (!animator.isRunning()) {
+            return false;
+        }
+        boolean running = animator.computeFrame(SystemClock.uptimeMillis());
+        viewportStart = animator.getStart();
+        viewportSize = animator.getSize();
+        if (clampViewport() && animator.isFlinging()) {
+            // the fling hit the end of the data
+            animator.abort();
+            running = false;
+        }
+        invalidateLabels();
+        publishViewport();
+        return running;
+    }
+
+    /**
+     * switches to the cheaper render tier if a frame of a gesture or animation ran over the budget
+     * and back to full quality as soon as the graph is idle.
+     */
+    void updateRenderQuality(long frameNanos, boolean animating) {
+        if (touching || animating) {
+            if (renderQuality == RenderQuality.FULL && frameBudget > 0 && frameNanos > frameBudget * 1000000L) {
+                renderQuality = RenderQuality.FAST;
+            }
+        } else {
+            restoreFullQuality();
+        }
+    }
+
+    private void restoreFullQuality() {
+        if (renderQuality != RenderQuality.FULL) {
+            renderQuality = RenderQuality.FULL;
+            redrawAll();
+        }
+    }
+
+    private void invalidateOnAnimation() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            postInvalidateOnAnimation();
+        } else {
+            invalidate();
+        }
+    }
+
+    /**
+     * labels have to be regenerated after the viewport changed.
+     * with {@link RenderQuality#FAST} this is deferred until the graph is idle again.
+     */
+    private void invalidateLabels() {
+        // the vertical labels are flushed when the y bounds change
+        autoScaleBoundsValid = false;
+        for (int i = 0; i < yAxes.size(); i++) {
+            yAxes.get(i).invalidateBounds();
+        }
+        if (renderQuality == RenderQuality.FULL) {
+            horlabels = null;
+        }
+    }
+
+    /**
+     * scans the visible data for the autoscale bounds. this is done at most once per frame and only after the data
+     * or the horizontal viewport changed. With {@link #setAutoScaleYPadding(double)} the bounds only change when
+     * the data leaves the padded band, so the vertical labels don't have to be regenerated for every new value.
+     */
+    private void updateAutoScaleBounds() {
+        if (autoScaleBoundsValid || viewportSizeY != 0 || (minY != null && maxY != null)) {
+            return;
+        }
+        autoScaleBoundsValid = true;
+
+        scanVisibleExtrema(null, primaryExtrema);
+        double smallest = primaryExtrema[0];
+        double largest = primaryExtrema[1];
+        if (smallest > largest) {
+            // no data
+            smallest = Integer.MAX_VALUE;
+            largest = Integer.MIN_VALUE;
+        } else {
+            extendAutoScaleBounds(primaryExtrema);
+            padBounds(primaryExtrema, autoScaleMinY, autoScaleMaxY, autoScaleYPadding);
+            smallest = primaryExtrema[0];
+            largest = primaryExtrema[1];
+        }
+        if (smallest != autoScaleMinY || largest != autoScaleMaxY) {
+            autoScaleMinY = smallest;
+            autoScaleMaxY = largest;
+            verlabels = null;
+            numberformatter = null;
+        }
+    }
+
+    /**
+     * applies the padding of {@link #setAutoScaleYPadding(double)} to the extrema of the visible data.
+     * the current bounds are kept while the data stays inside of them and still fills half of the band.
+     * @param extrema smallest and largest value of the data, replaced by the new bounds
+     * @param min current lower bound
+     * @param max current upper bound
+     */
+    static void padBounds(double[] extrema, double min, double max, double padding) {
+        if (padding <= 0) {
+            return;
+        }
+        double smallest = extrema[0];
+        double largest = extrema[1];
+        double range = largest - smallest;
+        double band = max - min;
+        boolean insideBand = band > 0 && smallest >= min && largest <= max
+                && range * (1 + 2 * padding) >= band / 2;
+        if (insideBand) {
+            extrema[0] = min;
+            extrema[1] = max;
+            return;
+        }
+        double margin = (range == 0 ? Math.max(1, Math.abs(largest)) : range) * padding;
+        extrema[0] = smallest - margin;
+        extrema[1] = largest + margin;
+    }
+
+    /**
+     * finds the smallest and largest y value of the visible data of the series of one axis
+     * @param axis null for the primary axis
+     * @param extrema smallest and largest value, smallest > largest if there is no data
+     */
+    void scanVisibleExtrema(YAxis axis, double[] extrema) {
+        long stageStart = beginStage();
+        double smallest = Double.POSITIVE_INFINITY;
+        double largest = Double.NEGATIVE_INFINITY;
+        boolean viewport = viewportStart != 0 || viewportSize != 0;
+        for (int i=0; i<graphSeries.size(); i++) {
+            if (seriesAxes.get(i) != axis || !seriesVisible.get(i)) {
+                continue;
+            }
+            BaseSeries series = graphSeries.get(i);
+            int from = viewport ? series.sliceStart(viewportStart) : 0;
+            int to = viewport ? series.sliceEnd(viewportStart+viewportSize) : series.size();
+            smallest = Math.min(smallest, series.getMinY(from, to));
+            largest = Math.max(largest, series.getMaxY(from, to));
+        }
+        extrema[0] = smallest;
+        extrema[1] = largest;
+        endStage(Stage.EXTREMA, stageStart);
+    }
+
+    /**
+     * the data of a series changed. only the bounds of the axis of this series have to be scanned again.
+     */
+    void onDataChanged(BaseSeries series) {
+        YAxis axis = getYAxis(series);
+        if (axis == null) {
+            autoScaleBoundsValid = false;
+        } else {
+            axis.invalidateBounds();
+        }
+        if (viewportSize == 0 && renderQuality == RenderQuality.FULL) {
+            // the x range of the data may have changed
+            horlabels = null;
+        }
+        invalidate();
+    }
+
+    /**
+     * the labels of a secondary axis were generated again
+     */
+    void onYAxisLabelsChanged() {
+        yAxisLabelsVersion++;
+    }
+
+    /**
+     * keeps the viewport within the data
+     * @return true if the viewport had to be moved
+     */
+    private boolean clampViewport() {
+        if (viewportSize == 0) {
+            return false;
+        }
+        // minimal and maximal view limit
+        double minX = getMinX(true);
+        double maxX = getMaxX(true);
+        if (viewportStart < minX) {
+            viewportStart = minX;
+            return true;
+        } else if (viewportStart+viewportSize > maxX) {
+            viewportStart = maxX - viewportSize;
+            return true;
+        }
+        return false;
     }
 
     private void drawAxes(Canvas canvas) {
@@ -137,81 +505,347 @@ public abstract class GraphView extends View {
 
         float height = getHeight();
         float width = getWidth() - 1;
-        double maxY = getMaxY();
-        double minY = getMinY();
-        double diffY = maxY - minY;
+        graphheight = height - (2 * lowerBorder);
+        // every secondary axis has a label column on the right side
+        graphwidth = width - leftBorder * (1 + yAxes.size());
         double maxX = getMaxX(false);
         double minX = getMinX(false);
         double diffX = maxX - minX;
-        float graphheight = height - (2 * lowerBorder);
-        graphwidth = width - leftBorder;
+        prepareSeries(minX, maxX);
+        double maxY = getMaxY();
+        double minY = getMinY();
+        double diffY = maxY - minY;
+        updateProjection(minX, maxX, minY, maxY);
 
         if (horlabels == null) {
             horlabels = generateHorlabels(graphwidth);
+        } else {
+            countMetric(Counter.ALLOCATIONS_AVOIDED, 1);
         }
         if (verlabels == null) {
             verlabels = generateVerlabels(graphheight);
+        } else {
+            countMetric(Counter.ALLOCATIONS_AVOIDED, 1);
+        }
+        for (int i = 0; i < yAxes.size(); i++) {
+            yAxes.get(i).getLabels(graphheight);
+        }
+
+        if (drawingCacheMode == DrawingCacheMode.PICTURE && canDrawPicture(canvas)) {
+            drawCachedStaticLayer(canvas, width, height);
+        } else {
+            drawStaticLayer(canvas, width, height);
+        }
+
+        if (maxY != minY) {
+            paint.setStrokeCap(Paint.Cap.ROUND);
+
+            drawingVisibleIndex = -1;
+            for (int i=0; i<graphSeries.size(); i++) {
+                if (!seriesVisible.get(i)) {
+                    continue;
+                }
+                drawingVisibleIndex++;
+                double seriesMinY = minY;
+                double seriesDiffY = diffY;
+                YAxis axis = seriesAxes.get(i);
+                if (axis != null) {
+                    // scaled to its own axis
+                    seriesMinY = axis.getMin();
+                    seriesDiffY = axis.getMax() - seriesMinY;
+                    if (seriesDiffY == 0) {
+                        continue;
+                    }
+                    updateProjectionY(axis.getTransform(), seriesMinY, axis.getMax());
+                }
+                drawingSeriesIndex = i;
+                paint.setStrokeWidth(graphSeries.get(i).style.thickness);
+                paint.setColor(graphSeries.get(i).style.color);
+                GraphViewData[] values = _values(i);
+                if (renderQuality == RenderQuality.FAST) {
+                    // coarser level of detail
+                    values = Decimator.minMax(values, (int) (graphwidth / FAST_LOD_BUCKET_WIDTH));
+                }
+                countMetric(Counter.POINTS, values.length);
+                long seriesStart = beginStage();
+                drawSeries(canvas, values, graphwidth, graphheight, lowerBorder, minX, seriesMinY, diffX, seriesDiffY, leftBorder);
+                if (graphSeries.get(i) instanceof PagedSeries) {
+                    drawPlaceholders(canvas, (PagedSeries) graphSeries.get(i));
+                }
+                endStage(Stage.SERIES, seriesStart);
+                if (axis != null) {
+                    updateProjectionY(verticalTransform, minY, maxY);
+                }
+            }
+
+            long annotationsStart = beginStage();
+            drawAnnotations(canvas, minX, maxX, minY, maxY);
+            endStage(Stage.ANNOTATIONS, annotationsStart);
+
+            if (showLegend) {
+                long legendStart = beginStage();
+                drawLegend(canvas, height, leftBorder + graphwidth);
+                endStage(Stage.LEGEND, legendStart);
+            }
+        }
+    }
+
+    /**
+     * tells the visible series which x range is drawn, so that series that load their data lazily can provide it.
+     * the bounds of the axis of a series that changed its values are scanned again.
+     */
+    private void prepareSeries(double minX, double maxX) {
+        for (int i = 0; i < graphSeries.size(); i++) {
+            // hidden series don't load their data
+            if (seriesVisible.get(i) && graphSeries.get(i).onViewport(minX, maxX, graphwidth)) {
+                YAxis axis = seriesAxes.get(i);
+                if (axis == null) {
+                    autoScaleBoundsValid = false;
+                } else {
+                    axis.invalidateBounds();
+                }
+            }
+        }
+    }
+
+    /**
+     * shades the x ranges of a paged series whose data is still loading
+     */
+    private void drawPlaceholders(Canvas canvas, PagedSeries series) {
+        double[] ranges = series.getMissingRanges();
+        int count = series.getMissingRangeCount();
+        float right = leftBorder + graphwidth;
+        for (int i = 0; i < count; i++) {
+            float start = Math.max(leftBorder, toViewX(ranges[i * 2]));
+            float end = Math.min(right, toViewX(ranges[i * 2 + 1]));
+            if (start < end) {
+                canvas.drawRect(start, lowerBorder, end, lowerBorder + graphheight, placeholderPaint);
+            }
+        }
+        countMetric(Counter.DRAW_CALLS, count);
+    }
+
+    /**
+     * draws everything that does not depend on the data: labels, grid and title
+     */
+    private void drawStaticLayer(Canvas canvas, float width, float height) {
+        if (renderQuality == RenderQuality.FULL) {
+            drawLabels(canvas);
+            drawYAxisLabels(canvas);
         }
 
         // vertical lines
-        paint.setTextAlign(Align.LEFT);
         int vers = verlabels.length - 1;
         for (int i = 0; i < verlabels.length; i++) {
-            paint.setColor(Color.DKGRAY);
             float y = ((graphheight / vers) * i) + lowerBorder;
-            canvas.drawLine(leftBorder, y, width, y, paint);
+            canvas.drawLine(leftBorder, y, leftBorder + graphwidth, y, gridPaint);
         }
 
         // horizontal labels + lines
         int hors = horlabels.length - 1;
         for (int i = 0; i < horlabels.length; i++) {
-            paint.setColor(Color.DKGRAY);
             float x = ((graphwidth / hors) * i) + leftBorder;
-            canvas.drawLine(x, height - lowerBorder, x, lowerBorder, paint);
-            paint.setTextAlign(Align.CENTER);
+            canvas.drawLine(x, height - lowerBorder, x, lowerBorder, gridPaint);
+            if (renderQuality == RenderQuality.FAST) {
+                continue;
+            }
+            Paint labelAlignPaint = horizontalLabelCenterPaint;
             if (i==horlabels.length-1)
-                paint.setTextAlign(Align.RIGHT);
+                labelAlignPaint = horizontalLabelRightPaint;
             if (i==0)
-                paint.setTextAlign(Align.LEFT);
-            paint.setColor(horizontalLabelColor);
-            canvas.drawText(horlabels[i], x, height - 4, paint);
+                labelAlignPaint = horizontalLabelLeftPaint;
+            canvas.drawText(horlabels[i], x, height - 4, labelAlignPaint);
         }
+        countMetric(Counter.DRAW_CALLS, verlabels.length + horlabels.length * (renderQuality == RenderQuality.FAST ? 1 : 2) + 1);
 
-        paint.setTextAlign(Align.CENTER);
-        paint.setColor(titleColor);
-        canvas.drawText(title, (graphwidth / 2) + leftBorder, lowerBorder - 4, paint);
-
-        if (maxY != minY) {
-            paint.setStrokeCap(Paint.Cap.ROUND);
+        canvas.drawText(title, (graphwidth / 2) + leftBorder, lowerBorder - 4, titlePaint);
+    }
 
-            for (int i=0; i<graphSeries.size(); i++) {
-                paint.setStrokeWidth(graphSeries.get(i).style.thickness);
-                paint.setColor(graphSeries.get(i).style.color);
-                drawSeries(canvas, _values(i), graphwidth, graphheight, lowerBorder, minX, minY, diffX, diffY, leftBorder);
+    /**
+     * draws the labels of the secondary axes, one column per axis on the right side of the graph
+     */
+    private void drawYAxisLabels(Canvas canvas) {
+        for (int axis = 0; axis < yAxes.size(); axis++) {
+            String[] labels = yAxes.get(axis).labels;
+            float x = leftBorder + graphwidth + axis * leftBorder + 4;
+            int vers = labels.length - 1;
+            for (int i = 0; i < labels.length; i++) {
+                // the first label is the lowest value
+                float y = ((graphheight / vers) * (vers - i)) + lowerBorder;
+                canvas.drawText(labels[i], x, y, labelPaint);
             }
+            countMetric(Counter.DRAW_CALLS, labels.length);
+        }
+    }
+
+    /**
+     * replays the recorded static layer. it is only recorded again if the text of the labels, the size,
+     * the render tier or the style changed.
+     */
+    private void drawCachedStaticLayer(Canvas canvas, float width, float height) {
+        if (staticLayer == null) {
+            staticLayer = new Picture();
+            staticLayerDirty = true;
+        }
+        if (staticLayerDirty
+                || !Arrays.equals(recordedHorlabels, horlabels) || !Arrays.equals(recordedVerlabels, verlabels)
+                || recordedYAxisLabelsVersion != yAxisLabelsVersion
+                || recordedWidth != width || recordedHeight != height || recordedQuality != renderQuality) {
+            Canvas recording = staticLayer.beginRecording(getWidth(), getHeight());
+            drawStaticLayer(recording, width, height);
+            staticLayer.endRecording();
+            countMetric(Counter.PICTURES_RECORDED, 1);
+            recordedHorlabels = horlabels;
+            recordedVerlabels = verlabels;
+            recordedYAxisLabelsVersion = yAxisLabelsVersion;
+            recordedWidth = width;
+            recordedHeight = height;
+            recordedQuality = renderQuality;
+            staticLayerDirty = false;
+        }
+        canvas.drawPicture(staticLayer);
+        countMetric(Counter.DRAW_CALLS, 1);
+    }
 
-            if (showLegend) drawLegend(canvas, height, width);
+    /**
+     * draws the annotation layer. with {@link DrawingCacheMode#PICTURE} it is replayed until the viewport,
+     * the axis transforms or the annotations change. while the viewport moves every frame would need a new
+     * recording, so the layer is drawn directly until the viewport is idle again.
+     */
+    private void drawAnnotations(Canvas canvas, double minX, double maxX, double minY, double maxY) {
+        if (annotationLayer.size() == 0) {
+            return;
+        }
+        if (drawingCacheMode != DrawingCacheMode.PICTURE || !canDrawPicture(canvas)) {
+            drawAnnotationLayer(canvas, minX, maxX);
+            return;
         }
+        if (annotationPicture == null || recordedAnnotationVersion != annotationLayer.getVersion()
+                || recordedAnnotationBounds[0] != minX || recordedAnnotationBounds[1] != maxX
+                || recordedAnnotationBounds[2] != minY || recordedAnnotationBounds[3] != maxY
+                || recordedAnnotationTransformX != horizontalTransform
+                || recordedAnnotationTransformY != verticalTransform
+                || recordedAnnotationWidth != graphwidth || recordedAnnotationHeight != graphheight) {
+            if (touching || animator.isRunning()) {
+                drawAnnotationLayer(canvas, minX, maxX);
+                return;
+            }
+            if (annotationPicture == null) {
+                annotationPicture = new Picture();
+            }
+            Canvas recording = annotationPicture.beginRecording(getWidth(), getHeight());
+            drawAnnotationLayer(recording, minX, maxX);
+            annotationPicture.endRecording();
+            countMetric(Counter.PICTURES_RECORDED, 1);
+            recordedAnnotationVersion = annotationLayer.getVersion();
+            recordedAnnotationBounds[0] = minX;
+            recordedAnnotationBounds[1] = maxX;
+            recordedAnnotationBounds[2] = minY;
+            recordedAnnotationBounds[3] = maxY;
+            recordedAnnotationTransformX = horizontalTransform;
+            recordedAnnotationTransformY = verticalTransform;
+            recordedAnnotationWidth = graphwidth;
+            recordedAnnotationHeight = graphheight;
+        } else {
+            countMetric(Counter.ALLOCATIONS_AVOIDED, 1);
+        }
+        canvas.drawPicture(annotationPicture);
+        countMetric(Counter.DRAW_CALLS, 1);
     }
 
-    private void onMoveGesture(float f) {
-        // view port update
-        if (viewportSize != 0) {
-            viewportStart -= f*viewportSize/graphwidth;
+    /**
+     * bands, then x ranges, then markers. only the annotations of the x range are visited.
+     */
+    private void drawAnnotationLayer(Canvas canvas, double minX, double maxX) {
+        float left = leftBorder;
+        float right = leftBorder + graphwidth;
+        float top = lowerBorder;
+        float bottom = lowerBorder + graphheight;
+        float textOffset = annotationTextPaint.getTextSize();
+        int drawCalls = 0;
+        canvas.save();
+        canvas.clipRect(left, top, right, bottom);
+
+        List<Annotation> bands = annotationLayer.getBands();
+        for (int i = 0; i < bands.size(); i++) {
+            Annotation band = bands.get(i);
+            float bandTop = toViewY(band.to);
+            annotationPaint.setColor(band.color);
+            canvas.drawRect(left, bandTop, right, toViewY(band.from), annotationPaint);
+            drawCalls++;
+            if (band.label != null) {
+                canvas.drawText(band.label, left + 4, bandTop + textOffset, annotationTextPaint);
+                drawCalls++;
+            }
+        }
 
-            // minimal and maximal view limit
-            double minX = getMinX(true);
-            double maxX = getMaxX(true);
-            if (viewportStart < minX) {
-                viewportStart = minX;
-            } else if (viewportStart+viewportSize > maxX) {
-                viewportStart = maxX - viewportSize;
+        List<Annotation> visible = annotationLayer.getVisible(minX, maxX);
+        for (int pass = 0; pass < 2; pass++) {
+            // markers are drawn on top
+            Annotation.Type type = pass == 0 ? Annotation.Type.X_RANGE : Annotation.Type.MARKER;
+            for (int i = 0; i < visible.size(); i++) {
+                Annotation annotation = visible.get(i);
+                if (annotation.type != type) {
+                    continue;
+                }
+                float start = toViewX(annotation.from);
+                annotationPaint.setColor(annotation.color);
+                if (type == Annotation.Type.MARKER) {
+                    canvas.drawLine(start, top, start, bottom, annotationPaint);
+                } else {
+                    canvas.drawRect(start, top, toViewX(annotation.to), bottom, annotationPaint);
+                }
+                drawCalls++;
+                if (annotation.label != null) {
+                    canvas.drawText(annotation.label, start + 4, top + textOffset, annotationTextPaint);
+                    drawCalls++;
+                }
             }
+        }
+        canvas.restore();
+        countMetric(Counter.DRAW_CALLS, drawCalls);
+    }
 
-            // labels have to be regenerated
-            horlabels = null;
+    /**
+     * hardware accelerated canvases can only draw pictures since API 23
+     */
+    private static boolean canDrawPicture(Canvas canvas) {
+        return Build.VERSION.SDK_INT >= 23
+                || Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB
+                || !canvas.isHardwareAccelerated();
+    }
+
+    private void onMoveGesture(float dx, float dy) {
+        // view port update
+        if (viewportSize != 0) {
+            viewportStart -= dx*viewportSize/graphwidth;
+            clampViewport();
+            invalidateLabels();
+            publishViewport();
+        }
+        if (viewportSizeY != 0 && graphheight > 0) {
+            // y grows upwards
+            viewportStartY += dy*viewportSizeY/graphheight;
             verlabels = null;
+            numberformatter = null;
+        }
+        invalidate();
+    }
+
+    /**
+     * starts a fling with the velocity of the finger
+     * @param velocityX velocity in pixels per second
+     */
+    private void onFlingGesture(float velocityX) {
+        if (!flingEnabled || viewportSize == 0 || graphwidth == 0) {
+            return;
+        }
+        ViewConfiguration configuration = ViewConfiguration.get(getContext());
+        if (Math.abs(velocityX) < configuration.getScaledMinimumFlingVelocity()) {
+            return;
         }
+        double velocity = -velocityX*viewportSize/graphwidth;
+        animator.fling(viewportStart, viewportSize, velocity, SystemClock.uptimeMillis());
         invalidate();
     }
 
@@ -220,8 +854,30 @@ public abstract class GraphView extends View {
      */
     @Override
     public boolean onTouchEvent(MotionEvent event) {
+        boolean tapListener = trackTap(event);
+        if (trackLegendDrag(event)) {
+            return true;
+        }
         if (!isScrollable()) {
-            return super.onTouchEvent(event);
+            // super always sees the event, e.g. for the click and long click listeners
+            boolean handled = super.onTouchEvent(event);
+            return tapListener || handled;
+        }
+
+        int action = event.getAction() & MotionEvent.ACTION_MASK;
+        if (action == MotionEvent.ACTION_DOWN) {
+            // a new touch stops a running fling
+            animator.abort();
+            touching = true;
+            scaledDuringTouch = false;
+            if (velocityTracker == null) {
+                velocityTracker = VelocityTracker.obtain();
+            } else {
+                velocityTracker.clear();
+            }
+        }
+        if (velocityTracker != null) {
+            velocityTracker.addMovement(event);
         }
 
         boolean handled = false;
@@ -229,31 +885,147 @@ public abstract class GraphView extends View {
         if (scalable && scaleDetector != null) {
             scaleDetector.onTouchEvent(event);
             handled = scaleDetector.isInProgress();
+            scaledDuringTouch |= handled;
         }
         if (!handled) {
             // if not scaled, scroll
-            if ((event.getAction() & MotionEvent.ACTION_DOWN) == MotionEvent.ACTION_DOWN) {
-                handled = true;
-            }
-            if ((event.getAction() & MotionEvent.ACTION_UP) == MotionEvent.ACTION_UP) {
-                lastTouchEventX = 0;
-                handled = true;
-            }
-            if ((event.getAction() & MotionEvent.ACTION_MOVE) == MotionEvent.ACTION_MOVE) {
-                if (lastTouchEventX != 0) {
-                    onMoveGesture(event.getX() - lastTouchEventX);
-                }
-                lastTouchEventX = event.getX();
-                handled = true;
+            switch (action) {
+                case MotionEvent.ACTION_DOWN:
+                    handled = true;
+                    break;
+                case MotionEvent.ACTION_MOVE:
+                    if (touching) {
+                        onMoveGesture(event.getX() - lastTouchEventX, event.getY() - lastTouchEventY);
+                    }
+                    handled = true;
+                    break;
+                case MotionEvent.ACTION_UP:
+                    if (velocityTracker != null && !scaledDuringTouch) {
+                        velocityTracker.computeCurrentVelocity(1000);
+                        onFlingGesture(velocityTracker.getXVelocity());
+                    }
+                    handled = true;
+                    break;
+                case MotionEvent.ACTION_CANCEL:
+                    handled = true;
+                    break;
             }
             if (handled)
                 invalidate();
         }
+        lastTouchEventX = event.getX();
+        lastTouchEventY = event.getY();
+
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            touching = false;
+            if (velocityTracker != null) {
+                velocityTracker.recycle();
+                velocityTracker = null;
+            }
+            if (!animator.isRunning()) {
+                restoreFullQuality();
+            }
+        }
         return handled;
     }
 
     /**
-     * one data set for a graph series
+     * detects taps on legend entries and annotations: the finger is lifted within the touch slop
+     * of the position where it went down
+     * @return true if taps are handled, then the whole gesture is consumed
+     */
+    private boolean trackTap(MotionEvent event) {
+        AnnotationLayer.OnAnnotationClickListener listener = annotationLayer.getOnAnnotationClickListener();
+        boolean legendTaps = showLegend && legendTogglesVisibility;
+        if (listener == null && !legendTaps) {
+            return false;
+        }
+        int action = event.getAction() & MotionEvent.ACTION_MASK;
+        if (action == MotionEvent.ACTION_DOWN) {
+            tapping = true;
+            tapX = event.getX();
+            tapY = event.getY();
+        } else if (action == MotionEvent.ACTION_MOVE) {
+            int slop = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+            if (Math.abs(event.getX() - tapX) > slop || Math.abs(event.getY() - tapY) > slop) {
+                tapping = false;
+            }
+        } else if (action == MotionEvent.ACTION_UP) {
+            if (tapping) {
+                onTap(event.getX(), event.getY(), legendTaps, listener);
+            }
+            tapping = false;
+        } else {
+            // a second finger or a cancel
+            tapping = false;
+        }
+        return true;
+    }
+
+    private void onTap(float x, float y, boolean legendTaps, AnnotationLayer.OnAnnotationClickListener listener) {
+        if (legendTaps && legend.contains(x, y)) {
+            int index = legend.seriesAt(x, y);
+            if (index >= 0) {
+                setSeriesVisible(graphSeries.get(index), !seriesVisible.get(index));
+            }
+            return;
+        }
+        if (listener != null) {
+            Annotation annotation = findAnnotation(x, y);
+            if (annotation != null) {
+                listener.onAnnotationClick(annotation);
+            }
+        }
+    }
+
+    /**
+     * scrolls a legend that has more rows than fit into the graph
+     * @return true if the event belongs to a drag in the legend
+     */
+    private boolean trackLegendDrag(MotionEvent event) {
+        int action = event.getAction() & MotionEvent.ACTION_MASK;
+        if (action == MotionEvent.ACTION_DOWN) {
+            legendDragging = showLegend && legend.isScrollable() && legend.contains(event.getX(), event.getY());
+        } else if (legendDragging && action == MotionEvent.ACTION_MOVE) {
+            legend.scrollBy(event.getY() - lastTouchEventY);
+            invalidate();
+        }
+        if (!legendDragging) {
+            return false;
+        }
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            legendDragging = false;
+        }
+        lastTouchEventY = event.getY();
+        return true;
+    }
+
+    /**
+     * hit test of the annotations within the touch slop around a position
+     * @param x x position in the view
+     * @param y y position in the view
+     * @return the topmost annotation, null if there is none
+     */
+    public Annotation findAnnotation(float x, float y) {
+        int slop = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+        double minX = toValueX(x - slop);
+        double maxX = toValueX(x + slop);
+        // y grows downwards in the view
+        double minY = toValueY(y + slop);
+        double maxY = toValueY(y - slop);
+        return annotationLayer.find(minX, maxX, minY, maxY);
+    }
+
+    /**
+     * @return the markers, x ranges and bands that are drawn over the series
+     */
+    public AnnotationLayer getAnnotationLayer() {
+        return annotationLayer;
+    }
+
+    /**
+     * one data set for a graph series.
+     * a NaN valueY is a gap, e.g. a sensor dropout: lines are not drawn across it and it is ignored for the bounds.
      */
     static public class GraphViewData {
         public final double valueX;
@@ -263,33 +1035,60 @@ public abstract class GraphView extends View {
             this.valueX = valueX;
             this.valueY = valueY;
         }
+
+        /**
+         * @return a gap at this x value
+         */
+        public static GraphViewData gap(double valueX) {
+            return new GraphViewData(valueX, Double.NaN);
+        }
+
+        public boolean isGap() {
+            return Double.isNaN(valueY);
+        }
     }
 
     public enum LegendAlign {
         TOP, MIDDLE, BOTTOM
     }
 
-    private void drawLabels(Canvas canvas) {
-        paint.setStrokeWidth(0);
-
-        float height = getHeight();
-        float graphheight = height - (2 * lowerBorder);
+    /**
+     * render tier of the graph.
+     * FAST is used automatically while a gesture or animation runs over the frame budget:
+     * the series are decimated to a coarser level of detail and the labels are skipped.
+     */
+    public enum RenderQuality {
+        FULL, FAST
+    }
+
+    /**
+     * how the static parts of the graph (labels, grid and title) are drawn.
+     * PICTURE records them once and replays the recording until the labels, the size or the style change.
+     * this helps when the series change but the labels don't, e.g. streaming with autoScaleYPadding
+     * or while the graph is in {@link RenderQuality#FAST}.
+     * on hardware accelerated views before API 23 pictures are not supported and NONE is used.
+     */
+    public enum DrawingCacheMode {
+        NONE, PICTURE
+    }
+
+    private void drawLabels(Canvas canvas) {
+        float height = getHeight();
+        float graphheight = height - (2 * lowerBorder);
 
         if (verlabels == null) {
             verlabels = generateVerlabels(graphheight);
         }
 
         // vertical labels
-        paint.setTextAlign(Align.LEFT);
         int vers = verlabels.length - 1;
         // draw from top to bottom
         for (int i = 1; i <= verlabels.length; i++) {
             int labelIdx = verlabels.length - i;
             float y = ((graphheight / vers) * labelIdx) + lowerBorder;
-            labelPaint.setColor(verticalLabelColor);
-            setLabelPaintSize(verticalLabelTextSize);
             canvas.drawText(verlabels[i-1], 0, y, labelPaint);
         }
+        countMetric(Counter.DRAW_CALLS, verlabels.length);
     }
 
     protected final Paint paint;
@@ -300,89 +1099,193 @@ public abstract class GraphView extends View {
     private boolean scrollable;
     private double viewportStart;
     private double viewportSize;
-    private ScaleGestureDetector scaleDetector;
+    private ViewportGroup viewportGroup;
+    private CrosshairView crosshairView;
+    private ScaleGestureHandler scaleDetector;
     private boolean scalable;
     private NumberFormat numberformatter;
-    private final List<GraphViewSeries> graphSeries = new ArrayList<GraphViewSeries>();
+    private final List<BaseSeries> graphSeries = new ArrayList<BaseSeries>();
     private boolean showLegend = false;
     private float legendWidth = 120;
     private LegendAlign legendAlign = LegendAlign.MIDDLE;
     private boolean manualYAxis;
+    private int drawingSeriesIndex;
+    private int drawingVisibleIndex;
     private double manualMaxYValue;
     private double manualMinYValue;
 
     public void setTitle(String newTitle) {
         title = newTitle;
+        staticLayerDirty = true;
     }
 
-    private GraphViewData[] _values(int idxSeries) {
-        GraphViewData[] values = graphSeries.get(idxSeries).values;
+    GraphViewData[] _values(int idxSeries) {
+        BaseSeries series = graphSeries.get(idxSeries);
+        int buckets = Math.max(1, (int) graphwidth);
         if (viewportStart == 0 && viewportSize == 0) {
             // all data
-            return values;
+            countMetric(Counter.ALLOCATIONS_AVOIDED, 1);
+            return series.drawSlice(0, series.size(), buckets);
         } else {
-            // viewport
-            List<GraphViewData> listData = new ArrayList<GraphViewData>();
-            for (int i=0; i<values.length; i++) {
-                if (values[i].valueX >= viewportStart) {
-                    if (values[i].valueX > viewportStart+viewportSize) {
-                        listData.add(values[i]); // one more for nice scrolling
-                        break;
-                    } else {
-                        listData.add(values[i]);
-                    }
-                } else {
-                    if (listData.isEmpty()) {
-                        listData.add(values[i]);
-                    }
-                    listData.set(0, values[i]); // one before, for nice scrolling
-                }
-            }
-            return listData.toArray(new GraphViewData[listData.size()]);
+            // viewport, with one value before and one after for nice scrolling
+            long stageStart = beginStage();
+            int from = series.sliceStart(viewportStart);
+            int to = series.sliceEnd(viewportStart+viewportSize);
+            GraphViewData[] slice = series.drawSlice(from, to, buckets);
+            endStage(Stage.SLICE, stageStart);
+            return slice;
         }
     }
 
-    public void addSeries(GraphViewSeries series) {
+    public void addSeries(BaseSeries series) {
+        addSeries(series, null);
+    }
+
+    /**
+     * adds a series that is scaled to a secondary axis
+     * @param axis axis of {@link #addYAxis()}, null for the primary axis
+     */
+    public void addSeries(BaseSeries series, YAxis axis) {
         series.addGraphView(this);
         graphSeries.add(series);
+        seriesAxes.add(axis);
+        seriesVisible.add(true);
         // Flush all labels as this may alter mins/maxs
-        verlabels = null;
+        if (axis == null) {
+            autoScaleBoundsValid = false;
+            verlabels = null;
+        } else {
+            axis.invalidateBounds();
+        }
         horlabels = null;
         // Redraw
         invalidate();
     }
 
+    /**
+     * adds a secondary y axis. its labels are drawn on the right side of the graph.
+     * @return the new axis, pass it to {@link #addSeries(BaseSeries, YAxis)}
+     */
+    public YAxis addYAxis() {
+        YAxis axis = new YAxis(this, new DefaultLabelGenerator(horizontalLabelHeight));
+        yAxes.add(axis);
+        redrawAll();
+        return axis;
+    }
+
+    /**
+     * @return the secondary axes in the order they were added
+     */
+    public List<YAxis> getYAxes() {
+        return Collections.unmodifiableList(yAxes);
+    }
+
+    /**
+     * @return the axis the series is scaled to, null for the primary axis or if the series is not in this graph
+     */
+    public YAxis getYAxis(BaseSeries series) {
+        int index = graphSeries.indexOf(series);
+        return index < 0 ? null : seriesAxes.get(index);
+    }
+
+    /**
+     * @return the axis the series at this index is scaled to, null for the primary axis
+     */
+    YAxis getYAxis(int index) {
+        return seriesAxes.get(index);
+    }
+
     protected void drawLegend(Canvas canvas, float height, float width) {
-        int shapeSize = 15;
-
-        // rect
-        paint.setARGB(180, 100, 100, 100);
-        float legendHeight = (shapeSize+5)*graphSeries.size() +5;
-        float lLeft = width-legendWidth - 10;
-        float lTop;
-        switch (legendAlign) {
-            case TOP:
-                lTop = 10;
-                break;
-            case MIDDLE:
-                lTop = height/2 - legendHeight/2;
-                break;
-            default:
-                lTop = height - lowerBorder - legendHeight -10;
-        }
-        float lRight = lLeft+legendWidth;
-        float lBottom = lTop+legendHeight;
-        canvas.drawRoundRect(new RectF(lLeft, lTop, lRight, lBottom), 8, 8, paint);
+        legend.layout(graphSeries.size(), legendWidth, legendAlign, height, lowerBorder, width, graphwidth - 20, height - lowerBorder - 20);
+        int drawCalls;
+        if (drawingCacheMode == DrawingCacheMode.PICTURE && canDrawPicture(canvas)) {
+            drawCalls = legend.drawCached(canvas, graphSeries, seriesVisible, legendPaint, paint, legendTextPaint, getWidth(), getHeight());
+        } else {
+            drawCalls = legend.draw(canvas, graphSeries, seriesVisible, legendPaint, paint, legendTextPaint);
+        }
+        countMetric(Counter.DRAW_CALLS, drawCalls);
+    }
 
-        for (int i=0; i<graphSeries.size(); i++) {
-            paint.setColor(graphSeries.get(i).style.color);
-            canvas.drawRect(new RectF(lLeft+5, lTop+5+(i*(shapeSize+5)), lLeft+5+shapeSize, lTop+((i+1)*(shapeSize+5))), paint);
-            if (graphSeries.get(i).description != null) {
-                paint.setColor(Color.WHITE);
-                paint.setTextAlign(Align.LEFT);
-                canvas.drawText(graphSeries.get(i).description, lLeft+5+shapeSize+5, lTop+shapeSize+(i*(shapeSize+5)), paint);
+    /**
+     * @return number of series in this graph
+     */
+    protected int getSeriesCount() {
+        return graphSeries.size();
+    }
+
+    BaseSeries getSeries(int index) {
+        return graphSeries.get(index);
+    }
+
+    /**
+     * @return index of the series that is passed to {@link #drawSeries(Canvas, GraphViewData[], float, float, float, double, double, double, double, float)}
+     */
+    protected int getDrawingSeriesIndex() {
+        return drawingSeriesIndex;
+    }
+
+    /**
+     * @return position of the series that is drawn among the visible series, e.g. for grouped bars
+     */
+    protected int getDrawingVisibleIndex() {
+        return drawingVisibleIndex;
+    }
+
+    /**
+     * @return number of series that are not hidden
+     */
+    public int getVisibleSeriesCount() {
+        int count = 0;
+        for (int i = 0; i < graphSeries.size(); i++) {
+            if (seriesVisible.get(i)) {
+                count++;
             }
         }
+        return count;
+    }
+
+    /**
+     * @return false if the series is hidden in this graph
+     */
+    public boolean isSeriesVisible(BaseSeries series) {
+        int index = graphSeries.indexOf(series);
+        return index >= 0 && seriesVisible.get(index);
+    }
+
+    /**
+     * @return false if the series at this index is hidden in this graph
+     */
+    protected boolean isSeriesVisible(int index) {
+        return seriesVisible.get(index);
+    }
+
+    /**
+     * a hidden series is only drawn in the legend. it is skipped for the bounds, the crosshair and lazy loading.
+     * only this graph is affected, other graphs that draw the series (e.g. of a {@link ViewportGroup}) keep it.
+     */
+    public void setSeriesVisible(BaseSeries series, boolean visible) {
+        int index = graphSeries.indexOf(series);
+        if (index >= 0 && seriesVisible.get(index) != visible) {
+            seriesVisible.set(index, visible);
+            onDataChanged(series);
+        }
+    }
+
+    /**
+     * extends the autoscale range for graphs that don't draw the series at their own values, e.g. stacked bars.
+     * @param extrema minimal and maximal y value of the visible data of the primary axis,
+     *                to be replaced with the range that is drawn
+     */
+    protected void extendAutoScaleBounds(double[] extrema) {
+    }
+
+    /**
+     * space around the x range of the data, e.g. for bars that are centered at their x value.
+     * it is not added to a viewport.
+     * @param start true for the space before the first x value, false for the space after the last x value
+     */
+    protected double getDataPaddingX(boolean start) {
+        return 0;
     }
 
     abstract public void drawSeries(Canvas canvas, GraphViewData[] values, float graphwidth, float graphheight, float border, double minX, double minY, double diffX, double diffY, float horstart);
@@ -415,19 +1318,35 @@ public abstract class GraphView extends View {
     }
 
     private String[] generateHorlabels(float graphwidth) {
-        return horizontalLabelGenerator.generateLabels(graphwidth, getMinX(false), getMaxX(false));
+        long stageStart = beginStage();
+        String[] labels;
+        if (viewportGroup != null) {
+            // graphs of the group with the same width share the labels
+            labels = viewportGroup.getHorizontalLabels(horizontalLabelGenerator, graphwidth, getMinX(false), getMaxX(false));
+        } else {
+            labels = horizontalLabelGenerator.generateLabels(graphwidth, getMinX(false), getMaxX(false));
+        }
+        endStage(Stage.LABELS, stageStart);
+        return labels;
     }
 
     synchronized private String[] generateVerlabels(float graphheight) {
-        return verticalLabelGenerator.generateLabels(graphheight, getMinY(), getMaxY());
+        long stageStart = beginStage();
+        String[] labels = verticalLabelGenerator.generateLabels(graphheight, getMinY(), getMaxY());
+        endStage(Stage.LABELS, stageStart);
+        return labels;
     }
 
     public void setHorizontalLabelGenerator(LabelGenerator horizontalLabelGenerator) {
         this.horizontalLabelGenerator = horizontalLabelGenerator;
+        horlabels = null;
+        invalidate();
     }
 
     public void setVerticalLabelGenerator(LabelGenerator verticalLabelGenerator) {
         this.verticalLabelGenerator = verticalLabelGenerator;
+        verlabels = null;
+        invalidate();
     }
 
     public LegendAlign getLegendAlign() {
@@ -452,17 +1371,15 @@ public abstract class GraphView extends View {
         } else {
             // otherwise use the max x value
             // values must be sorted by x, so the last value has the largest X value
-            double highest = 0;
-            if (graphSeries.size() > 0)
-            {
-                GraphViewData[] values = graphSeries.get(0).values;
-                highest = values[values.length-1].valueX;
-                for (int i=1; i<graphSeries.size(); i++) {
-                    values = graphSeries.get(i).values;
-                    highest = Math.max(highest, values[values.length-1].valueX);
+            // hidden series don't count, unless all are hidden
+            boolean all = getVisibleSeriesCount() == 0;
+            double highest = Double.NEGATIVE_INFINITY;
+            for (int i=0; i<graphSeries.size(); i++) {
+                if (all || seriesVisible.get(i)) {
+                    highest = Math.max(highest, graphSeries.get(i).getLastX());
                 }
             }
-            return highest;
+            return graphSeries.isEmpty() ? 0 : highest + getDataPaddingX(false);
         }
     }
 
@@ -472,19 +1389,14 @@ public abstract class GraphView extends View {
      * warning: only override this, if you really know want you're doing!
      */
     protected double getMaxY() {
-        double largest;
+        if (viewportSizeY != 0) {
+            return viewportStartY+viewportSizeY;
+        }
         if (maxY != null) {
-            largest = maxY;
-        } else {
-            largest = Integer.MIN_VALUE;
-            for (int i=0; i<graphSeries.size(); i++) {
-                GraphViewData[] values = _values(i);
-                for (int ii=0; ii<values.length; ii++)
-                    if (values[ii].valueY > largest)
-                        largest = values[ii].valueY;
-            }
+            return maxY;
         }
-        return largest;
+        updateAutoScaleBounds();
+        return autoScaleMaxY;
     }
 
     /**
@@ -501,17 +1413,14 @@ public abstract class GraphView extends View {
         } else {
             // otherwise use the min x value
             // values must be sorted by x, so the first value has the smallest X value
-            double lowest = 0;
-            if (graphSeries.size() > 0)
-            {
-                GraphViewData[] values = graphSeries.get(0).values;
-                lowest = values[0].valueX;
-                for (int i=1; i<graphSeries.size(); i++) {
-                    values = graphSeries.get(i).values;
-                    lowest = Math.min(lowest, values[0].valueX);
+            boolean all = getVisibleSeriesCount() == 0;
+            double lowest = Double.POSITIVE_INFINITY;
+            for (int i=0; i<graphSeries.size(); i++) {
+                if (all || seriesVisible.get(i)) {
+                    lowest = Math.min(lowest, graphSeries.get(i).getFirstX());
                 }
             }
-            return lowest;
+            return graphSeries.isEmpty() ? 0 : lowest - getDataPaddingX(true);
         }
     }
 
@@ -521,19 +1430,14 @@ public abstract class GraphView extends View {
      * warning: only override this, if you really know want you're doing!
      */
     protected double getMinY() {
-        double smallest;
+        if (viewportSizeY != 0) {
+            return viewportStartY;
+        }
         if (minY != null) {
-            smallest = minY;
-        } else {
-            smallest = Integer.MAX_VALUE;
-            for (int i=0; i<graphSeries.size(); i++) {
-                GraphViewData[] values = _values(i);
-                for (int ii=0; ii<values.length; ii++)
-                    if (values[ii].valueY < smallest)
-                        smallest = values[ii].valueY;
-            }
+            return minY;
         }
-        return smallest;
+        updateAutoScaleBounds();
+        return autoScaleMinY;
     }
 
     public boolean isScrollable() {
@@ -545,15 +1449,25 @@ public abstract class GraphView extends View {
     }
 
     public void redrawAll() {
+        autoScaleBoundsValid = false;
+        for (int i = 0; i < yAxes.size(); i++) {
+            YAxis axis = yAxes.get(i);
+            axis.invalidateBounds();
+            axis.labels = null;
+        }
+        staticLayerDirty = true;
         verlabels = null;
         horlabels = null;
         numberformatter = null;
         invalidate();
     }
 
-    public void removeSeries(GraphViewSeries series)
+    public void removeSeries(BaseSeries series)
     {
-        graphSeries.remove(series);
+        int index = graphSeries.indexOf(series);
+        if (index >= 0) {
+            removeSeries(index);
+        }
     }
 
     public void removeSeries(int index)
@@ -563,14 +1477,75 @@ public abstract class GraphView extends View {
             throw new IndexOutOfBoundsException("No series at index " + index);
         }
 
-        graphSeries.remove(index);
+        graphSeries.remove(index).removeGraphView(this);
+        YAxis axis = seriesAxes.remove(index);
+        seriesVisible.remove(index);
+        if (axis == null) {
+            autoScaleBoundsValid = false;
+        } else {
+            axis.invalidateBounds();
+        }
     }
 
     public void scrollToEnd() {
         if (!scrollable) throw new IllegalStateException("This GraphView is not scrollable.");
+        animator.abort();
         double max = getMaxX(true);
         viewportStart = max-viewportSize;
-        redrawAll();
+        // the vertical labels are only regenerated if the y bounds change
+        invalidateLabels();
+        publishViewport();
+        invalidate();
+    }
+
+    /**
+     * animates the viewport to a new range
+     * @param start x-value
+     * @param size
+     * @param duration duration of the animation in ms
+     */
+    public void animateViewPort(double start, double size, long duration) {
+        if (viewportSize == 0) {
+            // no viewport yet, start from all data
+            viewportStart = getMinX(true);
+            viewportSize = getMaxX(true) - viewportStart;
+        }
+        animator.zoomTo(viewportStart, viewportSize, start, size, duration, SystemClock.uptimeMillis());
+        invalidate();
+    }
+
+    /**
+     * @return the current render tier
+     */
+    public RenderQuality getRenderQuality() {
+        return renderQuality;
+    }
+
+    public long getFrameBudget() {
+        return frameBudget;
+    }
+
+    /**
+     * if a frame takes longer than this while the user is scrolling or scaling,
+     * the graph switches to {@link RenderQuality#FAST} until it is idle again.
+     * @param frameBudget budget in ms, 0 disables the automatic switch
+     */
+    public void setFrameBudget(long frameBudget) {
+        this.frameBudget = frameBudget;
+    }
+
+    public boolean isFlingEnabled() {
+        return flingEnabled;
+    }
+
+    /**
+     * @param flingEnabled if true, the viewport keeps moving with momentum after a scroll gesture
+     */
+    public void setFlingEnabled(boolean flingEnabled) {
+        this.flingEnabled = flingEnabled;
+        if (!flingEnabled) {
+            animator.abort();
+        }
     }
 
     /**
@@ -585,10 +1560,24 @@ public abstract class GraphView extends View {
         this.legendAlign = legendAlign;
     }
 
+    /**
+     * @param legendWidth width of one column of the legend. many series are laid out in several columns.
+     */
     public void setLegendWidth(float legendWidth) {
         this.legendWidth = legendWidth;
     }
 
+    public boolean getLegendTogglesVisibility() {
+        return legendTogglesVisibility;
+    }
+
+    /**
+     * @param legendTogglesVisibility true to hide and show a series with a tap on its legend entry
+     */
+    public void setLegendTogglesVisibility(boolean legendTogglesVisibility) {
+        this.legendTogglesVisibility = legendTogglesVisibility;
+    }
+
     /**
      * you have to set the bounds {@link #setManualYAxisBounds(float, float)}. That automatically enables manualYAxis-flag.
      * if you want to disable the menual y axis, call this method with false.
@@ -596,6 +1585,13 @@ public abstract class GraphView extends View {
      */
     public void setManualYAxis(boolean manualYAxis) {
         this.manualYAxis = manualYAxis;
+        if (!manualYAxis) {
+            // back to autoscale
+            maxY = null;
+            minY = null;
+            autoScaleBoundsValid = false;
+            verlabels = null;
+        }
     }
 
     /**
@@ -609,6 +1605,24 @@ public abstract class GraphView extends View {
         manualYAxis = true;
         // Flush vertical labels
         verlabels = null;
+        numberformatter = null;
+    }
+
+    public double getAutoScaleYPadding() {
+        return autoScaleYPadding;
+    }
+
+    /**
+     * enables the hysteresis of the y autoscale. the bounds get a padding of this fraction of the data range on both sides
+     * and only change when the visible data leaves this band (or shrinks to less than half of it).
+     * @param autoScaleYPadding fraction of the data range, e.g. 0.1. 0 disables the hysteresis.
+     */
+    public void setAutoScaleYPadding(double autoScaleYPadding) {
+        this.autoScaleYPadding = autoScaleYPadding;
+        autoScaleBoundsValid = false;
+        autoScaleMinY = 0;
+        autoScaleMaxY = 0;
+        invalidate();
     }
 
     /**
@@ -619,39 +1633,90 @@ public abstract class GraphView extends View {
         this.scalable = scalable;
         if (scalable == true && scaleDetector == null) {
             scrollable = true; // automatically forces this
-            scaleDetector = new ScaleGestureDetector(getContext(), new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            scaleDetector = ScaleGestures.create(getContext(), new ScaleGestureHandler.OnScaleListener() {
                 @Override
-                public boolean onScale(ScaleGestureDetector detector) {
-                    double center = viewportStart + viewportSize / 2;
-                    viewportSize /= detector.getScaleFactor();
-                    viewportStart = center - viewportSize / 2;
-
-                    // viewportStart must not be < minX
-                    double minX = getMinX(true);
-                    if (viewportStart < minX) {
-                        viewportStart = minX;
-                    }
+                public boolean onScaleBegin(float focusX, float focusY) {
+                    animator.abort();
+                    return true;
+                }
 
-                    // viewportStart + viewportSize must not be > maxX
-                    double maxX = getMaxX(true);
-                    double overlap = viewportStart + viewportSize - maxX;
-                    if (overlap > 0) {
-                        // scroll left
-                        if (viewportStart-overlap > minX) {
-                            viewportStart -= overlap;
-                        } else {
-                            // maximal scale
-                            viewportStart = minX;
-                            viewportSize = maxX - viewportStart;
-                        }
-                    }
-                    redrawAll();
+                @Override
+                public boolean onScale(float scaleX, float scaleY, float focusX, float focusY) {
+                    onScaleGesture(scaleX, focusX);
+                    onScaleGestureY(scaleY, focusY);
                     return true;
                 }
+
+                @Override
+                public void onScaleEnd() {
+                }
             });
         }
     }
 
+    /**
+     * zooms the viewport around the focal point of the gesture
+     * @param scaleX scale factor
+     * @param focusX focal point in view coordinates
+     */
+    private void onScaleGesture(float scaleX, float focusX) {
+        if (viewportSize == 0 || scaleX == 1f) {
+            return;
+        }
+        double focusRatio = 0.5;
+        if (graphwidth > 0) {
+            focusRatio = Math.max(0, Math.min(1, (focusX - leftBorder) / graphwidth));
+        }
+        double focus = viewportStart + viewportSize * focusRatio;
+        viewportSize /= scaleX;
+        viewportStart = focus - viewportSize * focusRatio;
+
+        // viewportStart must not be < minX
+        double minX = getMinX(true);
+        if (viewportStart < minX) {
+            viewportStart = minX;
+        }
+
+        // viewportStart + viewportSize must not be > maxX
+        double maxX = getMaxX(true);
+        double overlap = viewportStart + viewportSize - maxX;
+        if (overlap > 0) {
+            // scroll left
+            if (viewportStart-overlap > minX) {
+                viewportStart -= overlap;
+            } else {
+                // maximal scale
+                viewportStart = minX;
+                viewportSize = maxX - viewportStart;
+            }
+        }
+        invalidateLabels();
+        publishViewport();
+        invalidate();
+    }
+
+    /**
+     * zooms the vertical viewport around the focal point of the gesture
+     * @param scaleY scale factor
+     * @param focusY focal point in view coordinates
+     */
+    private void onScaleGestureY(float scaleY, float focusY) {
+        if (viewportSizeY == 0 || scaleY == 1f) {
+            return;
+        }
+        double focusRatio = 0.5;
+        if (graphheight > 0) {
+            // y grows upwards
+            focusRatio = Math.max(0, Math.min(1, (lowerBorder + graphheight - focusY) / graphheight));
+        }
+        double focus = viewportStartY + viewportSizeY * focusRatio;
+        viewportSizeY /= scaleY;
+        viewportStartY = focus - viewportSizeY * focusRatio;
+        verlabels = null;
+        numberformatter = null;
+        invalidate();
+    }
+
     /**
      * the user can scroll (horizontal) the graph. This is only useful if you use a viewport {@link #setViewPort(double, double)} which doesn't displays all data.
      * @param scrollable
@@ -678,8 +1743,338 @@ public abstract class GraphView extends View {
      * @param size
      */
     public void setViewPort(double start, double size) {
+        animator.abort();
         viewportStart = start;
         viewportSize = size;
+        invalidateLabels();
+        publishViewport();
+    }
+
+    /**
+     * links the horizontal viewport of this graph with the other graphs of the group.
+     * the graph takes over the viewport of the group, if it has one.
+     * @param viewportGroup null to unlink the graph
+     */
+    public void setViewportGroup(ViewportGroup viewportGroup) {
+        if (this.viewportGroup != null) {
+            this.viewportGroup.remove(this);
+        }
+        this.viewportGroup = viewportGroup;
+        if (viewportGroup != null) {
+            viewportGroup.add(this);
+        }
+    }
+
+    public ViewportGroup getViewportGroup() {
+        return viewportGroup;
+    }
+
+    void setCrosshairView(CrosshairView crosshairView) {
+        this.crosshairView = crosshairView;
+    }
+
+    /**
+     * maps a view coordinate to an x value of the current viewport
+     */
+    public double toValueX(float x) {
+        return toValue(x - leftBorder, graphwidth, horizontalTransform, getMinX(false), getMaxX(false));
+    }
+
+    /**
+     * maps a view coordinate to a y value of the current viewport
+     */
+    public double toValueY(float y) {
+        return toValueY(y, verticalTransform, getMinY(), getMaxY());
+    }
+
+    /**
+     * maps a view coordinate to a y value of a secondary axis
+     * @param axis null for the primary axis
+     */
+    public double toValueY(float y, YAxis axis) {
+        if (axis == null) {
+            return toValueY(y);
+        }
+        return toValueY(y, axis.getTransform(), axis.getMin(), axis.getMax());
+    }
+
+    private double toValueY(float y, AxisTransform transform, double min, double max) {
+        // y grows downwards in the view
+        return toValue(lowerBorder + graphheight - y, graphheight, transform, min, max);
+    }
+
+    /**
+     * maps an x value of the current viewport to a view coordinate
+     */
+    public float toViewX(double valueX) {
+        return leftBorder + toView(valueX, graphwidth, horizontalTransform, getMinX(false), getMaxX(false));
+    }
+
+    /**
+     * maps a y value of the current viewport to a view coordinate
+     */
+    public float toViewY(double valueY) {
+        return toViewY(valueY, verticalTransform, getMinY(), getMaxY());
+    }
+
+    /**
+     * maps a y value of a secondary axis to a view coordinate
+     * @param axis null for the primary axis
+     */
+    public float toViewY(double valueY, YAxis axis) {
+        if (axis == null) {
+            return toViewY(valueY);
+        }
+        return toViewY(valueY, axis.getTransform(), axis.getMin(), axis.getMax());
+    }
+
+    private float toViewY(double valueY, AxisTransform transform, double min, double max) {
+        return lowerBorder + graphheight - toView(valueY, graphheight, transform, min, max);
+    }
+
+    /**
+     * maps a value to its distance from the start of an axis, with the same bounds as the drawn frame
+     * @param length length of the axis in pixels
+     */
+    private static float toView(double value, float length, AxisTransform transform, double min, double max) {
+        double transformedMax = transform.apply(max);
+        double transformedMin = transformedMin(transform.apply(min), transformedMax);
+        return (float) ((transform.apply(value) - transformedMin) * (length / (transformedMax - transformedMin)));
+    }
+
+    /**
+     * inverse of {@link #toView(double, float, AxisTransform, double, double)}
+     */
+    private static double toValue(float offset, float length, AxisTransform transform, double min, double max) {
+        double transformedMax = transform.apply(max);
+        double transformedMin = transformedMin(transform.apply(min), transformedMax);
+        return transform.inverse(transformedMin + offset / length * (transformedMax - transformedMin));
+    }
+
+    /**
+     * computes the projection constants of the frame in the transformed space
+     */
+    private void updateProjection(double minX, double maxX, double minY, double maxY) {
+        double transformedMaxX = horizontalTransform.apply(maxX);
+        projectionMinX = transformedMin(horizontalTransform.apply(minX), transformedMaxX);
+        projectionScaleX = graphwidth / (transformedMaxX - projectionMinX);
+        updateProjectionY(verticalTransform, minY, maxY);
+    }
+
+    private void updateProjectionY(AxisTransform transform, double minY, double maxY) {
+        projectionTransformY = transform;
+        double transformedMaxY = transform.apply(maxY);
+        projectionMinY = transformedMin(transform.apply(minY), transformedMaxY);
+        projectionScaleY = graphheight / (transformedMaxY - projectionMinY);
+    }
+
+    /**
+     * a bound outside of the domain of a transform (e.g. 0 on a log axis) would hide all values,
+     * one unit of the transformed space is shown instead.
+     * used by the projection of the frame and by the toView and toValue methods, so touches match the drawing.
+     */
+    private static double transformedMin(double min, double max) {
+        return Double.isNaN(min) || Double.isInfinite(min) ? max - 1 : min;
+    }
+
+    /**
+     * projects the values of a series to view coordinates with the axis transforms of this graph.
+     * the values are copied into primitive arrays and every axis is projected in one pass.
+     * gaps and values outside of the domain of a transform are NaN.
+     * only valid while the series are drawn.
+     * @param outX view x coordinates, at least values.length
+     * @param outY view y coordinates, at least values.length
+     */
+    protected void projectValues(GraphViewData[] values, float[] outX, float[] outY) {
+        int count = values.length;
+        if (projectionX.length < count) {
+            projectionX = new double[Math.max(count, projectionX.length * 2)];
+            projectionY = new double[projectionX.length];
+        } else {
+            countMetric(Counter.ALLOCATIONS_AVOIDED, 1);
+        }
+        double[] valuesX = projectionX;
+        double[] valuesY = projectionY;
+        for (int i = 0; i < count; i++) {
+            valuesY[i] = values[i].valueY;
+        }
+        projectY(valuesY, count, outY);
+        if (horizontalTransform.isLinear() && drawingSeriesIndex < graphSeries.size()
+                && graphSeries.get(drawingSeriesIndex).projectSliceX(values, projectionMinX, projectionScaleX, leftBorder, outX)) {
+            // projected from the compact storage of the series
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            valuesX[i] = values[i].valueX;
+        }
+        projectX(valuesX, count, outX);
+    }
+
+    /**
+     * projects x values to view coordinates, see {@link #projectValues(GraphViewData[], float[], float[])}
+     */
+    protected void projectX(double[] values, int count, float[] out) {
+        horizontalTransform.project(values, count, projectionMinX, projectionScaleX, leftBorder, out);
+    }
+
+    /**
+     * projects y values to view coordinates, see {@link #projectValues(GraphViewData[], float[], float[])}
+     */
+    protected void projectY(double[] values, int count, float[] out) {
+        // y grows downwards in the view
+        projectionTransformY.project(values, count, projectionMinY, -projectionScaleY, lowerBorder + graphheight, out);
+    }
+
+    /**
+     * the y value at the bottom edge of the graph for the series that is drawn. unlike the minimum of the axis it is
+     * always in the domain of the axis transform, e.g. positive on a log axis. only valid while the series are drawn.
+     */
+    protected double getBottomValueY() {
+        return projectionTransformY.inverse(projectionMinY);
+    }
+
+    public AxisTransform getHorizontalAxisTransform() {
+        return horizontalTransform;
+    }
+
+    /**
+     * @param transform transform of the x axis, e.g. {@link AxisTransform#LOG10}
+     */
+    public void setHorizontalAxisTransform(AxisTransform transform) {
+        horizontalTransform = transform;
+        if (horizontalLabelGenerator instanceof DefaultLabelGenerator) {
+            ((DefaultLabelGenerator) horizontalLabelGenerator).setTransform(transform);
+        }
+        redrawAll();
+    }
+
+    public AxisTransform getVerticalAxisTransform() {
+        return verticalTransform;
+    }
+
+    /**
+     * @param transform transform of the y axis, e.g. {@link AxisTransform#LOG10}. a log axis can only show positive
+     * values, set the bounds with {@link #setManualYAxisBounds(float, float)} if the data contains values <= 0.
+     */
+    public void setVerticalAxisTransform(AxisTransform transform) {
+        verticalTransform = transform;
+        if (verticalLabelGenerator instanceof DefaultLabelGenerator) {
+            ((DefaultLabelGenerator) verticalLabelGenerator).setTransform(transform);
+        }
+        redrawAll();
+    }
+
+    /**
+     * finds the value of a series that is nearest to a point of the view, e.g. for a touch.
+     * this is a binary search on x, so it is cheap enough for every touch move.
+     * @param x view coordinate
+     * @param y view coordinate
+     * @return the nearest value, or null if the series is empty or hidden or the graph was not drawn yet
+     */
+    public GraphViewData findNearestValue(int seriesIndex, float x, float y) {
+        if (graphwidth <= 0 || graphheight <= 0 || !seriesVisible.get(seriesIndex)) {
+            return null;
+        }
+        return findNearestValue(graphSeries.get(seriesIndex), x, y);
+    }
+
+    /**
+     * @return the nearest value of every series, see {@link #findNearestValue(int, float, float)}
+     */
+    public GraphViewData[] findNearestValues(float x, float y) {
+        GraphViewData[] nearest = new GraphViewData[graphSeries.size()];
+        for (int i = 0; i < nearest.length; i++) {
+            nearest[i] = findNearestValue(i, x, y);
+        }
+        return nearest;
+    }
+
+    /**
+     * the default is the value with the nearest x. subclasses can use another distance.
+     * @param x view coordinate
+     * @param y view coordinate
+     */
+    protected GraphViewData findNearestValue(BaseSeries series, float x, float y) {
+        int index = series.nearestIndex(toValueX(x));
+        return index < 0 ? null : series.get(index);
+    }
+
+    /**
+     * @return the area of the view in which the series are drawn
+     */
+    public RectF getGraphContentRect() {
+        return new RectF(leftBorder, lowerBorder, leftBorder + graphwidth, lowerBorder + graphheight);
+    }
+
+    /**
+     * tells the group that the viewport of this graph changed
+     */
+    private void publishViewport() {
+        if (viewportGroup != null && viewportSize != 0) {
+            viewportGroup.onViewportChanged(this, viewportStart, viewportSize);
+        }
+    }
+
+    /**
+     * takes over the viewport of the group. does not publish the change again.
+     */
+    void applyLinkedViewport(double start, double size) {
+        if (start == viewportStart && size == viewportSize) {
+            return;
+        }
+        if (animator.isRunning()) {
+            // another graph of the group is moving the viewport
+            animator.abort();
+        }
+        viewportStart = start;
+        viewportSize = size;
+        invalidateLabels();
+        invalidate();
+    }
+
+    /**
+     * set's the vertical viewport for the graph. this overrides the manual y axis bounds and the autoscale.
+     * if the graph is scrollable, the vertical viewport can be moved and scaled independently of the horizontal one.
+     * @param start y-value
+     * @param size 0 to disable the vertical viewport
+     */
+    public void setViewPortY(double start, double size) {
+        viewportStartY = start;
+        viewportSizeY = size;
+        autoScaleBoundsValid = false;
+        verlabels = null;
+        numberformatter = null;
+        invalidate();
+    }
+
+    public RenderMetrics getRenderMetrics() {
+        return renderMetrics;
+    }
+
+    /**
+     * instruments the rendering of this graph. the metrics can be shared by several graphs.
+     * @param renderMetrics null to remove the instrumentation
+     */
+    public void setRenderMetrics(RenderMetrics renderMetrics) {
+        this.renderMetrics = renderMetrics;
+    }
+
+    public DrawingCacheMode getDrawingCacheMode() {
+        return drawingCacheMode;
+    }
+
+    /**
+     * @param drawingCacheMode how the labels, the grid and the title are drawn
+     */
+    public void setDrawingCacheMode(DrawingCacheMode drawingCacheMode) {
+        this.drawingCacheMode = drawingCacheMode;
+        if (drawingCacheMode == DrawingCacheMode.NONE) {
+            staticLayer = null;
+            annotationPicture = null;
+            recordedHorlabels = null;
+            recordedVerlabels = null;
+        }
+        invalidate();
     }
 
     public void setLabelPaintSize(int dpSize) {
@@ -695,6 +2090,223 @@ public abstract class GraphView extends View {
                 TypedValue.COMPLEX_UNIT_SP, dpSize, r.getDisplayMetrics());
         if(newSize != labelPaint.getTextSize()) {
             labelPaint.setTextSize(newSize);
+            staticLayerDirty = true;
         }
     }
+
+    /**
+     * saves the viewport, the y bounds, the axis transforms, the bounds of the secondary axes and the label
+     * configuration. custom axis transforms are not saved. the series are not saved: keep them outside
+     * of the view (e.g. in a retained fragment) and add them to the new view, their data and indexes are reused.
+     */
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        state.viewportStart = viewportStart;
+        state.viewportSize = viewportSize;
+        state.viewportStartY = viewportStartY;
+        state.viewportSizeY = viewportSizeY;
+        state.manualYAxis = manualYAxis && minY != null && maxY != null;
+        if (state.manualYAxis) {
+            state.minY = minY;
+            state.maxY = maxY;
+        }
+        state.autoScaleYPadding = autoScaleYPadding;
+        state.scrollable = scrollable;
+        state.scalable = scalable;
+        state.title = title;
+        state.showLegend = showLegend;
+        state.legendAlign = legendAlign.ordinal();
+        state.legendWidth = legendWidth;
+        state.labelTextSize = labelPaint.getTextSize();
+        state.drawingCacheMode = drawingCacheMode.ordinal();
+        state.horizontalTransform = horizontalTransform.saveState();
+        state.verticalTransform = verticalTransform.saveState();
+        state.yAxes = new double[yAxes.size() * SavedState.Y_AXIS_STATE];
+        for (int i = 0; i < yAxes.size(); i++) {
+            YAxis axis = yAxes.get(i);
+            int offset = i * SavedState.Y_AXIS_STATE;
+            state.yAxes[offset] = axis.isManualBounds() ? 1 : 0;
+            state.yAxes[offset + 1] = axis.isManualBounds() ? axis.getMin() : 0;
+            state.yAxes[offset + 2] = axis.isManualBounds() ? axis.getMax() : 0;
+            state.yAxes[offset + 3] = axis.getTransform().saveState();
+        }
+        return state;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable parcelable) {
+        if (!(parcelable instanceof SavedState)) {
+            super.onRestoreInstanceState(parcelable);
+            return;
+        }
+        SavedState state = (SavedState) parcelable;
+        super.onRestoreInstanceState(state.getSuperState());
+        setScrollable(state.scrollable);
+        if (state.scalable) {
+            setScalable(true);
+        }
+        if (state.manualYAxis) {
+            setManualYAxisBounds(state.maxY, state.minY);
+        }
+        setAutoScaleYPadding(state.autoScaleYPadding);
+        setViewPortY(state.viewportStartY, state.viewportSizeY);
+        title = state.title;
+        showLegend = state.showLegend;
+        legendAlign = LegendAlign.values()[state.legendAlign];
+        legendWidth = state.legendWidth;
+        labelPaint.setTextSize(state.labelTextSize);
+        setDrawingCacheMode(DrawingCacheMode.values()[state.drawingCacheMode]);
+        AxisTransform transform = AxisTransform.restoreState(state.horizontalTransform);
+        if (transform != null) {
+            setHorizontalAxisTransform(transform);
+        }
+        transform = AxisTransform.restoreState(state.verticalTransform);
+        if (transform != null) {
+            setVerticalAxisTransform(transform);
+        }
+        // the secondary axes are added again by the app before the state is restored
+        int axes = Math.min(yAxes.size(), state.yAxes.length / SavedState.Y_AXIS_STATE);
+        for (int i = 0; i < axes; i++) {
+            YAxis axis = yAxes.get(i);
+            int offset = i * SavedState.Y_AXIS_STATE;
+            if (state.yAxes[offset] != 0) {
+                axis.setManualBounds(state.yAxes[offset + 1], state.yAxes[offset + 2]);
+            }
+            transform = AxisTransform.restoreState(state.yAxes[offset + 3]);
+            if (transform != null) {
+                axis.setTransform(transform);
+            }
+        }
+        // the viewport group publishes the restored viewport to the other graphs
+        setViewPort(state.viewportStart, state.viewportSize);
+        redrawAll();
+    }
+
+    /**
+     * the series and the viewport group keep a reference to the graph, it is removed while the graph is detached,
+     * so a series that outlives the graph (e.g. after a configuration change) does not leak it.
+     */
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        for (int i = 0; i < graphSeries.size(); i++) {
+            graphSeries.get(i).addGraphView(this);
+        }
+        if (viewportGroup != null) {
+            viewportGroup.add(this);
+        }
+        // the data may have changed while detached, the cached bounds are rescanned from the indexes of the series
+        redrawAll();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        for (int i = 0; i < graphSeries.size(); i++) {
+            graphSeries.get(i).removeGraphView(this);
+        }
+        if (viewportGroup != null) {
+            viewportGroup.remove(this);
+        }
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * state of {@link #onSaveInstanceState()}
+     */
+    static class SavedState extends BaseSavedState {
+        static final int Y_AXIS_STATE = 4;
+
+        double viewportStart;
+        double viewportSize;
+        double viewportStartY;
+        double viewportSizeY;
+        boolean manualYAxis;
+        float minY;
+        float maxY;
+        double autoScaleYPadding;
+        boolean scrollable;
+        boolean scalable;
+        String title;
+        boolean showLegend;
+        int legendAlign;
+        float legendWidth;
+        float labelTextSize;
+        int drawingCacheMode;
+        double horizontalTransform;
+        double verticalTransform;
+        /**
+         * manual bounds flag, min, max and transform of every secondary axis
+         */
+        double[] yAxes;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            viewportStart = in.readDouble();
+            viewportSize = in.readDouble();
+            viewportStartY = in.readDouble();
+            viewportSizeY = in.readDouble();
+            manualYAxis = in.readByte() != 0;
+            minY = in.readFloat();
+            maxY = in.readFloat();
+            autoScaleYPadding = in.readDouble();
+            scrollable = in.readByte() != 0;
+            scalable = in.readByte() != 0;
+            title = in.readString();
+            showLegend = in.readByte() != 0;
+            legendAlign = in.readInt();
+            legendWidth = in.readFloat();
+            labelTextSize = in.readFloat();
+            drawingCacheMode = in.readInt();
+            horizontalTransform = in.readDouble();
+            verticalTransform = in.readDouble();
+            yAxes = new double[in.readInt()];
+            for (int i = 0; i < yAxes.length; i++) {
+                yAxes[i] = in.readDouble();
+            }
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeDouble(viewportStart);
+            out.writeDouble(viewportSize);
+            out.writeDouble(viewportStartY);
+            out.writeDouble(viewportSizeY);
+            out.writeByte((byte) (manualYAxis ? 1 : 0));
+            out.writeFloat(minY);
+            out.writeFloat(maxY);
+            out.writeDouble(autoScaleYPadding);
+            out.writeByte((byte) (scrollable ? 1 : 0));
+            out.writeByte((byte) (scalable ? 1 : 0));
+            out.writeString(title);
+            out.writeByte((byte) (showLegend ? 1 : 0));
+            out.writeInt(legendAlign);
+            out.writeFloat(legendWidth);
+            out.writeFloat(labelTextSize);
+            out.writeInt(drawingCacheMode);
+            out.writeDouble(horizontalTransform);
+            out.writeDouble(verticalTransform);
+            out.writeInt(yAxes.length);
+            for (double value : yAxes) {
+                out.writeDouble(value);
+            }
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
 }
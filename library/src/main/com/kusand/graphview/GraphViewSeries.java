@@ -1,14 +1,14 @@
 package com.kusand.graphview;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
-
-import android.annotation.TargetApi;
 
 import com.kusand.graphview.GraphView.GraphViewData;
 
-public class GraphViewSeries {
+/**
+ * A series that stores its values as {@link GraphViewData} and can be changed with
+ * {@link #appendData(GraphViewData, boolean)}, {@link #mergeData(GraphViewData[], boolean)} and {@link #resetData(GraphViewData[])}.
+ */
+public class GraphViewSeries extends BaseSeries {
 	/**
 	 * graph series style: color and thickness
 	 */
@@ -25,33 +25,25 @@ public class GraphViewSeries {
 		}
 	}
 
-	final String description;
-	final GraphViewStyle style;
-	GraphViewData[] values;
-	private final List<GraphView> graphViews = new ArrayList<GraphView>();
+	// reorder buffer for out-of-order appends, sorted by x
+	private double maxLateness;
+	private GraphViewData[] reorderBuffer = new GraphViewData[8];
+	private int reorderCount;
+	private double newestX = Double.NEGATIVE_INFINITY;
 
 	public GraphViewSeries(GraphViewData[] values) {
-		description = null;
-		style = new GraphViewStyle();
-		this.values = values;
+		this(null, null, values);
 	}
 
 	public GraphViewSeries(String description, GraphViewStyle style, GraphViewData[] values) {
-		super();
-		this.description = description;
-		if (style == null) {
-			style = new GraphViewStyle();
-		}
-		this.style = style;
-		this.values = values;
+		this(description, style, values, new ExtremaIndex());
 	}
 
 	/**
-	 * this graphview will be redrawn if data changes
-	 * @param graphView
+	 * @param extremaIndex index of the y range, subclasses can index other values than y
 	 */
-	public void addGraphView(GraphView graphView) {
-		this.graphViews.add(graphView);
+	GraphViewSeries(String description, GraphViewStyle style, GraphViewData[] values, ExtremaIndex extremaIndex) {
+		super(description, style, values, extremaIndex);
 	}
 
 	/**
@@ -59,16 +51,133 @@ public class GraphViewSeries {
 	 * @param value the new data to append
 	 * @param scrollToEnd true => graphview will scroll to the end (maxX)
 	 */
-	@TargetApi(9)
 	public void appendData(GraphViewData value, boolean scrollToEnd) {
-		GraphViewData[] newValues = Arrays.copyOf(values, values.length+1);
-		newValues[values.length] = value;
-		values = newValues;
-		for (GraphView g : graphViews) {
-			if (scrollToEnd) {
-				g.scrollToEnd();
+		if (maxLateness > 0) {
+			bufferValue(value, scrollToEnd);
+			return;
+		}
+		appendValue(value);
+		onAppended(scrollToEnd);
+	}
+
+	/**
+	 * merges values that are sorted by x into the data in O(n + m).
+	 * values with the same x as existing values are placed after them.
+	 * the extrema index is only updated from the first merged value on.
+	 * @param sorted values sorted by x
+	 * @param scrollToEnd true => graphview will scroll to the end (maxX)
+	 */
+	public void mergeData(GraphViewData[] sorted, boolean scrollToEnd) {
+		if (sorted.length == 0) {
+			return;
+		}
+		int size = size();
+		// everything before the first value with x > first new x keeps its position
+		int first = indexOf(sorted[0].valueX, true);
+		GraphViewData[] merged = new GraphViewData[size + sorted.length];
+		System.arraycopy(values, 0, merged, 0, first);
+		int i = first;
+		int j = 0;
+		int k = first;
+		while (i < size && j < sorted.length) {
+			if (values[i].valueX <= sorted[j].valueX) {
+				merged[k++] = values[i++];
+			} else {
+				merged[k++] = sorted[j++];
 			}
 		}
+		System.arraycopy(values, i, merged, k, size - i);
+		System.arraycopy(sorted, j, merged, k + size - i, sorted.length - j);
+		setValues(merged);
+
+		if (first == size) {
+			// only appended
+			for (int d = 0; d < derivedSeries.size(); d++) {
+				for (int v = 0; v < sorted.length; v++) {
+					derivedSeries.get(d).onSourceAppended(sorted[v]);
+				}
+			}
+		} else {
+			extremaIndex.invalidateFrom(first);
+			prefixSums.invalidateFrom(first);
+			// the windows of the derived series changed in the middle
+			for (int d = 0; d < derivedSeries.size(); d++) {
+				derivedSeries.get(d).onSourceReset();
+			}
+		}
+		onMerged(scrollToEnd);
+	}
+
+	public double getMaxLateness() {
+		return maxLateness;
+	}
+
+	/**
+	 * enables out-of-order appends. appended values wait in a reorder buffer until values with an x that is
+	 * maxLateness larger arrived, then they are merged in order with {@link #mergeData(GraphViewData[], boolean)}.
+	 * values that arrive even later are still merged at the right position.
+	 * @param maxLateness how far behind the newest x a value may arrive, 0 to append directly
+	 */
+	public void setMaxLateness(double maxLateness) {
+		this.maxLateness = maxLateness;
+		if (maxLateness <= 0) {
+			flushReorderBuffer(false);
+		}
+	}
+
+	/**
+	 * @return number of values in the reorder buffer
+	 */
+	public int getPendingCount() {
+		return reorderCount;
+	}
+
+	/**
+	 * merges all values of the reorder buffer, e.g. when the stream ended
+	 * @param scrollToEnd true => graphview will scroll to the end (maxX)
+	 */
+	public void flushReorderBuffer(boolean scrollToEnd) {
+		if (reorderCount > 0) {
+			flushReorderBuffer(reorderCount, scrollToEnd);
+		}
+	}
+
+	private void flushReorderBuffer(int count, boolean scrollToEnd) {
+		GraphViewData[] batch = new GraphViewData[count];
+		System.arraycopy(reorderBuffer, 0, batch, 0, count);
+		System.arraycopy(reorderBuffer, count, reorderBuffer, 0, reorderCount - count);
+		Arrays.fill(reorderBuffer, reorderCount - count, reorderCount, null);
+		reorderCount -= count;
+		mergeData(batch, scrollToEnd);
+	}
+
+	private void bufferValue(GraphViewData value, boolean scrollToEnd) {
+		if (reorderCount == reorderBuffer.length) {
+			GraphViewData[] grown = new GraphViewData[reorderBuffer.length * 2];
+			System.arraycopy(reorderBuffer, 0, grown, 0, reorderCount);
+			reorderBuffer = grown;
+		}
+		// insertion sort, the buffer only holds the values of the lateness window
+		int i = reorderCount;
+		while (i > 0 && reorderBuffer[i - 1].valueX > value.valueX) {
+			reorderBuffer[i] = reorderBuffer[i - 1];
+			i--;
+		}
+		reorderBuffer[i] = value;
+		reorderCount++;
+		if (value.valueX > newestX) {
+			newestX = value.valueX;
+		}
+
+		// no value before the watermark can arrive anymore
+		double watermark = newestX - maxLateness;
+		int ready = 0;
+		while (ready < reorderCount && reorderBuffer[ready].valueX <= watermark) {
+			ready++;
+		}
+		if (ready > 0) {
+			flushReorderBuffer(ready, scrollToEnd);
+		}
 	}
 
 	/**
@@ -77,9 +186,10 @@ public class GraphViewSeries {
 	 * @param values new data
 	 */
 	public void resetData(GraphViewData[] values) {
-		this.values = values;
-		for (GraphView g : graphViews) {
-			g.redrawAll();
-		}
+		setValues(values);
+		Arrays.fill(reorderBuffer, 0, reorderCount, null);
+		reorderCount = 0;
+		newestX = Double.NEGATIVE_INFINITY;
+		onReset();
 	}
 }
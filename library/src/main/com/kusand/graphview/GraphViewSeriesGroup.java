@@ -0,0 +1,229 @@
+package com.kusand.graphview;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.GraphViewSeries.GraphViewStyle;
+
+/**
+ * Several series that share one x column, e.g. sensors sampled at the same timestamps.
+ * The x values are stored once and every y column in a primitive array.
+ * Add the columns to a graph with {@link #getSeries(int)}.
+ *
+ * The viewport lookup (binary search on x) is done once for all columns. Every column indexes its y bounds
+ * incrementally on its primitive array. Only the drawn values are materialized as {@link GraphViewData}, large
+ * ranges are decimated to a few values per pixel first, so the materialized values don't grow with the data.
+ */
+public class GraphViewSeriesGroup {
+	private double[] x;
+	private double[][] y;
+	private int size;
+	private int version;
+	private final Column[] columns;
+
+	// viewport lookup, shared by the columns
+	private double lookupMinX;
+	private int lookupStart;
+	private int lookupStartVersion = -1;
+	private double lookupMaxX;
+	private int lookupEnd;
+	private int lookupEndVersion = -1;
+
+	/**
+	 * @param x x values, sorted
+	 * @param y one array of y values per column, each with the length of x
+	 */
+	public GraphViewSeriesGroup(double[] x, double[][] y) {
+		this(null, null, x, y);
+	}
+
+	/**
+	 * @param descriptions description per column, may be null
+	 * @param styles style per column, may be null
+	 * @param x x values, sorted
+	 * @param y one array of y values per column, each with the length of x
+	 */
+	public GraphViewSeriesGroup(String[] descriptions, GraphViewStyle[] styles, double[] x, double[][] y) {
+		checkColumns(x, y);
+		this.x = x;
+		this.y = y;
+		this.size = x.length;
+		columns = new Column[y.length];
+		for (int c = 0; c < columns.length; c++) {
+			columns[c] = new Column(c, descriptions != null ? descriptions[c] : null, styles != null ? styles[c] : null);
+		}
+	}
+
+	private static void checkColumns(double[] x, double[][] y) {
+		for (int c = 0; c < y.length; c++) {
+			if (y[c].length < x.length) {
+				throw new IllegalArgumentException("column " + c + " has less values than x");
+			}
+		}
+	}
+
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	/**
+	 * @return the series of this column, to add it to a graph
+	 */
+	public BaseSeries getSeries(int column) {
+		return columns[column];
+	}
+
+	/**
+	 * @return number of values per column
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * appends one row. the arrays grow by doubling, so this is amortized O(number of columns).
+	 * @param valueX must not be smaller than the last x value
+	 * @param valuesY one value per column
+	 * @param scrollToEnd true => graphview will scroll to the end (maxX)
+	 */
+	public void appendData(double valueX, double[] valuesY, boolean scrollToEnd) {
+		if (valuesY.length != columns.length) {
+			throw new IllegalArgumentException("expected " + columns.length + " values, got " + valuesY.length);
+		}
+		if (size == x.length) {
+			int capacity = Math.max(16, size * 2);
+			x = grow(x, capacity);
+			for (int c = 0; c < y.length; c++) {
+				y[c] = grow(y[c], capacity);
+			}
+		}
+		x[size] = valueX;
+		for (int c = 0; c < y.length; c++) {
+			y[c][size] = valuesY[c];
+		}
+		size++;
+		version++;
+		for (int c = 0; c < columns.length; c++) {
+			columns[c].onAppended(scrollToEnd);
+		}
+	}
+
+	private double[] grow(double[] array, int capacity) {
+		double[] grown = new double[capacity];
+		System.arraycopy(array, 0, grown, 0, size);
+		return grown;
+	}
+
+	/**
+	 * clears the current data and sets the new. redraws the graphview(s)
+	 * @param x x values, sorted
+	 * @param y one array of y values per column, each with the length of x
+	 */
+	public void resetData(double[] x, double[][] y) {
+		if (y.length != columns.length) {
+			throw new IllegalArgumentException("expected " + columns.length + " columns, got " + y.length);
+		}
+		checkColumns(x, y);
+		this.x = x;
+		this.y = y;
+		size = x.length;
+		version++;
+		for (int c = 0; c < columns.length; c++) {
+			columns[c].onReset();
+		}
+	}
+
+	private int sliceStart(double minX) {
+		if (lookupStartVersion != version || lookupMinX != minX) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (x[mid] < minX) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			lookupStart = Math.max(0, low - 1);
+			lookupMinX = minX;
+			lookupStartVersion = version;
+		}
+		return lookupStart;
+	}
+
+	private int sliceEnd(double maxX) {
+		if (lookupEndVersion != version || lookupMaxX != maxX) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (x[mid] <= maxX) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			lookupEnd = Math.min(size, low + 1);
+			lookupMaxX = maxX;
+			lookupEndVersion = version;
+		}
+		return lookupEnd;
+	}
+
+	/**
+	 * one y column. the drawn values are materialized from the primitive arrays, see {@link CompactSlice}.
+	 * the data is changed through the group.
+	 */
+	private class Column extends BaseSeries {
+		private final int column;
+		private final CompactSlice drawn = new CompactSlice();
+
+		Column(int column, String description, GraphViewStyle style) {
+			super(description, style, new GraphViewData[0], new ExtremaIndex());
+			this.column = column;
+		}
+
+		@Override
+		int size() {
+			return size;
+		}
+
+		@Override
+		double getX(int index) {
+			return x[index];
+		}
+
+		@Override
+		double getY(int index) {
+			return y[column][index];
+		}
+
+		@Override
+		GraphViewData get(int index) {
+			return new GraphViewData(x[index], y[column][index]);
+		}
+
+		@Override
+		GraphViewData[] slice(int from, int to) {
+			GraphViewData[] slice = new GraphViewData[to - from];
+			for (int i = from; i < to; i++) {
+				slice[i - from] = get(i);
+			}
+			return slice;
+		}
+
+		@Override
+		GraphViewData[] drawSlice(int from, int to, int buckets) {
+			return drawn.get(this, version, from, to, buckets);
+		}
+
+		@Override
+		int sliceStart(double minX) {
+			return GraphViewSeriesGroup.this.sliceStart(minX);
+		}
+
+		@Override
+		int sliceEnd(double maxX) {
+			return GraphViewSeriesGroup.this.sliceEnd(maxX);
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package com.kusand.graphview;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.graphics.Bitmap;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.TileCache.Tile;
+
+/**
+ * Regular grid of intensities, e.g. a spectrogram with time columns and frequency rows. Draw it with a
+ * {@link HeatmapGraphView}. Column i covers the x range [startX + i * columnWidth, startX + (i+1) * columnWidth),
+ * the rows are evenly distributed between minY and maxY.
+ *
+ * The grid is drawn from bitmap tiles of {@link #TILE_SIZE} x {@link #TILE_SIZE} cells, colored with the color map.
+ * The tiles are only built when they are visible and are kept in a LRU cache with a maximal number of tiles.
+ * Zoomed out, 2, 4, 8... columns are merged into one tile column with their maximal intensity.
+ * Appended columns are filled into the cached tiles in place.
+ *
+ * The grid is only changed with {@link #appendColumn(float[], boolean)} and {@link #clear()}, so the x positions
+ * always match the columns.
+ */
+public class GridSeries extends BaseSeries {
+	/**
+	 * width and height of a tile in cells
+	 */
+	static final int TILE_SIZE = 64;
+	private static final int DEFAULT_MAX_TILES = 128;
+
+	/**
+	 * the y range of every column is the range of the grid
+	 */
+	private static final class GridExtremaIndex extends ExtremaIndex {
+		private final double minY;
+		private final double maxY;
+
+		GridExtremaIndex(double minY, double maxY) {
+			this.minY = minY;
+			this.maxY = maxY;
+		}
+
+		@Override
+		double low(BaseSeries series, int index) {
+			return minY;
+		}
+
+		@Override
+		double high(BaseSeries series, int index) {
+			return maxY;
+		}
+	}
+
+	private final double startX;
+	private final double columnWidth;
+	private final int rows;
+	private final double minY;
+	private final double maxY;
+	private final List<float[]> columns = new ArrayList<float[]>();
+	private ColorMap colorMap;
+	private final TileCache tiles = new TileCache(DEFAULT_MAX_TILES);
+
+	// reused while tiles are built
+	private final int[] pixels = new int[TILE_SIZE * TILE_SIZE];
+	private final float[] cells = new float[TILE_SIZE];
+
+	/**
+	 * @param startX x value of the first column
+	 * @param columnWidth x range of one column
+	 * @param rows number of cells per column
+	 * @param minY y value of the bottom of the first row
+	 * @param maxY y value of the top of the last row
+	 * @param colorMap colors of the intensities
+	 */
+	public GridSeries(String description, double startX, double columnWidth, int rows, double minY, double maxY, ColorMap colorMap) {
+		super(description, null, new GraphViewData[0], new GridExtremaIndex(minY, maxY));
+		if (columnWidth <= 0 || rows <= 0 || maxY <= minY) {
+			throw new IllegalArgumentException("the grid must have a positive size");
+		}
+		this.startX = startX;
+		this.columnWidth = columnWidth;
+		this.rows = rows;
+		this.minY = minY;
+		this.maxY = maxY;
+		this.colorMap = colorMap;
+	}
+
+	/**
+	 * appends a column. the array is kept and must not be changed afterwards.
+	 * @param intensities one value per row from minY to maxY, NaN is transparent
+	 * @param scrollToEnd true => graphview will scroll to the end (maxX)
+	 */
+	public void appendColumn(float[] intensities, boolean scrollToEnd) {
+		if (intensities.length != rows) {
+			throw new IllegalArgumentException("a column needs " + rows + " values");
+		}
+		columns.add(intensities);
+		// the values only hold the x positions of the columns
+		appendValue(GraphViewData.gap(startX + (columns.size() - 1) * columnWidth));
+		onAppended(scrollToEnd);
+	}
+
+	/**
+	 * removes all columns
+	 */
+	public void clear() {
+		columns.clear();
+		tiles.clear();
+		setValues(new GraphViewData[0]);
+		onReset();
+	}
+
+	public ColorMap getColorMap() {
+		return colorMap;
+	}
+
+	/**
+	 * all tiles are built again with the new colors
+	 */
+	public void setColorMap(ColorMap colorMap) {
+		this.colorMap = colorMap;
+		tiles.clear();
+		notifyDataChanged();
+	}
+
+	public int getMaxTileCount() {
+		return tiles.getMaxTiles();
+	}
+
+	/**
+	 * @param maxTiles maximal number of cached tiles, one tile takes TILE_SIZE * TILE_SIZE * 4 bytes.
+	 * should be larger than the number of visible tiles.
+	 */
+	public void setMaxTileCount(int maxTiles) {
+		tiles.setMaxTiles(maxTiles);
+	}
+
+	public double getStartX() {
+		return startX;
+	}
+
+	public double getColumnWidth() {
+		return columnWidth;
+	}
+
+	public int getRowCount() {
+		return rows;
+	}
+
+	public int getColumnCount() {
+		return columns.size();
+	}
+
+	public double getMinY() {
+		return minY;
+	}
+
+	public double getMaxY() {
+		return maxY;
+	}
+
+	/**
+	 * @return number of columns of the level, every column merges 2^level columns
+	 */
+	int getLevelColumnCount(int level) {
+		return (columns.size() + (1 << level) - 1) >> level;
+	}
+
+	/**
+	 * maximal intensity of the merged columns of a level column
+	 * @param out one value per row, from the first row on
+	 */
+	void getLevelColumn(int level, int levelColumn, int firstRow, int count, float[] out) {
+		for (int r = 0; r < count; r++) {
+			out[r] = Float.NaN;
+		}
+		int from = levelColumn << level;
+		int to = Math.min(columns.size(), (levelColumn + 1) << level);
+		for (int c = from; c < to; c++) {
+			float[] column = columns.get(c);
+			for (int r = 0; r < count; r++) {
+				float value = column[firstRow + r];
+				// NaN is skipped
+				if (value > out[r] || out[r] != out[r]) {
+					out[r] = value;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the bitmap of a tile, built or completed if necessary. the first row of the bitmap is the top.
+	 */
+	Bitmap getTile(int level, int tileColumn, int tileRow) {
+		long key = ((long) level << 56) | ((long) tileRow << 40) | tileColumn;
+		int dataColumns = columns.size();
+		int height = Math.min(TILE_SIZE, rows - tileRow * TILE_SIZE);
+		int firstColumn = tileColumn * TILE_SIZE;
+		Tile tile = tiles.get(key);
+		int from;
+		if (tile == null) {
+			tile = new Tile(Bitmap.createBitmap(TILE_SIZE, height, Bitmap.Config.ARGB_8888));
+			tiles.put(key, tile);
+			from = 0;
+		} else if (tile.builtDataColumns == dataColumns) {
+			return tile.bitmap;
+		} else {
+			// columns were appended, the last built column may have been incomplete
+			from = Math.max(0, (tile.builtDataColumns >> level) - firstColumn);
+		}
+		int to = Math.min(TILE_SIZE, getLevelColumnCount(level) - firstColumn);
+		if (from < to) {
+			for (int c = from; c < to; c++) {
+				getLevelColumn(level, firstColumn + c, tileRow * TILE_SIZE, height, cells);
+				for (int r = 0; r < height; r++) {
+					// the highest row is at the top
+					pixels[(height - 1 - r) * TILE_SIZE + c] = colorMap.getColor(cells[r]);
+				}
+			}
+			tile.bitmap.setPixels(pixels, from, TILE_SIZE, from, 0, to - from, height);
+		}
+		tile.builtDataColumns = dataColumns;
+		return tile.bitmap;
+	}
+}
@@ -0,0 +1,111 @@
+package com.kusand.graphview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+
+import com.kusand.graphview.metrics.RenderMetrics.Counter;
+
+/**
+ * Draws {@link GridSeries} as heatmaps, e.g. spectrograms. Other series are not drawn.
+ * Only the tiles that intersect the viewport are built. Zoomed out, the level of detail of the tiles is chosen so that
+ * one tile column is at least one pixel wide and all visible tiles fit into the tile cache of the series.
+ */
+public class HeatmapGraphView extends GraphView {
+    private static final int MAX_LEVEL = 30;
+
+    private final Paint tilePaint = new Paint();
+    private final Rect tileSource = new Rect();
+    private final RectF tileTarget = new RectF();
+
+    public HeatmapGraphView(Context context) {
+        super(context);
+        initTilePaint();
+    }
+
+    public HeatmapGraphView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        initTilePaint();
+    }
+
+    public HeatmapGraphView(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        initTilePaint();
+    }
+
+    private void initTilePaint() {
+        // sharp cells
+        tilePaint.setFilterBitmap(false);
+    }
+
+    @Override
+    public void drawSeries(Canvas canvas, GraphViewData[] values, float graphwidth, float graphheight, float border, double minX, double minY, double diffX, double diffY, float horstart) {
+        BaseSeries series = getSeries(getDrawingSeriesIndex());
+        if (!(series instanceof GridSeries) || ((GridSeries) series).getColumnCount() == 0) {
+            return;
+        }
+        GridSeries grid = (GridSeries) series;
+        YAxis axis = getYAxis(series);
+        int tileSize = GridSeries.TILE_SIZE;
+
+        // visible rows
+        double rowHeight = (grid.getMaxY() - grid.getMinY()) / grid.getRowCount();
+        int firstRow = Math.max(0, (int) Math.floor((minY - grid.getMinY()) / rowHeight));
+        int lastRow = Math.min(grid.getRowCount() - 1, (int) Math.floor((minY + diffY - grid.getMinY()) / rowHeight));
+        if (firstRow > lastRow) {
+            return;
+        }
+        int tileRows = lastRow / tileSize - firstRow / tileSize + 1;
+
+        // visible columns of the level of detail
+        double columnsPerPixel = diffX / grid.getColumnWidth() / graphwidth;
+        int level = 0;
+        while (level < MAX_LEVEL && ((1 << level) < columnsPerPixel
+                || visibleTiles(grid, level, minX, diffX, tileRows) > grid.getMaxTileCount())) {
+            level++;
+        }
+        double levelWidth = grid.getColumnWidth() * (1 << level);
+        int levelColumns = grid.getLevelColumnCount(level);
+        int firstColumn = Math.max(0, (int) Math.floor((minX - grid.getStartX()) / levelWidth));
+        int lastColumn = Math.min(levelColumns - 1, (int) Math.floor((minX + diffX - grid.getStartX()) / levelWidth));
+        if (firstColumn > lastColumn) {
+            return;
+        }
+
+        canvas.save();
+        canvas.clipRect(horstart, border, horstart + graphwidth, graphheight + border);
+        int drawCalls = 0;
+        for (int tileRow = firstRow / tileSize; tileRow <= lastRow / tileSize; tileRow++) {
+            int rowStart = tileRow * tileSize;
+            int height = Math.min(tileSize, grid.getRowCount() - rowStart);
+            float top = toViewY(grid.getMinY() + (rowStart + height) * rowHeight, axis);
+            float bottom = toViewY(grid.getMinY() + rowStart * rowHeight, axis);
+            for (int tileColumn = firstColumn / tileSize; tileColumn <= lastColumn / tileSize; tileColumn++) {
+                int columnStart = tileColumn * tileSize;
+                int width = Math.min(tileSize, levelColumns - columnStart);
+                Bitmap tile = grid.getTile(level, tileColumn, tileRow);
+                tileSource.set(0, 0, width, height);
+                tileTarget.set(toViewX(grid.getStartX() + columnStart * levelWidth), top,
+                        toViewX(grid.getStartX() + (columnStart + width) * levelWidth), bottom);
+                canvas.drawBitmap(tile, tileSource, tileTarget, tilePaint);
+                drawCalls++;
+            }
+        }
+        canvas.restore();
+        countMetric(Counter.DRAW_CALLS, drawCalls);
+    }
+
+    /**
+     * @return number of tiles that intersect the viewport at this level
+     */
+    private static int visibleTiles(GridSeries grid, int level, double minX, double diffX, int tileRows) {
+        double tileWidth = grid.getColumnWidth() * (1 << level) * GridSeries.TILE_SIZE;
+        int first = (int) Math.floor((minX - grid.getStartX()) / tileWidth);
+        int last = (int) Math.floor((minX + diffX - grid.getStartX()) / tileWidth);
+        return (last - first + 1) * tileRows;
+    }
+}
@@ -0,0 +1,75 @@
+package com.kusand.graphview;
+
+import java.util.concurrent.Executor;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+
+/**
+ * Serves pages from an array of values. The pages are reduced to the minimum and maximum of every resolution step.
+ * With an executor the pages are loaded in the background, without one they are loaded synchronously.
+ */
+public class InMemoryPageProvider implements PageProvider {
+    private final GraphViewData[] values;
+    private final Executor executor;
+
+    /**
+     * @param values values sorted by x, at least one
+     * @param executor runs the page requests, null to load them synchronously
+     */
+    public InMemoryPageProvider(GraphViewData[] values, Executor executor) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("the provider needs at least one value");
+        }
+        this.values = values;
+        this.executor = executor;
+    }
+
+    @Override
+    public double getMinX() {
+        return values[0].valueX;
+    }
+
+    @Override
+    public double getMaxX() {
+        return values[values.length - 1].valueX;
+    }
+
+    @Override
+    public void fetch(final double xFrom, final double xTo, final double resolution, final Callback callback) {
+        if (executor == null) {
+            callback.onPageLoaded(load(xFrom, xTo, resolution));
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                callback.onPageLoaded(load(xFrom, xTo, resolution));
+            }
+        });
+    }
+
+    private GraphViewData[] load(double xFrom, double xTo, double resolution) {
+        int from = lowerBound(xFrom);
+        int to = lowerBound(xTo);
+        GraphViewData[] page = new GraphViewData[to - from];
+        System.arraycopy(values, from, page, 0, page.length);
+        return Decimator.minMax(page, (int) Math.ceil((xTo - xFrom) / resolution));
+    }
+
+    /**
+     * @return index of the first value with an x that is not smaller
+     */
+    private int lowerBound(double x) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid].valueX < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
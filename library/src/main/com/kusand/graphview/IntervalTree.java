@@ -0,0 +1,131 @@
+package com.kusand.graphview;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Static interval tree over items with a [start, end] range. The items are sorted by start and form an implicit
+ * balanced search tree: the middle of every index range is the root of its subtree and stores the largest end of
+ * the subtree. A query visits O(log n + k) nodes for k results.
+ * It is built again on the next query after items were added or removed.
+ */
+final class IntervalTree<T> {
+    /**
+     * the range of an item
+     */
+    interface Bounds<T> {
+        double start(T item);
+
+        double end(T item);
+    }
+
+    private final Bounds<T> bounds;
+    private Object[] items = new Object[0];
+    private int size;
+    private double[] starts = new double[0];
+    private double[] ends = new double[0];
+    private double[] maxEnds = new double[0];
+    private boolean dirty;
+
+    IntervalTree(Bounds<T> bounds) {
+        this.bounds = bounds;
+    }
+
+    void add(T item) {
+        if (size == items.length) {
+            Object[] grown = new Object[Math.max(8, size * 2)];
+            System.arraycopy(items, 0, grown, 0, size);
+            items = grown;
+        }
+        items[size++] = item;
+        dirty = true;
+    }
+
+    /**
+     * @return true if the item was in the tree
+     */
+    boolean remove(T item) {
+        for (int i = 0; i < size; i++) {
+            if (items[i] == item) {
+                System.arraycopy(items, i + 1, items, i, size - i - 1);
+                items[--size] = null;
+                dirty = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void clear() {
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+        dirty = true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * adds the items that intersect [from, to] to the list, sorted by start
+     */
+    void query(double from, double to, List<T> out) {
+        if (dirty) {
+            build();
+        }
+        query(0, size, from, to, out);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void query(int low, int high, double from, double to, List<T> out) {
+        if (low >= high) {
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        if (maxEnds[mid] < from) {
+            // every item of the subtree ends before the range
+            return;
+        }
+        query(low, mid, from, to, out);
+        if (starts[mid] > to) {
+            // the right subtree starts even later
+            return;
+        }
+        if (ends[mid] >= from) {
+            out.add((T) items[mid]);
+        }
+        query(mid + 1, high, from, to, out);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void build() {
+        Arrays.sort(items, 0, size, new Comparator<Object>() {
+            @Override
+            public int compare(Object a, Object b) {
+                return Double.compare(bounds.start((T) a), bounds.start((T) b));
+            }
+        });
+        if (starts.length < size) {
+            starts = new double[items.length];
+            ends = new double[items.length];
+            maxEnds = new double[items.length];
+        }
+        for (int i = 0; i < size; i++) {
+            starts[i] = bounds.start((T) items[i]);
+            ends[i] = bounds.end((T) items[i]);
+        }
+        buildMaxEnds(0, size);
+        dirty = false;
+    }
+
+    private double buildMaxEnds(int low, int high) {
+        if (low >= high) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        int mid = (low + high) >>> 1;
+        double max = Math.max(ends[mid], Math.max(buildMaxEnds(low, mid), buildMaxEnds(mid + 1, high)));
+        maxEnds[mid] = max;
+        return max;
+    }
+}
@@ -0,0 +1,233 @@
+package com.kusand.graphview;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Picture;
+import android.graphics.RectF;
+
+import com.kusand.graphview.GraphView.LegendAlign;
+
+/**
+ * Layout and cache of the legend of a graph. If the series don't fit into one column, they are laid out in several
+ * columns; if they still don't fit into the graph, only the visible rows are drawn and the legend can be scrolled.
+ * Hidden series are drawn faded, so that they can be shown again.
+ *
+ * The recorded legend is replayed until the series, their colors or visibility, or the layout change.
+ */
+final class Legend {
+    static final int SHAPE_SIZE = 15;
+    static final int ROW_HEIGHT = SHAPE_SIZE + 5;
+    private static final int PADDING = 5;
+    private static final int HIDDEN_ALPHA = 60;
+    private static final float SCROLLBAR_WIDTH = 3;
+
+    // layout
+    private int count;
+    private int columns;
+    private int rows;
+    private int visibleRows;
+    private int firstRow;
+    private float columnWidth;
+    private float scrollOffset;
+    float left;
+    float top;
+    float right;
+    float bottom;
+
+    private final RectF rect = new RectF();
+    private final RectF shape = new RectF();
+
+    // recorded legend
+    private Picture picture;
+    private final List<BaseSeries> recordedSeries = new ArrayList<BaseSeries>();
+    private int[] recordedColors = new int[0];
+    private boolean[] recordedVisible = new boolean[0];
+    private final float[] recordedLayout = new float[6];
+
+    /**
+     * lays the entries out in as few columns as possible, but not wider than maxWidth
+     * @param columnWidth width of one column
+     * @param graphRight right edge of the graph
+     * @param maxWidth available width
+     * @param maxHeight available height
+     */
+    void layout(int count, float columnWidth, LegendAlign align, float height, float lowerBorder, float graphRight,
+            float maxWidth, float maxHeight) {
+        this.count = count;
+        this.columnWidth = columnWidth;
+        int maxRows = Math.max(1, (int) ((maxHeight - PADDING) / ROW_HEIGHT));
+        int maxColumns = Math.max(1, (int) ((maxWidth - PADDING) / columnWidth));
+        int neededColumns = (count + maxRows - 1) / maxRows;
+        columns = Math.max(1, Math.min(maxColumns, neededColumns));
+        rows = (count + columns - 1) / columns;
+        visibleRows = Math.min(rows, maxRows);
+        float maxScroll = (rows - visibleRows) * ROW_HEIGHT;
+        scrollOffset = Math.max(0, Math.min(maxScroll, scrollOffset));
+        firstRow = Math.round(scrollOffset / ROW_HEIGHT);
+
+        float legendHeight = ROW_HEIGHT * visibleRows + PADDING;
+        right = graphRight - 10;
+        left = right - columnWidth * columns;
+        switch (align) {
+            case TOP:
+                top = 10;
+                break;
+            case MIDDLE:
+                top = height / 2 - legendHeight / 2;
+                break;
+            default:
+                top = height - lowerBorder - legendHeight - 10;
+        }
+        bottom = top + legendHeight;
+    }
+
+    /**
+     * @return true if not all rows are visible
+     */
+    boolean isScrollable() {
+        return visibleRows < rows;
+    }
+
+    int getColumnCount() {
+        return columns;
+    }
+
+    int getFirstRow() {
+        return firstRow;
+    }
+
+    int getVisibleRowCount() {
+        return visibleRows;
+    }
+
+    /**
+     * scrolls the rows with a finger movement, the next layout clamps the offset
+     */
+    void scrollBy(float dy) {
+        scrollOffset -= dy;
+    }
+
+    boolean contains(float x, float y) {
+        return x >= left && x < right && y >= top && y < bottom;
+    }
+
+    /**
+     * @return index of the series whose entry is at this position, -1 if there is none
+     */
+    int seriesAt(float x, float y) {
+        if (!contains(x, y)) {
+            return -1;
+        }
+        int column = (int) ((x - left) / columnWidth);
+        int row = (int) ((y - top - PADDING) / ROW_HEIGHT);
+        if (row < 0 || row >= visibleRows) {
+            return -1;
+        }
+        int index = column * rows + firstRow + row;
+        return index < count ? index : -1;
+    }
+
+    /**
+     * replays the recorded legend, it is only recorded again if something changed
+     * @return number of draw calls
+     */
+    int drawCached(Canvas canvas, List<BaseSeries> series, List<Boolean> visible, Paint boxPaint, Paint shapePaint,
+            Paint textPaint, int width, int height) {
+        if (picture == null || changed(series, visible, textPaint.getTextSize())) {
+            if (picture == null) {
+                picture = new Picture();
+            }
+            Canvas recording = picture.beginRecording(width, height);
+            draw(recording, series, visible, boxPaint, shapePaint, textPaint);
+            picture.endRecording();
+            record(series, visible, textPaint.getTextSize());
+        }
+        canvas.drawPicture(picture);
+        return 1;
+    }
+
+    private boolean changed(List<BaseSeries> series, List<Boolean> visible, float textSize) {
+        if (series.size() != recordedSeries.size() || recordedLayout[0] != left || recordedLayout[1] != top
+                || recordedLayout[2] != right || recordedLayout[3] != bottom || recordedLayout[4] != firstRow
+                || recordedLayout[5] != textSize) {
+            return true;
+        }
+        for (int i = 0; i < series.size(); i++) {
+            BaseSeries s = series.get(i);
+            if (s != recordedSeries.get(i) || s.style.color != recordedColors[i] || visible.get(i) != recordedVisible[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void record(List<BaseSeries> series, List<Boolean> visible, float textSize) {
+        recordedSeries.clear();
+        recordedSeries.addAll(series);
+        if (recordedColors.length < series.size()) {
+            recordedColors = new int[series.size()];
+            recordedVisible = new boolean[series.size()];
+        }
+        for (int i = 0; i < series.size(); i++) {
+            recordedColors[i] = series.get(i).style.color;
+            recordedVisible[i] = visible.get(i);
+        }
+        recordedLayout[0] = left;
+        recordedLayout[1] = top;
+        recordedLayout[2] = right;
+        recordedLayout[3] = bottom;
+        recordedLayout[4] = firstRow;
+        recordedLayout[5] = textSize;
+    }
+
+    /**
+     * draws the box and the visible entries, clipped to the box. hidden series are drawn faded.
+     * @return number of draw calls
+     */
+    int draw(Canvas canvas, List<BaseSeries> series, List<Boolean> visible, Paint boxPaint, Paint shapePaint,
+            Paint textPaint) {
+        rect.set(left, top, right, bottom);
+        canvas.drawRoundRect(rect, 8, 8, boxPaint);
+        int drawCalls = 1;
+        canvas.save();
+        canvas.clipRect(left, top, right, bottom);
+        for (int column = 0; column < columns; column++) {
+            float entryLeft = left + PADDING + column * columnWidth;
+            for (int row = 0; row < visibleRows; row++) {
+                int index = column * rows + firstRow + row;
+                if (index >= count) {
+                    break;
+                }
+                BaseSeries s = series.get(index);
+                int alpha = visible.get(index) ? 255 : HIDDEN_ALPHA;
+                float entryTop = top + PADDING + row * ROW_HEIGHT;
+                shapePaint.setColor(s.style.color);
+                shapePaint.setAlpha(alpha);
+                shape.set(entryLeft, entryTop, entryLeft + SHAPE_SIZE, entryTop + SHAPE_SIZE);
+                canvas.drawRect(shape, shapePaint);
+                drawCalls++;
+                if (s.description != null) {
+                    textPaint.setAlpha(alpha);
+                    canvas.drawText(s.description, entryLeft + SHAPE_SIZE + 5, entryTop + SHAPE_SIZE - 5, textPaint);
+                    drawCalls++;
+                }
+            }
+        }
+        textPaint.setAlpha(255);
+        if (isScrollable()) {
+            // position of the visible rows
+            float trackHeight = bottom - top - 2 * PADDING;
+            float thumbTop = top + PADDING + trackHeight * firstRow / rows;
+            float thumbBottom = thumbTop + trackHeight * visibleRows / rows;
+            shapePaint.setColor(textPaint.getColor());
+            shapePaint.setAlpha(HIDDEN_ALPHA);
+            canvas.drawRect(right - 2 - SCROLLBAR_WIDTH, thumbTop, right - 2, thumbBottom, shapePaint);
+            drawCalls++;
+        }
+        canvas.restore();
+        return drawCalls;
+    }
+}
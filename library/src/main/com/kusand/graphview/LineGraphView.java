@@ -7,6 +7,8 @@ import android.graphics.Paint;
 import android.graphics.Path;
 import android.util.AttributeSet;
 
+import com.kusand.graphview.metrics.RenderMetrics.Counter;
+
 /**
  * Line Graph View. This draws a line chart.
  * @author kusand - jonas gehring - http://www.kusand.com
@@ -20,6 +22,12 @@ public class LineGraphView extends GraphView {
 	private boolean drawBackground;
     private boolean drawFilled;
 
+    // reused between frames
+    private float[] lines = new float[64];
+    private float[] projectedX = new float[16];
+    private float[] projectedY = new float[16];
+    private final Path areaPath = new Path();
+
     public LineGraphView(Context context) {
         super(context);
         paintBackground = buildPaintBackground();
@@ -53,24 +61,35 @@ public class LineGraphView extends GraphView {
 
     @Override
 	public void drawSeries(Canvas canvas, GraphViewData[] values, float graphwidth, float graphheight, float border, double minX, double minY, double diffX, double diffY, float horstart) {
+		// project all values with the axis transforms in one pass. NaN is a gap or a value outside
+		// of the domain of a transform, e.g. <= 0 on a log axis.
+		if (projectedX.length < values.length) {
+			projectedX = new float[Math.max(values.length, projectedX.length * 2)];
+			projectedY = new float[projectedX.length];
+		} else {
+			countMetric(Counter.ALLOCATIONS_AVOIDED, 1);
+		}
+		float[] px = projectedX;
+		float[] py = projectedY;
+		projectValues(values, px, py);
+
 		// draw background
 		double lastEndY = 0;
 		double lastEndX = 0;
+		boolean hasLast = false;
+		int drawCalls = 0;
 		if (drawBackground) {
 			float startY = graphheight + border;
 			for (int i = 0; i < values.length; i++) {
-				double valY = values[i].valueY - minY;
-				double ratY = valY / diffY;
-				double y = graphheight * ratY;
-
-				double valX = values[i].valueX - minX;
-				double ratX = valX / diffX;
-				double x = graphwidth * ratX;
-
-				float endX = (float) x + (horstart + 1);
-				float endY = (float) (border - y) + graphheight +2;
+				if (Float.isNaN(px[i]) || Float.isNaN(py[i])) {
+					// gap, no background until the next value
+					hasLast = false;
+					continue;
+				}
+				float endX = px[i] + 1;
+				float endY = py[i] + 2;
 
-				if (i > 0) {
+				if (hasLast) {
 					// fill space between last and current point
 					int numSpace = (int) ((endX - lastEndX) / 3f) +1;
 					for (int xi=0; xi<numSpace; xi++) {
@@ -83,56 +102,81 @@ public class LineGraphView extends GraphView {
 						// do not draw over the left edge
 						if (startX-horstart > 1) {
 							canvas.drawLine(startX, startY, spaceX, spaceY, paintBackground);
+							drawCalls++;
 						}
 					}
 				}
 
 				lastEndY = endY;
 				lastEndX = endX;
+				hasLast = true;
 			}
 		}
 
-		// draw data
-		lastEndY = 0;
-		lastEndX = 0;
-        float origX = 0;
-        float origY = 0;
-        Path areaPath = new Path();
+		// draw data. a gap splits the line into several polylines,
+		// all segments are drawn with one call.
+		float bottom = graphheight + border;
+		if (lines.length < values.length * 4) {
+			lines = new float[Math.max(values.length * 4, lines.length * 2)];
+		} else {
+			countMetric(Counter.ALLOCATIONS_AVOIDED, 1);
+		}
+		int count = 0;
+		float lastX = 0;
+		float lastY = 0;
+		boolean connected = false;
+		float areaStartX = 0;
+		if (drawFilled) {
+			areaPath.rewind();
+		}
 		for (int i = 0; i < values.length; i++) {
-			double valY = values[i].valueY - minY;
-			double ratY = valY / diffY;
-			double y = graphheight * ratY;
-
-			double valX = values[i].valueX - minX;
-			double ratX = valX / diffX;
-			double x = graphwidth * ratX;
-
-            if(i == 0 && drawFilled) {
-                origX = (float) x + (horstart + 1);
-                origY = (float) (border - y) + graphheight;
-                areaPath.moveTo(origX, origY);
-            }
-
-			if (i > 0) {
-                float startX = (float) lastEndX + (horstart + 1);
-                float startY = (float) (border - lastEndY) + graphheight;
-                float endX = (float) x + (horstart + 1);
-                float endY = (float) (border - y) + graphheight;
-                if(drawFilled){
-                    areaPath.lineTo(endX, endY);
-                } else {
-				    canvas.drawLine(startX, startY, endX, endY, paint);
-                }
+			float x = px[i] + 1;
+			float y = py[i];
+			if (Float.isNaN(x) || Float.isNaN(y)) {
+				if (drawFilled && connected) {
+					closeArea(lastX, areaStartX, bottom);
+				}
+				connected = false;
+				continue;
 			}
-			lastEndY = y;
-			lastEndX = x;
+			if (drawFilled) {
+				if (connected) {
+					areaPath.lineTo(x, y);
+				} else {
+					areaPath.moveTo(x, y);
+					// the first area reaches to the left edge, the areas after a gap start below their first value
+					areaStartX = i == 0 ? horstart + 1 : x;
+				}
+			} else if (connected) {
+				lines[count++] = lastX;
+				lines[count++] = lastY;
+				lines[count++] = x;
+				lines[count++] = y;
+			}
+			lastX = x;
+			lastY = y;
+			connected = true;
 		}
-        if(drawFilled) {
-            areaPath.lineTo((float) lastEndX + (horstart + 1), graphheight + border);
-            areaPath.lineTo((horstart + 1), graphheight + border);
-            areaPath.lineTo(origX, origY);
-            canvas.drawPath(areaPath, paint);
-        }
+		if (drawFilled) {
+			if (connected) {
+				closeArea(lastX, areaStartX, bottom);
+			}
+			canvas.drawPath(areaPath, paint);
+			drawCalls++;
+		} else if (count > 0) {
+			canvas.drawLines(lines, 0, count, paint);
+			drawCalls++;
+		}
+		countMetric(Counter.DRAW_CALLS, drawCalls);
+	}
+
+	/**
+	 * closes one filled area down to the bottom of the graph
+	 */
+	private void closeArea(float endX, float startX, float bottom) {
+		areaPath.lineTo(endX, bottom);
+		areaPath.lineTo(startX, bottom);
+		areaPath.close();
 	}
 
 	public boolean getDrawBackground() {
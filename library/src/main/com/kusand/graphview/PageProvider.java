@@ -0,0 +1,44 @@
+package com.kusand.graphview;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+
+/**
+ * Source of the data of a {@link PagedSeries}, e.g. a database or a remote service.
+ * The series requests pages of an x range at a resolution; the provider loads them asynchronously.
+ */
+public interface PageProvider {
+    /**
+     * receives the data of a requested page. the methods may be called on any thread.
+     */
+    interface Callback {
+        /**
+         * @param values values within the requested x range, sorted by x
+         */
+        void onPageLoaded(GraphViewData[] values);
+
+        /**
+         * the page could not be loaded, it is requested again when it is drawn after the retry delay
+         * of {@link PagedSeries#setRetryDelay(long)}
+         */
+        void onPageFailed(Exception e);
+    }
+
+    /**
+     * @return smallest x value of the data
+     */
+    double getMinX();
+
+    /**
+     * @return largest x value of the data
+     */
+    double getMaxX();
+
+    /**
+     * starts loading a page. must not block, the result is passed to the callback.
+     * @param xFrom start of the x range (inclusive)
+     * @param xTo end of the x range (exclusive)
+     * @param resolution x distance that is drawn on one pixel, the provider should return about two values per resolution step
+     * @param callback receives the values
+     */
+    void fetch(double xFrom, double xTo, double resolution, Callback callback);
+}
@@ -0,0 +1,380 @@
+package com.kusand.graphview;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.GraphViewSeries.GraphViewStyle;
+
+/**
+ * Series whose data is loaded lazily from a {@link PageProvider}, e.g. a database or a remote service.
+ * Only the pages of the viewport are held in memory. The x range is split into pages of pageSize resolution steps;
+ * zoomed out, the resolution doubles until one step is at least one pixel wide, so that the number of values
+ * stays bounded at every zoom level.
+ *
+ * Pages are loaded asynchronously and kept in a LRU cache. The next pages in the scroll direction are prefetched.
+ * Until a page arrives, its x range is drawn as a placeholder. A page that failed to load is requested again
+ * after a retry delay that doubles with every failure.
+ * The data can't be changed from outside, {@link #invalidate()} loads it again.
+ */
+public class PagedSeries extends BaseSeries {
+	private static final int MAX_LEVEL = 40;
+	private static final int DEFAULT_MAX_PAGES = 32;
+	private static final long DEFAULT_RETRY_DELAY = 1000;
+	private static final long MAX_RETRY_DELAY = 60000;
+
+	/**
+	 * a page that failed to load
+	 */
+	private static final class Failure {
+		int count;
+		long retryTime;
+	}
+
+	private final PageProvider provider;
+	private final int pageSize;
+	private final double baseResolution;
+	private int maxPages = DEFAULT_MAX_PAGES;
+	private int prefetchPages = 1;
+	private Executor callbackExecutor;
+	private long retryDelay = DEFAULT_RETRY_DELAY;
+
+	@SuppressWarnings("serial")
+	private final LinkedHashMap<Long, GraphViewData[]> pages = new LinkedHashMap<Long, GraphViewData[]>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, GraphViewData[]> eldest) {
+			return size() > maxPages;
+		}
+	};
+	private final Set<Long> pending = new HashSet<Long>();
+	private final Map<Long, Failure> failures = new HashMap<Long, Failure>();
+	// pages of older generations are dropped when they arrive
+	private int generation;
+
+	// the assembled window
+	private int windowLevel = -1;
+	private long windowFirst;
+	private long windowLast;
+	private boolean windowDirty = true;
+	private double lastMinX = Double.NaN;
+	private int direction;
+	private double[] missingRanges = new double[8];
+	private int missingRangeCount;
+
+	/**
+	 * @param provider loads the pages
+	 * @param pageSize number of resolution steps of one page
+	 * @param baseResolution finest x distance per pixel that is requested from the provider
+	 */
+	public PagedSeries(String description, GraphViewStyle style, PageProvider provider, int pageSize, double baseResolution) {
+		super(description, style, new GraphViewData[0], new ExtremaIndex());
+		if (pageSize <= 0 || baseResolution <= 0) {
+			throw new IllegalArgumentException("pages must have a positive size");
+		}
+		this.provider = provider;
+		this.pageSize = pageSize;
+		this.baseResolution = baseResolution;
+	}
+
+	/**
+	 * drops all cached pages, e.g. when the data of the provider changed. pages that are still loading are ignored,
+	 * pages that failed are requested again without delay.
+	 */
+	public void invalidate() {
+		generation++;
+		pages.clear();
+		pending.clear();
+		failures.clear();
+		windowDirty = true;
+		notifyDataChanged();
+	}
+
+	public int getMaxPageCount() {
+		return maxPages;
+	}
+
+	/**
+	 * @param maxPages maximal number of cached pages, should be larger than the number of visible and prefetched pages
+	 */
+	public void setMaxPageCount(int maxPages) {
+		this.maxPages = maxPages;
+		while (pages.size() > maxPages) {
+			pages.remove(pages.keySet().iterator().next());
+		}
+	}
+
+	public int getPrefetchPages() {
+		return prefetchPages;
+	}
+
+	/**
+	 * @param prefetchPages number of pages after the viewport in the scroll direction that are loaded in advance
+	 */
+	public void setPrefetchPages(int prefetchPages) {
+		this.prefetchPages = prefetchPages;
+	}
+
+	public long getRetryDelay() {
+		return retryDelay;
+	}
+
+	/**
+	 * @param retryDelay time in ms until a page that failed to load is requested again when it is drawn.
+	 * the delay doubles with every further failure of the page, up to one minute.
+	 */
+	public void setRetryDelay(long retryDelay) {
+		this.retryDelay = retryDelay;
+	}
+
+	/**
+	 * @param executor runs the page callbacks. the default posts them to the main thread,
+	 * the executor must also run them on the thread that draws the graph.
+	 */
+	public void setCallbackExecutor(Executor executor) {
+		this.callbackExecutor = executor;
+	}
+
+	/**
+	 * @return number of cached pages
+	 */
+	int getPageCount() {
+		return pages.size();
+	}
+
+	/**
+	 * @return number of requested pages that did not arrive yet
+	 */
+	int getLoadingPageCount() {
+		return pending.size();
+	}
+
+	/**
+	 * @return x ranges (start, end pairs) of the viewport whose pages did not arrive yet
+	 */
+	double[] getMissingRanges() {
+		return missingRanges;
+	}
+
+	int getMissingRangeCount() {
+		return missingRangeCount;
+	}
+
+	/**
+	 * @return x distance per pixel of the level, the finest level is 0
+	 */
+	double getLevelResolution(int level) {
+		return baseResolution * (1L << level);
+	}
+
+	/**
+	 * @return the finest level whose resolution is at least the x distance of one pixel
+	 */
+	int levelFor(double xPerPixel) {
+		int level = 0;
+		while (level < MAX_LEVEL && getLevelResolution(level) < xPerPixel) {
+			level++;
+		}
+		return level;
+	}
+
+	@Override
+	double getFirstX() {
+		return provider.getMinX();
+	}
+
+	@Override
+	double getLastX() {
+		return provider.getMaxX();
+	}
+
+	@Override
+	boolean onViewport(double minX, double maxX, float pixels) {
+		int level = levelFor((maxX - minX) / pixels);
+		double pageWidth = pageSize * getLevelResolution(level);
+		double origin = provider.getMinX();
+		long lastPage = (long) Math.floor((provider.getMaxX() - origin) / pageWidth);
+		long first = Math.max(0, (long) Math.floor((minX - origin) / pageWidth));
+		long last = Math.min(lastPage, (long) Math.floor((maxX - origin) / pageWidth));
+
+		if (lastMinX == lastMinX && minX != lastMinX) {
+			direction = minX > lastMinX ? 1 : -1;
+		}
+		lastMinX = minX;
+
+		for (long page = first; page <= last; page++) {
+			request(level, page);
+		}
+		for (int i = 1; i <= prefetchPages; i++) {
+			if (direction >= 0 && last + i <= lastPage) {
+				request(level, last + i);
+			}
+			if (direction <= 0 && first - i >= 0) {
+				request(level, first - i);
+			}
+		}
+
+		if (!windowDirty && level == windowLevel && first == windowFirst && last == windowLast) {
+			return false;
+		}
+		assemble(level, first, last, origin, pageWidth);
+		return true;
+	}
+
+	private static long key(int level, long page) {
+		return ((long) level << 48) | page;
+	}
+
+	/**
+	 * loads the page if it is neither cached nor loading nor waiting for the retry after a failure
+	 */
+	private void request(final int level, final long page) {
+		final Long key = key(level, page);
+		if (pages.containsKey(key) || pending.contains(key)) {
+			return;
+		}
+		Failure failure = failures.get(key);
+		if (failure != null && now() < failure.retryTime) {
+			return;
+		}
+		pending.add(key);
+		final int requestGeneration = generation;
+		double resolution = getLevelResolution(level);
+		double pageWidth = pageSize * resolution;
+		double xFrom = provider.getMinX() + page * pageWidth;
+		provider.fetch(xFrom, xFrom + pageWidth, resolution, new PageProvider.Callback() {
+			@Override
+			public void onPageLoaded(final GraphViewData[] values) {
+				getCallbackExecutor().execute(new Runnable() {
+					@Override
+					public void run() {
+						deliver(requestGeneration, level, page, values);
+					}
+				});
+			}
+
+			@Override
+			public void onPageFailed(Exception e) {
+				getCallbackExecutor().execute(new Runnable() {
+					@Override
+					public void run() {
+						if (requestGeneration == generation) {
+							pending.remove(key);
+							onFailed(key);
+						}
+					}
+				});
+			}
+		});
+	}
+
+	private void onFailed(Long key) {
+		Failure failure = failures.get(key);
+		if (failure == null) {
+			failure = new Failure();
+			failures.put(key, failure);
+		}
+		failure.count++;
+		failure.retryTime = now() + getRetryDelay(failure.count);
+	}
+
+	/**
+	 * @return delay until the next request of a page that failed this many times
+	 */
+	long getRetryDelay(int failureCount) {
+		long delay = retryDelay;
+		for (int i = 1; i < failureCount && delay < MAX_RETRY_DELAY; i++) {
+			delay *= 2;
+		}
+		return Math.min(delay, Math.max(retryDelay, MAX_RETRY_DELAY));
+	}
+
+	private static long now() {
+		return System.nanoTime() / 1000000;
+	}
+
+	private Executor getCallbackExecutor() {
+		if (callbackExecutor == null) {
+			final Handler handler = new Handler(Looper.getMainLooper());
+			callbackExecutor = new Executor() {
+				@Override
+				public void execute(Runnable command) {
+					handler.post(command);
+				}
+			};
+		}
+		return callbackExecutor;
+	}
+
+	/**
+	 * a page arrived. the graphviews are redrawn if it is visible.
+	 */
+	private void deliver(int requestGeneration, int level, long page, GraphViewData[] values) {
+		if (requestGeneration != generation) {
+			return;
+		}
+		Long key = key(level, page);
+		pending.remove(key);
+		failures.remove(key);
+		pages.put(key, values);
+		if (level == windowLevel && page >= windowFirst && page <= windowLast) {
+			windowDirty = true;
+			notifyDataChanged();
+		}
+	}
+
+	/**
+	 * joins the pages of the window. a missing page is one gap value, its range is recorded for the placeholders.
+	 */
+	private void assemble(int level, long first, long last, double origin, double pageWidth) {
+		List<GraphViewData[]> window = new ArrayList<GraphViewData[]>();
+		int count = 0;
+		missingRangeCount = 0;
+		for (long page = first; page <= last; page++) {
+			GraphViewData[] values = pages.get(key(level, page));
+			if (values == null) {
+				double start = origin + page * pageWidth;
+				values = new GraphViewData[] {GraphViewData.gap(start)};
+				addMissingRange(start, start + pageWidth);
+			}
+			window.add(values);
+			count += values.length;
+		}
+		GraphViewData[] joined = new GraphViewData[count];
+		int offset = 0;
+		for (int i = 0; i < window.size(); i++) {
+			GraphViewData[] values = window.get(i);
+			System.arraycopy(values, 0, joined, offset, values.length);
+			offset += values.length;
+		}
+		swapValues(joined);
+		windowLevel = level;
+		windowFirst = first;
+		windowLast = last;
+		windowDirty = false;
+	}
+
+	private void addMissingRange(double start, double end) {
+		if (missingRangeCount > 0 && missingRanges[missingRangeCount * 2 - 1] == start) {
+			// adjacent missing pages are one placeholder
+			missingRanges[missingRangeCount * 2 - 1] = end;
+			return;
+		}
+		if (missingRangeCount * 2 == missingRanges.length) {
+			double[] grown = new double[missingRanges.length * 2];
+			System.arraycopy(missingRanges, 0, grown, 0, missingRanges.length);
+			missingRanges = grown;
+		}
+		missingRanges[missingRangeCount * 2] = start;
+		missingRanges[missingRangeCount * 2 + 1] = end;
+		missingRangeCount++;
+	}
+}
@@ -0,0 +1,137 @@
+package com.kusand.graphview;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over points in view coordinates, e.g. the points of a scatter series that were drawn in the last frame.
+ * The points are sorted into their cells with a counting sort in O(n). The nearest point to a touch is searched in
+ * rings of cells around it, so only the points near the touch are compared, no matter how the x values are clustered.
+ */
+final class PointGrid {
+    private final float cellSize;
+    private float left;
+    private float top;
+    private int columns;
+    private int rows;
+    // points sorted by cell, the points of cell c are at cellStart[c] until cellStart[c+1]
+    private int[] cellStart = new int[2];
+    private float[] pointX = new float[0];
+    private float[] pointY = new float[0];
+    private int[] pointIndex = new int[0];
+    private int count;
+
+    /**
+     * @param cellSize width and height of a cell in pixels
+     */
+    PointGrid(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * sorts the points into the grid, replacing the previous points
+     * @param points x and y of every point, interleaved
+     * @param indexes the index that {@link #nearest(float, float)} returns for every point, e.g. of its value
+     * @param count number of points
+     * @param left left of the area of the points
+     * @param top top of the area of the points
+     */
+    void build(float[] points, int[] indexes, int count, float left, float top, float width, float height) {
+        this.left = left;
+        this.top = top;
+        this.count = count;
+        columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        int cells = columns * rows;
+        if (cellStart.length < cells + 1) {
+            cellStart = new int[cells + 1];
+        } else {
+            Arrays.fill(cellStart, 0, cells + 1, 0);
+        }
+        if (pointX.length < count) {
+            pointX = new float[count];
+            pointY = new float[count];
+            pointIndex = new int[count];
+        }
+        // count the points per cell, then place them after the points of the cells before
+        for (int i = 0; i < count; i++) {
+            cellStart[cell(points[i * 2], points[i * 2 + 1]) + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        for (int i = 0; i < count; i++) {
+            float x = points[i * 2];
+            float y = points[i * 2 + 1];
+            int c = cell(x, y);
+            // fills the cell from its end, cellStart[c + 1] ends at the start of the cell
+            int position = --cellStart[c + 1];
+            pointX[position] = x;
+            pointY[position] = y;
+            pointIndex[position] = indexes[i];
+        }
+        // cellStart[c + 1] is the start of cell c now, shift to get the starts
+        System.arraycopy(cellStart, 1, cellStart, 0, cells);
+        cellStart[cells] = count;
+    }
+
+    private int cell(float x, float y) {
+        return row(y) * columns + column(x);
+    }
+
+    private int column(float x) {
+        return Math.min(columns - 1, Math.max(0, (int) ((x - left) / cellSize)));
+    }
+
+    private int row(float y) {
+        return Math.min(rows - 1, Math.max(0, (int) ((y - top) / cellSize)));
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * @return the index of the point with the smallest distance to this point, -1 if the grid is empty
+     */
+    int nearest(float x, float y) {
+        if (count == 0) {
+            return -1;
+        }
+        int centerColumn = column(x);
+        int centerRow = row(y);
+        int best = -1;
+        float bestDistance = Float.POSITIVE_INFINITY;
+        int maxRing = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                boolean edgeRow = r == centerRow - ring || r == centerRow + ring;
+                // inner rows only have the two cells at the edge of the ring
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int c = centerColumn - ring; c <= centerColumn + ring; c += step) {
+                    if (c < 0 || c >= columns) {
+                        continue;
+                    }
+                    int cell = r * columns + c;
+                    for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+                        float dx = pointX[p] - x;
+                        float dy = pointY[p] - y;
+                        float distance = dx * dx + dy * dy;
+                        if (distance < bestDistance) {
+                            bestDistance = distance;
+                            best = pointIndex[p];
+                        }
+                    }
+                }
+            }
+            // the cells of the next rings are at least ring cells away
+            float reach = ring * cellSize;
+            if (best >= 0 && bestDistance <= reach * reach) {
+                break;
+            }
+        }
+        return best;
+    }
+}
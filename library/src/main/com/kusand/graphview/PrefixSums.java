@@ -0,0 +1,133 @@
+package com.kusand.graphview;
+
+/**
+ * Prefix sums of the Y values and of their squares, for the sum, mean and variance of any range in O(1).
+ * The sums are Neumaier compensated and taken of the values minus the first value of the series,
+ * so that the variance of values with a large offset, e.g. 1e9 + noise, does not cancel out.
+ * Appended values are added incrementally. Gaps (NaN values) are not counted.
+ */
+final class PrefixSums {
+    // entry i covers the values before index i
+    private int[] counts = new int[16];
+    private double[] sums = new double[16];
+    private double[] squares = new double[16];
+    private int size;
+    private double shift = Double.NaN;
+
+    // running sums at size, with the Neumaier compensation
+    private double sum;
+    private double sumCompensation;
+    private double square;
+    private double squareCompensation;
+
+    /**
+     * @return number of values that are summed up
+     */
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+        shift = Double.NaN;
+        sum = sumCompensation = square = squareCompensation = 0;
+    }
+
+    /**
+     * a value at this index changed or was inserted. the sums before stay valid,
+     * the rest is summed up again with the next {@link #update(BaseSeries)}.
+     */
+    void invalidateFrom(int index) {
+        if (index >= size) {
+            return;
+        }
+        if (index == 0) {
+            clear();
+            return;
+        }
+        size = index;
+        sum = sums[index];
+        square = squares[index];
+        sumCompensation = squareCompensation = 0;
+    }
+
+    /**
+     * sums up all values that were appended since the last call
+     */
+    void update(BaseSeries series) {
+        int count = series.size();
+        if (count < size) {
+            // the data was replaced by a smaller array
+            clear();
+        }
+        if (count + 1 > counts.length) {
+            int capacity = Math.max(count + 1, counts.length * 2);
+            counts = grow(counts, capacity);
+            sums = grow(sums, capacity);
+            squares = grow(squares, capacity);
+        }
+        for (int i = size; i < count; i++) {
+            double value = series.getY(i);
+            int n = counts[i];
+            if (value == value) {
+                if (shift != shift) {
+                    shift = value;
+                }
+                double shifted = value - shift;
+                double t = sum + shifted;
+                sumCompensation += Math.abs(sum) >= Math.abs(shifted) ? (sum - t) + shifted : (shifted - t) + sum;
+                sum = t;
+                double squared = shifted * shifted;
+                t = square + squared;
+                squareCompensation += square >= squared ? (square - t) + squared : (squared - t) + square;
+                square = t;
+                n++;
+            }
+            counts[i + 1] = n;
+            sums[i + 1] = sum + sumCompensation;
+            squares[i + 1] = square + squareCompensation;
+        }
+        size = count;
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        int[] grown = new int[capacity];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    private static double[] grow(double[] array, int capacity) {
+        double[] grown = new double[capacity];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    /**
+     * @return number of values in the range that are not gaps
+     */
+    int count(int from, int to) {
+        return counts[to] - counts[from];
+    }
+
+    /**
+     * @return sum of the values in the range, 0 if it is empty
+     */
+    double sum(int from, int to) {
+        int n = count(from, to);
+        return n == 0 ? 0 : sums[to] - sums[from] + n * shift;
+    }
+
+    /**
+     * @return population variance of the values in the range, NaN if it is empty
+     */
+    double variance(int from, int to) {
+        int n = count(from, to);
+        if (n == 0) {
+            return Double.NaN;
+        }
+        double mean = (sums[to] - sums[from]) / n;
+        double variance = (squares[to] - squares[from]) / n - mean * mean;
+        // rounding may make it slightly negative
+        return Math.max(0, variance);
+    }
+}
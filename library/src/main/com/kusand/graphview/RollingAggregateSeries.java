@@ -0,0 +1,90 @@
+package com.kusand.graphview;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.GraphViewSeries.GraphViewStyle;
+
+/**
+ * Series derived from a source series, e.g. a moving average. Every value is the aggregate over the last
+ * <code>window</code> values of the source. The aggregate is updated incrementally when data is appended to the source
+ * and this series is redrawn together with it. The values only follow the source, they can't be changed directly.
+ */
+public class RollingAggregateSeries extends BaseSeries {
+	/**
+	 * aggregate over the window
+	 */
+	public enum Aggregate {
+		MEAN, MIN, MAX, PERCENTILE
+	}
+
+	private final BaseSeries source;
+	private final WindowAggregator aggregator;
+
+	/**
+	 * @param source the raw data
+	 * @param aggregate MEAN, MIN or MAX
+	 * @param window number of source values per aggregate
+	 */
+	public RollingAggregateSeries(BaseSeries source, Aggregate aggregate, int window) {
+		this(null, null, source, aggregate, window, 50);
+	}
+
+	/**
+	 * @param description
+	 * @param style
+	 * @param source the raw data
+	 * @param aggregate
+	 * @param window number of source values per aggregate
+	 * @param percentile between 0 and 100, only used for {@link Aggregate#PERCENTILE}
+	 */
+	public RollingAggregateSeries(String description, GraphViewStyle style, BaseSeries source, Aggregate aggregate, int window, double percentile) {
+		super(description, style, new GraphViewData[0], new ExtremaIndex());
+		this.source = source;
+		this.aggregator = new WindowAggregator(aggregate, window, percentile);
+		setValues(aggregateAll(source.slice(0, source.size())));
+		source.addDerivedSeries(this);
+	}
+
+	private GraphViewData[] aggregateAll(GraphViewData[] sourceValues) {
+		aggregator.clear();
+		GraphViewData[] aggregated = new GraphViewData[sourceValues.length];
+		for (int i = 0; i < sourceValues.length; i++) {
+			aggregated[i] = new GraphViewData(sourceValues[i].valueX, aggregator.push(sourceValues[i].valueY));
+		}
+		return aggregated;
+	}
+
+	/**
+	 * a value was appended to the source
+	 */
+	void onSourceAppended(GraphViewData value) {
+		appendValue(new GraphViewData(value.valueX, aggregator.push(value.valueY)));
+		// also updates the series derived from this one
+		onAppended(false);
+	}
+
+	/**
+	 * the last value of the source was replaced, e.g. by a tick of the current candle
+	 */
+	void onSourceReplacedLast(GraphViewData value) {
+		replaceValue(size() - 1, new GraphViewData(value.valueX, aggregator.replaceLast(value.valueY)));
+	}
+
+	/**
+	 * the data of the source was replaced
+	 */
+	void onSourceReset() {
+		swapValues(aggregateAll(source.slice(0, source.size())));
+		onReset();
+	}
+
+	/**
+	 * stops updating this series from the source
+	 */
+	public void detach() {
+		source.removeDerivedSeries(this);
+	}
+
+	public BaseSeries getSource() {
+		return source;
+	}
+}
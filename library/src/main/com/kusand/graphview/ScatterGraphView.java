@@ -0,0 +1,238 @@
+package com.kusand.graphview;
+
+import java.util.Arrays;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+
+import com.kusand.graphview.metrics.RenderMetrics.Counter;
+
+/**
+ * Scatter Graph View. This draws every value as a point.
+ * The points of a series are drawn with one {@link Canvas#drawPoints(float[], int, int, Paint)} call.
+ * Points outside of the graph are culled and points on an already occupied pixel are skipped.
+ * If the heatmap is enabled and the points are very dense, the density is drawn as a heatmap instead.
+ * The drawn points of every series are kept in a {@link PointGrid} for the nearest point lookup of touches.
+ */
+public class ScatterGraphView extends GraphView {
+    private static final int HEATMAP_LEVELS = 256;
+    private static final float GRID_CELL_SIZE = 32;
+
+    private boolean drawHeatmap;
+    private float heatmapThreshold = 8;
+    private int heatmapCellSize = 4;
+
+    // reused between frames
+    private float[] points = new float[64];
+    private float[] projectedX = new float[32];
+    private float[] projectedY = new float[32];
+    private int[] pointIndexes = new int[32];
+    // drawn points per series index, for findNearestValue
+    private PointGrid[] grids = new PointGrid[0];
+    private BaseSeries[] gridSeries = new BaseSeries[0];
+    private GraphViewData[][] gridValues = new GraphViewData[0][];
+    private long[] occupancy = new long[0];
+    private int[] cellCounts = new int[0];
+    private int[] cellColors = new int[0];
+    private final int[] heatmapLevels = new int[HEATMAP_LEVELS];
+    private Bitmap heatmap;
+    private final Rect heatmapSource = new Rect();
+    private final RectF heatmapTarget = new RectF();
+    private final Paint heatmapPaint = new Paint();
+
+    public ScatterGraphView(Context context) {
+        super(context);
+        heatmapPaint.setFilterBitmap(false);
+    }
+
+    public ScatterGraphView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        heatmapPaint.setFilterBitmap(false);
+    }
+
+    public ScatterGraphView(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        heatmapPaint.setFilterBitmap(false);
+    }
+
+    @Override
+    public void drawSeries(Canvas canvas, GraphViewData[] values, float graphwidth, float graphheight, float border, double minX, double minY, double diffX, double diffY, float horstart) {
+        int width = (int) graphwidth + 1;
+        int height = (int) graphheight + 1;
+
+        // one bit per pixel, cleared for every series
+        int words = (width * height + 63) >> 6;
+        if (occupancy.length < words) {
+            occupancy = new long[words];
+        } else {
+            Arrays.fill(occupancy, 0, words, 0);
+            countMetric(Counter.ALLOCATIONS_AVOIDED, 1);
+        }
+        int cellColumns = (width + heatmapCellSize - 1) / heatmapCellSize;
+        int cellRows = (height + heatmapCellSize - 1) / heatmapCellSize;
+        if (drawHeatmap) {
+            if (cellCounts.length < cellColumns * cellRows) {
+                cellCounts = new int[cellColumns * cellRows];
+            } else {
+                Arrays.fill(cellCounts, 0, cellColumns * cellRows, 0);
+            }
+        }
+        if (points.length < values.length * 2) {
+            points = new float[Math.max(values.length * 2, points.length * 2)];
+            projectedX = new float[points.length / 2];
+            projectedY = new float[points.length / 2];
+            pointIndexes = new int[points.length / 2];
+        }
+        projectValues(values, projectedX, projectedY);
+
+        int visible = 0;
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            float x = projectedX[i] - horstart;
+            float y = projectedY[i] - border;
+            // cull points outside of the graph, gaps and values outside of the axis transforms (NaN)
+            if (!(x >= 0 && y >= 0 && x < width && y < height)) {
+                continue;
+            }
+            visible++;
+            int px = (int) x;
+            int py = (int) y;
+            if (drawHeatmap) {
+                cellCounts[(py / heatmapCellSize) * cellColumns + px / heatmapCellSize]++;
+            }
+            int bit = py * width + px;
+            long mask = 1L << (bit & 63);
+            if ((occupancy[bit >> 6] & mask) != 0) {
+                // there is already a point on this pixel
+                continue;
+            }
+            occupancy[bit >> 6] |= mask;
+            pointIndexes[count / 2] = i;
+            points[count++] = x + horstart;
+            points[count++] = y + border;
+        }
+
+        if (drawHeatmap && count > 0 && visible >= heatmapThreshold * (count / 2)) {
+            drawHeatmap(canvas, cellColumns, cellRows, graphwidth, graphheight, border, horstart);
+        } else {
+            canvas.drawPoints(points, 0, count, paint);
+        }
+        countMetric(Counter.DRAW_CALLS, 1);
+        indexPoints(values, count / 2, graphwidth, graphheight, border, horstart);
+    }
+
+    /**
+     * keeps the drawn points of the series in its grid. points that were skipped on an occupied pixel are
+     * less than a pixel away from a drawn point, so they are not needed for the lookup.
+     */
+    @TargetApi(9)
+    private void indexPoints(GraphViewData[] values, int count, float graphwidth, float graphheight, float border, float horstart) {
+        int seriesIndex = getDrawingSeriesIndex();
+        if (grids.length <= seriesIndex) {
+            grids = Arrays.copyOf(grids, seriesIndex + 1);
+            gridSeries = Arrays.copyOf(gridSeries, seriesIndex + 1);
+            gridValues = Arrays.copyOf(gridValues, seriesIndex + 1);
+        }
+        if (grids[seriesIndex] == null) {
+            grids[seriesIndex] = new PointGrid(GRID_CELL_SIZE);
+        }
+        grids[seriesIndex].build(points, pointIndexes, count, horstart, border, graphwidth, graphheight);
+        gridSeries[seriesIndex] = getSeries(seriesIndex);
+        gridValues[seriesIndex] = values;
+    }
+
+    /**
+     * draws the point counts per cell with the color of the series, the alpha is the logarithmic density
+     */
+    private void drawHeatmap(Canvas canvas, int cellColumns, int cellRows, float graphwidth, float graphheight, float border, float horstart) {
+        int cells = cellColumns * cellRows;
+        int maxCount = 0;
+        for (int i = 0; i < cells; i++) {
+            if (cellCounts[i] > maxCount) maxCount = cellCounts[i];
+        }
+        int color = paint.getColor() & 0x00ffffff;
+        for (int level = 0; level < HEATMAP_LEVELS; level++) {
+            heatmapLevels[level] = (level << 24) | color;
+        }
+        if (cellColors.length < cells) {
+            cellColors = new int[cells];
+        }
+        double logMax = Math.log(maxCount + 1);
+        for (int i = 0; i < cells; i++) {
+            int level = cellCounts[i] == 0 ? 0 : (int) ((HEATMAP_LEVELS - 1) * Math.log(cellCounts[i] + 1) / logMax);
+            cellColors[i] = heatmapLevels[level];
+        }
+
+        if (heatmap == null || heatmap.getWidth() != cellColumns || heatmap.getHeight() != cellRows) {
+            if (heatmap != null) {
+                heatmap.recycle();
+            }
+            heatmap = Bitmap.createBitmap(cellColumns, cellRows, Bitmap.Config.ARGB_8888);
+        }
+        heatmap.setPixels(cellColors, 0, cellColumns, 0, 0, cellColumns, cellRows);
+        heatmapSource.set(0, 0, cellColumns, cellRows);
+        heatmapTarget.set(horstart, border, horstart + cellColumns * heatmapCellSize, border + cellRows * heatmapCellSize);
+        canvas.save();
+        canvas.clipRect(horstart, border, horstart + graphwidth, border + graphheight);
+        canvas.drawBitmap(heatmap, heatmapSource, heatmapTarget, heatmapPaint);
+        canvas.restore();
+    }
+
+    /**
+     * finds the drawn point with the nearest distance in the view, not only the nearest x.
+     * the points of the last frame are searched in a grid, see {@link PointGrid}.
+     */
+    @Override
+    protected GraphViewData findNearestValue(BaseSeries series, float x, float y) {
+        for (int i = 0; i < gridSeries.length; i++) {
+            if (gridSeries[i] == series) {
+                int index = grids[i].nearest(x, y);
+                return index < 0 ? null : gridValues[i][index];
+            }
+        }
+        // not drawn yet
+        return super.findNearestValue(series, x, y);
+    }
+
+    public boolean getDrawHeatmap() {
+        return drawHeatmap;
+    }
+
+    /**
+     * @param drawHeatmap true to draw very dense series as a heatmap, see {@link #setHeatmapThreshold(float)}
+     */
+    public void setDrawHeatmap(boolean drawHeatmap) {
+        this.drawHeatmap = drawHeatmap;
+        invalidate();
+    }
+
+    public float getHeatmapThreshold() {
+        return heatmapThreshold;
+    }
+
+    /**
+     * @param heatmapThreshold the heatmap is drawn if there are on average this many visible points on every drawn pixel
+     */
+    public void setHeatmapThreshold(float heatmapThreshold) {
+        this.heatmapThreshold = heatmapThreshold;
+        invalidate();
+    }
+
+    public int getHeatmapCellSize() {
+        return heatmapCellSize;
+    }
+
+    /**
+     * @param heatmapCellSize size of one heatmap cell in pixels
+     */
+    public void setHeatmapCellSize(int heatmapCellSize) {
+        this.heatmapCellSize = Math.max(1, heatmapCellSize);
+        invalidate();
+    }
+}
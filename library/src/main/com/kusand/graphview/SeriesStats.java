@@ -0,0 +1,38 @@
+package com.kusand.graphview;
+
+/**
+ * Summary of the values of a series in an x range, see {@link BaseSeries#getStats(double, double)}.
+ * Gaps are not counted.
+ */
+public class SeriesStats {
+    /**
+     * number of values
+     */
+    public final int count;
+    public final double sum;
+    /**
+     * NaN if there are no values
+     */
+    public final double mean;
+    /**
+     * population standard deviation, NaN if there are no values
+     */
+    public final double stdDev;
+    /**
+     * lowest y value, for candles the lowest wick. NaN if there are no values
+     */
+    public final double min;
+    /**
+     * highest y value, for candles the highest wick. NaN if there are no values
+     */
+    public final double max;
+
+    public SeriesStats(int count, double sum, double stdDev, double min, double max) {
+        this.count = count;
+        this.sum = sum;
+        this.mean = count > 0 ? sum / count : Double.NaN;
+        this.stdDev = stdDev;
+        this.min = min;
+        this.max = max;
+    }
+}
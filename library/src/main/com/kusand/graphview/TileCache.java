@@ -0,0 +1,74 @@
+package com.kusand.graphview;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.graphics.Bitmap;
+
+/**
+ * Least recently used cache of bitmap tiles. The memory is bounded by the maximal number of tiles.
+ * The bitmaps of evicted tiles are not recycled: a tile can be evicted while it is built for the same frame
+ * that already drew it, or a display list can still reference it. They are left to the garbage collector.
+ */
+final class TileCache {
+    /**
+     * one cached tile. the columns are filled in place as the data grows.
+     */
+    static final class Tile {
+        final Bitmap bitmap;
+        /**
+         * number of data columns of the series when the tile was built
+         */
+        int builtDataColumns;
+
+        Tile(Bitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+    }
+
+    private int maxTiles;
+    @SuppressWarnings("serial")
+    private final LinkedHashMap<Long, Tile> tiles = new LinkedHashMap<Long, Tile>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Tile> eldest) {
+            return size() > maxTiles;
+        }
+    };
+
+    TileCache(int maxTiles) {
+        this.maxTiles = maxTiles;
+    }
+
+    /**
+     * @return the tile, null if it is not cached
+     */
+    Tile get(long key) {
+        return tiles.get(key);
+    }
+
+    void put(long key, Tile tile) {
+        tiles.put(key, tile);
+    }
+
+    int size() {
+        return tiles.size();
+    }
+
+    int getMaxTiles() {
+        return maxTiles;
+    }
+
+    void setMaxTiles(int maxTiles) {
+        this.maxTiles = maxTiles;
+        while (tiles.size() > maxTiles) {
+            tiles.remove(tiles.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * drops all tiles
+     */
+    void clear() {
+        tiles.clear();
+    }
+}
@@ -0,0 +1,124 @@
+package com.kusand.graphview;
+
+/**
+ * Time based animator for the horizontal viewport of a {@link GraphView}.
+ * It drives fling momentum and animated zooms. The graph calls {@link #computeFrame(long)}
+ * once per frame and reads the new viewport from {@link #getStart()} and {@link #getSize()}.
+ */
+class ViewportAnimator {
+    private static final int MODE_IDLE = 0;
+    private static final int MODE_FLING = 1;
+    private static final int MODE_ZOOM = 2;
+
+    /**
+     * time constant of the exponential fling deceleration in ms.
+     * after one time constant the velocity has dropped to ~37%.
+     */
+    private static final double FLING_TIME_CONSTANT = 325;
+
+    /**
+     * the fling stops after this many time constants (velocity < 0.3% of the initial velocity)
+     */
+    private static final double FLING_TIME_CONSTANTS_TO_STOP = 6;
+
+    private int mode = MODE_IDLE;
+    private long startTime;
+    private long duration;
+
+    private double fromStart;
+    private double fromSize;
+    private double toStart;
+    private double toSize;
+    private double velocity;
+
+    private double start;
+    private double size;
+
+    /**
+     * starts a fling. the viewport keeps its size and moves with a decelerating velocity.
+     * @param viewportStart current start of the viewport
+     * @param viewportSize current size of the viewport
+     * @param velocity initial velocity in x-values per second
+     * @param now current time in ms
+     */
+    void fling(double viewportStart, double viewportSize, double velocity, long now) {
+        mode = MODE_FLING;
+        startTime = now;
+        duration = (long) (FLING_TIME_CONSTANT * FLING_TIME_CONSTANTS_TO_STOP);
+        fromStart = viewportStart;
+        fromSize = viewportSize;
+        this.velocity = velocity;
+        start = viewportStart;
+        size = viewportSize;
+    }
+
+    /**
+     * animates the viewport from its current range to a new range.
+     * @param duration duration of the animation in ms
+     * @param now current time in ms
+     */
+    void zoomTo(double viewportStart, double viewportSize, double targetStart, double targetSize, long duration, long now) {
+        mode = MODE_ZOOM;
+        startTime = now;
+        this.duration = Math.max(1, duration);
+        fromStart = viewportStart;
+        fromSize = viewportSize;
+        toStart = targetStart;
+        toSize = targetSize;
+        start = viewportStart;
+        size = viewportSize;
+    }
+
+    /**
+     * computes the viewport for the given time.
+     * @param now current time in ms
+     * @return true if the animation is still running and another frame is needed
+     */
+    boolean computeFrame(long now) {
+        if (mode == MODE_IDLE) {
+            return false;
+        }
+        long elapsed = now - startTime;
+        boolean finished = elapsed >= duration;
+        if (mode == MODE_FLING) {
+            double t = Math.min(elapsed, duration);
+            // integral of velocity * e^(-t/tau)
+            double distance = velocity * FLING_TIME_CONSTANT / 1000 * (1 - Math.exp(-t / FLING_TIME_CONSTANT));
+            start = fromStart + distance;
+            size = fromSize;
+        } else {
+            float fraction = finished ? 1f : (float) elapsed / duration;
+            // decelerate: 1 - (1-t)^2
+            float interpolated = 1f - (1f - fraction) * (1f - fraction);
+            start = fromStart + (toStart - fromStart) * interpolated;
+            size = fromSize + (toSize - fromSize) * interpolated;
+        }
+        if (finished) {
+            mode = MODE_IDLE;
+        }
+        return !finished;
+    }
+
+    /**
+     * stops the running animation at its current position
+     */
+    void abort() {
+        mode = MODE_IDLE;
+    }
+
+    boolean isRunning() {
+        return mode != MODE_IDLE;
+    }
+
+    boolean isFlinging() {
+        return mode == MODE_FLING;
+    }
+
+    double getStart() {
+        return start;
+    }
+
+    double getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,138 @@
+package com.kusand.graphview;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.os.Build;
+
+import com.kusand.graphview.axis.AxisTransform;
+import com.kusand.graphview.labels.DefaultLabelGenerator;
+import com.kusand.graphview.labels.LabelGenerator;
+
+/**
+ * Links the horizontal viewport of several graphs, e.g. stacked graphs with a common time axis.
+ * A pan or zoom on one graph is applied to all graphs of the group once per frame, no matter how many touch events
+ * changed it. Graphs with the same width and label configuration share the horizontal labels: every graph has its own
+ * {@link DefaultLabelGenerator}, the labels are shared if the spacing and the transform are equal.
+ *
+ * Join a group with {@link GraphView#setViewportGroup(ViewportGroup)}. All methods have to be called on the UI thread.
+ */
+public class ViewportGroup {
+    private final List<GraphView> graphViews = new ArrayList<GraphView>();
+    private double viewportStart;
+    private double viewportSize;
+    private boolean hasViewport;
+    private boolean updateScheduled;
+
+    // shared horizontal labels
+    private String[] labels;
+    private LabelGenerator labelGenerator;
+    // configuration of a default generator when the labels were generated, it may be changed later
+    private float labelSpacing;
+    private AxisTransform labelTransform;
+    private float labelWidth;
+    private double labelMin;
+    private double labelMax;
+
+    private final Runnable applyViewport = new Runnable() {
+        @Override
+        public void run() {
+            updateScheduled = false;
+            for (int i = 0; i < graphViews.size(); i++) {
+                graphViews.get(i).applyLinkedViewport(viewportStart, viewportSize);
+            }
+        }
+    };
+
+    void add(GraphView graphView) {
+        if (!graphViews.contains(graphView)) {
+            graphViews.add(graphView);
+        }
+        if (hasViewport) {
+            graphView.applyLinkedViewport(viewportStart, viewportSize);
+        }
+    }
+
+    void remove(GraphView graphView) {
+        graphViews.remove(graphView);
+        if (updateScheduled) {
+            graphView.removeCallbacks(applyViewport);
+            updateScheduled = false;
+            if (!graphViews.isEmpty()) {
+                schedule(graphViews.get(0));
+            }
+        }
+    }
+
+    /**
+     * the viewport of a graph of this group changed
+     * @param source the graph that changed, it schedules the update
+     */
+    void onViewportChanged(GraphView source, double start, double size) {
+        viewportStart = start;
+        viewportSize = size;
+        hasViewport = true;
+        if (!updateScheduled) {
+            schedule(source);
+        }
+    }
+
+    private void schedule(GraphView graphView) {
+        updateScheduled = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            graphView.postOnAnimation(applyViewport);
+        } else {
+            graphView.post(applyViewport);
+        }
+    }
+
+    /**
+     * @return the labels of the last graph that asked with the same parameters, or new generated labels
+     */
+    String[] getHorizontalLabels(LabelGenerator generator, float width, double min, double max) {
+        if (labels == null || !sameConfiguration(generator) || width != labelWidth || min != labelMin || max != labelMax) {
+            labels = generator.generateLabels(width, min, max);
+            labelGenerator = generator;
+            if (generator instanceof DefaultLabelGenerator) {
+                labelSpacing = ((DefaultLabelGenerator) generator).getSpacing();
+                labelTransform = ((DefaultLabelGenerator) generator).getTransform();
+            }
+            labelWidth = width;
+            labelMin = min;
+            labelMax = max;
+        }
+        return labels;
+    }
+
+    /**
+     * @return true if the generator creates the same labels as the one of the cached labels.
+     * default generators are compared by their configuration, other generators by identity.
+     */
+    private boolean sameConfiguration(LabelGenerator generator) {
+        if (generator instanceof DefaultLabelGenerator && labelGenerator instanceof DefaultLabelGenerator) {
+            DefaultLabelGenerator defaultGenerator = (DefaultLabelGenerator) generator;
+            return defaultGenerator.getSpacing() == labelSpacing && defaultGenerator.getTransform() == labelTransform;
+        }
+        return generator == labelGenerator;
+    }
+
+    /**
+     * sets the viewport of all graphs in this group
+     * @param start x-value
+     * @param size
+     */
+    public void setViewPort(double start, double size) {
+        viewportStart = start;
+        viewportSize = size;
+        hasViewport = true;
+        applyViewport.run();
+    }
+
+    public double getViewportStart() {
+        return viewportStart;
+    }
+
+    public double getViewportSize() {
+        return viewportSize;
+    }
+}
@@ -0,0 +1,212 @@
+package com.kusand.graphview;
+
+import java.util.Arrays;
+
+import com.kusand.graphview.RollingAggregateSeries.Aggregate;
+
+/**
+ * Aggregate over the last values of a stream, updated incrementally for every new value.
+ * The mean is a running sum (O(1)), min and max use a monotonic deque (amortized O(1))
+ * and the percentile keeps the window in a sorted array (O(log n) search plus one array move).
+ * The newest value can be replaced, min and max then rebuild the deque from the window (O(window)).
+ * NaN values are gaps, every aggregate skips them. The aggregate of a window of only gaps is NaN.
+ */
+final class WindowAggregator {
+    private final Aggregate aggregate;
+    private final int window;
+    private final double percentile;
+
+    // the last values, indexed by sequence number % window
+    private final double[] ring;
+    private long count;
+    // values in the window that are not gaps
+    private int valid;
+
+    // MEAN
+    private double sum;
+
+    // MIN, MAX: sequence numbers with monotonic values, oldest first
+    private final long[] deque;
+    private int dequeHead;
+    private int dequeSize;
+
+    // PERCENTILE
+    private final double[] sorted;
+    private int sortedSize;
+
+    WindowAggregator(Aggregate aggregate, int window, double percentile) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1");
+        }
+        this.aggregate = aggregate;
+        this.window = window;
+        this.percentile = percentile;
+        ring = new double[window];
+        deque = aggregate == Aggregate.MIN || aggregate == Aggregate.MAX ? new long[window] : null;
+        sorted = aggregate == Aggregate.PERCENTILE ? new double[window] : null;
+    }
+
+    /**
+     * @param value the new value, the oldest value leaves the window if it is full
+     * @return the aggregate over the window
+     */
+    double push(double value) {
+        long seq = count++;
+        int slot = (int) (seq % window);
+        boolean evict = seq >= window;
+        double evicted = evict ? ring[slot] : Double.NaN;
+        ring[slot] = value;
+        if (!Double.isNaN(evicted)) {
+            valid--;
+        }
+        if (!Double.isNaN(value)) {
+            valid++;
+        }
+
+        switch (aggregate) {
+            case MEAN:
+                if (!Double.isNaN(evicted)) {
+                    sum -= evicted;
+                }
+                if (!Double.isNaN(value)) {
+                    sum += value;
+                }
+                if (slot == window - 1) {
+                    // once per window, so rounding errors don't add up
+                    sum = 0;
+                    for (int i = 0; i < window; i++) {
+                        if (!Double.isNaN(ring[i])) sum += ring[i];
+                    }
+                }
+                return mean();
+            case MIN:
+            case MAX:
+                if (dequeSize > 0 && deque[dequeHead] <= seq - window) {
+                    // expired
+                    dequeHead = (dequeHead + 1) % window;
+                    dequeSize--;
+                }
+                if (!Double.isNaN(value)) {
+                    offer(seq, value);
+                }
+                return extremum();
+            default:
+                if (!Double.isNaN(evicted)) {
+                    removeSorted(evicted);
+                }
+                if (!Double.isNaN(value)) {
+                    insertSorted(value);
+                }
+                return percentileValue();
+        }
+    }
+
+    /**
+     * replaces the newest value, e.g. the close of a bar that is still updated
+     * @return the aggregate over the window
+     */
+    double replaceLast(double value) {
+        if (count == 0) {
+            return push(value);
+        }
+        int slot = (int) ((count - 1) % window);
+        double replaced = ring[slot];
+        ring[slot] = value;
+        if (!Double.isNaN(replaced)) {
+            valid--;
+        }
+        if (!Double.isNaN(value)) {
+            valid++;
+        }
+
+        switch (aggregate) {
+            case MEAN:
+                if (!Double.isNaN(replaced)) {
+                    sum -= replaced;
+                }
+                if (!Double.isNaN(value)) {
+                    sum += value;
+                }
+                return mean();
+            case MIN:
+            case MAX:
+                // values that the replaced value dominated may be needed again, the deque is built again from the window
+                dequeHead = 0;
+                dequeSize = 0;
+                for (long seq = Math.max(0, count - window); seq < count; seq++) {
+                    double v = ring[(int) (seq % window)];
+                    if (!Double.isNaN(v)) {
+                        offer(seq, v);
+                    }
+                }
+                return extremum();
+            default:
+                if (!Double.isNaN(replaced)) {
+                    removeSorted(replaced);
+                }
+                if (!Double.isNaN(value)) {
+                    insertSorted(value);
+                }
+                return percentileValue();
+        }
+    }
+
+    private double mean() {
+        return valid > 0 ? sum / valid : Double.NaN;
+    }
+
+    private double extremum() {
+        return dequeSize > 0 ? ring[(int) (deque[dequeHead] % window)] : Double.NaN;
+    }
+
+    /**
+     * appends a value to the monotonic deque and drops the values that it dominates
+     */
+    private void offer(long seq, double value) {
+        boolean min = aggregate == Aggregate.MIN;
+        while (dequeSize > 0) {
+            double last = ring[(int) (deque[(dequeHead + dequeSize - 1) % window] % window)];
+            if (min ? last < value : last > value) {
+                break;
+            }
+            // dominated by the new value
+            dequeSize--;
+        }
+        deque[(dequeHead + dequeSize) % window] = seq;
+        dequeSize++;
+    }
+
+    private void removeSorted(double value) {
+        int idx = Arrays.binarySearch(sorted, 0, sortedSize, value);
+        System.arraycopy(sorted, idx + 1, sorted, idx, sortedSize - idx - 1);
+        sortedSize--;
+    }
+
+    private void insertSorted(double value) {
+        int idx = Arrays.binarySearch(sorted, 0, sortedSize, value);
+        if (idx < 0) {
+            idx = -idx - 1;
+        }
+        System.arraycopy(sorted, idx, sorted, idx + 1, sortedSize - idx);
+        sorted[idx] = value;
+        sortedSize++;
+    }
+
+    private double percentileValue() {
+        if (sortedSize == 0) {
+            return Double.NaN;
+        }
+        // nearest rank
+        int rank = (int) Math.ceil(percentile / 100 * sortedSize);
+        return sorted[Math.max(0, Math.min(sortedSize - 1, rank - 1))];
+    }
+
+    void clear() {
+        count = 0;
+        valid = 0;
+        sum = 0;
+        dequeHead = 0;
+        dequeSize = 0;
+        sortedSize = 0;
+    }
+}
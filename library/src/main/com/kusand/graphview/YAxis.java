@@ -0,0 +1,147 @@
+package com.kusand.graphview;
+
+import com.kusand.graphview.axis.AxisTransform;
+import com.kusand.graphview.labels.DefaultLabelGenerator;
+import com.kusand.graphview.labels.LabelGenerator;
+
+/**
+ * A secondary y axis of a graph, created with {@link GraphView#addYAxis()}. The labels are drawn on the right side.
+ * Series that are added with {@link GraphView#addSeries(BaseSeries, YAxis)} are scaled to this axis.
+ *
+ * Every axis caches its own bounds and labels. A data change of a series only invalidates the axis of this series,
+ * so the other axes are neither rescanned nor are their labels regenerated.
+ */
+public class YAxis {
+    private final GraphView graphView;
+    private LabelGenerator labelGenerator;
+    private AxisTransform transform = AxisTransform.LINEAR;
+
+    private boolean manualBounds;
+    private double manualMin;
+    private double manualMax;
+
+    // cached autoscale bounds and labels
+    private boolean boundsValid;
+    private double min;
+    private double max;
+    private final double[] extrema = new double[2];
+    String[] labels;
+
+    YAxis(GraphView graphView, LabelGenerator labelGenerator) {
+        this.graphView = graphView;
+        this.labelGenerator = labelGenerator;
+    }
+
+    /**
+     * the visible data of the series of this axis changed
+     */
+    void invalidateBounds() {
+        boundsValid = false;
+    }
+
+    /**
+     * scans the visible data of the series of this axis, at most once per change.
+     * the padding of {@link GraphView#setAutoScaleYPadding(double)} applies to this axis too, so that streaming data
+     * only changes the bounds and the labels when it leaves the padded band.
+     */
+    private void updateBounds() {
+        if (boundsValid || manualBounds) {
+            return;
+        }
+        boundsValid = true;
+        graphView.scanVisibleExtrema(this, extrema);
+        if (extrema[0] > extrema[1]) {
+            // no data, an empty axis from 0 to 1
+            extrema[0] = 0;
+            extrema[1] = 1;
+        } else {
+            GraphView.padBounds(extrema, min, max, graphView.getAutoScaleYPadding());
+        }
+        double smallest = extrema[0];
+        double largest = extrema[1];
+        if (smallest != min || largest != max) {
+            min = smallest;
+            max = largest;
+            labels = null;
+        }
+    }
+
+    /**
+     * @return the labels, generated again only after the bounds changed
+     */
+    String[] getLabels(float graphheight) {
+        updateBounds();
+        if (labels == null) {
+            labels = labelGenerator.generateLabels(graphheight, getMin(), getMax());
+            graphView.onYAxisLabelsChanged();
+        }
+        return labels;
+    }
+
+    public double getMin() {
+        if (manualBounds) {
+            return manualMin;
+        }
+        updateBounds();
+        return min;
+    }
+
+    public double getMax() {
+        if (manualBounds) {
+            return manualMax;
+        }
+        updateBounds();
+        return max;
+    }
+
+    /**
+     * sets fixed bounds for this axis, the data is not scanned anymore
+     */
+    public void setManualBounds(double min, double max) {
+        manualMin = min;
+        manualMax = max;
+        manualBounds = true;
+        labels = null;
+        graphView.invalidate();
+    }
+
+    /**
+     * scales the axis to the visible data of its series again
+     */
+    public void setAutoScale() {
+        manualBounds = false;
+        boundsValid = false;
+        labels = null;
+        graphView.invalidate();
+    }
+
+    public boolean isManualBounds() {
+        return manualBounds;
+    }
+
+    public LabelGenerator getLabelGenerator() {
+        return labelGenerator;
+    }
+
+    public void setLabelGenerator(LabelGenerator labelGenerator) {
+        this.labelGenerator = labelGenerator;
+        labels = null;
+        graphView.invalidate();
+    }
+
+    public AxisTransform getTransform() {
+        return transform;
+    }
+
+    /**
+     * @param transform transform of this axis, e.g. {@link AxisTransform#LOG10}
+     */
+    public void setTransform(AxisTransform transform) {
+        this.transform = transform;
+        if (labelGenerator instanceof DefaultLabelGenerator) {
+            ((DefaultLabelGenerator) labelGenerator).setTransform(transform);
+        }
+        labels = null;
+        graphView.invalidate();
+    }
+}
@@ -0,0 +1,83 @@
+package com.kusand.graphview.axis;
+
+/**
+ * Maps the values of an axis into a space in which the axis is linear, e.g. log10 for a logarithmic axis.
+ * The graph projects the values of a series with one {@link #project(double[], int, double, double, float, float[])}
+ * call per axis, so the built-in transforms run as one tight loop without a virtual call per value.
+ *
+ * For a custom transform implement {@link #apply(double)} and {@link #inverse(double)}.
+ * The transform has to be monotonically increasing. Values outside of its domain map to NaN and are drawn as gaps.
+ */
+public abstract class AxisTransform {
+    /**
+     * the default, linear axis
+     */
+    public static final AxisTransform LINEAR = new LinearTransform();
+
+    /**
+     * logarithmic axis with base 10. only positive values can be shown, so the bounds should be set manually.
+     */
+    public static final AxisTransform LOG10 = new Log10Transform();
+
+    /**
+     * symmetric logarithmic axis: linear around 0 and logarithmic for larger values of both signs
+     * @param linearRange the axis is roughly linear between -linearRange and linearRange
+     */
+    public static AxisTransform symlog(double linearRange) {
+        return new SymlogTransform(linearRange);
+    }
+
+    /**
+     * @return a transform that was saved with {@link #saveState()}, null for a custom transform
+     */
+    public static AxisTransform restoreState(double state) {
+        if (state == 0) {
+            return LINEAR;
+        } else if (state == -1) {
+            return LOG10;
+        } else if (state > 0) {
+            return symlog(state);
+        }
+        return null;
+    }
+
+    /**
+     * @return the state of a built-in transform, e.g. for the instance state of a graph: 0 for linear, -1 for log10
+     * and the linear range of a symlog transform. NaN for a custom transform, it can't be restored.
+     */
+    public double saveState() {
+        return Double.NaN;
+    }
+
+    /**
+     * @return the value in the transformed space
+     */
+    public abstract double apply(double value);
+
+    /**
+     * @return the value of a position in the transformed space
+     */
+    public abstract double inverse(double transformed);
+
+    /**
+     * @return true if {@link #apply(double)} is the identity
+     */
+    public boolean isLinear() {
+        return false;
+    }
+
+    /**
+     * projects values to view coordinates: out[i] = origin + (apply(values[i]) - min) * scale
+     * @param values input values
+     * @param count number of values
+     * @param min transformed value at the origin
+     * @param scale pixels per transformed unit, negative for the y axis
+     * @param origin view coordinate of min
+     * @param out view coordinates
+     */
+    public void project(double[] values, int count, double min, double scale, float origin, float[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = (float) (origin + (apply(values[i]) - min) * scale);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.kusand.graphview.axis;
+
+final class LinearTransform extends AxisTransform {
+    @Override
+    public double apply(double value) {
+        return value;
+    }
+
+    @Override
+    public double inverse(double transformed) {
+        return transformed;
+    }
+
+    @Override
+    public double saveState() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLinear() {
+        return true;
+    }
+
+    @Override
+    public void project(double[] values, int count, double min, double scale, float origin, float[] out) {
+        // min is subtracted first: folding it into the origin cancels digits of large values, e.g. epoch milliseconds
+        for (int i = 0; i < count; i++) {
+            out[i] = (float) (origin + (values[i] - min) * scale);
+        }
+    }
+}
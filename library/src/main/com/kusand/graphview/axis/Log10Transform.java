@@ -0,0 +1,32 @@
+package com.kusand.graphview.axis;
+
+final class Log10Transform extends AxisTransform {
+    private static final double LN_10 = Math.log(10);
+
+    @Override
+    public double apply(double value) {
+        // NaN for values <= 0
+        return value > 0 ? Math.log(value) / LN_10 : Double.NaN;
+    }
+
+    @Override
+    public double inverse(double transformed) {
+        return Math.pow(10, transformed);
+    }
+
+    @Override
+    public double saveState() {
+        return -1;
+    }
+
+    @Override
+    public void project(double[] values, int count, double min, double scale, float origin, float[] out) {
+        // log10(v) * scale == ln(v) * (scale / ln(10))
+        double lnScale = scale / LN_10;
+        double offset = origin - min * scale;
+        for (int i = 0; i < count; i++) {
+            double value = values[i];
+            out[i] = value > 0 ? (float) (offset + Math.log(value) * lnScale) : Float.NaN;
+        }
+    }
+}
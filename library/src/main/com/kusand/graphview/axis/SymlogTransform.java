@@ -0,0 +1,44 @@
+package com.kusand.graphview.axis;
+
+final class SymlogTransform extends AxisTransform {
+    private static final double LN_10 = Math.log(10);
+
+    private final double linearRange;
+    private final double inverseRange;
+
+    SymlogTransform(double linearRange) {
+        if (linearRange <= 0) {
+            throw new IllegalArgumentException("linearRange must be > 0");
+        }
+        this.linearRange = linearRange;
+        this.inverseRange = 1 / linearRange;
+    }
+
+    @Override
+    public double apply(double value) {
+        double magnitude = Math.log(1 + Math.abs(value) * inverseRange) / LN_10;
+        return value < 0 ? -magnitude : magnitude;
+    }
+
+    @Override
+    public double inverse(double transformed) {
+        double magnitude = (Math.pow(10, Math.abs(transformed)) - 1) * linearRange;
+        return transformed < 0 ? -magnitude : magnitude;
+    }
+
+    @Override
+    public double saveState() {
+        return linearRange;
+    }
+
+    @Override
+    public void project(double[] values, int count, double min, double scale, float origin, float[] out) {
+        double lnScale = scale / LN_10;
+        double offset = origin - min * scale;
+        for (int i = 0; i < count; i++) {
+            double value = values[i];
+            double magnitude = Math.log(1 + Math.abs(value) * inverseRange) * lnScale;
+            out[i] = (float) (offset + (value < 0 ? -magnitude : magnitude));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.kusand.graphview.gestures;
+
+import android.view.MotionEvent;
+
+/**
+ * Detects scale gestures from touch events.
+ * Use {@link ScaleGestures#create(android.content.Context, OnScaleListener)} to get the implementation for the current platform.
+ */
+public interface ScaleGestureHandler {
+    /**
+     * receives the scale gesture callbacks
+     */
+    interface OnScaleListener {
+        /**
+         * @param focusX x of the focal point in view coordinates
+         * @param focusY y of the focal point in view coordinates
+         * @return false to ignore the gesture
+         */
+        boolean onScaleBegin(float focusX, float focusY);
+
+        /**
+         * @param scaleX scale factor on the x axis since the last accepted event
+         * @param scaleY scale factor on the y axis since the last accepted event
+         * @param focusX x of the focal point in view coordinates
+         * @param focusY y of the focal point in view coordinates
+         * @return true if the event was consumed. if false, the factors keep accumulating.
+         */
+        boolean onScale(float scaleX, float scaleY, float focusX, float focusY);
+
+        void onScaleEnd();
+    }
+
+    /**
+     * @param event the touch event of the view
+     * @return true if the event was consumed by a scale gesture
+     */
+    boolean onTouchEvent(MotionEvent event);
+
+    /**
+     * @return true while a scale gesture is in progress
+     */
+    boolean isInProgress();
+}
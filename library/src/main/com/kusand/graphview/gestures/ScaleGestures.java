@@ -0,0 +1,41 @@
+package com.kusand.graphview.gestures;
+
+import android.content.Context;
+import android.os.Build;
+import android.util.Log;
+import android.view.MotionEvent;
+
+/**
+ * Creates the {@link ScaleGestureHandler} for the current platform.
+ * The platform is checked once; afterwards all touch events are dispatched directly to the handler.
+ */
+public final class ScaleGestures {
+    private ScaleGestures() {
+    }
+
+    /**
+     * @param context
+     * @param listener receives the scale gestures
+     * @return a two axis scale detector, or a handler that never scales if multi-touch is not available (before Android 2.0)
+     */
+    public static ScaleGestureHandler create(Context context, ScaleGestureHandler.OnScaleListener listener) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ECLAIR) {
+            // TwoAxisScaleDetector uses the multi-touch api. It's only loaded on platforms that support it.
+            return new TwoAxisScaleDetector(context, listener);
+        }
+        Log.w("com.kusand.graphview", "*** WARNING *** No scaling available for graphs. Multi-touch requires Android 2.0.");
+        return new NoScaleGestureHandler();
+    }
+
+    private static final class NoScaleGestureHandler implements ScaleGestureHandler {
+        @Override
+        public boolean onTouchEvent(MotionEvent event) {
+            return false;
+        }
+
+        @Override
+        public boolean isInProgress() {
+            return false;
+        }
+    }
+}
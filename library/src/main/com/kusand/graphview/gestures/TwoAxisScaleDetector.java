@@ -0,0 +1,112 @@
+package com.kusand.graphview.gestures;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.ViewConfiguration;
+
+/**
+ * Scale gesture detector that measures the span between the first two pointers separately on the x and on the y axis.
+ * The focal point of the gesture is the middle between the two pointers.
+ * A span below twice the touch slop is not scaled on that axis, so that a vertical pinch doesn't zoom horizontally and vice versa.
+ */
+@TargetApi(5)
+public class TwoAxisScaleDetector implements ScaleGestureHandler {
+    private final OnScaleListener listener;
+    private final float minSpan;
+
+    private boolean inProgress;
+    private float prevSpanX;
+    private float prevSpanY;
+    private float focusX;
+    private float focusY;
+    private float spanX;
+    private float spanY;
+
+    public TwoAxisScaleDetector(Context context, OnScaleListener listener) {
+        this.listener = listener;
+        this.minSpan = ViewConfiguration.get(context).getScaledTouchSlop() * 2;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        int action = event.getAction() & MotionEvent.ACTION_MASK;
+        switch (action) {
+            case MotionEvent.ACTION_POINTER_DOWN:
+                if (inProgress) {
+                    // a third finger, continue with the first two
+                    measure(event, -1);
+                    resetSpans();
+                } else if (event.getPointerCount() >= 2) {
+                    measure(event, -1);
+                    resetSpans();
+                    inProgress = listener.onScaleBegin(focusX, focusY);
+                }
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (inProgress && event.getPointerCount() >= 2) {
+                    measure(event, -1);
+                    float scaleX = prevSpanX >= minSpan && spanX >= minSpan ? spanX / prevSpanX : 1f;
+                    float scaleY = prevSpanY >= minSpan && spanY >= minSpan ? spanY / prevSpanY : 1f;
+                    if (listener.onScale(scaleX, scaleY, focusX, focusY)) {
+                        resetSpans();
+                    }
+                }
+                break;
+            case MotionEvent.ACTION_POINTER_UP:
+                if (inProgress) {
+                    if (event.getPointerCount() > 2) {
+                        // continue with the remaining fingers
+                        int upIndex = (event.getAction() & MotionEvent.ACTION_POINTER_INDEX_MASK) >> MotionEvent.ACTION_POINTER_INDEX_SHIFT;
+                        measure(event, upIndex);
+                        resetSpans();
+                    } else {
+                        end();
+                    }
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                if (inProgress) {
+                    end();
+                }
+                break;
+        }
+        return inProgress;
+    }
+
+    @Override
+    public boolean isInProgress() {
+        return inProgress;
+    }
+
+    /**
+     * measures span and focal point of the first two pointers
+     * @param skipIndex index of a pointer that is going up, or -1
+     */
+    private void measure(MotionEvent event, int skipIndex) {
+        int first = skipIndex == 0 ? 1 : 0;
+        int second = first + 1;
+        if (second == skipIndex) {
+            second++;
+        }
+        float x0 = event.getX(first);
+        float y0 = event.getY(first);
+        float x1 = event.getX(second);
+        float y1 = event.getY(second);
+        spanX = Math.abs(x1 - x0);
+        spanY = Math.abs(y1 - y0);
+        focusX = (x0 + x1) / 2;
+        focusY = (y0 + y1) / 2;
+    }
+
+    private void resetSpans() {
+        prevSpanX = spanX;
+        prevSpanY = spanY;
+    }
+
+    private void end() {
+        inProgress = false;
+        listener.onScaleEnd();
+    }
+}
@@ -2,10 +2,13 @@ package com.kusand.graphview.labels;
 
 import java.text.NumberFormat;
 
+import com.kusand.graphview.axis.AxisTransform;
+
 public class DefaultLabelGenerator implements LabelGenerator {
 
     private float spacing;
     private NumberFormat numberFormatter = NumberFormat.getNumberInstance();
+    private AxisTransform transform = AxisTransform.LINEAR;
 
     public DefaultLabelGenerator(float spacing) {
         this.spacing = spacing;
@@ -19,11 +22,33 @@ public class DefaultLabelGenerator implements LabelGenerator {
         return spacing;
     }
 
+    public AxisTransform getTransform() {
+        return transform;
+    }
+
+    /**
+     * the labels are placed evenly in the transformed space, so they match the grid lines of a transformed axis.
+     * the graph sets this with the transform of its axis.
+     */
+    public void setTransform(AxisTransform transform) {
+        this.transform = transform;
+    }
+
     @Override
     public String[] generateLabels(float rangeWidth, double min, double max) {
         String[] labels = new String[getLabelCount(rangeWidth)];
-        for(int labelIdx = 0; labelIdx < labels.length; labelIdx++) {
-            labels[labelIdx] = formatLabel(min + ((max-min)*labelIdx/(labels.length-1)), min, max);
+        if (transform.isLinear()) {
+            for(int labelIdx = 0; labelIdx < labels.length; labelIdx++) {
+                labels[labelIdx] = formatLabel(min + ((max-min)*labelIdx/(labels.length-1)), min, max);
+            }
+        } else {
+            double transformedMin = transform.apply(min);
+            double transformedMax = transform.apply(max);
+            for(int labelIdx = 0; labelIdx < labels.length; labelIdx++) {
+                double value = transform.inverse(transformedMin + ((transformedMax-transformedMin)*labelIdx/(labels.length-1)));
+                // the labels span several orders of magnitude, so the digits depend on the value itself
+                labels[labelIdx] = formatLabel(value, 0, Math.abs(value));
+            }
         }
         return labels;
     }
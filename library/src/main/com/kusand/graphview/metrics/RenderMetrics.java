@@ -0,0 +1,231 @@
+package com.kusand.graphview.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects timings of the render stages and counters of a {@link com.kusand.graphview.GraphView}.
+ * One instance can be shared by several graphs. Set it with {@link com.kusand.graphview.GraphView#setRenderMetrics(RenderMetrics)}.
+ *
+ * The metrics can be switched on and off at runtime. When disabled, {@link #begin()} doesn't even read the clock.
+ * All methods have to be called on the UI thread.
+ */
+public class RenderMetrics {
+    /**
+     * timed stages of a frame
+     */
+    public enum Stage {
+        /**
+         * the whole onDraw
+         */
+        FRAME,
+        /**
+         * generation of the horizontal and vertical labels
+         */
+        LABELS,
+        /**
+         * scan of the visible data for the y bounds
+         */
+        EXTREMA,
+        /**
+         * slicing of the visible values of a series
+         */
+        SLICE,
+        /**
+         * one drawSeries call
+         */
+        SERIES,
+        /**
+         * drawing or replay of the annotation layer
+         */
+        ANNOTATIONS,
+        LEGEND
+    }
+
+    public enum Counter {
+        /**
+         * values passed to drawSeries
+         */
+        POINTS,
+        DRAW_CALLS,
+        /**
+         * buffers and caches that were reused instead of allocated again
+         */
+        ALLOCATIONS_AVOIDED,
+        /**
+         * recordings of the static layer and the annotation layer with {@link com.kusand.graphview.GraphView.DrawingCacheMode#PICTURE}
+         */
+        PICTURES_RECORDED
+    }
+
+    /**
+     * called after every frame of a graph that uses these metrics
+     */
+    public interface OnFrameListener {
+        void onFrame(RenderMetrics metrics);
+    }
+
+    private static final int DEFAULT_WINDOW = 120;
+    private static final int STAGES = Stage.values().length;
+    private static final int COUNTERS = Counter.values().length;
+
+    private boolean enabled;
+    private final RollingHistogram[] histograms = new RollingHistogram[STAGES];
+    private final long[] frameNanos = new long[STAGES];
+    private final long[] lastFrameNanos = new long[STAGES];
+    private final long[] frameCounts = new long[COUNTERS];
+    private final long[] lastFrameCounts = new long[COUNTERS];
+    private final long[] totalCounts = new long[COUNTERS];
+    private long frames;
+    private final List<OnFrameListener> listeners = new ArrayList<OnFrameListener>();
+
+    public RenderMetrics() {
+        this(DEFAULT_WINDOW);
+    }
+
+    /**
+     * @param window number of samples per stage for the percentiles
+     */
+    public RenderMetrics(int window) {
+        for (int i = 0; i < STAGES; i++) {
+            histograms[i] = new RollingHistogram(window);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        if (!enabled) {
+            // a frame may be half recorded
+            for (int i = 0; i < STAGES; i++) frameNanos[i] = 0;
+            for (int i = 0; i < COUNTERS; i++) frameCounts[i] = 0;
+        }
+        this.enabled = enabled;
+    }
+
+    public void addOnFrameListener(OnFrameListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeOnFrameListener(OnFrameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return start time of a stage for {@link #end(Stage, long)}, 0 if disabled
+     */
+    public long begin() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @param stage
+     * @param start value of {@link #begin()}
+     */
+    public void end(Stage stage, long start) {
+        if (start == 0 || !enabled) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        histograms[stage.ordinal()].record(nanos);
+        frameNanos[stage.ordinal()] += nanos;
+    }
+
+    public void count(Counter counter, int amount) {
+        if (enabled) {
+            frameCounts[counter.ordinal()] += amount;
+        }
+    }
+
+    /**
+     * ends the frame and notifies the listeners
+     * @param start value of {@link #begin()} at the start of the frame
+     */
+    public void endFrame(long start) {
+        if (start == 0 || !enabled) {
+            return;
+        }
+        end(Stage.FRAME, start);
+        for (int i = 0; i < STAGES; i++) {
+            lastFrameNanos[i] = frameNanos[i];
+            frameNanos[i] = 0;
+        }
+        for (int i = 0; i < COUNTERS; i++) {
+            lastFrameCounts[i] = frameCounts[i];
+            totalCounts[i] += frameCounts[i];
+            frameCounts[i] = 0;
+        }
+        frames++;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onFrame(this);
+        }
+    }
+
+    /**
+     * @return the timings of the last samples of this stage in nanoseconds
+     */
+    public RollingHistogram getHistogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /**
+     * @return time spent in this stage during the last frame in nanoseconds
+     */
+    public long getLastFrameNanos(Stage stage) {
+        return lastFrameNanos[stage.ordinal()];
+    }
+
+    public long getLastFrameCount(Counter counter) {
+        return lastFrameCounts[counter.ordinal()];
+    }
+
+    public long getTotalCount(Counter counter) {
+        return totalCounts[counter.ordinal()];
+    }
+
+    /**
+     * @return number of recorded frames
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    public void reset() {
+        for (int i = 0; i < STAGES; i++) {
+            histograms[i].clear();
+            frameNanos[i] = 0;
+            lastFrameNanos[i] = 0;
+        }
+        for (int i = 0; i < COUNTERS; i++) {
+            frameCounts[i] = 0;
+            lastFrameCounts[i] = 0;
+            totalCounts[i] = 0;
+        }
+        frames = 0;
+    }
+
+    /**
+     * @return p50 and p99 of every stage in ms and the totals of the counters
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("frames=").append(frames);
+        for (Stage stage : Stage.values()) {
+            RollingHistogram histogram = histograms[stage.ordinal()];
+            sb.append(' ').append(stage.name().toLowerCase())
+                    .append(" p50=").append(formatMillis(histogram.getP50()))
+                    .append(" p99=").append(formatMillis(histogram.getP99()));
+        }
+        for (Counter counter : Counter.values()) {
+            sb.append(' ').append(counter.name().toLowerCase()).append('=').append(totalCounts[counter.ordinal()]);
+        }
+        return sb.toString();
+    }
+
+    private static String formatMillis(long nanos) {
+        return (nanos / 10000) / 100d + "ms";
+    }
+}
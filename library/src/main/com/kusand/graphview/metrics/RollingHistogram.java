@@ -0,0 +1,75 @@
+package com.kusand.graphview.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the last samples in a ring buffer. Percentiles are computed on demand over this window.
+ * Recording a sample does not allocate.
+ */
+public class RollingHistogram {
+    private final long[] samples;
+    private final long[] sorted;
+    private int next;
+    private int count;
+
+    /**
+     * @param window number of samples that are kept
+     */
+    public RollingHistogram(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1");
+        }
+        samples = new long[window];
+        sorted = new long[window];
+    }
+
+    public void record(long value) {
+        samples[next] = value;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    /**
+     * @return number of samples in the window
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the sample at this percentile (nearest rank), 0 if there are no samples
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        System.arraycopy(samples, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return sorted[Math.max(0, Math.min(count - 1, rank - 1))];
+    }
+
+    public long getP50() {
+        return getPercentile(50);
+    }
+
+    public long getP99() {
+        return getPercentile(99);
+    }
+
+    public long getMax() {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max;
+    }
+
+    public void clear() {
+        next = 0;
+        count = 0;
+    }
+}
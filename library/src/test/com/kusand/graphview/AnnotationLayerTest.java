@@ -0,0 +1,50 @@
+package com.kusand.graphview;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+public class AnnotationLayerTest {
+
+    @Test
+    public void only_the_visible_markers_and_ranges_are_looked_up() {
+        AnnotationLayer layer = new AnnotationLayer(null);
+        for (int i = 0; i < 1000; i++) {
+            layer.add(Annotation.marker(i, 0xffff0000, null));
+        }
+        Annotation range = Annotation.xRange(95, 200, 0x4000ff00, "maintenance");
+        layer.add(range);
+        layer.add(Annotation.band(10, 20, 0x400000ff, "sla"));
+        assertEquals(1002, layer.size());
+
+        List<Annotation> visible = layer.getVisible(100, 104.5);
+        assertEquals(6, visible.size());
+        assertTrue(visible.get(0) == range);
+        // the lookup is cached until the range or the annotations change
+        assertTrue(visible == layer.getVisible(100, 104.5));
+        assertEquals(1, layer.getBands().size());
+    }
+
+    @Test
+    public void markers_are_hit_before_ranges_and_bands() {
+        AnnotationLayer layer = new AnnotationLayer(null);
+        Annotation band = Annotation.band(10, 20, 0x400000ff, null);
+        Annotation range = Annotation.xRange(0, 100, 0x4000ff00, null);
+        Annotation marker = Annotation.marker(50, 0xffff0000, null);
+        layer.add(band);
+        layer.add(range);
+        layer.add(marker);
+
+        assertTrue(layer.find(49, 51, 0, 1) == marker);
+        assertTrue(layer.find(60, 61, 0, 1) == range);
+        assertTrue(layer.find(200, 201, 15, 16) == band);
+        assertNull(layer.find(200, 201, 30, 31));
+
+        layer.remove(marker);
+        assertTrue(layer.find(49, 51, 0, 1) == range);
+    }
+}
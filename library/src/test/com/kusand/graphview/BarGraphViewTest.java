@@ -0,0 +1,173 @@
+package com.kusand.graphview;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import com.kusand.graphview.BarGraphView.BarMode;
+import com.kusand.graphview.GraphView.GraphViewData;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class BarGraphViewTest {
+
+    private RecordingCanvas canvas;
+    private BarGraphView graph;
+
+    @Before
+    public void setUp() {
+        canvas = new RecordingCanvas();
+        graph = new BarGraphView(Robolectric.application);
+    }
+
+    private static GraphViewSeries series(double... xy) {
+        GraphViewData[] values = new GraphViewData[xy.length / 2];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new GraphViewData(xy[i * 2], xy[i * 2 + 1]);
+        }
+        return new GraphViewSeries(values);
+    }
+
+    private void draw() {
+        graph.measure(View.MeasureSpec.makeMeasureSpec(400, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(240, View.MeasureSpec.EXACTLY));
+        graph.layout(0, 0, 400, 240);
+        canvas.reset();
+        graph.onDraw(canvas);
+    }
+
+    /**
+     * @return x, base y and top y of every bar of the drawn series, in the order of the series
+     */
+    private List<float[]> drawnBars() {
+        List<float[]> bars = new ArrayList<float[]>();
+        for (String command : canvas.getCommands()) {
+            if (!command.startsWith(RecordingCanvas.LINES + " ")) {
+                continue;
+            }
+            String[] items = command.split(" \\| ");
+            float[] series = new float[(items.length - 1) * 3];
+            for (int i = 1; i < items.length; i++) {
+                String[] coordinates = items[i].split(" ");
+                series[(i - 1) * 3] = Float.parseFloat(coordinates[0]);
+                series[(i - 1) * 3 + 1] = Float.parseFloat(coordinates[1]);
+                series[(i - 1) * 3 + 2] = Float.parseFloat(coordinates[3]);
+            }
+            bars.add(series);
+        }
+        return bars;
+    }
+
+    private void assertBar(float[] bars, int bar, double base, double top) {
+        // the bars are drawn one pixel above the bottom edge
+        assertEquals(graph.toViewY(base) - 1, bars[bar * 3 + 1], 0.1);
+        assertEquals(graph.toViewY(top) - 1, bars[bar * 3 + 2], 0.1);
+    }
+
+    @Test
+    public void stacked_bars_are_stacked_by_x_value_in_both_directions() {
+        graph.setBarMode(BarMode.STACKED);
+        graph.addSeries(series(0, 5, 1, -3, 2, 4));
+        graph.addSeries(series(0, 2, 1, -4, 3, 1));
+        draw();
+        // the autoscale covers the sums
+        assertEquals(7.0, graph.getMaxY(), 0.000001);
+        assertEquals(-7.0, graph.getMinY(), 0.000001);
+
+        List<float[]> bars = drawnBars();
+        assertEquals(2, bars.size());
+        assertBar(bars.get(0), 0, 0, 5);
+        assertBar(bars.get(0), 1, 0, -3);
+        assertBar(bars.get(1), 0, 5, 7);
+        assertBar(bars.get(1), 1, -3, -7);
+        // nothing of the first series at this x
+        assertBar(bars.get(1), 2, 0, 1);
+    }
+
+    @Test
+    public void merged_stacked_bars_only_stack_on_equal_x_values() {
+        graph.setBarMode(BarMode.STACKED);
+        GraphViewData[] a = new GraphViewData[5000];
+        GraphViewData[] b = new GraphViewData[5000];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = new GraphViewData(i, 1);
+            // in the same pixel column as the values of a
+            b[i] = new GraphViewData(i + 0.5, 1);
+        }
+        graph.addSeries(new GraphViewSeries(a));
+        graph.addSeries(new GraphViewSeries(b));
+        draw();
+        assertEquals(1.0, graph.getMaxY(), 0.000001);
+        float[] bars = drawnBars().get(1);
+        for (int bar = 0; bar < bars.length / 3; bar++) {
+            assertTrue(bars[bar * 3 + 2] >= graph.toViewY(1) - 1.1);
+        }
+    }
+
+    @Test
+    public void series_of_a_secondary_axis_are_not_stacked_with_the_primary_axis() {
+        graph.setBarMode(BarMode.STACKED);
+        graph.addSeries(series(0, 5, 1, 5, 2, 5));
+        YAxis axis = graph.addYAxis();
+        GraphViewSeries secondary = series(0, 1000, 1, 2000, 2, 1000);
+        graph.addSeries(secondary, axis);
+        graph.addSeries(series(0, 2, 1, 2, 2, 2));
+        draw();
+        assertEquals(7.0, graph.getMaxY(), 0.000001);
+
+        List<float[]> bars = drawnBars();
+        assertEquals(3, bars.size());
+        // the third series is stacked on the first
+        assertBar(bars.get(2), 1, 5, 7);
+        // the secondary series is drawn at its own scale from the bottom of its axis
+        assertEquals(graph.toViewY(2000, axis) - 1, bars.get(1)[1 * 3 + 2], 0.1);
+    }
+
+    @Test
+    public void series_of_a_secondary_axis_do_not_take_a_slot_in_the_groups() {
+        graph.setBarMode(BarMode.GROUPED);
+        graph.addSeries(series(0, 1, 1, 2, 2, 3));
+        graph.addSeries(series(0, 10, 1, 20, 2, 30), graph.addYAxis());
+        graph.addSeries(series(0, 3, 1, 2, 2, 1));
+        draw();
+        List<float[]> bars = drawnBars();
+        float center = graph.toViewX(1);
+        // two groups of 0.4 slots
+        float halfGroup = (graph.toViewX(1) - graph.toViewX(0)) * 0.2f;
+        assertEquals(center - halfGroup, bars.get(0)[3], 0.1);
+        assertEquals(center, bars.get(1)[3], 0.1);
+        assertEquals(center + halfGroup, bars.get(2)[3], 0.1);
+    }
+
+    @Test
+    public void grouped_bars_at_the_ends_of_the_data_are_inside_the_graph() {
+        graph.setBarMode(BarMode.GROUPED);
+        graph.addSeries(series(0, 1, 1, 2, 2, 3));
+        graph.addSeries(series(0, 3, 1, 2, 2, 1));
+        draw();
+        // half a group of 0.8 slots before the first and after the last x value
+        assertEquals(-0.4, graph.getMinX(false), 0.000001);
+        assertEquals(2.4, graph.getMaxX(false), 0.000001);
+
+        float left = graph.toViewX(-0.4);
+        float right = graph.toViewX(2.4);
+        // a bar is a fifth of the distance between two x values wide
+        float halfBar = (graph.toViewX(1) - graph.toViewX(0)) * 0.2f;
+        for (float[] bars : drawnBars()) {
+            assertEquals(3, bars.length / 3);
+            for (int bar = 0; bar < bars.length / 3; bar++) {
+                assertTrue(bars[bar * 3] - halfBar >= left - 0.1);
+                assertTrue(bars[bar * 3] + halfBar <= right + 0.1);
+            }
+        }
+    }
+}
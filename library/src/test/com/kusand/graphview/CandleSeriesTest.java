@@ -0,0 +1,152 @@
+package com.kusand.graphview;
+
+import org.junit.Test;
+
+import com.kusand.graphview.CandleSeries.CandleData;
+import com.kusand.graphview.GraphView.GraphViewData;
+
+import static junit.framework.Assert.assertEquals;
+
+public class CandleSeriesTest {
+
+    private static void assertBar(GraphViewData value, double x, double open, double high, double low, double close) {
+        CandleData bar = (CandleData) value;
+        assertEquals(x, bar.valueX, 0.000001);
+        assertEquals(open, bar.open, 0.000001);
+        assertEquals(high, bar.high, 0.000001);
+        assertEquals(low, bar.low, 0.000001);
+        assertEquals(close, bar.close, 0.000001);
+        assertEquals(close, bar.valueY, 0.000001);
+    }
+
+    @Test
+    public void ticks_of_one_timeframe_update_the_current_bar() {
+        CandleSeries series = new CandleSeries(null, null, 10);
+        series.addTick(0, 5, false);
+        series.addTick(3, 8, false);
+        series.addTick(5, 2, false);
+        series.addTick(9, 6, false);
+        assertEquals(1, series.size());
+        assertBar(series.get(0), 0, 5, 8, 2, 6);
+
+        series.addTick(10, 7, false);
+        assertEquals(2, series.size());
+        assertBar(series.get(1), 10, 7, 7, 7, 7);
+    }
+
+    @Test
+    public void late_ticks_only_extend_their_bar() {
+        CandleSeries series = new CandleSeries(null, null, 10);
+        series.addTick(1, 5, false);
+        series.addTick(12, 6, false);
+        series.addTick(4, 9, false);
+        assertBar(series.get(0), 0, 5, 9, 5, 5);
+
+        // a late tick of a timeframe without a bar inserts it
+        series.addTick(25, 3, false);
+        series.addTick(42, 4, false);
+        series.addTick(31, 1, false);
+        assertEquals(5, series.size());
+        assertBar(series.get(3), 30, 1, 1, 1, 1);
+    }
+
+    @Test
+    public void extrema_cover_the_wicks() {
+        CandleSeries series = new CandleSeries(null, null, 1);
+        for (int i = 0; i < 200; i++) {
+            series.addTick(i, 100, false);
+        }
+        series.addTick(150.5, 130, false);
+        series.addTick(150.6, 70, false);
+        series.addTick(150.7, 100, false);
+        assertEquals(70.0, series.getMinY(0, series.size()), 0.000001);
+        assertEquals(130.0, series.getMaxY(0, series.size()), 0.000001);
+        assertEquals(100.0, series.getMaxY(0, 150), 0.000001);
+    }
+
+    @Test
+    public void higher_timeframe_levels_merge_the_bars() {
+        CandleSeries series = new CandleSeries(null, null, 1);
+        for (int i = 0; i < 8; i++) {
+            series.addTick(i, i, false);
+        }
+        assertEquals(0, series.levelFor(1));
+        int level = series.levelFor(3);
+        assertEquals(2, level);
+        assertEquals(4.0, series.getLevelTimeframe(level), 0.000001);
+        assertEquals(2, series.getLevelSize(level));
+        assertBar(series.getLevelBars(level)[0], 0, 0, 3, 0, 3);
+        assertBar(series.getLevelBars(level)[1], 4, 4, 7, 4, 7);
+    }
+
+    @Test
+    public void higher_timeframe_levels_follow_updates() {
+        CandleSeries series = new CandleSeries(null, null, 1);
+        for (int i = 0; i < 8; i++) {
+            series.addTick(i, i, false);
+        }
+        int level = series.levelFor(4);
+        assertEquals(2, series.getLevelSize(level));
+
+        // update the current bar, then start new bars
+        series.addTick(7.5, 20, false);
+        assertBar(series.getLevelBars(level)[1], 4, 4, 20, 4, 20);
+        series.addTick(8, 1, false);
+        series.addTick(9, 2, false);
+        assertEquals(3, series.getLevelSize(level));
+        assertBar(series.getLevelBars(level)[2], 8, 1, 2, 1, 2);
+
+        // a late tick of an old bar
+        series.addTick(1.5, -5, false);
+        assertBar(series.getLevelBars(level)[0], 0, 0, 3, -5, 3);
+        assertBar(series.getLevelBars(level)[2], 8, 1, 2, 1, 2);
+    }
+
+    @Test
+    public void derived_series_follow_the_ticks_of_the_current_bar() {
+        CandleSeries series = new CandleSeries(null, null, 10);
+        RollingAggregateSeries mean = new RollingAggregateSeries(series, RollingAggregateSeries.Aggregate.MEAN, 3);
+        RollingAggregateSeries max = new RollingAggregateSeries(series, RollingAggregateSeries.Aggregate.MAX, 3);
+        double[] prices = {5, 8, 2, 6, 7, 3, 9, 1, 4, 4, 6, 2};
+        for (int i = 0; i < prices.length; i++) {
+            // four ticks per bar, the last one is the close
+            series.addTick(i * 2.5, prices[i], false);
+        }
+        assertEquals(3, series.size());
+        RollingAggregateSeries freshMean = new RollingAggregateSeries(series, RollingAggregateSeries.Aggregate.MEAN, 3);
+        RollingAggregateSeries freshMax = new RollingAggregateSeries(series, RollingAggregateSeries.Aggregate.MAX, 3);
+        for (int i = 0; i < series.size(); i++) {
+            assertEquals(freshMean.getY(i), mean.getY(i), 0.000001);
+            assertEquals(freshMax.getY(i), max.getY(i), 0.000001);
+        }
+        assertEquals((6 + 1 + 2) / 3.0, mean.getY(2), 0.000001);
+        assertEquals(6.0, max.getY(2), 0.000001);
+    }
+
+    @Test
+    public void late_ticks_without_a_bar_are_inserted_in_order() {
+        CandleSeries series = new CandleSeries(null, null, 10);
+        RollingAggregateSeries max = new RollingAggregateSeries(series, RollingAggregateSeries.Aggregate.MAX, 2);
+        series.addTick(12, 6, false);
+        series.addTick(31, 2, false);
+        series.addTick(4, 9, false);
+        assertEquals(3, series.size());
+        assertBar(series.get(0), 0, 9, 9, 9, 9);
+        assertBar(series.get(1), 10, 6, 6, 6, 6);
+        assertEquals(9.0, max.getY(1), 0.000001);
+        assertEquals(9.0, series.getMaxY(0, 3), 0.000001);
+    }
+
+    @Test
+    public void reset_replaces_the_bars_and_the_levels() {
+        CandleSeries series = new CandleSeries(null, null, 1);
+        for (int i = 0; i < 8; i++) {
+            series.addTick(i, i, false);
+        }
+        assertEquals(4, series.getLevelSize(1));
+        series.resetData(new CandleData[] {new CandleData(0, 1, 2, 0, 1)});
+        assertEquals(1, series.size());
+        assertEquals(1, series.getLevelSize(1));
+        assertEquals(2.0, series.getMaxY(0, 1), 0.000001);
+    }
+}
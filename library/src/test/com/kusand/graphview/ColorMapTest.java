@@ -0,0 +1,32 @@
+package com.kusand.graphview;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+
+public class ColorMapTest {
+
+    @Test
+    public void ends_of_the_range_get_the_first_and_last_color() {
+        ColorMap colorMap = ColorMap.grayscale(0, 10);
+        assertEquals(0xff000000, colorMap.getColor(0));
+        assertEquals(0xffffffff, colorMap.getColor(10));
+        assertEquals(0xff000000, colorMap.getColor(-5));
+        assertEquals(0xffffffff, colorMap.getColor(50));
+    }
+
+    @Test
+    public void colors_are_interpolated_between_the_stops() {
+        ColorMap colorMap = new ColorMap(new int[] {0xff000000, 0xff0000ff, 0xffff0000}, 0, 1);
+        int middle = colorMap.getColor(0.5);
+        assertEquals(0xff, middle >>> 24);
+        // close to the middle stop
+        assertEquals(true, (middle & 0xff) > 0xf0);
+        assertEquals(true, ((middle >> 16) & 0xff) < 0x10);
+    }
+
+    @Test
+    public void nan_is_transparent() {
+        assertEquals(0, ColorMap.heat(0, 1).getColor(Double.NaN));
+    }
+}
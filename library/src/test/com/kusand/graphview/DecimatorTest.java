@@ -0,0 +1,89 @@
+package com.kusand.graphview;
+
+import org.junit.Test;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+public class DecimatorTest {
+
+    private final static double DELTA = 0.000001;
+
+    private static GraphViewData[] sine(int size) {
+        GraphViewData[] values = new GraphViewData[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = new GraphViewData(i, Math.sin(i * 0.1));
+        }
+        return values;
+    }
+
+    @Test
+    public void small_input_is_returned_as_is() {
+        GraphViewData[] values = sine(10);
+        assertSame(values, Decimator.minMax(values, 10));
+    }
+
+    @Test
+    public void keeps_first_last_and_peaks() {
+        GraphViewData[] values = sine(1000);
+        values[500] = new GraphViewData(500, 7);
+        GraphViewData[] decimated = Decimator.minMax(values, 20);
+        assertTrue(decimated.length <= 42);
+        assertSame(values[0], decimated[0]);
+        assertSame(values[999], decimated[decimated.length - 1]);
+        boolean peak = false;
+        for (int i = 1; i < decimated.length; i++) {
+            assertTrue(decimated[i].valueX > decimated[i - 1].valueX);
+            peak |= decimated[i].valueY == 7;
+        }
+        assertTrue(peak);
+    }
+
+    @Test
+    public void gaps_are_kept_and_do_not_become_min_or_max() {
+        GraphViewData[] values = sine(1000);
+        for (int i = 300; i < 310; i++) {
+            values[i] = GraphViewData.gap(i);
+        }
+        GraphViewData[] decimated = Decimator.minMax(values, 20);
+        int gaps = 0;
+        for (int i = 1; i < decimated.length; i++) {
+            assertTrue(decimated[i].valueX > decimated[i - 1].valueX);
+            if (decimated[i].isGap()) {
+                gaps++;
+            }
+        }
+        // the gap lies in one or two buckets
+        assertTrue(gaps >= 1 && gaps <= 2);
+    }
+
+    @Test
+    public void bucket_of_gaps_only() {
+        GraphViewData[] values = sine(100);
+        for (int i = 1; i < 99; i++) {
+            values[i] = GraphViewData.gap(i);
+        }
+        GraphViewData[] decimated = Decimator.minMax(values, 10);
+        for (int i = 1; i < decimated.length - 1; i++) {
+            assertTrue(decimated[i].isGap());
+        }
+        assertEquals(99.0, decimated[decimated.length - 1].valueX, DELTA);
+    }
+
+    @Test
+    public void a_series_range_keeps_the_indexes_of_the_decimated_values() {
+        GraphViewData[] values = sine(1000);
+        values[300] = GraphViewData.gap(300);
+        GraphViewData[] decimated = Decimator.minMax(values, 20);
+
+        int[] indexes = new int[3 * 20 + 2];
+        int count = Decimator.minMaxIndexes(new GraphViewSeries(values), 0, values.length, 20, indexes);
+        assertEquals(decimated.length, count);
+        for (int i = 0; i < count; i++) {
+            assertSame(decimated[i], values[indexes[i]]);
+        }
+    }
+}
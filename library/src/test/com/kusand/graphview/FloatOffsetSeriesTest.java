@@ -0,0 +1,133 @@
+package com.kusand.graphview;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.axis.AxisTransform;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class FloatOffsetSeriesTest {
+    private static final double EPOCH = 1.7e12;
+
+    private static FloatOffsetSeries epochSeries(int count, double[] x) {
+        Random random = new Random(3);
+        FloatOffsetSeries series = new FloatOffsetSeries(null, null, 0);
+        double time = EPOCH;
+        for (int i = 0; i < count; i++) {
+            // irregular milliseconds
+            time += 1 + random.nextInt(1000);
+            x[i] = time;
+            series.appendData(time, Math.sin(i * 0.01), false);
+        }
+        return series;
+    }
+
+    @Test
+    public void epoch_milliseconds_are_stored_losslessly() {
+        double[] x = new double[100000];
+        FloatOffsetSeries series = epochSeries(x.length, x);
+        assertEquals(x.length, series.size());
+        for (int i = 0; i < x.length; i++) {
+            assertEquals(x[i], series.getX(i), 0);
+        }
+        // a float can not hold them without a base
+        assertFalse((double) (float) x[1] == x[1]);
+        // a new chunk every 4096 values or 2^24 ms
+        assertTrue(series.getChunkCount() < x.length / 1000);
+    }
+
+    @Test
+    public void projection_from_offsets_is_pixel_exact() {
+        double[] x = new double[50000];
+        FloatOffsetSeries series = epochSeries(x.length, x);
+        float[] offsetPath = new float[x.length];
+        float[] doublePath = new float[x.length];
+        float width = 1080;
+
+        // zoomed out and zoomed in viewports
+        int[][] ranges = {{0, x.length}, {20000, 20500}, {49990, 50000}};
+        for (int[] range : ranges) {
+            int from = range[0];
+            int to = range[1];
+            double min = x[from];
+            double scale = width / (x[to - 1] - min);
+            GraphViewData[] slice = series.drawSlice(from, to, (int) width);
+            assertTrue(series.projectSliceX(slice, min, scale, 10, offsetPath));
+
+            double[] valuesX = new double[slice.length];
+            for (int i = 0; i < slice.length; i++) {
+                valuesX[i] = slice[i].valueX;
+            }
+            AxisTransform.LINEAR.project(valuesX, valuesX.length, min, scale, 10, doublePath);
+            for (int i = 0; i < slice.length; i++) {
+                assertEquals(doublePath[i], offsetPath[i], Math.ulp(doublePath[i]));
+                assertEquals(Math.round(doublePath[i]), Math.round(offsetPath[i]));
+            }
+        }
+    }
+
+    @Test
+    public void other_values_are_projected_by_the_graph() {
+        double[] x = new double[100];
+        FloatOffsetSeries series = epochSeries(x.length, x);
+        GraphViewData[] decimated = Decimator.minMax(series.slice(0, 100), 10);
+        assertFalse(series.projectSliceX(decimated, 0, 1, 0, new float[100]));
+    }
+
+    @Test
+    public void drawn_values_are_bounded_by_the_buckets() {
+        double[] x = new double[100000];
+        FloatOffsetSeries series = epochSeries(x.length, x);
+        GraphViewData[] drawn = series.drawSlice(0, x.length, 100);
+        assertTrue(drawn.length <= 3 * 100 + 2);
+        assertEquals(x[0], drawn[0].valueX, 0);
+        assertEquals(x[x.length - 1], drawn[drawn.length - 1].valueX, 0);
+        // the peaks of the sine are kept
+        double max = Double.NEGATIVE_INFINITY;
+        for (GraphViewData value : drawn) {
+            max = Math.max(max, value.valueY);
+        }
+        assertEquals(series.getMaxY(0, x.length), max, 0);
+
+        // cached until the data changes
+        assertTrue(drawn == series.drawSlice(0, x.length, 100));
+        series.appendData(x[x.length - 1] + 1, 5, false);
+        GraphViewData[] appended = series.drawSlice(0, series.size(), 100);
+        assertEquals(5.0, appended[appended.length - 1].valueY, 0);
+    }
+
+    @Test
+    public void fractional_x_is_stored_within_the_precision() {
+        FloatOffsetSeries series = new FloatOffsetSeries(null, null, 1e-6);
+        for (int i = 0; i < 10000; i++) {
+            series.appendData(1.7e9 + i * 0.1, i, false);
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(1.7e9 + i * 0.1, series.getX(i), 1e-6);
+        }
+    }
+
+    @Test
+    public void viewport_lookup_and_extrema_match_the_values() {
+        double[] x = new double[10000];
+        FloatOffsetSeries series = epochSeries(x.length, x);
+        double minX = x[5000] + 0.5;
+        double maxX = x[8000];
+        assertEquals(5000, series.sliceStart(minX));
+        assertEquals(8002, series.sliceEnd(maxX));
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 100; i < 9000; i++) {
+            min = Math.min(min, series.get(i).valueY);
+            max = Math.max(max, series.get(i).valueY);
+        }
+        assertEquals(min, series.getMinY(100, 9000), 0);
+        assertEquals(max, series.getMaxY(100, 9000), 0);
+    }
+}
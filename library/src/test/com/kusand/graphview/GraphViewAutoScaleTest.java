@@ -0,0 +1,113 @@
+package com.kusand.graphview;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class GraphViewAutoScaleTest {
+
+    private LineGraphView graph;
+    private GraphViewSeries series;
+
+    @Before
+    public void setUp() {
+        graph = new LineGraphView(Robolectric.application);
+        GraphViewData[] values = new GraphViewData[11];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new GraphViewData(i, i);
+        }
+        series = new GraphViewSeries(values);
+        graph.addSeries(series);
+        graph.measure(View.MeasureSpec.makeMeasureSpec(400, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(240, View.MeasureSpec.EXACTLY));
+        graph.layout(0, 0, 400, 240);
+    }
+
+    private void assertBounds(double min, double max) {
+        assertEquals(min, graph.getMinY(), 0.000001);
+        assertEquals(max, graph.getMaxY(), 0.000001);
+    }
+
+    @Test
+    public void the_y_viewport_overrides_the_autoscale_and_the_manual_bounds() {
+        assertBounds(0, 10);
+        graph.setViewPortY(2, 3);
+        assertBounds(2, 5);
+
+        graph.setManualYAxisBounds(100, -100);
+        assertBounds(2, 5);
+
+        graph.setViewPortY(0, 0);
+        assertBounds(-100, 100);
+    }
+
+    @Test
+    public void setting_the_y_viewport_redraws_the_graph() {
+        Robolectric.shadowOf(graph).clearWasInvalidated();
+        graph.setViewPortY(2, 3);
+        assertTrue(Robolectric.shadowOf(graph).wasInvalidated());
+    }
+
+    @Test
+    public void setting_the_autoscale_padding_redraws_the_graph() {
+        Robolectric.shadowOf(graph).clearWasInvalidated();
+        graph.setAutoScaleYPadding(0.1);
+        assertTrue(Robolectric.shadowOf(graph).wasInvalidated());
+        assertBounds(-1, 11);
+    }
+
+    @Test
+    public void the_padded_bounds_are_kept_while_the_data_stays_inside() {
+        graph.setAutoScaleYPadding(0.1);
+        assertBounds(-1, 11);
+
+        series.appendData(new GraphViewData(11, 10.5), false);
+        assertBounds(-1, 11);
+        series.appendData(new GraphViewData(12, -0.5), false);
+        assertBounds(-1, 11);
+    }
+
+    @Test
+    public void the_padded_bounds_follow_the_data_that_leaves_them() {
+        graph.setAutoScaleYPadding(0.1);
+        assertBounds(-1, 11);
+
+        series.appendData(new GraphViewData(11, 20), false);
+        assertBounds(-2, 22);
+    }
+
+    @Test
+    public void the_padded_bounds_follow_the_data_that_shrinks_to_less_than_half_of_them() {
+        graph.setAutoScaleYPadding(0.1);
+        assertBounds(-1, 11);
+
+        series.resetData(new GraphViewData[] {new GraphViewData(0, 5), new GraphViewData(1, 6)});
+        assertBounds(4.9, 6.1);
+    }
+
+    @Test
+    public void pad_bounds_without_padding_keeps_the_extrema() {
+        double[] extrema = {1, 2};
+        GraphView.padBounds(extrema, -10, 10, 0);
+        assertEquals(1.0, extrema[0]);
+        assertEquals(2.0, extrema[1]);
+    }
+
+    @Test
+    public void pad_bounds_of_a_flat_line_uses_its_magnitude() {
+        double[] extrema = {50, 50};
+        GraphView.padBounds(extrema, 0, 0, 0.1);
+        assertEquals(45.0, extrema[0], 0.000001);
+        assertEquals(55.0, extrema[1], 0.000001);
+    }
+}
@@ -0,0 +1,181 @@
+package com.kusand.graphview;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Picture;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+
+import com.kusand.graphview.GraphView.DrawingCacheMode;
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.axis.AxisTransform;
+import com.kusand.graphview.labels.LabelGenerator;
+import com.kusand.graphview.metrics.RenderMetrics;
+import com.kusand.graphview.metrics.RenderMetrics.Counter;
+
+import static junit.framework.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = {GraphViewDrawingCacheTest.ShadowPicture.class})
+public class GraphViewDrawingCacheTest {
+
+    /**
+     * pictures are native, the recordings are dropped
+     */
+    @Implements(Picture.class)
+    public static class ShadowPicture {
+        public void __constructor__(int nativePicture, boolean fromStream) {
+        }
+
+        @Implementation
+        public Canvas beginRecording(int width, int height) {
+            return new RecordingCanvas();
+        }
+
+        @Implementation
+        public void endRecording() {
+        }
+    }
+
+    private RecordingCanvas canvas;
+    private RenderMetrics metrics;
+    private LineGraphView graph;
+    private GraphViewSeries series;
+
+    @Before
+    public void setUp() {
+        canvas = new RecordingCanvas();
+        metrics = new RenderMetrics();
+        metrics.setEnabled(true);
+        graph = new LineGraphView(Robolectric.application);
+        graph.setRenderMetrics(metrics);
+        graph.setDrawingCacheMode(DrawingCacheMode.PICTURE);
+        GraphViewData[] values = new GraphViewData[20];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new GraphViewData(i, 1 + i % 10);
+        }
+        series = new GraphViewSeries(values);
+        graph.addSeries(series);
+        graph.getAnnotationLayer().add(Annotation.xRange(4, 6, Color.GRAY, null));
+        graph.measure(View.MeasureSpec.makeMeasureSpec(400, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(240, View.MeasureSpec.EXACTLY));
+        graph.layout(0, 0, 400, 240);
+    }
+
+    /**
+     * @return pictures recorded in the frame
+     */
+    private long draw() {
+        canvas.reset();
+        graph.onDraw(canvas);
+        return metrics.getLastFrameCount(Counter.PICTURES_RECORDED);
+    }
+
+    private void touch(int action, float x) {
+        MotionEvent event = MotionEvent.obtain(0, 0, action, x, 100, 0);
+        graph.onTouchEvent(event);
+        event.recycle();
+    }
+
+    @Test
+    public void unchanged_frames_replay_the_recordings() {
+        // the static layer and the annotations
+        assertEquals(2, draw());
+        assertEquals(2, canvas.getCount(RecordingCanvas.PICTURE));
+
+        assertEquals(0, draw());
+        assertEquals(0, draw());
+        assertEquals(2, canvas.getCount(RecordingCanvas.PICTURE));
+    }
+
+    @Test
+    public void data_inside_the_y_bounds_keeps_the_recordings() {
+        graph.setViewPort(0, 20);
+        graph.setAutoScaleYPadding(0.1);
+        draw();
+
+        series.appendData(new GraphViewData(20, 5), false);
+        assertEquals(0, draw());
+    }
+
+    @Test
+    public void data_that_changes_the_y_bounds_records_again() {
+        draw();
+
+        series.appendData(new GraphViewData(20, 50), false);
+        assertEquals(2, draw());
+        assertEquals(0, draw());
+    }
+
+    @Test
+    public void style_changes_record_the_static_layer_again() {
+        draw();
+
+        graph.setTitle("title");
+        assertEquals(1, draw());
+        graph.setLabelPaintSize(30);
+        assertEquals(1, draw());
+        graph.setVerticalLabelGenerator(new LabelGenerator() {
+            @Override
+            public String[] generateLabels(float rangeWidth, double min, double max) {
+                return new String[] {"max", "min"};
+            }
+        });
+        assertEquals(1, draw());
+        assertEquals(0, draw());
+    }
+
+    @Test
+    public void axis_transforms_record_both_layers_again() {
+        draw();
+
+        graph.setVerticalAxisTransform(AxisTransform.LOG10);
+        assertEquals(2, draw());
+        graph.setHorizontalAxisTransform(AxisTransform.LOG10);
+        assertEquals(2, draw());
+        assertEquals(0, draw());
+    }
+
+    @Test
+    public void viewport_changes_record_both_layers_again() {
+        draw();
+
+        graph.setViewPort(2, 10);
+        assertEquals(2, draw());
+        graph.setViewPortY(0, 20);
+        assertEquals(2, draw());
+        assertEquals(0, draw());
+    }
+
+    @Test
+    public void annotations_are_drawn_directly_while_the_viewport_moves() {
+        graph.setScrollable(true);
+        graph.setViewPort(0, 10);
+        draw();
+
+        touch(MotionEvent.ACTION_DOWN, 200);
+        touch(MotionEvent.ACTION_MOVE, 150);
+        // only the labels of the static layer
+        assertEquals(1, draw());
+        assertEquals(1, canvas.getCount(RecordingCanvas.PICTURE));
+        assertEquals(1, canvas.getCount(RecordingCanvas.RECT));
+        touch(MotionEvent.ACTION_MOVE, 100);
+        assertEquals(1, draw());
+        assertEquals(1, canvas.getCount(RecordingCanvas.RECT));
+
+        touch(MotionEvent.ACTION_UP, 100);
+        // the annotations of the final viewport
+        assertEquals(1, draw());
+        assertEquals(2, canvas.getCount(RecordingCanvas.PICTURE));
+        assertEquals(0, canvas.getCount(RecordingCanvas.RECT));
+    }
+}
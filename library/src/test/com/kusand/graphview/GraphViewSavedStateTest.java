@@ -0,0 +1,117 @@
+package com.kusand.graphview;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import com.kusand.graphview.GraphView.DrawingCacheMode;
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.axis.AxisTransform;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class GraphViewSavedStateTest {
+
+    private static GraphViewSeries series(double... values) {
+        GraphViewData[] data = new GraphViewData[values.length];
+        for (int i = 0; i < values.length; i++) {
+            data[i] = new GraphViewData(i, values[i]);
+        }
+        return new GraphViewSeries(data);
+    }
+
+    /**
+     * writes the state into a parcel and reads it again, like a configuration change or a process restart
+     */
+    private static Parcelable parcel(Parcelable state) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            state.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return GraphView.SavedState.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    @Test
+    public void state_survives_a_parcel_round_trip() {
+        LineGraphView graph = new LineGraphView(Robolectric.application);
+        graph.setTitle("saved");
+        graph.setManualYAxisBounds(50, 5);
+        graph.setAutoScaleYPadding(0.2);
+        graph.setHorizontalAxisTransform(AxisTransform.symlog(10));
+        graph.setVerticalAxisTransform(AxisTransform.LOG10);
+        graph.setDrawingCacheMode(DrawingCacheMode.NONE);
+        YAxis manual = graph.addYAxis();
+        manual.setManualBounds(-3, 7);
+        manual.setTransform(AxisTransform.symlog(2));
+        graph.addYAxis();
+
+        LineGraphView restored = new LineGraphView(Robolectric.application);
+        YAxis restoredManual = restored.addYAxis();
+        YAxis restoredAuto = restored.addYAxis();
+        restored.onRestoreInstanceState(parcel(graph.onSaveInstanceState()));
+
+        assertEquals(5.0, restored.getMinY());
+        assertEquals(50.0, restored.getMaxY());
+        assertEquals(0.2, restored.getAutoScaleYPadding());
+        assertEquals(DrawingCacheMode.NONE, restored.getDrawingCacheMode());
+        assertSame(AxisTransform.LOG10, restored.getVerticalAxisTransform());
+        assertEquals(AxisTransform.symlog(10).apply(42), restored.getHorizontalAxisTransform().apply(42), 0);
+
+        assertTrue(restoredManual.isManualBounds());
+        assertEquals(-3.0, restoredManual.getMin());
+        assertEquals(7.0, restoredManual.getMax());
+        assertEquals(AxisTransform.symlog(2).apply(42), restoredManual.getTransform().apply(42), 0);
+        assertFalse(restoredAuto.isManualBounds());
+        assertSame(AxisTransform.LINEAR, restoredAuto.getTransform());
+    }
+
+    @Test
+    public void custom_transforms_are_kept_by_the_restored_graph() {
+        AxisTransform custom = new AxisTransform() {
+            @Override
+            public double apply(double value) {
+                return value * 2;
+            }
+
+            @Override
+            public double inverse(double transformed) {
+                return transformed / 2;
+            }
+        };
+        LineGraphView graph = new LineGraphView(Robolectric.application);
+        graph.setVerticalAxisTransform(custom);
+        LineGraphView restored = new LineGraphView(Robolectric.application);
+        restored.setVerticalAxisTransform(custom);
+        restored.onRestoreInstanceState(parcel(graph.onSaveInstanceState()));
+        assertSame(custom, restored.getVerticalAxisTransform());
+    }
+
+    @Test
+    public void a_reattached_graph_sees_the_data_of_its_series() {
+        LineGraphView graph = new LineGraphView(Robolectric.application);
+        GraphViewSeries series = series(1, 2, 3);
+        graph.addSeries(series);
+        assertEquals(3.0, graph.getMaxY());
+
+        // a detached graph is not notified about the new value
+        graph.onDetachedFromWindow();
+        series.appendData(new GraphViewData(3, 10), false);
+
+        // the bounds are scanned again when it is attached
+        graph.onAttachedToWindow();
+        assertEquals(10.0, graph.getMaxY());
+        series.appendData(new GraphViewData(4, 20), false);
+        assertEquals(20.0, graph.getMaxY());
+    }
+}
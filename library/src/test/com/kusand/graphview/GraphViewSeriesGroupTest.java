@@ -0,0 +1,112 @@
+package com.kusand.graphview;
+
+import org.junit.Test;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+public class GraphViewSeriesGroupTest {
+
+    private final static double DELTA = 0.000001;
+
+    private static GraphViewSeriesGroup createGroup() {
+        return new GraphViewSeriesGroup(
+                new double[] {1, 2, 3, 4, 5},
+                new double[][] {
+                        {10, 20, 30, 40, 50},
+                        {-1, 5, -3, 7, 0}
+                });
+    }
+
+    @Test
+    public void columns_share_x_and_slice_like_a_plain_series() {
+        GraphViewSeriesGroup group = createGroup();
+        BaseSeries column = group.getSeries(1);
+        GraphViewSeries plain = new GraphViewSeries(new GraphViewData[] {
+                new GraphViewData(1, -1), new GraphViewData(2, 5), new GraphViewData(3, -3),
+                new GraphViewData(4, 7), new GraphViewData(5, 0)
+        });
+
+        assertEquals(plain.sliceStart(2.5), column.sliceStart(2.5));
+        assertEquals(plain.sliceEnd(3.5), column.sliceEnd(3.5));
+        GraphViewData[] slice = column.slice(column.sliceStart(2.5), column.sliceEnd(3.5));
+        assertEquals(3, slice.length);
+        assertEquals(2.0, slice[0].valueX, DELTA);
+        assertEquals(7.0, slice[2].valueY, DELTA);
+    }
+
+    @Test
+    public void extrema_per_column() {
+        GraphViewSeriesGroup group = createGroup();
+        assertEquals(20.0, group.getSeries(0).getMinY(1, 4), DELTA);
+        assertEquals(40.0, group.getSeries(0).getMaxY(1, 4), DELTA);
+        assertEquals(-3.0, group.getSeries(1).getMinY(1, 4), DELTA);
+        assertEquals(7.0, group.getSeries(1).getMaxY(1, 4), DELTA);
+    }
+
+    @Test
+    public void drawn_values_are_cached_until_data_changes() {
+        GraphViewSeriesGroup group = createGroup();
+        BaseSeries column = group.getSeries(0);
+        GraphViewData[] slice = column.drawSlice(0, 5, 100);
+        assertSame(slice, column.drawSlice(0, 5, 100));
+
+        group.appendData(6, new double[] {60, 1}, false);
+        assertEquals(6, column.size());
+        GraphViewData[] appended = column.drawSlice(0, 6, 100);
+        assertEquals(6, appended.length);
+        assertEquals(60.0, appended[5].valueY, DELTA);
+        assertEquals(60.0, column.getMaxY(0, 6), DELTA);
+    }
+
+    @Test
+    public void drawn_values_are_bounded_by_the_buckets() {
+        int rows = 100000;
+        double[] x = new double[rows];
+        double[] y = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = i;
+            y[i] = i % 100;
+        }
+        y[54321] = 1000;
+        y[12345] = -1000;
+        GraphViewSeriesGroup group = new GraphViewSeriesGroup(x, new double[][] {y});
+        BaseSeries column = group.getSeries(0);
+
+        GraphViewData[] drawn = column.drawSlice(0, rows, 100);
+        assertTrue(drawn.length <= 3 * 100 + 2);
+        assertEquals(0.0, drawn[0].valueX, DELTA);
+        assertEquals(rows - 1.0, drawn[drawn.length - 1].valueX, DELTA);
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < drawn.length; i++) {
+            min = Math.min(min, drawn[i].valueY);
+            max = Math.max(max, drawn[i].valueY);
+            if (i > 0) {
+                assertTrue(drawn[i].valueX > drawn[i - 1].valueX);
+            }
+        }
+        // the peaks are kept
+        assertEquals(-1000.0, min, DELTA);
+        assertEquals(1000.0, max, DELTA);
+    }
+
+    @Test
+    public void extrema_are_indexed_incrementally_per_column() {
+        GraphViewSeriesGroup group = createGroup();
+        BaseSeries column = group.getSeries(1);
+        assertEquals(7.0, column.getMaxY(0, 5), DELTA);
+        for (int i = 0; i < 200; i++) {
+            group.appendData(6 + i, new double[] {0, i == 150 ? 99 : 1}, false);
+        }
+        assertEquals(99.0, column.getMaxY(0, column.size()), DELTA);
+        assertEquals(7.0, column.getMaxY(0, 150), DELTA);
+        assertEquals(-3.0, column.getMinY(0, column.size()), DELTA);
+
+        group.resetData(new double[] {1, 2}, new double[][] {{1, 2}, {3, 4}});
+        assertEquals(4.0, column.getMaxY(0, 2), DELTA);
+    }
+}
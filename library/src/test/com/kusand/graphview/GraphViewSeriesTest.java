@@ -0,0 +1,300 @@
+package com.kusand.graphview;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class GraphViewSeriesTest {
+
+    private static GraphViewSeries createSeries() {
+        return new GraphViewSeries(new GraphViewData[] {
+                new GraphViewData(1, 10), new GraphViewData(2, 20), new GraphViewData(4, 40),
+                new GraphViewData(8, 80)
+        });
+    }
+
+    @Test
+    public void nearest_index_of_empty_series() {
+        assertEquals(-1, new GraphViewSeries(new GraphViewData[0]).nearestIndex(1));
+    }
+
+    @Test
+    public void nearest_index_picks_the_closer_neighbour() {
+        GraphViewSeries series = createSeries();
+        assertEquals(1, series.nearestIndex(2.9));
+        assertEquals(2, series.nearestIndex(3.1));
+        assertEquals(2, series.nearestIndex(4));
+        assertEquals(3, series.nearestIndex(6.5));
+    }
+
+    @Test
+    public void nearest_index_outside_of_the_data() {
+        GraphViewSeries series = createSeries();
+        assertEquals(0, series.nearestIndex(-100));
+        assertEquals(3, series.nearestIndex(100));
+    }
+
+    @Test
+    public void nearest_index_of_group_column() {
+        GraphViewSeriesGroup group = new GraphViewSeriesGroup(
+                new double[] {1, 2, 4, 8},
+                new double[][] {{10, 20, 40, 80}});
+        BaseSeries column = group.getSeries(0);
+        int index = column.nearestIndex(3.1);
+        assertEquals(2, index);
+        assertEquals(40.0, column.get(index).valueY, 0.000001);
+    }
+
+    private static GraphViewData[] data(double... xy) {
+        GraphViewData[] values = new GraphViewData[xy.length / 2];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new GraphViewData(xy[i * 2], xy[i * 2 + 1]);
+        }
+        return values;
+    }
+
+    private static void assertSortedX(GraphViewSeries series, double... expected) {
+        assertEquals(expected.length, series.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], series.getX(i), 0.000001);
+        }
+    }
+
+    @Test
+    public void appended_values_are_kept_in_order() {
+        GraphViewSeries series = new GraphViewSeries(new GraphViewData[0]);
+        for (int i = 0; i < 100; i++) {
+            series.appendData(new GraphViewData(i, i % 7), false);
+        }
+        assertEquals(100, series.size());
+        assertEquals(99.0, series.getLastX(), 0.000001);
+        assertEquals(100, series.slice(0, series.size()).length);
+        assertEquals(6.0, series.getMaxY(0, series.size()), 0.000001);
+        series.mergeData(new GraphViewData[] {new GraphViewData(50.5, 20)}, false);
+        assertEquals(101, series.size());
+        assertEquals(50.5, series.getX(51), 0.000001);
+        series.resetData(new GraphViewData[] {new GraphViewData(1, 1)});
+        series.appendData(new GraphViewData(2, 2), false);
+        assertEquals(2, series.size());
+        assertEquals(2.0, series.getMaxY(0, 2), 0.000001);
+    }
+
+    @Test
+    public void series_derived_from_a_derived_series_follow_appends() {
+        GraphViewSeries series = new GraphViewSeries(new GraphViewData[0]);
+        RollingAggregateSeries mean = new RollingAggregateSeries(series, RollingAggregateSeries.Aggregate.MEAN, 2);
+        RollingAggregateSeries maxOfMean = new RollingAggregateSeries(mean, RollingAggregateSeries.Aggregate.MAX, 3);
+        double[] values = {4, 8, 0, 2, 2, 10, 0};
+        for (int i = 0; i < values.length; i++) {
+            series.appendData(new GraphViewData(i, values[i]), false);
+        }
+        assertEquals(values.length, maxOfMean.size());
+        RollingAggregateSeries fresh = new RollingAggregateSeries(mean, RollingAggregateSeries.Aggregate.MAX, 3);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(fresh.getY(i), maxOfMean.getY(i), 0.000001);
+        }
+        assertEquals(6.0, maxOfMean.getY(6), 0.000001);
+    }
+
+    @Test
+    public void merge_sorted_batch_into_the_middle() {
+        GraphViewSeries series = createSeries();
+        series.mergeData(data(0, 0, 3, 30, 5, 50, 9, 90), false);
+        assertSortedX(series, 0, 1, 2, 3, 4, 5, 8, 9);
+    }
+
+    @Test
+    public void merge_places_equal_x_after_existing_values() {
+        GraphViewSeries series = createSeries();
+        series.mergeData(data(2, 21), false);
+        assertSortedX(series, 1, 2, 2, 4, 8);
+        assertEquals(20.0, series.get(1).valueY, 0.000001);
+        assertEquals(21.0, series.get(2).valueY, 0.000001);
+    }
+
+    @Test
+    public void extrema_stay_valid_after_merge() {
+        GraphViewData[] values = new GraphViewData[500];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new GraphViewData(i * 2, Math.sin(i));
+        }
+        GraphViewSeries series = new GraphViewSeries(values);
+        // index all values, then insert a new extreme value in the middle
+        series.getMaxY(0, series.size());
+        series.mergeData(data(301, 5, 303, -5), false);
+
+        assertEquals(5.0, series.getMaxY(0, series.size()), 0.000001);
+        assertEquals(-5.0, series.getMinY(0, series.size()), 0.000001);
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < 100; i++) {
+            max = Math.max(max, series.get(i).valueY);
+        }
+        assertEquals(max, series.getMaxY(0, 100), 0.000001);
+    }
+
+    @Test
+    public void late_values_within_the_window_are_reordered() {
+        GraphViewSeries series = new GraphViewSeries(new GraphViewData[0]);
+        series.setMaxLateness(2);
+        series.appendData(new GraphViewData(1, 1), false);
+        series.appendData(new GraphViewData(3, 3), false);
+        series.appendData(new GraphViewData(2, 2), false);
+        series.appendData(new GraphViewData(5, 5), false);
+        series.appendData(new GraphViewData(4, 4), false);
+        // 1, 2 and 3 are older than the window of the newest value 5
+        assertSortedX(series, 1, 2, 3);
+        assertEquals(2, series.getPendingCount());
+
+        series.flushReorderBuffer(false);
+        assertSortedX(series, 1, 2, 3, 4, 5);
+        assertEquals(0, series.getPendingCount());
+    }
+
+    @Test
+    public void values_later_than_the_window_are_merged_at_their_position() {
+        GraphViewSeries series = new GraphViewSeries(new GraphViewData[0]);
+        series.setMaxLateness(1);
+        for (int x = 0; x < 10; x++) {
+            series.appendData(new GraphViewData(x, x), false);
+        }
+        series.appendData(new GraphViewData(2.5, 0), false);
+        series.setMaxLateness(0);
+        assertSortedX(series, 0, 1, 2, 2.5, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    public void extrema_skip_gaps() {
+        GraphViewData[] values = new GraphViewData[200];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 3 == 0 ? GraphViewData.gap(i) : new GraphViewData(i, i);
+        }
+        GraphViewSeries series = new GraphViewSeries(values);
+        assertEquals(1.0, series.getMinY(0, 200), 0.000001);
+        assertEquals(199.0, series.getMaxY(0, 200), 0.000001);
+        assertEquals(64.0, series.getMinY(63, 128), 0.000001);
+    }
+
+    @Test
+    public void extrema_of_gaps_only_are_empty() {
+        GraphViewData[] values = new GraphViewData[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = GraphViewData.gap(i);
+        }
+        GraphViewSeries series = new GraphViewSeries(values);
+        assertEquals(Double.POSITIVE_INFINITY, series.getMinY(0, 100));
+        assertEquals(Double.NEGATIVE_INFINITY, series.getMaxY(0, 100));
+    }
+
+    @Test
+    public void nearest_index_skips_gaps() {
+        GraphViewSeries series = new GraphViewSeries(new GraphViewData[] {
+                new GraphViewData(1, 10), GraphViewData.gap(2), GraphViewData.gap(3), new GraphViewData(6, 60)
+        });
+        assertEquals(0, series.nearestIndex(2.1));
+        assertEquals(3, series.nearestIndex(3.6));
+        assertEquals(-1, new GraphViewSeries(new GraphViewData[] {GraphViewData.gap(1)}).nearestIndex(1));
+    }
+
+    @Test
+    public void extrema_of_random_ranges_match_a_scan() {
+        Random random = new Random(11);
+        GraphViewSeries series = new GraphViewSeries(new GraphViewData[0]);
+        for (int i = 0; i < 5000; i++) {
+            series.appendData(new GraphViewData(i, random.nextGaussian()), false);
+        }
+        for (int q = 0; q < 200; q++) {
+            int from = random.nextInt(5000);
+            int to = from + random.nextInt(5000 - from) + 1;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, series.values[i].valueY);
+                max = Math.max(max, series.values[i].valueY);
+            }
+            assertEquals(min, series.getMinY(from, to), 0);
+            assertEquals(max, series.getMaxY(from, to), 0);
+        }
+    }
+
+    @Test
+    public void stats_of_the_range() {
+        GraphViewSeries series = createSeries();
+        SeriesStats stats = series.getStats(2, 8);
+        assertEquals(3, stats.count);
+        assertEquals(140.0, stats.sum, 0.000001);
+        assertEquals(140.0 / 3, stats.mean, 0.000001);
+        double mean = 140.0 / 3;
+        double variance = ((20 - mean) * (20 - mean) + (40 - mean) * (40 - mean) + (80 - mean) * (80 - mean)) / 3;
+        assertEquals(Math.sqrt(variance), stats.stdDev, 0.000001);
+        assertEquals(20.0, stats.min, 0);
+        assertEquals(80.0, stats.max, 0);
+
+        assertEquals(0, series.getStats(5, 7).count);
+        assertTrue(Double.isNaN(series.getStats(5, 7).mean));
+    }
+
+    @Test
+    public void stats_follow_appends_merges_and_resets() {
+        GraphViewSeries series = createSeries();
+        assertEquals(4, series.getStats(0, 100).count);
+        series.appendData(new GraphViewData(9, 90), false);
+        assertEquals(240.0, series.getStats(0, 100).sum, 0.000001);
+        series.mergeData(new GraphViewData[] {new GraphViewData(3, 30)}, false);
+        assertEquals(270.0, series.getStats(0, 100).sum, 0.000001);
+        assertEquals(35.0, series.getStats(3, 4).mean, 0.000001);
+        series.resetData(new GraphViewData[] {new GraphViewData(1, 5)});
+        assertEquals(5.0, series.getStats(0, 100).sum, 0.000001);
+    }
+
+    @Test
+    public void stats_skip_gaps() {
+        GraphViewSeries series = new GraphViewSeries(new GraphViewData[] {
+                new GraphViewData(1, 10), GraphViewData.gap(2), new GraphViewData(3, 30)
+        });
+        SeriesStats stats = series.getStats(0, 10);
+        assertEquals(2, stats.count);
+        assertEquals(20.0, stats.mean, 0.000001);
+        assertEquals(10.0, stats.stdDev, 0.000001);
+        assertEquals(0, series.getStats(2, 2).count);
+    }
+
+    @Test
+    public void stddev_of_a_large_offset_does_not_cancel_out() {
+        Random random = new Random(5);
+        GraphViewSeries series = new GraphViewSeries(new GraphViewData[0]);
+        double[] y = new double[100000];
+        for (int i = 0; i < y.length; i++) {
+            y[i] = 1e9 + random.nextGaussian() * 0.01;
+            series.appendData(new GraphViewData(i, y[i]), false);
+        }
+        // two-pass reference of a range in the middle, summed up without the offset
+        int from = 25000;
+        int to = 75000;
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += y[i] - 1e9;
+        }
+        double mean = 1e9 + sum / (to - from);
+        double squares = 0;
+        for (int i = from; i < to; i++) {
+            squares += (y[i] - mean) * (y[i] - mean);
+        }
+        SeriesStats stats = series.getStats(from, to - 1);
+        assertEquals(to - from, stats.count);
+        assertEquals(mean, stats.mean, 1e-6);
+        assertEquals(Math.sqrt(squares / (to - from)), stats.stdDev, 1e-6);
+    }
+
+    @Test
+    public void stats_of_group_columns() {
+        GraphViewSeriesGroup group = new GraphViewSeriesGroup(new double[] {1, 2, 3}, new double[][] {{1, 2, 3}, {10, 20, 30}});
+        assertEquals(20.0, group.getSeries(1).getStats(0, 10).mean, 0.000001);
+        group.appendData(4, new double[] {4, 40}, false);
+        assertEquals(25.0, group.getSeries(1).getStats(0, 10).mean, 0.000001);
+    }
+}
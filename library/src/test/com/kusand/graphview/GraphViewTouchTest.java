@@ -0,0 +1,114 @@
+package com.kusand.graphview;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.GraphView.RenderQuality;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class GraphViewTouchTest {
+
+    private static boolean touch(View view, int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(0, 0, action, x, y, 0);
+        try {
+            return view.onTouchEvent(event);
+        } finally {
+            event.recycle();
+        }
+    }
+
+    @Test
+    public void click_listeners_get_the_taps_of_a_graph_with_tap_handling() {
+        LineGraphView graph = new LineGraphView(Robolectric.application);
+        graph.getAnnotationLayer().setOnAnnotationClickListener(new AnnotationLayer.OnAnnotationClickListener() {
+            @Override
+            public void onAnnotationClick(Annotation annotation) {
+            }
+        });
+        final int[] clicks = new int[1];
+        graph.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                clicks[0]++;
+            }
+        });
+
+        assertTrue(touch(graph, MotionEvent.ACTION_DOWN, 10, 10));
+        assertTrue(touch(graph, MotionEvent.ACTION_UP, 10, 10));
+        // the posted click of View runs immediately under Robolectric, so only check that it arrived
+        assertTrue(clicks[0] > 0);
+    }
+
+    private static LineGraphView scrollableGraph() {
+        LineGraphView graph = new LineGraphView(Robolectric.application);
+        GraphViewData[] values = new GraphViewData[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new GraphViewData(i, i % 7);
+        }
+        graph.addSeries(new GraphViewSeries(values));
+        graph.setScrollable(true);
+        graph.setViewPort(10, 20);
+        graph.setFrameBudget(16);
+        return graph;
+    }
+
+    @Test
+    public void a_touch_aborts_a_running_animation() {
+        LineGraphView graph = scrollableGraph();
+        graph.animateViewPort(50, 10, 300);
+        assertTrue(graph.animator.isRunning());
+
+        touch(graph, MotionEvent.ACTION_DOWN, 10, 10);
+        assertFalse(graph.animator.isRunning());
+    }
+
+    @Test
+    public void a_slow_frame_during_a_gesture_switches_to_fast_until_the_finger_is_lifted() {
+        LineGraphView graph = scrollableGraph();
+        touch(graph, MotionEvent.ACTION_DOWN, 10, 10);
+
+        // within the budget
+        graph.updateRenderQuality(10 * 1000000L, false);
+        assertEquals(RenderQuality.FULL, graph.getRenderQuality());
+        graph.updateRenderQuality(20 * 1000000L, false);
+        assertEquals(RenderQuality.FAST, graph.getRenderQuality());
+        // a fast frame doesn't switch back during the gesture
+        graph.updateRenderQuality(1000000L, false);
+        assertEquals(RenderQuality.FAST, graph.getRenderQuality());
+
+        touch(graph, MotionEvent.ACTION_UP, 10, 10);
+        assertEquals(RenderQuality.FULL, graph.getRenderQuality());
+    }
+
+    @Test
+    public void a_slow_frame_of_an_animation_switches_to_fast_until_the_animation_ends() {
+        LineGraphView graph = scrollableGraph();
+        graph.updateRenderQuality(20 * 1000000L, true);
+        assertEquals(RenderQuality.FAST, graph.getRenderQuality());
+
+        graph.updateRenderQuality(1000000L, false);
+        assertEquals(RenderQuality.FULL, graph.getRenderQuality());
+    }
+
+    @Test
+    public void slow_frames_of_an_idle_graph_keep_the_full_quality() {
+        LineGraphView graph = scrollableGraph();
+        graph.updateRenderQuality(100 * 1000000L, false);
+        assertEquals(RenderQuality.FULL, graph.getRenderQuality());
+
+        graph.setFrameBudget(0);
+        touch(graph, MotionEvent.ACTION_DOWN, 10, 10);
+        graph.updateRenderQuality(100 * 1000000L, false);
+        assertEquals(RenderQuality.FULL, graph.getRenderQuality());
+    }
+}
@@ -0,0 +1,177 @@
+package com.kusand.graphview;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowBitmap;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = GridSeriesTest.ShadowMutableBitmap.class)
+public class GridSeriesTest {
+
+    /**
+     * created bitmaps are mutable like on a device, so the tiles can be filled
+     */
+    @Implements(Bitmap.class)
+    public static class ShadowMutableBitmap extends ShadowBitmap {
+        @Implementation
+        public static Bitmap createBitmap(int width, int height, Bitmap.Config config) {
+            Bitmap bitmap = ShadowBitmap.createBitmap(width, height, config);
+            Robolectric.shadowOf(bitmap).setMutable(true);
+            return bitmap;
+        }
+    }
+
+    /**
+     * counts the colored cells
+     */
+    private static class CountingColorMap extends ColorMap {
+        int colored;
+
+        CountingColorMap() {
+            super(new int[] {0xff000000, 0xffffffff}, 0, 1);
+        }
+
+        @Override
+        public int getColor(double value) {
+            colored++;
+            return super.getColor(value);
+        }
+    }
+
+    private static GridSeries createGrid(int columns) {
+        GridSeries grid = new GridSeries(null, 100, 2, 3, 0, 30, ColorMap.grayscale(0, 1));
+        for (int c = 0; c < columns; c++) {
+            grid.appendColumn(new float[] {c, -c, c % 2 == 0 ? Float.NaN : c}, false);
+        }
+        return grid;
+    }
+
+    @Test
+    public void columns_are_placed_on_the_grid() {
+        GridSeries grid = createGrid(5);
+        assertEquals(5, grid.size());
+        assertEquals(100.0, grid.getX(0), 0.000001);
+        assertEquals(108.0, grid.getX(4), 0.000001);
+        // the autoscale covers all rows
+        assertEquals(0.0, grid.getMinY(0, grid.size()), 0.000001);
+        assertEquals(30.0, grid.getMaxY(0, grid.size()), 0.000001);
+    }
+
+    @Test
+    public void levels_merge_columns_with_their_maximum() {
+        GridSeries grid = createGrid(5);
+        assertEquals(5, grid.getLevelColumnCount(0));
+        assertEquals(3, grid.getLevelColumnCount(1));
+        assertEquals(2, grid.getLevelColumnCount(2));
+
+        float[] out = new float[3];
+        grid.getLevelColumn(1, 1, 0, 3, out);
+        assertEquals(3f, out[0]);
+        assertEquals(-2f, out[1]);
+        assertEquals(3f, out[2]);
+
+        // the last level column is incomplete, a column of NaN stays NaN
+        grid.getLevelColumn(1, 2, 2, 1, out);
+        assertTrue(Float.isNaN(out[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void columns_need_one_value_per_row() {
+        createGrid(0).appendColumn(new float[2], false);
+    }
+
+    @Test
+    public void appended_columns_are_filled_into_the_cached_tile() {
+        CountingColorMap colorMap = new CountingColorMap();
+        GridSeries grid = new GridSeries(null, 0, 1, 3, 0, 30, colorMap);
+        for (int c = 0; c < 10; c++) {
+            grid.appendColumn(new float[] {c, c, c}, false);
+        }
+        Bitmap tile = grid.getTile(0, 0, 0);
+        assertEquals(10 * 3, colorMap.colored);
+
+        // a cached tile without new columns is not colored again
+        assertSame(tile, grid.getTile(0, 0, 0));
+        assertEquals(10 * 3, colorMap.colored);
+
+        grid.appendColumn(new float[] {1, 2, 3}, false);
+        assertSame(tile, grid.getTile(0, 0, 0));
+        assertEquals(11 * 3, colorMap.colored);
+    }
+
+    @Test
+    public void merged_levels_fill_the_last_incomplete_column_again() {
+        CountingColorMap colorMap = new CountingColorMap();
+        GridSeries grid = new GridSeries(null, 0, 1, 3, 0, 30, colorMap);
+        for (int c = 0; c < 5; c++) {
+            grid.appendColumn(new float[] {c, c, c}, false);
+        }
+        // 3 level columns, the last one only merges column 4
+        grid.getTile(1, 0, 0);
+        assertEquals(3 * 3, colorMap.colored);
+
+        grid.appendColumn(new float[] {9, 9, 9}, false);
+        grid.getTile(1, 0, 0);
+        assertEquals(4 * 3, colorMap.colored);
+    }
+
+    @Test
+    public void cleared_grids_start_again() {
+        GridSeries grid = createGrid(5);
+        Bitmap tile = grid.getTile(0, 0, 0);
+        grid.clear();
+        assertEquals(0, grid.size());
+        assertEquals(0, grid.getColumnCount());
+        // it may still be drawn in this frame
+        assertFalse(tile.isRecycled());
+
+        grid.appendColumn(new float[] {1, 2, 3}, false);
+        assertEquals(1, grid.size());
+        assertEquals(100.0, grid.getX(0), 0.000001);
+        assertNotSame(tile, grid.getTile(0, 0, 0));
+    }
+
+    @Test
+    public void tiles_evicted_within_a_frame_can_still_be_drawn() {
+        GridSeries grid = createGrid(GridSeries.TILE_SIZE + 1);
+        grid.setMaxTileCount(1);
+        Bitmap first = grid.getTile(0, 0, 0);
+        grid.getTile(0, 1, 0);
+        assertFalse(first.isRecycled());
+    }
+
+    @Test
+    public void a_new_color_map_builds_new_tiles() {
+        GridSeries grid = createGrid(5);
+        Bitmap tile = grid.getTile(0, 0, 0);
+        CountingColorMap colorMap = new CountingColorMap();
+        grid.setColorMap(colorMap);
+        assertFalse(tile.isRecycled());
+
+        assertNotSame(tile, grid.getTile(0, 0, 0));
+        assertEquals(5 * 3, colorMap.colored);
+    }
+
+    @Test
+    public void many_appended_columns_keep_their_positions() {
+        GridSeries grid = createGrid(1000);
+        assertEquals(1000, grid.size());
+        assertEquals(1000, grid.getColumnCount());
+        for (int c = 0; c < 1000; c++) {
+            assertEquals(100.0 + c * 2, grid.getX(c), 0.000001);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.kusand.graphview;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class IntervalTreeTest {
+
+    private static final IntervalTree.Bounds<double[]> BOUNDS = new IntervalTree.Bounds<double[]>() {
+        @Override
+        public double start(double[] item) {
+            return item[0];
+        }
+
+        @Override
+        public double end(double[] item) {
+            return item[1];
+        }
+    };
+
+    @Test
+    public void query_finds_the_overlapping_intervals() {
+        IntervalTree<double[]> tree = new IntervalTree<double[]>(BOUNDS);
+        double[] a = {0, 10};
+        double[] b = {5, 6};
+        double[] c = {20, 20};
+        double[] d = {8, 30};
+        tree.add(a);
+        tree.add(b);
+        tree.add(c);
+        tree.add(d);
+
+        List<double[]> out = new ArrayList<double[]>();
+        tree.query(7, 9, out);
+        assertEquals(2, out.size());
+        assertTrue(out.get(0) == a);
+        assertTrue(out.get(1) == d);
+
+        out.clear();
+        tree.query(20, 20, out);
+        assertEquals(2, out.size());
+        assertTrue(out.get(0) == d);
+        assertTrue(out.get(1) == c);
+
+        out.clear();
+        tree.query(31, 40, out);
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void query_matches_a_linear_scan() {
+        Random random = new Random(7);
+        IntervalTree<double[]> tree = new IntervalTree<double[]>(BOUNDS);
+        List<double[]> all = new ArrayList<double[]>();
+        for (int i = 0; i < 2000; i++) {
+            double start = random.nextDouble() * 1000;
+            double[] interval = {start, start + random.nextDouble() * (i % 10 == 0 ? 200 : 2)};
+            tree.add(interval);
+            all.add(interval);
+        }
+        for (int q = 0; q < 100; q++) {
+            double from = random.nextDouble() * 1000;
+            double to = from + random.nextDouble() * 20;
+            List<double[]> out = new ArrayList<double[]>();
+            tree.query(from, to, out);
+            int expected = 0;
+            for (double[] interval : all) {
+                if (interval[0] <= to && interval[1] >= from) {
+                    expected++;
+                    assertTrue(out.contains(interval));
+                }
+            }
+            assertEquals(expected, out.size());
+        }
+    }
+
+    @Test
+    public void removed_intervals_are_not_found() {
+        IntervalTree<double[]> tree = new IntervalTree<double[]>(BOUNDS);
+        double[] a = {0, 10};
+        double[] b = {2, 3};
+        tree.add(a);
+        tree.add(b);
+        List<double[]> out = new ArrayList<double[]>();
+        tree.query(2, 2, out);
+        assertEquals(2, out.size());
+
+        assertTrue(tree.remove(b));
+        assertFalse(tree.remove(b));
+        out.clear();
+        tree.query(2, 2, out);
+        assertEquals(1, out.size());
+        assertEquals(1, tree.size());
+    }
+}
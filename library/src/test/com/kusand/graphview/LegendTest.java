@@ -0,0 +1,79 @@
+package com.kusand.graphview;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import com.kusand.graphview.GraphView.LegendAlign;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class LegendTest {
+
+    @Test
+    public void few_series_fit_into_one_column() {
+        Legend legend = new Legend();
+        legend.layout(3, 120, LegendAlign.TOP, 500, 20, 400, 380, 460);
+        assertEquals(1, legend.getColumnCount());
+        assertEquals(3, legend.getVisibleRowCount());
+        assertFalse(legend.isScrollable());
+        assertEquals(270f, legend.left);
+        assertEquals(10f, legend.top);
+        assertEquals(10f + 3 * Legend.ROW_HEIGHT + 5, legend.bottom);
+    }
+
+    @Test
+    public void many_series_are_laid_out_in_columns() {
+        Legend legend = new Legend();
+        // 10 rows of 20 px and 3 columns of 120 px fit
+        legend.layout(25, 120, LegendAlign.MIDDLE, 500, 20, 400, 380, 205);
+        assertEquals(3, legend.getColumnCount());
+        assertEquals(9, legend.getVisibleRowCount());
+        assertFalse(legend.isScrollable());
+        // column major: the first entry of the second column
+        assertEquals(9, legend.seriesAt(legend.left + 125, legend.top + 6));
+        assertEquals(-1, legend.seriesAt(legend.left + 245, legend.top + 5 + 8 * Legend.ROW_HEIGHT + 1));
+    }
+
+    @Test
+    public void rows_that_do_not_fit_are_scrolled() {
+        Legend legend = new Legend();
+        legend.layout(50, 120, LegendAlign.TOP, 500, 20, 400, 250, 205);
+        assertEquals(2, legend.getColumnCount());
+        assertEquals(10, legend.getVisibleRowCount());
+        assertTrue(legend.isScrollable());
+        assertEquals(0, legend.seriesAt(legend.left + 10, legend.top + 6));
+
+        // drag up by three rows
+        legend.scrollBy(-3 * Legend.ROW_HEIGHT);
+        legend.layout(50, 120, LegendAlign.TOP, 500, 20, 400, 250, 205);
+        assertEquals(3, legend.getFirstRow());
+        assertEquals(3, legend.seriesAt(legend.left + 10, legend.top + 6));
+        assertEquals(28, legend.seriesAt(legend.left + 130, legend.top + 6));
+
+        // clamped to the last rows
+        legend.scrollBy(-1000);
+        legend.layout(50, 120, LegendAlign.TOP, 500, 20, 400, 250, 205);
+        assertEquals(15, legend.getFirstRow());
+    }
+
+    @Test
+    public void series_are_hidden_per_graph() {
+        GraphViewSeries series = new GraphViewSeries(new GraphView.GraphViewData[0]);
+        LineGraphView first = new LineGraphView(Robolectric.application);
+        LineGraphView second = new LineGraphView(Robolectric.application);
+        first.addSeries(series);
+        second.addSeries(series);
+        assertTrue(first.isSeriesVisible(series));
+
+        first.setSeriesVisible(series, false);
+        assertFalse(first.isSeriesVisible(series));
+        assertEquals(0, first.getVisibleSeriesCount());
+        assertTrue(second.isSeriesVisible(series));
+        assertEquals(1, second.getVisibleSeriesCount());
+    }
+}
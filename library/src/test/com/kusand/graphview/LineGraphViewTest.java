@@ -0,0 +1,76 @@
+package com.kusand.graphview;
+
+import java.util.Locale;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+
+import static junit.framework.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+public class LineGraphViewTest {
+
+    /**
+     * x of the left edge of the lines with the default border of 50
+     */
+    private static final float LEFT = 51;
+
+    private RecordingCanvas canvas;
+    private LineGraphView graph;
+
+    @Before
+    public void setUp() {
+        canvas = new RecordingCanvas();
+        graph = new LineGraphView(Robolectric.application);
+        graph.setDrawFilled(true);
+    }
+
+    private String drawArea(GraphViewData... values) {
+        graph.addSeries(new GraphViewSeries(values));
+        graph.setViewPort(1, 4);
+        graph.measure(View.MeasureSpec.makeMeasureSpec(400, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(240, View.MeasureSpec.EXACTLY));
+        graph.layout(0, 0, 400, 240);
+        graph.onDraw(canvas);
+        for (String command : canvas.getCommands()) {
+            if (command.startsWith(RecordingCanvas.PATH + " ")) {
+                return command;
+            }
+        }
+        return null;
+    }
+
+    private String point(String type, double x, double y) {
+        return String.format(Locale.US, " | %s %.1f %.1f", type, graph.toViewX(x) + 1, graph.toViewY(y));
+    }
+
+    private static String bottom(String type, float x) {
+        // the bottom of the graph area of a 240 pixel high graph with the default border of 20
+        return String.format(Locale.US, " | %s %.1f %.1f", type, x, 220f);
+    }
+
+    @Test
+    public void the_filled_area_reaches_to_the_left_edge() {
+        String area = drawArea(new GraphViewData(0, 1), new GraphViewData(1, 3), new GraphViewData(5, 2));
+        // the first value is left of the viewport, the area starts at the left edge of the graph
+        assertEquals(RecordingCanvas.PATH + " 5" + point("M", 0, 1) + point("L", 1, 3) + point("L", 5, 2)
+                + bottom("L", graph.toViewX(5) + 1) + bottom("L", LEFT), area);
+    }
+
+    @Test
+    public void areas_after_a_gap_start_below_their_first_value() {
+        String area = drawArea(new GraphViewData(0, 1), new GraphViewData(1, 3), GraphViewData.gap(2),
+                new GraphViewData(3, 2), new GraphViewData(5, 2));
+        assertEquals(RecordingCanvas.PATH + " 8"
+                + point("M", 0, 1) + point("L", 1, 3) + bottom("L", graph.toViewX(1) + 1) + bottom("L", LEFT)
+                + point("M", 3, 2) + point("L", 5, 2) + bottom("L", graph.toViewX(5) + 1) + bottom("L", graph.toViewX(3) + 1),
+                area);
+    }
+}
@@ -0,0 +1,229 @@
+package com.kusand.graphview;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class PagedSeriesTest {
+
+    /**
+     * runs the queued tasks when the test says so
+     */
+    private static class QueueExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    /**
+     * fails while the test says so
+     */
+    private static class FailingPageProvider extends InMemoryPageProvider {
+        boolean failing = true;
+        int fetches;
+
+        FailingPageProvider(Executor executor) {
+            super(data(1000), executor);
+        }
+
+        @Override
+        public void fetch(double xFrom, double xTo, double resolution, Callback callback) {
+            fetches++;
+            if (failing) {
+                callback.onPageFailed(new IOException("offline"));
+            } else {
+                super.fetch(xFrom, xTo, resolution, callback);
+            }
+        }
+    }
+
+    private static GraphViewData[] data(int count) {
+        GraphViewData[] values = new GraphViewData[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = new GraphViewData(i, i % 7);
+        }
+        return values;
+    }
+
+    private static PagedSeries series(QueueExecutor loader) {
+        // pages of 10 x values at the finest level
+        PagedSeries series = new PagedSeries(null, null, new InMemoryPageProvider(data(1000), loader), 10, 1);
+        series.setCallbackExecutor(DIRECT);
+        return series;
+    }
+
+    @Test
+    public void missing_pages_are_placeholders_until_they_arrive() {
+        QueueExecutor loader = new QueueExecutor();
+        PagedSeries series = series(loader);
+        series.setPrefetchPages(0);
+        assertTrue(series.onViewport(0, 19, 20));
+        assertEquals(2, loader.tasks.size());
+        assertEquals(2, series.size());
+        assertTrue(series.get(0).isGap());
+        assertEquals(1, series.getMissingRangeCount());
+        assertEquals(0.0, series.getMissingRanges()[0], 0.000001);
+        assertEquals(20.0, series.getMissingRanges()[1], 0.000001);
+
+        // nothing changed, nothing is requested again
+        assertFalse(series.onViewport(0, 19, 20));
+        assertEquals(2, loader.tasks.size());
+
+        loader.runAll();
+        assertTrue(series.onViewport(0, 19, 20));
+        assertEquals(20, series.size());
+        assertEquals(0, series.getMissingRangeCount());
+        assertEquals(13.0, series.getX(13), 0.000001);
+    }
+
+    @Test
+    public void zoomed_out_pages_have_a_coarser_resolution() {
+        QueueExecutor loader = new QueueExecutor();
+        PagedSeries series = series(loader);
+        series.setPrefetchPages(0);
+        // 8 x values per pixel
+        series.onViewport(0, 799, 100);
+        assertEquals(3, series.levelFor(8));
+        assertEquals(10, loader.tasks.size());
+        loader.runAll();
+        series.onViewport(0, 799, 100);
+        // min and max of every resolution step
+        assertTrue(series.size() <= 2 * 100 + 2 * 10);
+        assertEquals(0, series.getMissingRangeCount());
+    }
+
+    @Test
+    public void pages_in_the_scroll_direction_are_prefetched() {
+        QueueExecutor loader = new QueueExecutor();
+        PagedSeries series = series(loader);
+        series.setPrefetchPages(2);
+        series.onViewport(100, 119, 20);
+        loader.runAll();
+        int cached = series.getPageCount();
+
+        // scroll to the right
+        series.onViewport(105, 124, 20);
+        loader.runAll();
+        assertEquals(cached + 1, series.getPageCount());
+        series.onViewport(110, 129, 20);
+        assertEquals(0, loader.tasks.size());
+        assertEquals(0, series.getMissingRangeCount());
+
+        // scroll to the left, the pages before the first drawn pages were prefetched too
+        series.onViewport(80, 99, 20);
+        assertEquals(0, series.getMissingRangeCount());
+        assertEquals(2, loader.tasks.size());
+    }
+
+    @Test
+    public void the_page_cache_is_bounded() {
+        PagedSeries series = series(null);
+        series.setPrefetchPages(0);
+        series.setMaxPageCount(4);
+        for (int x = 0; x < 200; x += 10) {
+            series.onViewport(x, x + 9, 10);
+        }
+        assertEquals(4, series.getPageCount());
+
+        // the recently drawn pages are still cached
+        series.onViewport(190, 199, 10);
+        assertEquals(0, series.getMissingRangeCount());
+        assertEquals(0, series.getLoadingPageCount());
+    }
+
+    @Test
+    public void pages_of_an_invalidated_generation_are_dropped() {
+        QueueExecutor loader = new QueueExecutor();
+        PagedSeries series = series(loader);
+        series.setPrefetchPages(0);
+        series.onViewport(0, 9, 10);
+        series.invalidate();
+        loader.runAll();
+        assertEquals(0, series.getPageCount());
+
+        series.onViewport(0, 9, 10);
+        assertEquals(1, series.getMissingRangeCount());
+        loader.runAll();
+        assertEquals(1, series.getPageCount());
+    }
+
+    private static PagedSeries failingSeries(FailingPageProvider provider) {
+        PagedSeries series = new PagedSeries(null, null, provider, 10, 1);
+        series.setCallbackExecutor(DIRECT);
+        series.setPrefetchPages(0);
+        return series;
+    }
+
+    @Test
+    public void failed_pages_wait_for_the_retry_delay() {
+        FailingPageProvider provider = new FailingPageProvider(DIRECT);
+        PagedSeries series = failingSeries(provider);
+        series.onViewport(0, 9, 10);
+        series.onViewport(0, 9, 10);
+        series.onViewport(0, 9, 10);
+        assertEquals(1, provider.fetches);
+        assertEquals(0, series.getLoadingPageCount());
+        assertEquals(1, series.getMissingRangeCount());
+
+        // invalidate retries at once
+        provider.failing = false;
+        series.invalidate();
+        series.onViewport(0, 9, 10);
+        assertEquals(2, provider.fetches);
+        assertEquals(1, series.getPageCount());
+    }
+
+    @Test
+    public void failed_pages_are_requested_again_after_the_retry_delay() {
+        QueueExecutor loader = new QueueExecutor();
+        FailingPageProvider provider = new FailingPageProvider(loader);
+        PagedSeries series = failingSeries(provider);
+        series.setRetryDelay(0);
+        series.onViewport(0, 9, 10);
+        series.onViewport(0, 9, 10);
+        assertEquals(2, provider.fetches);
+
+        provider.failing = false;
+        series.onViewport(0, 9, 10);
+        loader.runAll();
+        assertTrue(series.onViewport(0, 9, 10));
+        assertEquals(3, provider.fetches);
+        assertEquals(0, series.getMissingRangeCount());
+        assertEquals(10, series.size());
+    }
+
+    @Test
+    public void the_retry_delay_doubles_with_every_failure() {
+        PagedSeries series = failingSeries(new FailingPageProvider(DIRECT));
+        series.setRetryDelay(1000);
+        assertEquals(1000, series.getRetryDelay(1));
+        assertEquals(2000, series.getRetryDelay(2));
+        assertEquals(4000, series.getRetryDelay(3));
+        assertEquals(60000, series.getRetryDelay(30));
+    }
+}
@@ -0,0 +1,91 @@
+package com.kusand.graphview;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+
+public class PointGridTest {
+
+    private static PointGrid grid(float[] points, int count) {
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            indexes[i] = i;
+        }
+        PointGrid grid = new PointGrid(32);
+        grid.build(points, indexes, count, 50, 20, 400, 300);
+        return grid;
+    }
+
+    private static float bruteForceDistance(float[] points, int count, float x, float y) {
+        float best = Float.POSITIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            best = Math.min(best, distance(points, i, x, y));
+        }
+        return best;
+    }
+
+    private static float distance(float[] points, int i, float x, float y) {
+        float dx = points[i * 2] - x;
+        float dy = points[i * 2 + 1] - y;
+        return dx * dx + dy * dy;
+    }
+
+    @Test
+    public void nearest_matches_a_linear_search() {
+        Random random = new Random(42);
+        int count = 2000;
+        float[] points = new float[count * 2];
+        for (int i = 0; i < count; i++) {
+            points[i * 2] = 50 + random.nextFloat() * 400;
+            points[i * 2 + 1] = 20 + random.nextFloat() * 300;
+        }
+        PointGrid grid = grid(points, count);
+        assertEquals(count, grid.size());
+        for (int q = 0; q < 500; q++) {
+            // also touches outside of the graph
+            float x = random.nextFloat() * 500;
+            float y = random.nextFloat() * 400;
+            int nearest = grid.nearest(x, y);
+            assertEquals(bruteForceDistance(points, count, x, y), distance(points, nearest, x, y), 0.0001f);
+        }
+    }
+
+    @Test
+    public void clustered_x_values_are_found_by_y() {
+        // all points on one vertical line, a search by x alone would compare all of them
+        int count = 1000;
+        float[] points = new float[count * 2];
+        for (int i = 0; i < count; i++) {
+            points[i * 2] = 200;
+            points[i * 2 + 1] = 20 + i * 0.3f;
+        }
+        PointGrid grid = grid(points, count);
+        assertEquals(500, grid.nearest(201, 20 + 500 * 0.3f));
+        assertEquals(0, grid.nearest(400, 0));
+        assertEquals(count - 1, grid.nearest(0, 1000));
+    }
+
+    @Test
+    public void far_away_points_are_found() {
+        float[] points = {440, 310};
+        PointGrid grid = grid(points, 1);
+        assertEquals(0, grid.nearest(51, 21));
+    }
+
+    @Test
+    public void empty_grid_has_no_nearest_point() {
+        PointGrid grid = grid(new float[0], 0);
+        assertEquals(-1, grid.nearest(100, 100));
+    }
+
+    @Test
+    public void rebuilt_grid_replaces_the_points() {
+        PointGrid grid = grid(new float[] {60, 30, 400, 300}, 2);
+        assertEquals(1, grid.nearest(390, 290));
+        grid.build(new float[] {400, 300}, new int[] {7}, 1, 50, 20, 400, 300);
+        assertEquals(1, grid.size());
+        assertEquals(7, grid.nearest(60, 30));
+    }
+}
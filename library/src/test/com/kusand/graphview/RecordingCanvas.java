@@ -0,0 +1,197 @@
+package com.kusand.graphview;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowPath;
+
+/**
+ * Canvas that records the draw commands instead of drawing them. Every command is one line of text with the
+ * coordinates rounded to 0.1 pixels, so the stream can be compared with a golden file. The paints are not recorded,
+ * they depend on the platform.
+ */
+class RecordingCanvas extends Canvas {
+    static final String LINE = "line";
+    static final String LINES = "lines";
+    static final String POINTS = "points";
+    static final String PATH = "path";
+    static final String TEXT = "text";
+    static final String RECT = "rect";
+    static final String ROUND_RECT = "roundRect";
+    static final String CIRCLE = "circle";
+    static final String BITMAP = "bitmap";
+    static final String PICTURE = "picture";
+    static final String CLIP = "clip";
+
+    private final List<String> commands = new ArrayList<String>();
+    private final Map<String, Integer> counts = new HashMap<String, Integer>();
+    private int drawCalls;
+
+    /**
+     * forgets the recorded commands, e.g. before the next frame
+     */
+    void reset() {
+        commands.clear();
+        counts.clear();
+        drawCalls = 0;
+    }
+
+    List<String> getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return the commands, one per line
+     */
+    String getStream() {
+        StringBuilder sb = new StringBuilder();
+        for (String command : commands) {
+            sb.append(command).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param kind one of the command constants
+     * @return number of recorded calls of the kind
+     */
+    int getCount(String kind) {
+        Integer count = counts.get(kind);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return number of recorded calls that draw, clips are not counted
+     */
+    int getDrawCalls() {
+        return drawCalls;
+    }
+
+    private void record(String kind, String args) {
+        commands.add(args.length() == 0 ? kind : kind + ' ' + args);
+        counts.put(kind, getCount(kind) + 1);
+        if (!CLIP.equals(kind)) {
+            drawCalls++;
+        }
+    }
+
+    private static String format(float... values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            // locale independent, and -0.0 is 0.0
+            sb.append(String.format(Locale.US, "%.1f", values[i] + 0f == 0f ? 0f : values[i]));
+        }
+        return sb.toString();
+    }
+
+    private static String formatPoints(float[] pts, int offset, int count, int perItem) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(count / perItem);
+        for (int i = offset; i + perItem <= offset + count; i += perItem) {
+            sb.append(" |");
+            for (int j = 0; j < perItem; j++) {
+                sb.append(' ').append(format(pts[i + j]));
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean clipRect(float left, float top, float right, float bottom) {
+        record(CLIP, format(left, top, right, bottom));
+        return true;
+    }
+
+    @Override
+    public boolean clipRect(RectF rect) {
+        return clipRect(rect.left, rect.top, rect.right, rect.bottom);
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        record(LINE, format(startX, startY, stopX, stopY));
+    }
+
+    @Override
+    public void drawLines(float[] pts, Paint paint) {
+        drawLines(pts, 0, pts.length, paint);
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint paint) {
+        record(LINES, formatPoints(pts, offset, count, 4));
+    }
+
+    @Override
+    public void drawPoints(float[] pts, Paint paint) {
+        drawPoints(pts, 0, pts.length, paint);
+    }
+
+    @Override
+    public void drawPoints(float[] pts, int offset, int count, Paint paint) {
+        record(POINTS, formatPoints(pts, offset, count, 2));
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        // the shadow of the path only keeps moveTo and lineTo
+        List<ShadowPath.Point> points = Robolectric.shadowOf(path).getPoints();
+        StringBuilder sb = new StringBuilder();
+        sb.append(points.size());
+        for (ShadowPath.Point point : points) {
+            sb.append(point.getType() == ShadowPath.Point.Type.MOVE_TO ? " | M " : " | L ");
+            sb.append(format(point.getX(), point.getY()));
+        }
+        record(PATH, sb.toString());
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        record(TEXT, '"' + text + "\" " + format(x, y));
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        record(RECT, format(left, top, right, bottom));
+    }
+
+    @Override
+    public void drawRect(RectF rect, Paint paint) {
+        drawRect(rect.left, rect.top, rect.right, rect.bottom, paint);
+    }
+
+    @Override
+    public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+        record(ROUND_RECT, format(rect.left, rect.top, rect.right, rect.bottom, rx, ry));
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        record(CIRCLE, format(cx, cy, radius));
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+        record(BITMAP, format(dst.left, dst.top, dst.right, dst.bottom));
+    }
+
+    @Override
+    public void drawPicture(Picture picture) {
+        record(PICTURE, "");
+    }
+}
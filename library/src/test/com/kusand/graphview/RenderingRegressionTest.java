@@ -0,0 +1,238 @@
+package com.kusand.graphview;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.GraphViewSeries.GraphViewStyle;
+import com.kusand.graphview.axis.AxisTransform;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Draws the graphs into a {@link RecordingCanvas} and compares the draw commands with the golden files in
+ * src/test/golden. A missing golden file fails the test, run with -Dgolden.update=true to record them after an
+ * intended change of the rendering.
+ *
+ * The draw calls of a frame are bounded independently of the size of the data.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RenderingRegressionTest {
+
+    private static final File GOLDEN_DIR = new File("src/test/golden");
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 240;
+    /**
+     * grid lines, labels, title and legend of a frame
+     */
+    private static final int MAX_STATIC_DRAW_CALLS = 48;
+
+    private RecordingCanvas canvas;
+
+    @Before
+    public void setUp() {
+        canvas = new RecordingCanvas();
+    }
+
+    private static GraphViewSeries series(String description, int color, int count, int period) {
+        GraphViewData[] values = new GraphViewData[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = new GraphViewData(i, i % period);
+        }
+        return new GraphViewSeries(description, new GraphViewStyle(color, 3), values);
+    }
+
+    private void draw(GraphView graph) {
+        graph.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        graph.layout(0, 0, WIDTH, HEIGHT);
+        canvas.reset();
+        graph.onDraw(canvas);
+    }
+
+    private static String read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            return new String(bytes, 0, read, "UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * compares the recorded stream with the golden file, records it instead if golden.update is set
+     */
+    private void assertMatchesGolden(String name) throws IOException {
+        File golden = new File(GOLDEN_DIR, name + ".txt");
+        String actual = canvas.getStream();
+        if (Boolean.getBoolean("golden.update")) {
+            write(golden, actual);
+            return;
+        }
+        assertTrue("missing golden file " + golden.getPath() + ", run with -Dgolden.update=true", golden.exists());
+        assertEquals("draw commands of " + name + " differ from " + golden.getPath(), read(golden), actual);
+    }
+
+    private LineGraphView lineGraph() {
+        LineGraphView graph = new LineGraphView(Robolectric.application);
+        graph.setTitle("line");
+        return graph;
+    }
+
+    private BarGraphView barGraph() {
+        BarGraphView graph = new BarGraphView(Robolectric.application);
+        graph.setTitle("bars");
+        graph.setBarMode(BarGraphView.BarMode.GROUPED);
+        return graph;
+    }
+
+    @Test
+    public void line_graph_matches_golden() throws IOException {
+        LineGraphView graph = lineGraph();
+        graph.addSeries(series("a", Color.BLUE, 20, 5));
+        graph.addSeries(series("b", Color.RED, 20, 7));
+        graph.setShowLegend(true);
+        draw(graph);
+        assertMatchesGolden("line_graph");
+    }
+
+    @Test
+    public void bar_graph_matches_golden() throws IOException {
+        BarGraphView graph = barGraph();
+        graph.addSeries(series("a", Color.BLUE, 8, 3));
+        graph.addSeries(series("b", Color.RED, 8, 4));
+        draw(graph);
+        assertMatchesGolden("bar_graph");
+    }
+
+    @Test
+    public void graph_view_without_drawn_series_matches_golden() throws IOException {
+        GraphView graph = new GraphView(Robolectric.application) {
+            @Override
+            public void drawSeries(Canvas canvas, GraphViewData[] values, float graphwidth, float graphheight, float border, double minX, double minY, double diffX, double diffY, float horstart) {
+            }
+        };
+        graph.setTitle("axes");
+        graph.addSeries(series("a", Color.BLUE, 10, 10));
+        draw(graph);
+        assertEquals(0, canvas.getCount(RecordingCanvas.LINES));
+        assertMatchesGolden("graph_view");
+    }
+
+    @Test
+    public void frames_of_an_unchanged_graph_are_identical() {
+        LineGraphView graph = lineGraph();
+        graph.addSeries(series("a", Color.BLUE, 50, 5));
+        draw(graph);
+        String first = canvas.getStream();
+        draw(graph);
+        assertEquals(first, canvas.getStream());
+    }
+
+    @Test
+    public void line_graph_draw_calls_do_not_grow_with_the_data() {
+        LineGraphView small = lineGraph();
+        small.addSeries(series("a", Color.BLUE, 100, 5));
+        draw(small);
+        int smallCalls = canvas.getDrawCalls();
+
+        LineGraphView large = lineGraph();
+        large.addSeries(series("a", Color.BLUE, 100000, 5));
+        draw(large);
+        // one batch of lines per series
+        assertEquals(1, canvas.getCount(RecordingCanvas.LINES));
+        assertTrue(canvas.getDrawCalls() <= MAX_STATIC_DRAW_CALLS + 1);
+        assertTrue(smallCalls <= MAX_STATIC_DRAW_CALLS + 1);
+    }
+
+    @Test
+    public void bar_graph_draw_calls_do_not_grow_with_the_data() {
+        BarGraphView graph = barGraph();
+        for (int s = 0; s < 3; s++) {
+            graph.addSeries(series("s" + s, Color.BLUE, 50000, 10 + s));
+        }
+        draw(graph);
+        // the bars of a series are merged into one batch of lines
+        assertEquals(3, canvas.getCount(RecordingCanvas.LINES));
+        assertEquals(0, canvas.getCount(RecordingCanvas.RECT));
+        assertTrue(canvas.getDrawCalls() <= MAX_STATIC_DRAW_CALLS + 3);
+    }
+
+    @Test
+    public void hidden_series_are_not_drawn() {
+        LineGraphView graph = lineGraph();
+        GraphViewSeries hidden = series("a", Color.BLUE, 100, 5);
+        graph.addSeries(hidden);
+        graph.addSeries(series("b", Color.RED, 100, 7));
+        draw(graph);
+        assertEquals(2, canvas.getCount(RecordingCanvas.LINES));
+
+        graph.setSeriesVisible(hidden, false);
+        draw(graph);
+        assertEquals(1, canvas.getCount(RecordingCanvas.LINES));
+    }
+
+    @Test
+    public void bars_on_a_log_axis_start_at_the_bottom_edge() {
+        BarGraphView graph = barGraph();
+        graph.setVerticalAxisTransform(AxisTransform.LOG10);
+        // 0 is outside of the domain of the log axis
+        graph.setManualYAxisBounds(1000, 0);
+        graph.addSeries(series("a", Color.BLUE, 10, 5));
+        draw(graph);
+        assertEquals(1, canvas.getCount(RecordingCanvas.LINES));
+        for (String command : canvas.getCommands()) {
+            assertFalse(command, command.contains("NaN"));
+        }
+    }
+
+    @Test
+    public void touches_are_mapped_like_the_drawn_frame_on_a_log_axis() {
+        LineGraphView graph = lineGraph();
+        graph.setVerticalAxisTransform(AxisTransform.LOG10);
+        graph.setManualYAxisBounds(1000, 0);
+        graph.addSeries(series("a", Color.BLUE, 10, 5));
+        draw(graph);
+        // the drawn frame shows one decade below the maximum
+        float bottom = graph.toViewY(100);
+        float top = graph.toViewY(1000);
+        assertTrue(bottom > top);
+        assertEquals(300, graph.toValueY(graph.toViewY(300)), 0.01);
+        assertEquals(100, graph.toValueY(bottom), 0.01);
+    }
+}
@@ -0,0 +1,70 @@
+package com.kusand.graphview;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import com.kusand.graphview.TileCache.Tile;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+public class TileCacheTest {
+
+    private static Tile tile() {
+        return new Tile(Bitmap.createBitmap(4, 4, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void the_least_recently_used_tile_is_evicted() {
+        TileCache cache = new TileCache(2);
+        Tile first = tile();
+        Tile second = tile();
+        Tile third = tile();
+        cache.put(1, first);
+        cache.put(2, second);
+        // the first tile was used last
+        assertSame(first, cache.get(1));
+        cache.put(3, third);
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(2));
+        // it may still be drawn in this frame
+        assertFalse(second.bitmap.isRecycled());
+        assertSame(first, cache.get(1));
+    }
+
+    @Test
+    public void a_smaller_maximum_evicts_the_oldest_tiles() {
+        TileCache cache = new TileCache(3);
+        Tile first = tile();
+        Tile second = tile();
+        Tile third = tile();
+        cache.put(1, first);
+        cache.put(2, second);
+        cache.put(3, third);
+        cache.setMaxTiles(1);
+
+        assertEquals(1, cache.size());
+        assertNull(cache.get(1));
+        assertNull(cache.get(2));
+        assertFalse(first.bitmap.isRecycled());
+        assertSame(third, cache.get(3));
+    }
+
+    @Test
+    public void cleared_tiles_are_dropped_without_recycling() {
+        TileCache cache = new TileCache(3);
+        Tile first = tile();
+        cache.put(1, first);
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(1));
+        assertFalse(first.bitmap.isRecycled());
+    }
+}
@@ -0,0 +1,94 @@
+package com.kusand.graphview;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class ViewportAnimatorTest {
+
+    private static final double TIME_CONSTANT = 325;
+
+    /**
+     * distance of a fling with the given velocity after the given time
+     */
+    private static double flingDistance(double velocity, double millis) {
+        return velocity * TIME_CONSTANT / 1000 * (1 - Math.exp(-millis / TIME_CONSTANT));
+    }
+
+    @Test
+    public void a_fling_decelerates_exponentially() {
+        ViewportAnimator animator = new ViewportAnimator();
+        animator.fling(100, 50, 20, 1000);
+
+        assertTrue(animator.computeFrame(1000 + 325));
+        // about 63% of the total distance after one time constant
+        assertEquals(100 + flingDistance(20, 325), animator.getStart(), 0.000001);
+        assertEquals(100 + 6.5 * (1 - Math.exp(-1)), animator.getStart(), 0.000001);
+        assertEquals(50.0, animator.getSize(), 0.000001);
+
+        assertTrue(animator.computeFrame(1000 + 1000));
+        assertEquals(100 + flingDistance(20, 1000), animator.getStart(), 0.000001);
+    }
+
+    @Test
+    public void a_fling_stops_after_six_time_constants() {
+        ViewportAnimator animator = new ViewportAnimator();
+        animator.fling(100, 50, -20, 0);
+
+        assertTrue(animator.computeFrame(6 * 325 - 1));
+        assertFalse(animator.computeFrame(6 * 325));
+        assertEquals(100 + flingDistance(-20, 6 * 325), animator.getStart(), 0.000001);
+        assertFalse(animator.isRunning());
+        assertFalse(animator.isFlinging());
+
+        // the viewport stays where the fling stopped
+        assertFalse(animator.computeFrame(10000));
+        assertEquals(100 + flingDistance(-20, 6 * 325), animator.getStart(), 0.000001);
+    }
+
+    @Test
+    public void a_late_frame_ends_the_fling_at_its_final_position() {
+        ViewportAnimator animator = new ViewportAnimator();
+        animator.fling(0, 10, 20, 0);
+
+        assertFalse(animator.computeFrame(60000));
+        assertEquals(flingDistance(20, 6 * 325), animator.getStart(), 0.000001);
+    }
+
+    @Test
+    public void a_zoom_interpolates_start_and_size_with_deceleration() {
+        ViewportAnimator animator = new ViewportAnimator();
+        animator.zoomTo(0, 100, 40, 20, 200, 500);
+        assertFalse(animator.isFlinging());
+
+        assertTrue(animator.computeFrame(500));
+        assertEquals(0.0, animator.getStart(), 0.000001);
+        assertEquals(100.0, animator.getSize(), 0.000001);
+
+        // half the time, 1 - (1 - 0.5)^2 of the way
+        assertTrue(animator.computeFrame(600));
+        assertEquals(30.0, animator.getStart(), 0.000001);
+        assertEquals(40.0, animator.getSize(), 0.000001);
+
+        assertFalse(animator.computeFrame(700));
+        assertEquals(40.0, animator.getStart(), 0.000001);
+        assertEquals(20.0, animator.getSize(), 0.000001);
+        assertFalse(animator.isRunning());
+    }
+
+    @Test
+    public void abort_stops_at_the_current_position() {
+        ViewportAnimator animator = new ViewportAnimator();
+        animator.fling(0, 10, 20, 0);
+        assertTrue(animator.computeFrame(325));
+        double start = animator.getStart();
+
+        animator.abort();
+        assertFalse(animator.isRunning());
+        assertFalse(animator.computeFrame(650));
+        assertEquals(start, animator.getStart(), 0.000001);
+        assertEquals(10.0, animator.getSize(), 0.000001);
+    }
+}
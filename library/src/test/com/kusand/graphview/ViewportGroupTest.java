@@ -0,0 +1,60 @@
+package com.kusand.graphview;
+
+import org.junit.Test;
+
+import com.kusand.graphview.axis.AxisTransform;
+import com.kusand.graphview.labels.DefaultLabelGenerator;
+import com.kusand.graphview.labels.LabelGenerator;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+
+public class ViewportGroupTest {
+
+    @Test
+    public void default_generators_with_the_same_configuration_share_the_labels() {
+        ViewportGroup group = new ViewportGroup();
+        String[] labels = group.getHorizontalLabels(new DefaultLabelGenerator(50), 400, 0, 100);
+        assertSame(labels, group.getHorizontalLabels(new DefaultLabelGenerator(50), 400, 0, 100));
+    }
+
+    @Test
+    public void other_configurations_generate_new_labels() {
+        ViewportGroup group = new ViewportGroup();
+        String[] labels = group.getHorizontalLabels(new DefaultLabelGenerator(50), 400, 0, 100);
+        String[] spaced = group.getHorizontalLabels(new DefaultLabelGenerator(100), 400, 0, 100);
+        assertNotSame(labels, spaced);
+        assertEquals(5, spaced.length);
+
+        DefaultLabelGenerator log = new DefaultLabelGenerator(100);
+        log.setTransform(AxisTransform.LOG10);
+        assertNotSame(spaced, group.getHorizontalLabels(log, 400, 1, 1000));
+        assertNotSame(spaced, group.getHorizontalLabels(new DefaultLabelGenerator(100), 300, 0, 100));
+    }
+
+    @Test
+    public void a_changed_generator_does_not_get_the_old_labels() {
+        ViewportGroup group = new ViewportGroup();
+        DefaultLabelGenerator generator = new DefaultLabelGenerator(50);
+        String[] labels = group.getHorizontalLabels(generator, 400, 0, 100);
+        generator.setSpacing(100);
+        String[] changed = group.getHorizontalLabels(generator, 400, 0, 100);
+        assertNotSame(labels, changed);
+        assertEquals(5, changed.length);
+    }
+
+    @Test
+    public void custom_generators_are_compared_by_identity() {
+        ViewportGroup group = new ViewportGroup();
+        LabelGenerator custom = new LabelGenerator() {
+            @Override
+            public String[] generateLabels(float rangeWidth, double min, double max) {
+                return new String[] {"a", "b"};
+            }
+        };
+        String[] labels = group.getHorizontalLabels(custom, 400, 0, 100);
+        assertSame(labels, group.getHorizontalLabels(custom, 400, 0, 100));
+        assertNotSame(labels, group.getHorizontalLabels(new DefaultLabelGenerator(50), 400, 0, 100));
+    }
+}
@@ -0,0 +1,139 @@
+package com.kusand.graphview;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.kusand.graphview.RollingAggregateSeries.Aggregate;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class WindowAggregatorTest {
+
+    private final static int WINDOW = 7;
+    private final static int VALUES = 500;
+    private final static double DELTA = 0.000001;
+
+    @Test
+    public void mean_matches_brute_force() {
+        assertMatchesBruteForce(Aggregate.MEAN, 0);
+    }
+
+    @Test
+    public void min_matches_brute_force() {
+        assertMatchesBruteForce(Aggregate.MIN, 0);
+    }
+
+    @Test
+    public void max_matches_brute_force() {
+        assertMatchesBruteForce(Aggregate.MAX, 0);
+    }
+
+    @Test
+    public void median_matches_brute_force() {
+        assertMatchesBruteForce(Aggregate.PERCENTILE, 50);
+    }
+
+    @Test
+    public void p90_matches_brute_force() {
+        assertMatchesBruteForce(Aggregate.PERCENTILE, 90);
+    }
+
+    @Test
+    public void replaced_last_values_match_brute_force() {
+        for (Aggregate aggregate : Aggregate.values()) {
+            Random random = new Random(42);
+            double[] values = new double[VALUES];
+            WindowAggregator aggregator = new WindowAggregator(aggregate, WINDOW, 50);
+            for (int i = 0; i < VALUES; i++) {
+                values[i] = random.nextInt(20) - 10;
+                aggregator.push(values[i]);
+                // a few updates of the newest value, like ticks of the current candle
+                for (int update = random.nextInt(3); update > 0; update--) {
+                    values[i] = random.nextInt(20) - 10;
+                    double expected = bruteForce(aggregate, 50, Arrays.copyOfRange(values, Math.max(0, i - WINDOW + 1), i + 1));
+                    assertEquals(aggregate + " value " + i, expected, aggregator.replaceLast(values[i]), DELTA);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void gaps_are_skipped_by_every_aggregate() {
+        double[] values = new double[20];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i * 7) % 11 - 5;
+        }
+        // a single gap, and a gap longer than the window
+        values[5] = Double.NaN;
+        for (int i = 10; i < 15; i++) values[i] = Double.NaN;
+        for (Aggregate aggregate : Aggregate.values()) {
+            WindowAggregator aggregator = new WindowAggregator(aggregate, 4, 50);
+            for (int i = 0; i < values.length; i++) {
+                double expected = bruteForce(aggregate, 50, Arrays.copyOfRange(values, Math.max(0, i - 3), i + 1));
+                assertEquals(aggregate + " value " + i, expected, aggregator.push(values[i]), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void a_window_of_gaps_has_no_aggregate() {
+        for (Aggregate aggregate : Aggregate.values()) {
+            WindowAggregator aggregator = new WindowAggregator(aggregate, 2, 50);
+            aggregator.push(1);
+            aggregator.push(Double.NaN);
+            assertEquals(aggregate.toString(), 1.0, aggregator.replaceLast(Double.NaN), DELTA);
+            assertTrue(aggregate.toString(), Double.isNaN(aggregator.push(Double.NaN)));
+            // the gap is the newest value, it can be replaced by a value
+            assertEquals(aggregate.toString(), 3.0, aggregator.replaceLast(3), DELTA);
+        }
+    }
+
+    @Test
+    public void partial_window_at_start() {
+        WindowAggregator aggregator = new WindowAggregator(Aggregate.MEAN, 4, 0);
+        assertEquals(2.0, aggregator.push(2), DELTA);
+        assertEquals(3.0, aggregator.push(4), DELTA);
+    }
+
+    private void assertMatchesBruteForce(Aggregate aggregate, double percentile) {
+        Random random = new Random(42);
+        double[] values = new double[VALUES];
+        WindowAggregator aggregator = new WindowAggregator(aggregate, WINDOW, percentile);
+        for (int i = 0; i < VALUES; i++) {
+            // few distinct values, so that duplicates are covered
+            values[i] = random.nextInt(20) - 10;
+            double expected = bruteForce(aggregate, percentile, Arrays.copyOfRange(values, Math.max(0, i - WINDOW + 1), i + 1));
+            assertEquals("value " + i, expected, aggregator.push(values[i]), DELTA);
+        }
+    }
+
+    private static double bruteForce(Aggregate aggregate, double percentile, double[] values) {
+        // gaps are skipped
+        double[] window = new double[values.length];
+        int size = 0;
+        for (double v : values) {
+            if (!Double.isNaN(v)) window[size++] = v;
+        }
+        if (size == 0) {
+            return Double.NaN;
+        }
+        window = Arrays.copyOf(window, size);
+        Arrays.sort(window);
+        switch (aggregate) {
+            case MEAN:
+                double sum = 0;
+                for (double v : window) sum += v;
+                return sum / window.length;
+            case MIN:
+                return window[0];
+            case MAX:
+                return window[window.length - 1];
+            default:
+                int rank = (int) Math.ceil(percentile / 100 * window.length);
+                return window[Math.max(0, rank - 1)];
+        }
+    }
+}
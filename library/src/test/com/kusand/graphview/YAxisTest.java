@@ -0,0 +1,126 @@
+package com.kusand.graphview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.labels.LabelGenerator;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class YAxisTest {
+
+    /**
+     * counts the scans of its extrema
+     */
+    private static class CountingSeries extends GraphViewSeries {
+        int scans;
+
+        CountingSeries(double... values) {
+            super(data(values));
+        }
+
+        @Override
+        double getMinY(int from, int to) {
+            scans++;
+            return super.getMinY(from, to);
+        }
+    }
+
+    private static class CountingLabelGenerator implements LabelGenerator {
+        int generated;
+
+        @Override
+        public String[] generateLabels(float rangeWidth, double min, double max) {
+            generated++;
+            return new String[] {String.valueOf(max), String.valueOf(min)};
+        }
+    }
+
+    private LineGraphView graph;
+
+    @Before
+    public void setUp() {
+        graph = new LineGraphView(Robolectric.application);
+    }
+
+    private static GraphViewData[] data(double... values) {
+        GraphViewData[] data = new GraphViewData[values.length];
+        for (int i = 0; i < values.length; i++) {
+            data[i] = new GraphViewData(i, values[i]);
+        }
+        return data;
+    }
+
+    private static YAxis axis(GraphView graph, LabelGenerator labels) {
+        YAxis axis = graph.addYAxis();
+        axis.setLabelGenerator(labels);
+        return axis;
+    }
+
+    @Test
+    public void a_data_change_does_not_rescan_or_relabel_the_other_axes() {
+        CountingLabelGenerator labelsA = new CountingLabelGenerator();
+        CountingLabelGenerator labelsB = new CountingLabelGenerator();
+        YAxis a = axis(graph, labelsA);
+        YAxis b = axis(graph, labelsB);
+        CountingSeries seriesA = new CountingSeries(1, 2, 3);
+        CountingSeries seriesB = new CountingSeries(10, 20, 30);
+        graph.addSeries(seriesA, a);
+        graph.addSeries(seriesB, b);
+        a.getLabels(200);
+        b.getLabels(200);
+        assertEquals(1, labelsA.generated);
+        assertEquals(1, labelsB.generated);
+        assertEquals(1, seriesB.scans);
+
+        seriesA.appendData(new GraphViewData(3, 10), false);
+        a.getLabels(200);
+        b.getLabels(200);
+        assertEquals(10.0, a.getMax());
+        assertEquals(2, labelsA.generated);
+        assertEquals(1, labelsB.generated);
+        assertEquals(2, seriesA.scans);
+        assertEquals(1, seriesB.scans);
+    }
+
+    @Test
+    public void padded_bounds_keep_the_labels_while_streaming_inside_the_band() {
+        graph.setAutoScaleYPadding(0.1);
+        CountingLabelGenerator labels = new CountingLabelGenerator();
+        YAxis axis = axis(graph, labels);
+        CountingSeries series = new CountingSeries(0, 100);
+        graph.addSeries(series, axis);
+        axis.getLabels(200);
+        assertEquals(-10.0, axis.getMin());
+        assertEquals(110.0, axis.getMax());
+
+        for (int i = 2; i < 50; i++) {
+            series.appendData(new GraphViewData(i, i), false);
+            axis.getLabels(200);
+        }
+        assertEquals(1, labels.generated);
+        assertEquals(-10.0, axis.getMin());
+
+        // leaving the band scales the axis again
+        series.appendData(new GraphViewData(50, 200), false);
+        axis.getLabels(200);
+        assertEquals(2, labels.generated);
+        assertTrue(axis.getMax() > 200);
+    }
+
+    @Test
+    public void an_axis_without_data_has_valid_bounds() {
+        YAxis axis = axis(graph, new CountingLabelGenerator());
+        assertTrue(axis.getMin() < axis.getMax());
+        CountingSeries hidden = new CountingSeries(5, 6);
+        graph.addSeries(hidden, axis);
+        graph.setSeriesVisible(hidden, false);
+        assertTrue(axis.getMin() < axis.getMax());
+    }
+}
@@ -0,0 +1,72 @@
+package com.kusand.graphview.axis;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class AxisTransformTest {
+
+    private static final double[] VALUES = {-1000, -3.5, -0.1, 0, 0.001, 0.5, 1, 42, 1e6};
+
+    private static void assertProjectMatchesApply(AxisTransform transform) {
+        double min = transform.apply(0.5);
+        double scale = -123.4;
+        float origin = 17;
+        float[] out = new float[VALUES.length];
+        transform.project(VALUES, VALUES.length, min, scale, origin, out);
+        for (int i = 0; i < VALUES.length; i++) {
+            float expected = (float) (origin + (transform.apply(VALUES[i]) - min) * scale);
+            if (Float.isNaN(expected)) {
+                assertTrue(Float.isNaN(out[i]));
+            } else {
+                assertEquals(expected, out[i], Math.abs(expected) * 1e-6f + 1e-3f);
+            }
+        }
+    }
+
+    @Test
+    public void project_matches_apply() {
+        assertProjectMatchesApply(AxisTransform.LINEAR);
+        assertProjectMatchesApply(AxisTransform.LOG10);
+        assertProjectMatchesApply(AxisTransform.symlog(1));
+    }
+
+    @Test
+    public void log10_of_non_positive_values_is_nan() {
+        assertTrue(Double.isNaN(AxisTransform.LOG10.apply(0)));
+        assertTrue(Double.isNaN(AxisTransform.LOG10.apply(-1)));
+        assertEquals(3.0, AxisTransform.LOG10.apply(1000), 0.000001);
+        assertEquals(1000.0, AxisTransform.LOG10.inverse(3), 0.000001);
+    }
+
+    @Test
+    public void symlog_inverse_round_trip() {
+        AxisTransform transform = AxisTransform.symlog(10);
+        for (double value : VALUES) {
+            assertEquals(value, transform.inverse(transform.apply(value)), Math.abs(value) * 1e-9 + 1e-9);
+        }
+        assertEquals(0.0, transform.apply(0), 0);
+        assertEquals(-transform.apply(5), transform.apply(-5), 0.000001);
+    }
+
+    @Test
+    public void built_in_transforms_are_restored_from_their_state() {
+        assertTrue(AxisTransform.restoreState(AxisTransform.LINEAR.saveState()) == AxisTransform.LINEAR);
+        assertTrue(AxisTransform.restoreState(AxisTransform.LOG10.saveState()) == AxisTransform.LOG10);
+        AxisTransform symlog = AxisTransform.restoreState(AxisTransform.symlog(10).saveState());
+        assertEquals(AxisTransform.symlog(10).apply(42), symlog.apply(42), 0);
+        AxisTransform custom = new AxisTransform() {
+            @Override
+            public double apply(double value) {
+                return value * 2;
+            }
+
+            @Override
+            public double inverse(double transformed) {
+                return transformed / 2;
+            }
+        };
+        assertTrue(AxisTransform.restoreState(custom.saveState()) == null);
+    }
+}
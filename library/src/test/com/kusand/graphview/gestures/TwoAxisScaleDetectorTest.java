@@ -0,0 +1,138 @@
+package com.kusand.graphview.gestures;
+
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.robolectric.Robolectric.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class TwoAxisScaleDetectorTest {
+
+    private final static float DELTA = 0.0001f;
+    private final static int SECOND_POINTER_DOWN = MotionEvent.ACTION_POINTER_DOWN | (1 << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+    private final static int SECOND_POINTER_UP = MotionEvent.ACTION_POINTER_UP | (1 << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+
+    private RecordingListener listener;
+    private ScaleGestureHandler detector;
+
+    @Before
+    public void setUp() {
+        listener = new RecordingListener();
+        detector = ScaleGestures.create(Robolectric.application, listener);
+    }
+
+    @Test
+    public void platform_with_multi_touch_gets_two_axis_detector() {
+        assertTrue(detector instanceof TwoAxisScaleDetector);
+    }
+
+    @Test
+    public void horizontal_spread_scales_only_x_around_focal_point() {
+        detector.onTouchEvent(event(MotionEvent.ACTION_DOWN, 100, 100));
+        detector.onTouchEvent(event(SECOND_POINTER_DOWN, 100, 100, 200, 100));
+        assertTrue(detector.isInProgress());
+        assertEquals(1, listener.begins);
+
+        detector.onTouchEvent(event(MotionEvent.ACTION_MOVE, 50, 100, 250, 100));
+        assertEquals(1, listener.scales);
+        assertEquals(2f, listener.scaleX, DELTA);
+        assertEquals(1f, listener.scaleY, DELTA);
+        assertEquals(150f, listener.focusX, DELTA);
+        assertEquals(100f, listener.focusY, DELTA);
+    }
+
+    @Test
+    public void vertical_pinch_scales_only_y() {
+        detector.onTouchEvent(event(MotionEvent.ACTION_DOWN, 100, 100));
+        detector.onTouchEvent(event(SECOND_POINTER_DOWN, 100, 100, 100, 300));
+        detector.onTouchEvent(event(MotionEvent.ACTION_MOVE, 100, 150, 100, 250));
+        assertEquals(1f, listener.scaleX, DELTA);
+        assertEquals(0.5f, listener.scaleY, DELTA);
+        assertEquals(200f, listener.focusY, DELTA);
+    }
+
+    @Test
+    public void diagonal_spread_scales_both_axes_and_factors_are_relative_to_last_event() {
+        detector.onTouchEvent(event(MotionEvent.ACTION_DOWN, 100, 100));
+        detector.onTouchEvent(event(SECOND_POINTER_DOWN, 100, 100, 200, 200));
+        detector.onTouchEvent(event(MotionEvent.ACTION_MOVE, 50, 50, 250, 250));
+        assertEquals(2f, listener.scaleX, DELTA);
+        assertEquals(2f, listener.scaleY, DELTA);
+
+        detector.onTouchEvent(event(MotionEvent.ACTION_MOVE, 50, 50, 450, 250));
+        assertEquals(2f, listener.scaleX, DELTA);
+        assertEquals(1f, listener.scaleY, DELTA);
+    }
+
+    @Test
+    public void single_pointer_never_scales() {
+        detector.onTouchEvent(event(MotionEvent.ACTION_DOWN, 100, 100));
+        detector.onTouchEvent(event(MotionEvent.ACTION_MOVE, 200, 200));
+        detector.onTouchEvent(event(MotionEvent.ACTION_UP, 200, 200));
+        assertFalse(detector.isInProgress());
+        assertEquals(0, listener.begins);
+        assertEquals(0, listener.scales);
+    }
+
+    @Test
+    public void lifting_second_pointer_ends_gesture() {
+        detector.onTouchEvent(event(MotionEvent.ACTION_DOWN, 100, 100));
+        detector.onTouchEvent(event(SECOND_POINTER_DOWN, 100, 100, 200, 100));
+        detector.onTouchEvent(event(SECOND_POINTER_UP, 100, 100, 200, 100));
+        assertFalse(detector.isInProgress());
+        assertEquals(1, listener.ends);
+
+        // the remaining finger must not scale
+        detector.onTouchEvent(event(MotionEvent.ACTION_MOVE, 300, 100));
+        assertEquals(0, listener.scales);
+    }
+
+    private static MotionEvent event(int action, float x, float y) {
+        return MotionEvent.obtain(0, 0, action, x, y, 0);
+    }
+
+    private static MotionEvent event(int action, float x0, float y0, float x1, float y1) {
+        MotionEvent event = MotionEvent.obtain(0, 0, action, x0, y0, 0);
+        shadowOf(event).setPointer2(x1, y1);
+        return event;
+    }
+
+    private static class RecordingListener implements ScaleGestureHandler.OnScaleListener {
+        int begins;
+        int scales;
+        int ends;
+        float scaleX;
+        float scaleY;
+        float focusX;
+        float focusY;
+
+        @Override
+        public boolean onScaleBegin(float focusX, float focusY) {
+            begins++;
+            return true;
+        }
+
+        @Override
+        public boolean onScale(float scaleX, float scaleY, float focusX, float focusY) {
+            scales++;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+            this.focusX = focusX;
+            this.focusY = focusY;
+            return true;
+        }
+
+        @Override
+        public void onScaleEnd() {
+            ends++;
+        }
+    }
+}
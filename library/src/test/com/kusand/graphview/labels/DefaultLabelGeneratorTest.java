@@ -2,6 +2,8 @@ package com.kusand.graphview.labels;
 
 import org.junit.Test;
 
+import com.kusand.graphview.axis.AxisTransform;
+
 import static junit.framework.Assert.assertEquals;
 
 public class DefaultLabelGeneratorTest {
@@ -36,4 +38,16 @@ public class DefaultLabelGeneratorTest {
             assertEquals(labels[i], EXPECTED_DEFAULT_ZERO_TO_ONE_LABELS[i]);
         }
     }
+
+    @Test
+    public void log_labels_are_placed_evenly_in_the_transformed_space() {
+        DefaultLabelGenerator testGenerator = new DefaultLabelGenerator(DEFAULT_SPACING);
+        testGenerator.setTransform(AxisTransform.LOG10);
+        String[] labels = testGenerator.generateLabels(DEFAULT_WIDTH, 1, 10000);
+        String[] expected = {"1", "10", "100", "1,000", "10,000"};
+        assertEquals(expected.length, labels.length);
+        for(int i = 0; i < labels.length; i++) {
+            assertEquals(expected[i], labels[i]);
+        }
+    }
 }
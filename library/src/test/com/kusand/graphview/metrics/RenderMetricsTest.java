@@ -0,0 +1,70 @@
+package com.kusand.graphview.metrics;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+
+public class RenderMetricsTest {
+
+    @Test
+    public void percentiles_use_nearest_rank() {
+        RollingHistogram histogram = new RollingHistogram(100);
+        for (int i = 100; i >= 1; i--) {
+            histogram.record(i);
+        }
+        assertEquals(50, histogram.getP50());
+        assertEquals(99, histogram.getP99());
+        assertEquals(100, histogram.getMax());
+    }
+
+    @Test
+    public void histogram_only_keeps_the_window() {
+        RollingHistogram histogram = new RollingHistogram(4);
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertEquals(4, histogram.getCount());
+        assertEquals(8, histogram.getP50());
+        assertEquals(10, histogram.getMax());
+    }
+
+    @Test
+    public void disabled_metrics_record_nothing() {
+        RenderMetrics metrics = new RenderMetrics();
+        long start = metrics.begin();
+        assertEquals(0, start);
+        metrics.end(RenderMetrics.Stage.SERIES, start);
+        metrics.count(RenderMetrics.Counter.POINTS, 10);
+        metrics.endFrame(start);
+        assertEquals(0, metrics.getFrames());
+        assertEquals(0, metrics.getHistogram(RenderMetrics.Stage.SERIES).getCount());
+        assertEquals(0, metrics.getTotalCount(RenderMetrics.Counter.POINTS));
+    }
+
+    @Test
+    public void counters_are_collected_per_frame() {
+        final int[] notified = new int[1];
+        RenderMetrics metrics = new RenderMetrics();
+        metrics.setEnabled(true);
+        metrics.addOnFrameListener(new RenderMetrics.OnFrameListener() {
+            @Override
+            public void onFrame(RenderMetrics metrics) {
+                notified[0]++;
+            }
+        });
+
+        long start = metrics.begin();
+        metrics.count(RenderMetrics.Counter.POINTS, 10);
+        metrics.count(RenderMetrics.Counter.POINTS, 5);
+        metrics.endFrame(start);
+        start = metrics.begin();
+        metrics.count(RenderMetrics.Counter.POINTS, 1);
+        metrics.endFrame(start);
+
+        assertEquals(2, notified[0]);
+        assertEquals(2, metrics.getFrames());
+        assertEquals(1, metrics.getLastFrameCount(RenderMetrics.Counter.POINTS));
+        assertEquals(16, metrics.getTotalCount(RenderMetrics.Counter.POINTS));
+        assertEquals(2, metrics.getHistogram(RenderMetrics.Stage.FRAME).getCount());
+    }
+}
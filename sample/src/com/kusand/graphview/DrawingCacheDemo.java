@@ -0,0 +1,89 @@
+package com.kusand.graphview;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.kusand.graphview.GraphView.DrawingCacheMode;
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.metrics.RenderMetrics;
+
+/**
+ * Compares the frame times with and without the recorded static layer.
+ * Scroll the graph and switch the drawing cache mode, the p50/p99 frame times are shown above the graph.
+ */
+public class DrawingCacheDemo extends Activity {
+	private static final int VALUES = 5000;
+
+	private LineGraphView graphView;
+	private RenderMetrics metrics;
+	private TextView metricsText;
+	private Button modeButton;
+
+	@Override
+	public void onCreate(Bundle savedInstanceState) {
+		super.onCreate(savedInstanceState);
+		LinearLayout layout = new LinearLayout(this);
+		layout.setOrientation(LinearLayout.VERTICAL);
+
+		modeButton = new Button(this);
+		modeButton.setOnClickListener(new View.OnClickListener() {
+			@Override
+			public void onClick(View v) {
+				DrawingCacheMode mode = graphView.getDrawingCacheMode() == DrawingCacheMode.NONE
+						? DrawingCacheMode.PICTURE : DrawingCacheMode.NONE;
+				graphView.setDrawingCacheMode(mode);
+				metrics.reset();
+				updateTexts();
+			}
+		});
+		layout.addView(modeButton);
+
+		metricsText = new TextView(this);
+		layout.addView(metricsText);
+
+		graphView = new LineGraphView(this);
+		graphView.setTitle("DrawingCacheDemo");
+		GraphViewData[] data = new GraphViewData[VALUES];
+		for (int i = 0; i < VALUES; i++) {
+			data[i] = new GraphViewData(i, Math.sin(i * 0.05) + Math.sin(i * 0.011) * 2);
+		}
+		graphView.addSeries(new GraphViewSeries(data));
+		graphView.setViewPort(0, 500);
+		graphView.setScrollable(true);
+		graphView.setScalable(true);
+		// streaming-like data does not move the vertical labels for small changes
+		graphView.setAutoScaleYPadding(0.5);
+
+		metrics = new RenderMetrics();
+		metrics.setEnabled(true);
+		metrics.addOnFrameListener(new RenderMetrics.OnFrameListener() {
+			@Override
+			public void onFrame(RenderMetrics metrics) {
+				if (metrics.getFrames() % 30 == 0) {
+					updateTexts();
+				}
+			}
+		});
+		graphView.setRenderMetrics(metrics);
+		layout.addView(graphView, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 0, 1));
+
+		setContentView(layout);
+		updateTexts();
+	}
+
+	private void updateTexts() {
+		modeButton.setText("drawing cache: " + graphView.getDrawingCacheMode());
+		metricsText.setText("frames=" + metrics.getFrames()
+				+ " frame p50=" + millis(metrics.getHistogram(RenderMetrics.Stage.FRAME).getP50())
+				+ " p99=" + millis(metrics.getHistogram(RenderMetrics.Stage.FRAME).getP99())
+				+ " draw calls=" + metrics.getLastFrameCount(RenderMetrics.Counter.DRAW_CALLS));
+	}
+
+	private static String millis(long nanos) {
+		return (nanos / 10000) / 100d + "ms";
+	}
+}
@@ -0,0 +1,13 @@
+package com.kusand.graphview.perf;
+
+/**
+ * Counts the allocations of the current thread while a scenario runs.
+ */
+public interface AllocationCounter {
+	void start();
+
+	/**
+	 * @return allocated bytes since {@link #start()}, -1 if not supported
+	 */
+	long stop();
+}
@@ -0,0 +1,20 @@
+package com.kusand.graphview.perf;
+
+import android.os.Debug;
+
+/**
+ * Counts the allocations of the UI thread on the device with {@link Debug}.
+ */
+public class DebugAllocationCounter implements AllocationCounter {
+	@Override
+	public void start() {
+		Debug.resetThreadAllocSize();
+		Debug.startAllocCounting();
+	}
+
+	@Override
+	public long stop() {
+		Debug.stopAllocCounting();
+		return Debug.getThreadAllocSize();
+	}
+}
@@ -0,0 +1,91 @@
+package com.kusand.graphview.perf;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.view.View;
+
+import com.kusand.graphview.GraphView;
+import com.kusand.graphview.metrics.RenderMetrics;
+
+/**
+ * Runs scenarios without a window: the graph is laid out with a fixed size and drawn into the given canvas.
+ * Use a canvas without a bitmap to measure the work of the graph without rasterization.
+ *
+ * onDraw is called directly, because View.draw doesn't reach it under Robolectric.
+ */
+public class HeadlessPerfRunner {
+	private final Context context;
+	private final int width;
+	private final int height;
+	private final Canvas canvas;
+	private final AllocationCounter allocationCounter;
+	private final Method onDraw;
+
+	/**
+	 * @param allocationCounter null if allocations are not counted
+	 */
+	public HeadlessPerfRunner(Context context, int width, int height, Canvas canvas, AllocationCounter allocationCounter) {
+		this.context = context;
+		this.width = width;
+		this.height = height;
+		this.canvas = canvas;
+		this.allocationCounter = allocationCounter;
+		try {
+			onDraw = View.class.getDeclaredMethod("onDraw", Canvas.class);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+		onDraw.setAccessible(true);
+	}
+
+	public PerfRecorder run(PerfScenario scenario) {
+		GraphView graphView = scenario.createGraph(context);
+		graphView.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+				View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+		graphView.layout(0, 0, width, height);
+		// counts the drawn points and draw calls, so a run that draws nothing is noticed
+		RenderMetrics metrics = new RenderMetrics(scenario.getFrames());
+		metrics.setEnabled(true);
+		graphView.setRenderMetrics(metrics);
+
+		PerfRecorder recorder = new PerfRecorder(scenario, allocationCounter);
+		recorder.start();
+		for (int frame = 0; frame < scenario.getFrames(); frame++) {
+			long start = System.nanoTime();
+			scenario.beforeFrame(graphView, frame);
+			draw(graphView);
+			recorder.recordFrame(System.nanoTime() - start, metrics.getLastFrameCount(RenderMetrics.Counter.POINTS),
+					metrics.getLastFrameCount(RenderMetrics.Counter.DRAW_CALLS));
+		}
+		recorder.stop();
+		return recorder;
+	}
+
+	private void draw(GraphView graphView) {
+		try {
+			onDraw.invoke(graphView, canvas);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * runs all scenarios of {@link PerfScenarios#all()}
+	 * @return one summary line per scenario
+	 */
+	public String runAll() {
+		StringBuilder sb = new StringBuilder();
+		for (PerfScenario scenario : PerfScenarios.all()) {
+			sb.append(run(scenario).getSummary()).append('\n');
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,105 @@
+package com.kusand.graphview.perf;
+
+import com.kusand.graphview.metrics.RollingHistogram;
+
+/**
+ * Records the frame times and allocations of one scenario run and prints a summary in the same format
+ * on the device and headless, so runs can be compared.
+ */
+public class PerfRecorder {
+	private final String name;
+	private final RollingHistogram frameTimes;
+	private final AllocationCounter allocationCounter;
+	private long totalNanos;
+	private int frames;
+	private long points;
+	private long drawCalls;
+	private long allocatedBytes = -1;
+
+	/**
+	 * @param allocationCounter null if allocations are not counted
+	 */
+	public PerfRecorder(PerfScenario scenario, AllocationCounter allocationCounter) {
+		this.name = scenario.getName();
+		this.frameTimes = new RollingHistogram(scenario.getFrames());
+		this.allocationCounter = allocationCounter;
+	}
+
+	public void start() {
+		if (allocationCounter != null) {
+			allocationCounter.start();
+		}
+	}
+
+	/**
+	 * @param points values passed to drawSeries during the frame
+	 * @param drawCalls draw calls of the frame
+	 */
+	public void recordFrame(long nanos, long points, long drawCalls) {
+		frameTimes.record(nanos);
+		totalNanos += nanos;
+		frames++;
+		this.points += points;
+		this.drawCalls += drawCalls;
+	}
+
+	public void stop() {
+		if (allocationCounter != null) {
+			allocatedBytes = allocationCounter.stop();
+		}
+	}
+
+	public int getFrames() {
+		return frames;
+	}
+
+	/**
+	 * @return drawn points of all frames
+	 */
+	public long getPoints() {
+		return points;
+	}
+
+	/**
+	 * @return draw calls of all frames
+	 */
+	public long getDrawCalls() {
+		return drawCalls;
+	}
+
+	public RollingHistogram getFrameTimes() {
+		return frameTimes;
+	}
+
+	/**
+	 * @return allocated bytes during the run, -1 if unknown
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * @return one line: name, frames, mean/p50/p99/max frame time in ms, points and draw calls per frame and
+	 * allocated KB per frame
+	 */
+	public String getSummary() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(name).append(": frames=").append(frames);
+		sb.append(" mean=").append(millis(frames > 0 ? totalNanos / frames : 0));
+		sb.append(" p50=").append(millis(frameTimes.getP50()));
+		sb.append(" p99=").append(millis(frameTimes.getP99()));
+		sb.append(" max=").append(millis(frameTimes.getMax()));
+		if (frames > 0) {
+			sb.append(" points=").append(points / frames).append("/frame");
+			sb.append(" drawCalls=").append(drawCalls / frames).append("/frame");
+		}
+		if (allocatedBytes >= 0 && frames > 0) {
+			sb.append(" alloc=").append(allocatedBytes / frames / 1024).append("KB/frame");
+		}
+		return sb.toString();
+	}
+
+	private static String millis(long nanos) {
+		return (nanos / 10000) / 100d + "ms";
+	}
+}
@@ -0,0 +1,41 @@
+package com.kusand.graphview.perf;
+
+import android.content.Context;
+
+import com.kusand.graphview.GraphView;
+
+/**
+ * A repeatable workload for a graph: the graph with its data and a script that changes it before every frame.
+ * The same scenario runs on screen in {@link PerfScenarioActivity} and headless with {@link HeadlessPerfRunner}.
+ */
+public abstract class PerfScenario {
+	private final String name;
+	private final int frames;
+
+	protected PerfScenario(String name, int frames) {
+		this.name = name;
+		this.frames = frames;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return number of frames to draw
+	 */
+	public int getFrames() {
+		return frames;
+	}
+
+	/**
+	 * @return the graph with the initial data
+	 */
+	public abstract GraphView createGraph(Context context);
+
+	/**
+	 * changes the graph before a frame is drawn, e.g. appends data or moves the viewport
+	 * @param frame index of the frame, starting at 0
+	 */
+	public abstract void beforeFrame(GraphView graphView, int frame);
+}
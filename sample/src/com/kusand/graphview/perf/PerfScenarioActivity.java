@@ -0,0 +1,114 @@
+package com.kusand.graphview.perf;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.widget.Button;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.kusand.graphview.GraphView;
+import com.kusand.graphview.metrics.RenderMetrics;
+
+/**
+ * Runs all {@link PerfScenarios} on screen, one after the other. The frame time is the time of
+ * {@link GraphView#onDraw(android.graphics.Canvas)} measured with {@link RenderMetrics}.
+ * The summaries are shown and written to the log with the tag "GraphViewPerf".
+ */
+public class PerfScenarioActivity extends Activity {
+	private static final String TAG = "GraphViewPerf";
+
+	private FrameLayout graphContainer;
+	private TextView resultText;
+	private Button runButton;
+	private final StringBuilder results = new StringBuilder();
+
+	private PerfScenario[] scenarios;
+	private int scenarioIndex;
+
+	@Override
+	public void onCreate(Bundle savedInstanceState) {
+		super.onCreate(savedInstanceState);
+		LinearLayout layout = new LinearLayout(this);
+		layout.setOrientation(LinearLayout.VERTICAL);
+
+		runButton = new Button(this);
+		runButton.setText("run perf scenarios");
+		runButton.setOnClickListener(new View.OnClickListener() {
+			@Override
+			public void onClick(View v) {
+				runButton.setEnabled(false);
+				results.setLength(0);
+				resultText.setText("");
+				scenarios = PerfScenarios.all();
+				scenarioIndex = 0;
+				runScenario();
+			}
+		});
+		layout.addView(runButton);
+
+		resultText = new TextView(this);
+		layout.addView(resultText);
+
+		graphContainer = new FrameLayout(this);
+		layout.addView(graphContainer, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 0, 1));
+		setContentView(layout);
+	}
+
+	private void runScenario() {
+		graphContainer.removeAllViews();
+		if (scenarioIndex >= scenarios.length) {
+			runButton.setEnabled(true);
+			return;
+		}
+		final PerfScenario scenario = scenarios[scenarioIndex];
+		final GraphView graphView = scenario.createGraph(this);
+		final PerfRecorder recorder = new PerfRecorder(scenario, new DebugAllocationCounter());
+		RenderMetrics metrics = new RenderMetrics(scenario.getFrames());
+		metrics.setEnabled(true);
+		metrics.addOnFrameListener(new RenderMetrics.OnFrameListener() {
+			private int frame;
+
+			@Override
+			public void onFrame(RenderMetrics metrics) {
+				recorder.recordFrame(metrics.getLastFrameNanos(RenderMetrics.Stage.FRAME),
+						metrics.getLastFrameCount(RenderMetrics.Counter.POINTS),
+						metrics.getLastFrameCount(RenderMetrics.Counter.DRAW_CALLS));
+				frame++;
+				if (frame < scenario.getFrames()) {
+					// change the graph after this frame, the change invalidates it
+					final int next = frame;
+					graphView.post(new Runnable() {
+						@Override
+						public void run() {
+							scenario.beforeFrame(graphView, next);
+						}
+					});
+				} else if (frame == scenario.getFrames()) {
+					recorder.stop();
+					onScenarioFinished(recorder);
+				}
+			}
+		});
+		graphView.setRenderMetrics(metrics);
+		graphContainer.addView(graphView, new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+		recorder.start();
+		scenario.beforeFrame(graphView, 0);
+	}
+
+	private void onScenarioFinished(PerfRecorder recorder) {
+		String summary = recorder.getSummary();
+		Log.i(TAG, summary);
+		results.append(summary).append('\n');
+		resultText.setText(results);
+		scenarioIndex++;
+		graphContainer.post(new Runnable() {
+			@Override
+			public void run() {
+				runScenario();
+			}
+		});
+	}
+}
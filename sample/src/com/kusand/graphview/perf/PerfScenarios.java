@@ -0,0 +1,163 @@
+package com.kusand.graphview.perf;
+
+import android.content.Context;
+
+import com.kusand.graphview.GraphView;
+import com.kusand.graphview.GraphView.GraphViewData;
+import com.kusand.graphview.GraphViewSeries;
+import com.kusand.graphview.LineGraphView;
+
+/**
+ * The perf scenarios of the sample. The data is generated deterministically, so runs are comparable.
+ */
+public final class PerfScenarios {
+	private static final int[] COLORS = {0xff0077cc, 0xffcc0000, 0xff00aa00, 0xffcc7700, 0xff7700cc};
+
+	private PerfScenarios() {
+	}
+
+	/**
+	 * @return all scenarios, in the order they are run
+	 */
+	public static PerfScenario[] all() {
+		return new PerfScenario[] {
+				new StaticSeries(1000000, 60),
+				new Streaming(1000, 600),
+				new ManySeries(50, 2000, 120),
+				new PanZoom(100000, 300)
+		};
+	}
+
+	static double value(int i) {
+		return Math.sin(i * 0.01) * 10 + Math.sin(i * 0.37) * 2;
+	}
+
+	static GraphViewData[] createData(int size, int seed) {
+		GraphViewData[] data = new GraphViewData[size];
+		for (int i = 0; i < size; i++) {
+			data[i] = new GraphViewData(i, value(i + seed * 7919));
+		}
+		return data;
+	}
+
+	/**
+	 * one big static series, all values visible
+	 */
+	static class StaticSeries extends PerfScenario {
+		private final int size;
+
+		StaticSeries(int size, int frames) {
+			super("static " + size + " points", frames);
+			this.size = size;
+		}
+
+		@Override
+		public GraphView createGraph(Context context) {
+			LineGraphView graphView = new LineGraphView(context);
+			graphView.addSeries(new GraphViewSeries(createData(size, 0)));
+			return graphView;
+		}
+
+		@Override
+		public void beforeFrame(GraphView graphView, int frame) {
+			graphView.invalidate();
+		}
+	}
+
+	/**
+	 * appends values at a fixed rate and keeps the last 10 seconds in the viewport, 60 frames per second
+	 */
+	static class Streaming extends PerfScenario {
+		private static final double VIEWPORT_SECONDS = 10;
+		private final int rate;
+		private GraphViewSeries series;
+		private int appended;
+
+		Streaming(int rate, int frames) {
+			super("streaming " + rate + " Hz", frames);
+			this.rate = rate;
+		}
+
+		@Override
+		public GraphView createGraph(Context context) {
+			LineGraphView graphView = new LineGraphView(context);
+			series = new GraphViewSeries(new GraphViewData[] {new GraphViewData(0, value(0))});
+			appended = 1;
+			graphView.addSeries(series);
+			graphView.setViewPort(0, VIEWPORT_SECONDS);
+			graphView.setScrollable(true);
+			graphView.setAutoScaleYPadding(2);
+			return graphView;
+		}
+
+		@Override
+		public void beforeFrame(GraphView graphView, int frame) {
+			int target = (int) ((long) (frame + 1) * rate / 60);
+			while (appended <= target) {
+				series.appendData(new GraphViewData((double) appended / rate, value(appended)), true);
+				appended++;
+			}
+		}
+	}
+
+	/**
+	 * many series in one graph, scrolled slowly
+	 */
+	static class ManySeries extends PerfScenario {
+		private final int seriesCount;
+		private final int size;
+
+		ManySeries(int seriesCount, int size, int frames) {
+			super(seriesCount + " series of " + size + " points", frames);
+			this.seriesCount = seriesCount;
+			this.size = size;
+		}
+
+		@Override
+		public GraphView createGraph(Context context) {
+			LineGraphView graphView = new LineGraphView(context);
+			for (int s = 0; s < seriesCount; s++) {
+				GraphViewSeries.GraphViewStyle style = new GraphViewSeries.GraphViewStyle(COLORS[s % COLORS.length], 2);
+				graphView.addSeries(new GraphViewSeries("series " + s, style, createData(size, s)));
+			}
+			graphView.setViewPort(0, size / 2);
+			return graphView;
+		}
+
+		@Override
+		public void beforeFrame(GraphView graphView, int frame) {
+			graphView.setViewPort((frame * 4) % (size / 2), size / 2);
+			graphView.invalidate();
+		}
+	}
+
+	/**
+	 * continuous pan and zoom, like a user dragging and pinching all the time
+	 */
+	static class PanZoom extends PerfScenario {
+		private final int size;
+
+		PanZoom(int size, int frames) {
+			super("pan/zoom over " + size + " points", frames);
+			this.size = size;
+		}
+
+		@Override
+		public GraphView createGraph(Context context) {
+			LineGraphView graphView = new LineGraphView(context);
+			graphView.addSeries(new GraphViewSeries(createData(size, 0)));
+			graphView.setViewPort(0, size / 10);
+			return graphView;
+		}
+
+		@Override
+		public void beforeFrame(GraphView graphView, int frame) {
+			double phase = frame * 2 * Math.PI / 120;
+			// zooms between 1% and 19% of the data while the center moves back and forth
+			double viewportSize = size * (0.1 + 0.09 * Math.sin(phase * 3));
+			double center = size * (0.5 + 0.4 * Math.sin(phase));
+			graphView.setViewPort(center - viewportSize / 2, viewportSize);
+			graphView.invalidate();
+		}
+	}
+}
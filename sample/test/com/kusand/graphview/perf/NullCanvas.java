@@ -0,0 +1,58 @@
+package com.kusand.graphview.perf;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * Canvas that ignores all drawing, so the headless scenarios measure only the work of the graph.
+ */
+class NullCanvas extends Canvas {
+	@Override
+	public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+	}
+
+	@Override
+	public void drawLines(float[] pts, Paint paint) {
+	}
+
+	@Override
+	public void drawLines(float[] pts, int offset, int count, Paint paint) {
+	}
+
+	@Override
+	public void drawPoints(float[] pts, int offset, int count, Paint paint) {
+	}
+
+	@Override
+	public void drawPath(Path path, Paint paint) {
+	}
+
+	@Override
+	public void drawText(String text, float x, float y, Paint paint) {
+	}
+
+	@Override
+	public void drawRect(RectF rect, Paint paint) {
+	}
+
+	@Override
+	public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+	}
+
+	@Override
+	public void drawCircle(float cx, float cy, float radius, Paint paint) {
+	}
+
+	@Override
+	public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+	}
+
+	@Override
+	public void drawPicture(Picture picture) {
+	}
+}
@@ -0,0 +1,30 @@
+package com.kusand.graphview.perf;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Runs the perf scenarios headless and prints the summaries. Only runs with -Pperf.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PerfScenariosTest {
+
+    @Test
+    public void run_all_scenarios_headless() {
+        HeadlessPerfRunner runner = new HeadlessPerfRunner(Robolectric.application, 800, 480,
+                new NullCanvas(), new ThreadAllocationCounter());
+        for (PerfScenario scenario : PerfScenarios.all()) {
+            PerfRecorder recorder = runner.run(scenario);
+            System.out.println(recorder.getSummary());
+            assertEquals(scenario.getFrames(), recorder.getFrames());
+            // the frames have really been drawn
+            assertTrue(scenario.getName(), recorder.getPoints() > 0);
+            assertTrue(scenario.getName(), recorder.getDrawCalls() > 0);
+        }
+    }
+}
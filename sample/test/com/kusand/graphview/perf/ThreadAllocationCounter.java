@@ -0,0 +1,42 @@
+package com.kusand.graphview.perf;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counts the allocated bytes of the current thread with the allocation counter of the HotSpot JVM.
+ */
+class ThreadAllocationCounter implements AllocationCounter {
+	private final com.sun.management.ThreadMXBean threadBean;
+	private long start;
+
+	ThreadAllocationCounter() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			threadBean = (com.sun.management.ThreadMXBean) bean;
+			threadBean.setThreadAllocatedMemoryEnabled(true);
+		} else {
+			// not a HotSpot JVM, allocations are not counted
+			threadBean = null;
+		}
+	}
+
+	@Override
+	public void start() {
+		start = allocatedBytes();
+	}
+
+	@Override
+	public long stop() {
+		long end = allocatedBytes();
+		return start < 0 || end < 0 ? -1 : end - start;
+	}
+
+	private long allocatedBytes() {
+		if (threadBean == null) {
+			return -1;
+		}
+		return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}